@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.api;
+
+/**
+ * Available ordering guarantees of the callbacks which are executed asynchronously.
+ */
+public enum CallbackOrdering {
+
+    /**
+     * The callbacks may be executed in any order.
+     */
+    NONE,
+
+    /**
+     * The callbacks of requests to the same host are executed one at a time, in the order the
+     * pages were processed.
+     */
+    PER_HOST,
+
+    /**
+     * All the callbacks are executed one at a time, in the order the pages were processed.
+     */
+    GLOBAL
+}
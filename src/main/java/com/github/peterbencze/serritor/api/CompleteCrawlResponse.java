@@ -16,35 +16,113 @@
 
 package com.github.peterbencze.serritor.api;
 
-import net.lightbody.bmp.core.har.HarResponse;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.commons.lang3.Validate;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
 import org.openqa.selenium.WebDriver;
 
 /**
  * Represents a complete crawl response that provides access to the HTTP header information and the
- * {@link WebDriver} instance to interact with the browser.
+ * {@link WebDriver} instance to interact with the browser. When the callbacks are executed
+ * asynchronously, the response contains a snapshot of the page instead of the browser.
  */
 public final class CompleteCrawlResponse extends PartialCrawlResponse {
 
     private final WebDriver webDriver;
+    private final Map<String, PartialCrawlResponse> subresourceResponses;
+    private final String pageSource;
+    private final String pageUrl;
+
+    private Document documentSnapshot;
 
     /**
-     * Creates a {@link CompleteCrawlResponse} instance from an HAR capture.
+     * Creates a {@link CompleteCrawlResponse} instance.
      *
-     * @param harResponse the har capture
-     * @param webDriver   the <code>WebDriver</code> instance
+     * @param response             the response of the main document of the page
+     * @param subresourceResponses the responses of the subresources of the page, keyed by the
+     *                             request URL
+     * @param webDriver            the <code>WebDriver</code> instance
      */
-    public CompleteCrawlResponse(final HarResponse harResponse, final WebDriver webDriver) {
-        super(harResponse);
+    public CompleteCrawlResponse(
+            final PartialCrawlResponse response,
+            final Map<String, PartialCrawlResponse> subresourceResponses,
+            final WebDriver webDriver) {
+        super(response.getStatusCode(), response.getStatusText(), response.getAllHeaders());
 
+        this.subresourceResponses = subresourceResponses;
         this.webDriver = webDriver;
+        pageSource = null;
+        pageUrl = null;
+    }
+
+    /**
+     * Creates a {@link CompleteCrawlResponse} instance which contains a snapshot of the page
+     * instead of the browser.
+     *
+     * @param response             the response of the main document of the page
+     * @param subresourceResponses the responses of the subresources of the page, keyed by the
+     *                             request URL
+     * @param pageSource           the source of the page as rendered by the browser
+     * @param pageUrl              the URL of the page, used to resolve relative URLs
+     */
+    public CompleteCrawlResponse(
+            final PartialCrawlResponse response,
+            final Map<String, PartialCrawlResponse> subresourceResponses,
+            final String pageSource,
+            final String pageUrl) {
+        super(response.getStatusCode(), response.getStatusText(), response.getAllHeaders());
+
+        Validate.notNull(pageSource, "The pageSource parameter cannot be null");
+        Validate.notNull(pageUrl, "The pageUrl parameter cannot be null");
+
+        this.subresourceResponses = subresourceResponses;
+        this.pageSource = pageSource;
+        this.pageUrl = pageUrl;
+        webDriver = null;
     }
 
     /**
      * Returns the <code>WebDriver</code> instance to interact with the browser.
      *
      * @return the <code>WebDriver</code> instance
+     *
+     * @throws IllegalStateException if the response only contains a snapshot of the page
      */
     public WebDriver getWebDriver() {
+        Validate.validState(webDriver != null,
+                "The browser is not accessible when the callbacks are executed asynchronously");
+
         return webDriver;
     }
+
+    /**
+     * Returns the snapshot of the page taken right after it was loaded in the browser, if the
+     * response contains one. The snapshot is parsed on first access.
+     *
+     * @return the parsed HTML document of the page snapshot
+     */
+    public synchronized Optional<Document> getDocumentSnapshot() {
+        if (pageSource == null) {
+            return Optional.empty();
+        }
+
+        if (documentSnapshot == null) {
+            documentSnapshot = Jsoup.parse(pageSource, pageUrl);
+        }
+
+        return Optional.of(documentSnapshot);
+    }
+
+    /**
+     * Returns the responses of the subresources (images, scripts, etc.) of the page, keyed by the
+     * request URL. The responses are only captured if the subresource capture is enabled in the
+     * crawler configuration, otherwise the map is empty.
+     *
+     * @return the responses of the subresources of the page
+     */
+    public Map<String, PartialCrawlResponse> getSubresourceResponses() {
+        return subresourceResponses;
+    }
 }
@@ -16,7 +16,12 @@
 
 package com.github.peterbencze.serritor.api;
 
+import com.github.peterbencze.serritor.internal.util.BinaryCodec;
 import com.google.common.net.InternetDomainName;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.net.URI;
 import java.util.Optional;
@@ -28,6 +33,8 @@ import org.apache.commons.lang3.builder.ToStringStyle;
  */
 public final class CrawlCandidate implements Serializable {
 
+    private static final long serialVersionUID = 1L;
+
     private final URI refererUrl;
     private final int crawlDepth;
     private final CrawlRequest crawlRequest;
@@ -108,6 +115,28 @@ public final class CrawlCandidate implements Serializable {
                 .toString();
     }
 
+    /**
+     * Replaces the candidate with its serialization proxy, which writes it in the compact binary
+     * format of {@link BinaryCodec}.
+     *
+     * @return the serialization proxy of the candidate
+     */
+    private Object writeReplace() {
+        return new SerializationProxy(this);
+    }
+
+    /**
+     * Prevents the deserialization of candidates which were not written by the serialization
+     * proxy.
+     *
+     * @param in the stream to read the object from
+     *
+     * @throws InvalidObjectException always
+     */
+    private void readObject(final ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Serialization proxy required");
+    }
+
     /**
      * Builds {@link CrawlCandidate} instances.
      */
@@ -160,4 +189,50 @@ public final class CrawlCandidate implements Serializable {
             return new CrawlCandidate(this);
         }
     }
+
+    /**
+     * The serialized form of a crawl candidate.
+     */
+    private static final class SerializationProxy implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private transient CrawlCandidate candidate;
+
+        /**
+         * Creates a {@link SerializationProxy} instance.
+         *
+         * @param candidate the crawl candidate to serialize
+         */
+        SerializationProxy(final CrawlCandidate candidate) {
+            this.candidate = candidate;
+        }
+
+        /**
+         * Writes the candidate to the stream in the compact binary format.
+         *
+         * @param out the stream to write the object to
+         */
+        private void writeObject(final ObjectOutputStream out) throws IOException {
+            BinaryCodec.writeCandidate(out, candidate);
+        }
+
+        /**
+         * Reads the candidate from the stream in the compact binary format.
+         *
+         * @param in the stream to read the object from
+         */
+        private void readObject(final ObjectInputStream in) throws IOException {
+            candidate = BinaryCodec.readCandidate(in);
+        }
+
+        /**
+         * Replaces the proxy with the deserialized candidate.
+         *
+         * @return the deserialized candidate
+         */
+        private Object readResolve() {
+            return candidate;
+        }
+    }
 }
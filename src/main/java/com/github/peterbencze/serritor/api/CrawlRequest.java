@@ -17,9 +17,13 @@
 package com.github.peterbencze.serritor.api;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.github.peterbencze.serritor.internal.util.BinaryCodec;
+import com.github.peterbencze.serritor.internal.util.DomainNameCache;
 import com.google.common.net.InternetDomainName;
 import java.io.IOException;
+import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -36,6 +40,8 @@ import org.apache.http.client.utils.URIBuilder;
  */
 public final class CrawlRequest implements Serializable {
 
+    private static final long serialVersionUID = 1L;
+
     private final URI requestUrl;
     private final int priority;
 
@@ -157,7 +163,7 @@ public final class CrawlRequest implements Serializable {
             }
 
             // Extract the domain from the request URL
-            domain = InternetDomainName.from(requestUrl.getHost());
+            domain = DomainNameCache.getDomainName(requestUrl.getHost());
 
             // Set default priority
             priority = DEFAULT_PRIORITY;
@@ -207,9 +213,70 @@ public final class CrawlRequest implements Serializable {
         }
     }
 
-    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
-        in.defaultReadObject();
+    /**
+     * Replaces the request with its serialization proxy, which writes it in the compact binary
+     * format of {@link BinaryCodec}.
+     *
+     * @return the serialization proxy of the request
+     */
+    private Object writeReplace() {
+        return new SerializationProxy(this);
+    }
+
+    /**
+     * Prevents the deserialization of requests which were not written by the serialization proxy.
+     *
+     * @param in the stream to read the object from
+     *
+     * @throws InvalidObjectException always
+     */
+    private void readObject(final ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Serialization proxy required");
+    }
+
+    /**
+     * The serialized form of a crawl request.
+     */
+    private static final class SerializationProxy implements Serializable {
 
-        domain = InternetDomainName.from(requestUrl.getHost());
+        private static final long serialVersionUID = 1L;
+
+        private transient CrawlRequest request;
+
+        /**
+         * Creates a {@link SerializationProxy} instance.
+         *
+         * @param request the crawl request to serialize
+         */
+        SerializationProxy(final CrawlRequest request) {
+            this.request = request;
+        }
+
+        /**
+         * Writes the request to the stream in the compact binary format.
+         *
+         * @param out the stream to write the object to
+         */
+        private void writeObject(final ObjectOutputStream out) throws IOException {
+            BinaryCodec.writeRequest(out, request);
+        }
+
+        /**
+         * Reads the request from the stream in the compact binary format.
+         *
+         * @param in the stream to read the object from
+         */
+        private void readObject(final ObjectInputStream in) throws IOException {
+            request = BinaryCodec.readRequest(in);
+        }
+
+        /**
+         * Replaces the proxy with the deserialized request.
+         *
+         * @return the deserialized request
+         */
+        private Object readResolve() {
+            return request;
+        }
     }
 }
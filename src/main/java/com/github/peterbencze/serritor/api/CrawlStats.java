@@ -19,6 +19,7 @@ package com.github.peterbencze.serritor.api;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.github.peterbencze.serritor.internal.stats.DurationSerializer;
+import com.github.peterbencze.serritor.internal.stats.PerformanceSnapshot;
 import com.github.peterbencze.serritor.internal.stats.StatsCounterSnapshot;
 import java.time.Duration;
 import java.util.Optional;
@@ -34,6 +35,9 @@ import org.apache.commons.lang3.time.DurationFormatUtils;
         "runDuration",
         "crawlRate",
         "remainingDurationEstimate",
+        "throughputLastMinute",
+        "throughputLast5Minutes",
+        "throughputLast15Minutes",
         "remainingCrawlCandidateCount",
         "processedCrawlCandidateCount",
         "responseSuccessCount",
@@ -44,12 +48,19 @@ import org.apache.commons.lang3.time.DurationFormatUtils;
         "networkErrorCount",
         "filteredDuplicateRequestCount",
         "filteredOffsiteRequestCount",
-        "filteredCrawlDepthLimitExceedingRequestCount"
+        "filteredCrawlDepthLimitExceedingRequestCount",
+        "blockedSubresourceCount",
+        "blockedSubresourceByteCount",
+        "headRequestLatency",
+        "pageLoadLatency",
+        "responseCaptureLookupLatency",
+        "callbackLatency"
 })
 public final class CrawlStats {
 
     private final Duration runDuration;
     private final StatsCounterSnapshot statsCounterSnapshot;
+    private final PerformanceSnapshot performanceSnapshot;
 
     // Derived stats
     private final double crawlRate;
@@ -60,10 +71,15 @@ public final class CrawlStats {
      *
      * @param runDuration          the current run duration
      * @param statsCounterSnapshot a snapshot of the stats counter values
+     * @param performanceSnapshot  a snapshot of the throughput and the latencies
      */
-    public CrawlStats(final Duration runDuration, final StatsCounterSnapshot statsCounterSnapshot) {
+    public CrawlStats(
+            final Duration runDuration,
+            final StatsCounterSnapshot statsCounterSnapshot,
+            final PerformanceSnapshot performanceSnapshot) {
         this.runDuration = runDuration;
         this.statsCounterSnapshot = statsCounterSnapshot;
+        this.performanceSnapshot = performanceSnapshot;
 
         // Calculate derived stats
         crawlRate = calculateCrawlRate(runDuration, getProcessedCrawlCandidateCount());
@@ -110,12 +126,42 @@ public final class CrawlStats {
         return Optional.ofNullable(remainingDurationEstimate);
     }
 
+    /**
+     * Returns the number of crawl candidates processed per second in the last minute of the
+     * current run.
+     *
+     * @return the number of crawl candidates processed per second in the last minute
+     */
+    public double getThroughputLastMinute() {
+        return performanceSnapshot.getThroughputLastMinute();
+    }
+
+    /**
+     * Returns the number of crawl candidates processed per second in the last 5 minutes of the
+     * current run.
+     *
+     * @return the number of crawl candidates processed per second in the last 5 minutes
+     */
+    public double getThroughputLast5Minutes() {
+        return performanceSnapshot.getThroughputLast5Minutes();
+    }
+
+    /**
+     * Returns the number of crawl candidates processed per second in the last 15 minutes of the
+     * current run.
+     *
+     * @return the number of crawl candidates processed per second in the last 15 minutes
+     */
+    public double getThroughputLast15Minutes() {
+        return performanceSnapshot.getThroughputLast15Minutes();
+    }
+
     /**
      * Returns the number of remaining crawl candidates.
      *
      * @return the number of remaining crawl candidates
      */
-    public int getRemainingCrawlCandidateCount() {
+    public long getRemainingCrawlCandidateCount() {
         return statsCounterSnapshot.getRemainingCrawlCandidateCount();
     }
 
@@ -124,7 +170,7 @@ public final class CrawlStats {
      *
      * @return the number of processed crawl candidates
      */
-    public int getProcessedCrawlCandidateCount() {
+    public long getProcessedCrawlCandidateCount() {
         return statsCounterSnapshot.getProcessedCrawlCandidateCount();
     }
 
@@ -135,7 +181,7 @@ public final class CrawlStats {
      * @return the number of responses received during the crawl, whose HTTP status code indicated
      *         success (2xx)
      */
-    public int getResponseSuccessCount() {
+    public long getResponseSuccessCount() {
         return statsCounterSnapshot.getResponseSuccessCount();
     }
 
@@ -144,7 +190,7 @@ public final class CrawlStats {
      *
      * @return the number of page load timeouts that occurred during the crawl
      */
-    public int getPageLoadTimeoutCount() {
+    public long getPageLoadTimeoutCount() {
         return statsCounterSnapshot.getPageLoadTimeoutCount();
     }
 
@@ -153,7 +199,7 @@ public final class CrawlStats {
      *
      * @return the number of request redirects that occurred during the crawl.
      */
-    public int getRequestRedirectCount() {
+    public long getRequestRedirectCount() {
         return statsCounterSnapshot.getRequestRedirectCount();
     }
 
@@ -162,7 +208,7 @@ public final class CrawlStats {
      *
      * @return the number of responses received with non-HTML content
      */
-    public int getNonHtmlResponseCount() {
+    public long getNonHtmlResponseCount() {
         return statsCounterSnapshot.getNonHtmlResponseCount();
     }
 
@@ -173,7 +219,7 @@ public final class CrawlStats {
      * @return the number of responses received during the crawl, whose HTTP status code indicated
      *         error (4xx or 5xx)
      */
-    public int getResponseErrorCount() {
+    public long getResponseErrorCount() {
         return statsCounterSnapshot.getResponseErrorCount();
     }
 
@@ -182,7 +228,7 @@ public final class CrawlStats {
      *
      * @return the number of network errors that occurred during the crawl
      */
-    public int getNetworkErrorCount() {
+    public long getNetworkErrorCount() {
         return statsCounterSnapshot.getNetworkErrorCount();
     }
 
@@ -191,7 +237,7 @@ public final class CrawlStats {
      *
      * @return the number of filtered duplicate requests
      */
-    public int getFilteredDuplicateRequestCount() {
+    public long getFilteredDuplicateRequestCount() {
         return statsCounterSnapshot.getFilteredDuplicateRequestCount();
     }
 
@@ -200,7 +246,7 @@ public final class CrawlStats {
      *
      * @return the number of filtered offsite requests
      */
-    public int getFilteredOffsiteRequestCount() {
+    public long getFilteredOffsiteRequestCount() {
         return statsCounterSnapshot.getFilteredOffsiteRequestCount();
     }
 
@@ -209,10 +255,68 @@ public final class CrawlStats {
      *
      * @return the number of filtered crawl depth limit exceeding requests
      */
-    public int getFilteredCrawlDepthLimitExceedingRequestCount() {
+    public long getFilteredCrawlDepthLimitExceedingRequestCount() {
         return statsCounterSnapshot.getFilteredCrawlDepthLimitExceedingRequestCount();
     }
 
+    /**
+     * Returns the number of subresources blocked by the internal proxy server.
+     *
+     * @return the number of blocked subresources
+     */
+    public long getBlockedSubresourceCount() {
+        return statsCounterSnapshot.getBlockedSubresourceCount();
+    }
+
+    /**
+     * Returns the number of bytes saved by blocking subresources. Only the size of the responses
+     * blocked by MIME type is known (from their Content-Length header), the subresources blocked
+     * by file extension or host never reach the network.
+     *
+     * @return the number of bytes saved by blocking subresources
+     */
+    public long getBlockedSubresourceByteCount() {
+        return statsCounterSnapshot.getBlockedSubresourceByteCount();
+    }
+
+    /**
+     * Returns the latencies of the HTTP HEAD requests sent in the current run.
+     *
+     * @return the latencies of the HTTP HEAD requests
+     */
+    public LatencyStats getHeadRequestLatency() {
+        return performanceSnapshot.getHeadRequestLatency();
+    }
+
+    /**
+     * Returns the time it took to load the pages in the browser (or to fetch the static pages
+     * over HTTP) in the current run.
+     *
+     * @return the latencies of the page loads
+     */
+    public LatencyStats getPageLoadLatency() {
+        return performanceSnapshot.getPageLoadLatency();
+    }
+
+    /**
+     * Returns the time it took to look up the captured responses of the main documents in the
+     * current run.
+     *
+     * @return the latencies of the captured response lookups
+     */
+    public LatencyStats getResponseCaptureLookupLatency() {
+        return performanceSnapshot.getResponseCaptureLookupLatency();
+    }
+
+    /**
+     * Returns the time it took to run the callbacks in the current run.
+     *
+     * @return the latencies of the callbacks
+     */
+    public LatencyStats getCallbackLatency() {
+        return performanceSnapshot.getCallbackLatency();
+    }
+
     /**
      * Returns a string representation of the statistics.
      *
@@ -227,6 +331,9 @@ public final class CrawlStats {
                 .append("remainingDurationEstimate",
                         DurationFormatUtils.formatDurationWords(
                                 remainingDurationEstimate.toMillis(), true, true))
+                .append("throughputLastMinute", getThroughputLastMinute())
+                .append("throughputLast5Minutes", getThroughputLast5Minutes())
+                .append("throughputLast15Minutes", getThroughputLast15Minutes())
                 .append("remainingCrawlCandidateCount", getRemainingCrawlCandidateCount())
                 .append("processedCrawlCandidateCount", getProcessedCrawlCandidateCount())
                 .append("responseSuccessCount", getResponseSuccessCount())
@@ -239,6 +346,12 @@ public final class CrawlStats {
                 .append("filteredOffsiteRequestCount", getFilteredOffsiteRequestCount())
                 .append("filteredCrawlDepthLimitExceedingRequestCount",
                         getFilteredCrawlDepthLimitExceedingRequestCount())
+                .append("blockedSubresourceCount", getBlockedSubresourceCount())
+                .append("blockedSubresourceByteCount", getBlockedSubresourceByteCount())
+                .append("headRequestLatency", getHeadRequestLatency())
+                .append("pageLoadLatency", getPageLoadLatency())
+                .append("responseCaptureLookupLatency", getResponseCaptureLookupLatency())
+                .append("callbackLatency", getCallbackLatency())
                 .toString();
     }
 
@@ -252,7 +365,7 @@ public final class CrawlStats {
      */
     private static double calculateCrawlRate(
             final Duration runDuration,
-            final int processedCrawlCandidateCount) {
+            final long processedCrawlCandidateCount) {
         long runDurationInMinutes = runDuration.toMinutes();
         if (runDurationInMinutes == 0) {
             return processedCrawlCandidateCount;
@@ -271,10 +384,11 @@ public final class CrawlStats {
      */
     private static Duration calculateRemainingDurationEstimate(
             final double crawlRate,
-            final int remainingCrawlCandidateCount) {
+            final long remainingCrawlCandidateCount) {
         Validate.finite(crawlRate, "The crawlRate parameter must be finite.");
         Validate.isTrue(crawlRate > 0, "The crawlRate parameter must be larger than 0.");
 
-        return Duration.ofMinutes((long) Math.ceil(remainingCrawlCandidateCount / crawlRate));
+        long remainingMinutes = (long) Math.ceil(remainingCrawlCandidateCount / crawlRate);
+        return Duration.ofMinutes(Math.max(remainingMinutes, 0));
     }
 }
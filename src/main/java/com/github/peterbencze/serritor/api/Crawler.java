@@ -24,29 +24,65 @@ import com.github.peterbencze.serritor.api.event.PageLoadTimeoutEvent;
 import com.github.peterbencze.serritor.api.event.RequestRedirectEvent;
 import com.github.peterbencze.serritor.api.event.ResponseErrorEvent;
 import com.github.peterbencze.serritor.api.event.ResponseSuccessEvent;
+import com.github.peterbencze.serritor.api.event.StaticResponseErrorEvent;
+import com.github.peterbencze.serritor.api.event.StaticResponseSuccessEvent;
+import com.github.peterbencze.serritor.api.helper.UrlFinder;
+import com.github.peterbencze.serritor.internal.AsyncCallbackExecutor;
 import com.github.peterbencze.serritor.internal.CrawlEvent;
 import com.github.peterbencze.serritor.internal.CrawlFrontier;
 import com.github.peterbencze.serritor.internal.CustomCallbackManager;
+import com.github.peterbencze.serritor.internal.MimeTypeCache;
 import com.github.peterbencze.serritor.internal.WebDriverFactory;
+import com.github.peterbencze.serritor.internal.blocking.SubresourceBlocker;
+import com.github.peterbencze.serritor.internal.browserpool.BrowserPool;
+import com.github.peterbencze.serritor.internal.capture.CapturedResponse;
+import com.github.peterbencze.serritor.internal.capture.ResponseCapture;
+import com.github.peterbencze.serritor.internal.checkpoint.CheckpointJournal;
+import com.github.peterbencze.serritor.internal.checkpoint.CheckpointSnapshot;
 import com.github.peterbencze.serritor.internal.crawldelaymechanism.AdaptiveCrawlDelayMechanism;
 import com.github.peterbencze.serritor.internal.crawldelaymechanism.CrawlDelayMechanism;
 import com.github.peterbencze.serritor.internal.crawldelaymechanism.FixedCrawlDelayMechanism;
 import com.github.peterbencze.serritor.internal.crawldelaymechanism.RandomCrawlDelayMechanism;
+import com.github.peterbencze.serritor.internal.duplicatefilter.FingerprintSetFactory;
+import com.github.peterbencze.serritor.internal.stats.MetricsExporter;
+import com.github.peterbencze.serritor.internal.stats.PerformanceMonitor;
 import com.github.peterbencze.serritor.internal.stats.StatsCounter;
+import com.github.peterbencze.serritor.internal.stats.StatsCounterSnapshot;
 import com.github.peterbencze.serritor.internal.util.CookieConverter;
 import com.github.peterbencze.serritor.internal.util.stopwatch.Stopwatch;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import net.lightbody.bmp.BrowserMobProxyServer;
 import net.lightbody.bmp.client.ClientUtil;
-import net.lightbody.bmp.core.har.HarResponse;
+import net.lightbody.bmp.filters.util.HarCaptureUtil;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.http.Header;
@@ -64,12 +100,15 @@ import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.eclipse.jetty.http.HttpStatus;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.MutableCapabilities;
 import org.openqa.selenium.Proxy;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebDriver.Options;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.remote.CapabilityType;
 import org.openqa.selenium.remote.DesiredCapabilities;
 import org.slf4j.Logger;
@@ -82,10 +121,19 @@ import org.slf4j.LoggerFactory;
 public abstract class Crawler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Crawler.class);
+    private static final int MAX_CONNECTIONS_PER_ROUTE_PER_WORKER = 2;
+    private static final int MAX_TOTAL_CONNECTIONS_PER_WORKER = 20;
+    private static final long CHECKPOINT_SHUTDOWN_TIMEOUT_IN_MINUTES = 1;
+    private static final ThreadFactory STATE_SNAPSHOT_WRITER_THREAD_FACTORY =
+            new ThreadFactoryBuilder()
+                    .setNameFormat("state-snapshot-writer-%d")
+                    .setDaemon(true)
+                    .build();
 
     private final CrawlerConfiguration config;
     private final Stopwatch runTimeStopwatch;
     private final StatsCounter statsCounter;
+    private final PerformanceMonitor performanceMonitor;
     private final CrawlFrontier crawlFrontier;
     private final CustomCallbackManager callbackManager;
     private final AtomicBoolean isStopped;
@@ -93,9 +141,11 @@ public abstract class Crawler {
 
     private BasicCookieStore cookieStore;
     private CloseableHttpClient httpClient;
-    private BrowserMobProxyServer proxyServer;
-    private WebDriver webDriver;
-    private CrawlDelayMechanism crawlDelayMechanism;
+    private List<CrawlWorker> workers;
+    private MimeTypeCache mimeTypeCache;
+    private CheckpointJournal checkpointJournal;
+    private ScheduledExecutorService checkpointExecutor;
+    private AsyncCallbackExecutor callbackExecutor;
 
     /**
      * Base constructor which sets up the crawler with the provided configuration.
@@ -121,6 +171,7 @@ public abstract class Crawler {
         crawlFrontier = state.getStateObject(CrawlFrontier.class)
                 .orElseGet(() -> new CrawlFrontier(config, statsCounter));
 
+        performanceMonitor = new PerformanceMonitor();
         callbackManager = new CustomCallbackManager();
 
         isStopInitiated = new AtomicBoolean(false);
@@ -142,7 +193,8 @@ public abstract class Crawler {
      * @return summary statistics about the crawl progress
      */
     public final CrawlStats getCrawlStats() {
-        return new CrawlStats(runTimeStopwatch.getElapsedDuration(), statsCounter.getSnapshot());
+        return new CrawlStats(runTimeStopwatch.getElapsedDuration(), statsCounter.getSnapshot(),
+                performanceMonitor.getSnapshot());
     }
 
     /**
@@ -192,26 +244,37 @@ public abstract class Crawler {
             LOGGER.debug("Using configuration: {}", config);
 
             isStopped.set(false);
+
+            if (config.getCheckpointDirectory() != null) {
+                openCheckpointJournal(isResuming);
+            }
+
             runTimeStopwatch.start();
+            performanceMonitor.reset();
 
-            if (!isResuming) {
+            if (isResuming) {
+                countUncountedCandidates();
+            } else {
                 crawlFrontier.reset();
                 statsCounter.reset();
                 config.getCrawlSeeds().forEach(request -> crawlFrontier.feedRequest(request, true));
             }
 
+            int workerCount = config.getWorkerCount();
+
             cookieStore = new BasicCookieStore();
             HttpClientBuilder httpClientBuilder = HttpClientBuilder.create()
                     .disableRedirectHandling()
-                    .setDefaultCookieStore(cookieStore);
+                    .setDefaultCookieStore(cookieStore)
+                    .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE_PER_WORKER * workerCount)
+                    .setMaxConnTotal(MAX_TOTAL_CONNECTIONS_PER_WORKER * workerCount);
 
             // Create a copy of the original capabilities before we make changes to it (we don't
             // want to cause any unwanted side effects)
             MutableCapabilities capabilitiesClone = new MutableCapabilities(capabilities);
 
-            proxyServer = new BrowserMobProxyServer();
-
-            // If a user-defined proxy is set, chain it to our internal one
+            // If a user-defined proxy is set, chain it to our internal ones
+            InetSocketAddress chainedProxyAddress = null;
             Proxy proxyCapability = (Proxy) capabilitiesClone.getCapability(CapabilityType.PROXY);
             if (proxyCapability != null && proxyCapability.getHttpProxy() != null) {
                 HttpHost proxyHost = HttpHost.create(proxyCapability.getHttpProxy());
@@ -221,60 +284,58 @@ public abstract class Crawler {
                 LOGGER.debug("Using chained HTTP proxy with address {}:{}", hostname, port);
 
                 httpClientBuilder.setProxy(proxyHost);
-                proxyServer.setChainedProxy(new InetSocketAddress(hostname, port));
+                chainedProxyAddress = new InetSocketAddress(hostname, port);
             }
 
-            // The internal proxy server must be started before creating the Selenium proxy
-            // because the port is dynamically chosen by the server when it starts
-            proxyServer.start();
-            LOGGER.debug("Internal proxy server started on port {}", proxyServer.getPort());
-
-            // Set our internal proxy
-            capabilitiesClone.setCapability(CapabilityType.PROXY,
-                    ClientUtil.createSeleniumProxy(proxyServer));
-
             httpClient = httpClientBuilder.build();
 
-            LOGGER.debug("Starting {} browser", browser);
-            webDriver = WebDriverFactory.createWebDriver(browser, capabilitiesClone);
+            // The learned MIME types are not part of the state, they are relearned on resume
+            mimeTypeCache = config.isHeadRequestSkippingEnabled() ? new MimeTypeCache() : null;
+
+            if (config.isAsyncCallbackExecutionEnabled()) {
+                // A failing callback stops the crawl, just like when it is called by a worker
+                callbackExecutor = new AsyncCallbackExecutor(config.getCallbackThreadCount(),
+                        config.getCallbackQueueCapacity(), config.getCallbackOrdering(),
+                        failure -> {
+                            isStopInitiated.set(true);
+                            crawlFrontier.signalWaitingThreads();
+                        });
+            }
 
-            LOGGER.debug("Calling onBrowserInit callback");
-            onBrowserInit(webDriver.manage());
+            workers = new ArrayList<>(workerCount);
+            for (int i = 0; i < workerCount; i++) {
+                CrawlWorker worker = new CrawlWorker();
+                workers.add(worker);
 
-            // If the crawl delay strategy is set to adaptive, we check if the browser supports the
-            // Navigation Timing API or not. However HtmlUnit requires a page to be loaded first
-            // before executing JavaScript, so we load a blank page.
-            if (Browser.HTML_UNIT.equals(browser)
-                    && CrawlDelayStrategy.ADAPTIVE.equals(config.getCrawlDelayStrategy())) {
-                webDriver.get(WebClient.ABOUT_BLANK);
+                worker.init(browser, capabilitiesClone, chainedProxyAddress);
             }
 
-            // Must be created here (the adaptive crawl delay strategy depends on the WebDriver)
-            crawlDelayMechanism = createCrawlDelayMechanism();
-
             LOGGER.debug("Calling onStart callback");
             onStart();
 
             run();
+            awaitCallbacks();
         } finally {
             LOGGER.debug("Crawler is stopping");
 
             try {
+                if (callbackExecutor != null) {
+                    callbackExecutor.shutdown();
+                }
+
                 LOGGER.debug("Calling onStop callback");
                 onStop();
             } finally {
                 HttpClientUtils.closeQuietly(httpClient);
 
-                if (webDriver != null) {
-                    LOGGER.debug("Closing browser");
-                    webDriver.quit();
+                if (workers != null) {
+                    workers.forEach(Crawler::shutdownWorkerQuietly);
                 }
 
-                if (proxyServer != null && proxyServer.isStarted()) {
-                    LOGGER.debug("Stopping proxy server");
-                    proxyServer.stop();
-                }
+                closeCheckpointJournal();
+                crawlFrontier.close();
 
+                callbackExecutor = null;
                 runTimeStopwatch.stop();
 
                 isStopInitiated.set(false);
@@ -284,7 +345,131 @@ public abstract class Crawler {
     }
 
     /**
-     * Returns the current state of the crawler.
+     * Opens the checkpoint journal and schedules the periodic checkpoints. When resuming, the
+     * state of the crawler is restored from the checkpoint (if there is any), otherwise the
+     * previous checkpoint is discarded.
+     *
+     * @param isResuming indicates if a previously saved state is to be resumed
+     */
+    private void openCheckpointJournal(final boolean isResuming) {
+        checkpointJournal = new CheckpointJournal(config.getCheckpointDirectory(),
+                () -> FingerprintSetFactory.createFingerprintSet(config));
+
+        if (isResuming) {
+            checkpointJournal.recover().ifPresent(this::restoreCheckpoint);
+        } else {
+            checkpointJournal.clear();
+        }
+
+        checkpointJournal.open();
+        crawlFrontier.setCheckpointJournal(checkpointJournal);
+
+        ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("checkpoint-%d")
+                .setDaemon(true)
+                .build();
+        checkpointExecutor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+
+        long checkpointInterval = config.getCheckpointIntervalInMillis();
+        checkpointExecutor.scheduleWithFixedDelay(this::performCheckpoint, checkpointInterval,
+                checkpointInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Restores the state of the crawler from a checkpoint.
+     *
+     * @param snapshot the snapshot of the checkpoint
+     */
+    private void restoreCheckpoint(final CheckpointSnapshot snapshot) {
+        LOGGER.debug("Restoring crawler state from checkpoint");
+
+        crawlFrontier.restore(snapshot.getUrlFingerprints(), snapshot.getPendingCandidates());
+
+        StatsCounterSnapshot statsSnapshot = snapshot.getStatsCounter()
+                .orElseGet(StatsCounter::new)
+                .getSnapshot();
+        statsCounter.restore(statsSnapshot, snapshot.getPendingCandidateCount());
+
+        runTimeStopwatch.restore(snapshot.getElapsedDuration());
+    }
+
+    /**
+     * Counts the candidates of the crawl frontier as remaining if the stats counter has not
+     * counted any candidates yet. This is the case when a crawler created with only the
+     * configuration resumes a crawl from a persistent crawl frontier store, as the statistics are
+     * not kept in the store.
+     */
+    private void countUncountedCandidates() {
+        StatsCounterSnapshot statsSnapshot = statsCounter.getSnapshot();
+        if (statsSnapshot.getProcessedCrawlCandidateCount() == 0
+                && statsSnapshot.getRemainingCrawlCandidateCount() == 0) {
+            statsCounter.restore(statsSnapshot, crawlFrontier.getCandidateCount());
+        }
+    }
+
+    /**
+     * Takes a checkpoint of the crawler state.
+     */
+    private void performCheckpoint() {
+        try {
+            checkpointJournal.checkpoint(statsCounter, runTimeStopwatch.getElapsedDuration());
+        } catch (RuntimeException exception) {
+            // Do not let the exception cancel the subsequent checkpoints
+            LOGGER.error("Failed to take checkpoint", exception);
+        }
+    }
+
+    /**
+     * Shuts down the worker, logging the failure instead of propagating it so that the rest of
+     * the workers and the crawler itself are still shut down.
+     *
+     * @param worker the worker to shut down
+     */
+    private static void shutdownWorkerQuietly(final CrawlWorker worker) {
+        try {
+            worker.shutdown();
+        } catch (RuntimeException exception) {
+            LOGGER.error("Failed to shut down worker", exception);
+        }
+    }
+
+    /**
+     * Stops the periodic checkpoints and closes the checkpoint journal.
+     */
+    private void closeCheckpointJournal() {
+        if (checkpointJournal == null) {
+            return;
+        }
+
+        MoreExecutors.shutdownAndAwaitTermination(checkpointExecutor,
+                CHECKPOINT_SHUTDOWN_TIMEOUT_IN_MINUTES, TimeUnit.MINUTES);
+        crawlFrontier.setCheckpointJournal(null);
+
+        try {
+            checkpointJournal.close(statsCounter, runTimeStopwatch.getElapsedDuration());
+        } catch (RuntimeException exception) {
+            LOGGER.error("Failed to close checkpoint journal", exception);
+        } finally {
+            checkpointJournal = null;
+            checkpointExecutor = null;
+        }
+    }
+
+    /**
+     * Creates an exporter which exposes the metrics of the crawler in the Prometheus text
+     * exposition format. This is used by the crawler implementations with web API support.
+     *
+     * @return the exporter of the crawler metrics
+     */
+    final MetricsExporter createMetricsExporter() {
+        return new MetricsExporter(statsCounter, performanceMonitor, crawlFrontier,
+                runTimeStopwatch);
+    }
+
+    /**
+     * Returns the current state of the crawler. The state refers to the live objects of the
+     * crawler, so it should only be serialized while the crawler is stopped. Use
+     * {@link #getStateSnapshot()} to save the state of a running crawler.
      *
      * @return the current state of the crawler
      */
@@ -293,6 +478,75 @@ public abstract class Crawler {
                 statsCounter));
     }
 
+    /**
+     * Returns a snapshot of the state of the crawler, which can be taken and serialized while the
+     * crawler is running. The crawl frontier is locked only while its candidates and URL
+     * fingerprints are copied. With disk crawl frontier storage, the segment files are shared with
+     * the snapshot instead of being copied, and the candidates not yet consumed from them are only
+     * read when the snapshot is serialized. The candidates which are being processed at that moment
+     * are put back into the frontier of the snapshot, so they are crawled again when the crawl is
+     * resumed from it.
+     *
+     * <p>With memory and disk crawl frontier storage, the snapshot is a consistent point-in-time
+     * copy, which is not affected by the crawl afterwards. With persistent crawl frontier storage,
+     * the snapshot refers to the live store instead of copying it, so only the statistics and the
+     * run time are point-in-time. The candidates and URL fingerprints are the ones in the store
+     * when the crawl is resumed.
+     *
+     * <p>The snapshot should be released with {@link #releaseStateSnapshot(CrawlerState)} once it
+     * is no longer used, so the segment files consumed by the crawl in the meantime can be deleted.
+     *
+     * @return the snapshot of the state of the crawler
+     */
+    public final CrawlerState getStateSnapshot() {
+        CrawlFrontier frontierSnapshot = crawlFrontier.createSnapshot();
+
+        Stopwatch runTimeStopwatchSnapshot = new Stopwatch();
+        runTimeStopwatchSnapshot.restore(runTimeStopwatch.getElapsedDuration());
+
+        return new CrawlerState(Arrays.asList(config, frontierSnapshot, runTimeStopwatchSnapshot,
+                frontierSnapshot.getStatsCounter()));
+    }
+
+    /**
+     * Releases a snapshot of the state of the crawler taken with {@link #getStateSnapshot()}. The
+     * snapshot cannot be serialized afterwards.
+     *
+     * @param stateSnapshot the snapshot of the state of the crawler
+     */
+    public final void releaseStateSnapshot(final CrawlerState stateSnapshot) {
+        Validate.notNull(stateSnapshot, "The stateSnapshot parameter cannot be null.");
+
+        stateSnapshot.getStateObject(CrawlFrontier.class).ifPresent(CrawlFrontier::releaseSnapshot);
+    }
+
+    /**
+     * Takes a snapshot of the state of the crawler using {@link #getStateSnapshot()}, then writes
+     * it to the given stream on a background thread while the crawl continues. The snapshot is
+     * released once it is written. The stream is not closed.
+     *
+     * @param outputStream the stream to write the state to
+     * @param isCompressed indicates if the state should be compressed
+     *
+     * @return a future which is completed when the state is written
+     */
+    public final CompletableFuture<Void> writeStateSnapshot(
+            final OutputStream outputStream,
+            final boolean isCompressed) {
+        Validate.notNull(outputStream, "The outputStream parameter cannot be null.");
+
+        CrawlerState stateSnapshot = getStateSnapshot();
+        return CompletableFuture.runAsync(() -> {
+            try {
+                stateSnapshot.writeTo(outputStream, isCompressed);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            } finally {
+                releaseStateSnapshot(stateSnapshot);
+            }
+        }, task -> STATE_SNAPSHOT_WRITER_THREAD_FACTORY.newThread(task).start());
+    }
+
     /**
      * Resumes the crawl. The crawler will use HtmlUnit headless browser to visit URLs. This method
      * will block until the crawler finishes.
@@ -349,11 +603,16 @@ public abstract class Crawler {
 
         // Indicate that the crawling should be stopped
         isStopInitiated.set(true);
+
+        // Wake up the workers waiting for crawl candidates
+        crawlFrontier.signalWaitingThreads();
     }
 
     /**
      * Feeds a crawl request to the crawler. The crawler should be running, otherwise the request
-     * has to be added as a crawl seed instead.
+     * has to be added as a crawl seed instead. When called from a callback, the request is the
+     * child of the crawl candidate being processed. When called from any other thread, the
+     * request is handled as a crawl seed.
      *
      * @param request the crawl request
      */
@@ -375,6 +634,43 @@ public abstract class Crawler {
         requests.forEach(this::crawl);
     }
 
+    /**
+     * Feeds the URLs found in the response by the URL finder to the crawler. Relative URLs are
+     * resolved against the URL of the crawl candidate being processed. Unlike finding the URLs
+     * first and feeding them as crawl requests, the offsite, duplicate and crawl depth filters are
+     * applied while the URLs are being found, and crawl requests are only created for the ones
+     * that pass. Should be called from a callback, while the response is processed.
+     *
+     * @param response  the complete crawl response
+     * @param urlFinder the URL finder which finds the URLs to crawl
+     */
+    protected final void crawlLinks(
+            final CompleteCrawlResponse response,
+            final UrlFinder urlFinder) {
+        Validate.validState(!isStopped.get(), "The crawler is not started.");
+        Validate.notNull(urlFinder, "The urlFinder parameter cannot be null.");
+
+        urlFinder.forEachInResponse(response, crawlFrontier::feedLink);
+    }
+
+    /**
+     * Feeds the URLs found in the static page by the URL finder to the crawler. Relative URLs are
+     * resolved against the URL of the crawl candidate being processed, and the request filters
+     * are applied before any crawl request is created. Should be called from a callback, while
+     * the response is processed.
+     *
+     * @param response  the static crawl response
+     * @param urlFinder the URL finder which finds the URLs to crawl
+     */
+    protected final void crawlLinks(
+            final StaticCrawlResponse response,
+            final UrlFinder urlFinder) {
+        Validate.validState(!isStopped.get(), "The crawler is not started.");
+        Validate.notNull(urlFinder, "The urlFinder parameter cannot be null.");
+
+        urlFinder.forEachInResponse(response, crawlFrontier::feedLink);
+    }
+
     /**
      * Downloads the file specified by the URL.
      *
@@ -401,127 +697,63 @@ public abstract class Crawler {
     }
 
     /**
-     * Defines the workflow of the crawler.
+     * Defines the workflow of the crawler. The first worker runs on the calling thread, the others
+     * on a dedicated thread each. This method blocks until all the workers finish.
      */
     private void run() {
-        boolean shouldPerformDelay = false;
-
-        while (!isStopInitiated.get() && crawlFrontier.hasNextCandidate()) {
-            // Do not perform delay in the first iteration
-            if (shouldPerformDelay) {
-                performDelay();
-            } else {
-                shouldPerformDelay = true;
-            }
+        if (workers.size() == 1) {
+            workers.get(0).run();
+            return;
+        }
 
-            CrawlCandidate currentCandidate = crawlFrontier.getNextCandidate();
-            LOGGER.debug("Next crawl candidate: {}", currentCandidate);
+        ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("crawl-worker-%d")
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size() - 1,
+                threadFactory);
 
-            String candidateUrl = currentCandidate.getRequestUrl().toString();
-            CloseableHttpResponse httpHeadResponse = null;
+        try {
+            List<Future<?>> futures = workers.subList(1, workers.size())
+                    .stream()
+                    .map(executor::submit)
+                    .collect(Collectors.toList());
 
+            Throwable failure = null;
             try {
-                LOGGER.debug("Sending HTTP head request to URL {}", candidateUrl);
-
-                try {
-                    httpHeadResponse = httpClient.execute(new HttpHead(candidateUrl));
-                } catch (IOException exception) {
-                    handleNetworkError(new NetworkErrorEvent(currentCandidate,
-                            exception.toString()));
-
-                    continue;
-                }
-
-                int statusCode = httpHeadResponse.getStatusLine().getStatusCode();
-
-                // Check if there was an HTTP redirect
-                Header locationHeader = httpHeadResponse.getFirstHeader(HttpHeaders.LOCATION);
-                if (HttpStatus.isRedirection(statusCode) && locationHeader != null) {
-                    // Create a new crawl request for the redirected URL (HTTP redirect)
-                    CrawlRequest redirectedRequest =
-                            createCrawlRequestForRedirect(currentCandidate,
-                                    locationHeader.getValue());
-
-                    handleRequestRedirect(new RequestRedirectEvent(currentCandidate,
-                            new PartialCrawlResponse(httpHeadResponse), redirectedRequest));
-
-                    continue;
-                }
-
-                String mimeType = getResponseMimeType(httpHeadResponse);
-                if (!mimeType.equals(ContentType.TEXT_HTML.getMimeType())) {
-                    // URLs that point to non-HTML content should not be opened in the browser
-                    handleNonHtmlResponse(new NonHtmlResponseEvent(currentCandidate,
-                            new PartialCrawlResponse(httpHeadResponse)));
-
-                    continue;
-                }
-
-                proxyServer.newHar();
+                workers.get(0).run();
+            } catch (RuntimeException | Error exception) {
+                failure = exception;
+            }
 
-                LOGGER.debug("Opening URL {} in browser", candidateUrl);
+            // Wait for the other workers even if one has failed, since the browsers cannot be
+            // closed while they are still in use
+            for (Future<?> future : futures) {
                 try {
-                    webDriver.get(candidateUrl);
-
-                    // Ensure HTTP client and Selenium have the same cookies
-                    syncHttpClientCookies();
-                } catch (TimeoutException exception) {
-                    handlePageLoadTimeout(new PageLoadTimeoutEvent(currentCandidate,
-                            new PartialCrawlResponse(httpHeadResponse)));
-
-                    continue;
+                    Uninterruptibles.getUninterruptibly(future);
+                } catch (ExecutionException exception) {
+                    if (failure == null) {
+                        failure = exception.getCause();
+                    }
                 }
-            } finally {
-                HttpClientUtils.closeQuietly(httpHeadResponse);
             }
 
-            HarResponse harResponse = proxyServer.getHar().getLog().getEntries().stream()
-                    .filter(harEntry -> candidateUrl.equals(harEntry.getRequest().getUrl()))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalStateException("No HAR entry for request URL"))
-                    .getResponse();
-            if (harResponse.getError() != null) {
-                handleNetworkError(new NetworkErrorEvent(currentCandidate, harResponse.getError()));
-
-                continue;
+            if (failure != null) {
+                Throwables.throwIfUnchecked(failure);
+                throw new IllegalStateException(failure);
             }
-
-            // We need to check both the redirect URL in the HAR response and the URL of the
-            // loaded page to see if there was a JS redirect
-            String redirectUrl = harResponse.getRedirectURL();
-            String loadedPageUrl = webDriver.getCurrentUrl();
-            if (!redirectUrl.isEmpty() || !loadedPageUrl.equals(candidateUrl)) {
-                if (redirectUrl.isEmpty()) {
-                    redirectUrl = loadedPageUrl;
-                }
-
-                CrawlRequest request = createCrawlRequestForRedirect(currentCandidate, redirectUrl);
-
-                handleRequestRedirect(new RequestRedirectEvent(currentCandidate,
-                        new PartialCrawlResponse(harResponse), request));
-
-                continue;
-            }
-
-            int statusCode = harResponse.getStatus();
-            if (HttpStatus.isClientError(statusCode) || HttpStatus.isServerError(statusCode)) {
-                handleResponseError(new ResponseErrorEvent(currentCandidate,
-                        new CompleteCrawlResponse(harResponse, webDriver)));
-
-                continue;
-            }
-
-            handleResponseSuccess(new ResponseSuccessEvent(currentCandidate,
-                    new CompleteCrawlResponse(harResponse, webDriver)));
+        } finally {
+            executor.shutdownNow();
         }
     }
 
     /**
      * Creates the crawl delay mechanism according to the configuration.
      *
+     * @param webDriver the WebDriver instance whose requests are delayed
+     *
      * @return the created crawl delay mechanism
      */
-    private CrawlDelayMechanism createCrawlDelayMechanism() {
+    private CrawlDelayMechanism createCrawlDelayMechanism(final WebDriver webDriver) {
         switch (config.getCrawlDelayStrategy()) {
             case FIXED:
                 return new FixedCrawlDelayMechanism(config);
@@ -534,6 +766,54 @@ public abstract class Crawler {
         }
     }
 
+    /**
+     * Indicates if the page of the given URL should be fetched over HTTP only, without using the
+     * browser.
+     *
+     * @param url the URL of the page
+     *
+     * @return <code>true</code> if the URL matches any of the static page URL patterns,
+     *         <code>false</code> otherwise
+     */
+    private boolean isStaticPage(final String url) {
+        return config.getStaticPageUrlPatterns()
+                .stream()
+                .anyMatch(urlPattern -> urlPattern.matcher(url).find());
+    }
+
+    /**
+     * Parses the HTML document contained in the body of the HTTP response. If the charset is not
+     * specified in the Content-Type header, the parser detects it from the content.
+     *
+     * @param httpResponse the HTTP response
+     * @param baseUri      the URI used to resolve relative URLs in the document
+     *
+     * @return the parsed HTML document
+     *
+     * @throws IOException if an I/O error occurs while reading the response body
+     */
+    private static Document parseHtmlDocument(final HttpResponse httpResponse, final String baseUri)
+            throws IOException {
+        HttpEntity entity = httpResponse.getEntity();
+        if (entity == null) {
+            return Document.createShell(baseUri);
+        }
+
+        String charsetName = null;
+        try {
+            Charset charset = ContentType.getOrDefault(entity).getCharset();
+            if (charset != null) {
+                charsetName = charset.name();
+            }
+        } catch (ParseException | UnsupportedCharsetException exception) {
+            LOGGER.debug("Invalid charset in Content-Type header, detecting it from content");
+        }
+
+        try (InputStream inputStream = entity.getContent()) {
+            return Jsoup.parse(inputStream, charsetName, baseUri);
+        }
+    }
+
     /**
      * Returns the MIME type of the HTTP HEAD response. If the Content-Type header is not present in
      * the response it returns "text/plain".
@@ -544,18 +824,119 @@ public abstract class Crawler {
      */
     private static String getResponseMimeType(final HttpResponse httpHeadResponse) {
         Header contentTypeHeader = httpHeadResponse.getFirstHeader("Content-Type");
-        if (contentTypeHeader != null) {
-            String contentType = contentTypeHeader.getValue();
-            if (contentType != null) {
-                try {
-                    return ContentType.parse(contentType).getMimeType();
-                } catch (ParseException | UnsupportedCharsetException exception) {
-                    return contentType.split(";")[0].trim();
-                }
-            }
+        return contentTypeHeader != null
+                ? parseMimeType(contentTypeHeader.getValue())
+                : ContentType.DEFAULT_TEXT.getMimeType();
+    }
+
+    /**
+     * Indicates if the response captured while loading the page in the browser has HTML content.
+     *
+     * @param capturedResponse the response captured by the internal proxy server
+     *
+     * @return <code>true</code> if the content type of the response is text/html,
+     *         <code>false</code> otherwise
+     */
+    private static boolean isHtmlResponse(final CapturedResponse capturedResponse) {
+        String mimeType = parseMimeType(capturedResponse.getContentType().orElse(""));
+
+        return mimeType.equals(ContentType.TEXT_HTML.getMimeType());
+    }
+
+    /**
+     * Creates a partial crawl response from the response captured by the internal proxy server.
+     *
+     * @param capturedResponse the response captured by the internal proxy server
+     *
+     * @return the partial crawl response
+     */
+    private static PartialCrawlResponse createPartialCrawlResponse(
+            final CapturedResponse capturedResponse) {
+        return new PartialCrawlResponse(capturedResponse.getStatusCode(),
+                capturedResponse.getStatusText(), capturedResponse.getHeaders());
+    }
+
+    /**
+     * Extracts the MIME type from the value of a Content-Type header.
+     *
+     * @param contentType the value of the Content-Type header
+     *
+     * @return the MIME type
+     */
+    private static String parseMimeType(final String contentType) {
+        if (contentType == null) {
+            return ContentType.DEFAULT_TEXT.getMimeType();
         }
 
-        return ContentType.DEFAULT_TEXT.getMimeType();
+        try {
+            return ContentType.parse(contentType).getMimeType();
+        } catch (ParseException | UnsupportedCharsetException exception) {
+            return contentType.split(";")[0].trim();
+        }
+    }
+
+    /**
+     * Waits until the asynchronously executed callbacks return, and rethrows the first failure of
+     * them (if any).
+     */
+    private void awaitCallbacks() {
+        if (callbackExecutor == null) {
+            return;
+        }
+
+        callbackExecutor.shutdown();
+
+        Optional<Throwable> failureOpt = callbackExecutor.getFailure();
+        if (failureOpt.isPresent()) {
+            Throwables.throwIfUnchecked(failureOpt.get());
+            throw new IllegalStateException(failureOpt.get());
+        }
+    }
+
+    /**
+     * Delivers the event to its callbacks. If the asynchronous callback execution is enabled, the
+     * event is handed over to the callback executor and the current crawl candidate stays in
+     * progress until the callbacks return, otherwise the callbacks are called directly.
+     *
+     * @param <T>             the type of the event
+     * @param eventClass      the runtime class of the event
+     * @param event           the event to deliver
+     * @param defaultCallback the default callback for the event
+     */
+    private <T extends CrawlEvent> void callCallback(
+            final Class<T> eventClass,
+            final T event,
+            final Consumer<T> defaultCallback) {
+        if (callbackExecutor == null) {
+            invokeCallback(eventClass, event, defaultCallback);
+            return;
+        }
+
+        CrawlCandidate candidate = crawlFrontier.retainCurrentCandidate();
+        callbackExecutor.execute(candidate.getRequestUrl().getHost(),
+                () -> crawlFrontier.runWithRetainedCandidate(candidate,
+                        () -> invokeCallback(eventClass, event, defaultCallback)));
+    }
+
+    /**
+     * Invokes the custom callbacks associated with the event, or the default callback if there
+     * are none, and records the time it took to run them.
+     *
+     * @param <T>             the type of the event
+     * @param eventClass      the runtime class of the event
+     * @param event           the event to deliver
+     * @param defaultCallback the default callback for the event
+     */
+    private <T extends CrawlEvent> void invokeCallback(
+            final Class<T> eventClass,
+            final T event,
+            final Consumer<T> defaultCallback) {
+        long startTime = System.nanoTime();
+        try {
+            callbackManager.callCustomOrDefault(eventClass, event, defaultCallback);
+        } finally {
+            performanceMonitor.recordCallbackLatency(System.nanoTime() - startTime);
+        }
     }
 
     /**
@@ -566,7 +947,7 @@ public abstract class Crawler {
     private void handleNetworkError(final NetworkErrorEvent event) {
         LOGGER.debug("Network error occurred: {}", event.getErrorMessage());
 
-        callbackManager.callCustomOrDefault(NetworkErrorEvent.class, event, this::onNetworkError);
+        callCallback(NetworkErrorEvent.class, event, this::onNetworkError);
 
         statsCounter.recordNetworkError();
     }
@@ -583,7 +964,7 @@ public abstract class Crawler {
 
         crawl(event.getRedirectedCrawlRequest());
 
-        callbackManager.callCustomOrDefault(RequestRedirectEvent.class, event,
+        callCallback(RequestRedirectEvent.class, event,
                 this::onRequestRedirect);
 
         statsCounter.recordRequestRedirect();
@@ -598,7 +979,7 @@ public abstract class Crawler {
     private void handleNonHtmlResponse(final NonHtmlResponseEvent event) {
         LOGGER.debug("Received response with non-HTML content");
 
-        callbackManager.callCustomOrDefault(NonHtmlResponseEvent.class, event,
+        callCallback(NonHtmlResponseEvent.class, event,
                 this::onNonHtmlResponse);
 
         statsCounter.recordNonHtmlResponse();
@@ -613,7 +994,7 @@ public abstract class Crawler {
     private void handlePageLoadTimeout(final PageLoadTimeoutEvent event) {
         LOGGER.debug("Page did not load in the browser within the timeout period");
 
-        callbackManager.callCustomOrDefault(PageLoadTimeoutEvent.class, event,
+        callCallback(PageLoadTimeoutEvent.class, event,
                 this::onPageLoadTimeout);
 
         statsCounter.recordPageLoadTimeout();
@@ -629,7 +1010,7 @@ public abstract class Crawler {
         LOGGER.debug("Received response whose status code ({}) indicates error",
                 event.getCompleteCrawlResponse().getStatusCode());
 
-        callbackManager.callCustomOrDefault(ResponseErrorEvent.class, event, this::onResponseError);
+        callCallback(ResponseErrorEvent.class, event, this::onResponseError);
 
         statsCounter.recordResponseError();
     }
@@ -644,38 +1025,42 @@ public abstract class Crawler {
         LOGGER.debug("Received response whose status code ({}) indicates success",
                 event.getCompleteCrawlResponse().getStatusCode());
 
-        callbackManager.callCustomOrDefault(ResponseSuccessEvent.class, event,
+        callCallback(ResponseSuccessEvent.class, event,
                 this::onResponseSuccess);
 
         statsCounter.recordResponseSuccess();
     }
 
     /**
-     * Copies all the Selenium cookies for the current domain to the HTTP client cookie store.
+     * Handles static pages whose HTTP status code indicates error.
+     *
+     * @param event the event which gets delivered when a static page is fetched over HTTP only
+     *              and the HTTP status code indicates error (4xx or 5xx)
      */
-    private void syncHttpClientCookies() {
-        LOGGER.debug("Synchronizing HTTP client cookies");
+    private void handleStaticResponseError(final StaticResponseErrorEvent event) {
+        LOGGER.debug("Received static page response whose status code ({}) indicates error",
+                event.getStaticCrawlResponse().getStatusCode());
 
-        webDriver.manage()
-                .getCookies()
-                .stream()
-                .map(CookieConverter::convertToHttpClientCookie)
-                .forEach(cookieStore::addCookie);
+        callCallback(StaticResponseErrorEvent.class, event,
+                this::onStaticResponseError);
+
+        statsCounter.recordResponseError();
     }
 
     /**
-     * Delays the next request.
+     * Handles static pages whose HTTP status code indicates success.
+     *
+     * @param event the event which gets delivered when a static page is fetched over HTTP only
+     *              and the HTTP status code indicates success (2xx)
      */
-    private void performDelay() {
-        LOGGER.debug("Performing delay");
+    private void handleStaticResponseSuccess(final StaticResponseSuccessEvent event) {
+        LOGGER.debug("Received static page response whose status code ({}) indicates success",
+                event.getStaticCrawlResponse().getStatusCode());
 
-        try {
-            TimeUnit.MILLISECONDS.sleep(crawlDelayMechanism.getDelay());
-        } catch (InterruptedException ex) {
-            LOGGER.debug("Delay interrupted, stopping crawler");
-            Thread.currentThread().interrupt();
-            isStopInitiated.set(true);
-        }
+        callCallback(StaticResponseSuccessEvent.class, event,
+                this::onStaticResponseSuccess);
+
+        statsCounter.recordResponseSuccess();
     }
 
     /**
@@ -701,7 +1086,8 @@ public abstract class Crawler {
     }
 
     /**
-     * Callback which is used to configure the browser before the crawling begins.
+     * Callback which is used to configure the browser before the crawling begins. When multiple
+     * workers are configured, it is called once for the browser of each worker.
      *
      * @param options an interface for managing stuff you would do in a browser menu
      */
@@ -732,6 +1118,26 @@ public abstract class Crawler {
         LOGGER.info("onResponseSuccess: {}", event.getCrawlCandidate().getRequestUrl());
     }
 
+    /**
+     * Callback which gets called when a static page is fetched over HTTP only and the HTTP status
+     * code of the response indicates success (2xx).
+     *
+     * @param event the <code>StaticResponseSuccessEvent</code> instance
+     */
+    protected void onStaticResponseSuccess(final StaticResponseSuccessEvent event) {
+        LOGGER.info("onStaticResponseSuccess: {}", event.getCrawlCandidate().getRequestUrl());
+    }
+
+    /**
+     * Callback which gets called when a static page is fetched over HTTP only and the HTTP status
+     * code of the response indicates error (4xx or 5xx).
+     *
+     * @param event the <code>StaticResponseErrorEvent</code> instance
+     */
+    protected void onStaticResponseError(final StaticResponseErrorEvent event) {
+        LOGGER.info("onStaticResponseError: {}", event.getCrawlCandidate().getRequestUrl());
+    }
+
     /**
      * Callback which gets called when the content type of the response is not text/html.
      *
@@ -786,4 +1192,557 @@ public abstract class Crawler {
     protected void onStop() {
         LOGGER.info("onStop");
     }
+
+    /**
+     * A worker which takes crawl candidates from the shared crawl frontier and processes them using
+     * its own browser and internal proxy server.
+     */
+    private final class CrawlWorker implements Runnable {
+
+        private static final String JS_HEAP_SIZE_JS = "return (window.performance "
+                + "&& window.performance.memory) ? window.performance.memory.usedJSHeapSize : -1;";
+
+        private BrowserMobProxyServer proxyServer;
+        private ResponseCapture responseCapture;
+        private BrowserPool browserPool;
+        private WebDriver webDriver;
+        private CrawlDelayMechanism crawlDelayMechanism;
+        private int pagesSinceBrowserStart;
+
+        /**
+         * Starts the internal proxy server and the browser of the worker.
+         *
+         * @param browser             the type of the browser to use for crawling
+         * @param capabilities        the browser properties
+         * @param chainedProxyAddress the address of the user-defined proxy to chain to the internal
+         *                            one, or <code>null</code> if there is no such proxy
+         */
+        void init(
+                final Browser browser,
+                final MutableCapabilities capabilities,
+                final InetSocketAddress chainedProxyAddress) {
+            proxyServer = new BrowserMobProxyServer();
+
+            if (chainedProxyAddress != null) {
+                proxyServer.setChainedProxy(chainedProxyAddress);
+            }
+
+            // Record only the responses needed by the crawler instead of a full HAR capture
+            responseCapture = new ResponseCapture(config.isSubresourceCaptureEnabled());
+            proxyServer.addLastHttpFilterFactory(responseCapture);
+
+            SubresourceBlockingRules blockingRules = config.getSubresourceBlockingRules();
+            if (!blockingRules.isEmpty()) {
+                proxyServer.addLastHttpFilterFactory(new SubresourceBlocker(blockingRules,
+                        responseCapture::isMainDocumentUrl, statsCounter));
+            }
+
+            // The internal proxy server must be started before creating the Selenium proxy
+            // because the port is dynamically chosen by the server when it starts
+            proxyServer.start();
+            LOGGER.debug("Internal proxy server started on port {}", proxyServer.getPort());
+
+            // Set our internal proxy on a copy, since the capabilities are shared by the workers
+            MutableCapabilities workerCapabilities = new MutableCapabilities(capabilities);
+            workerCapabilities.setCapability(CapabilityType.PROXY,
+                    ClientUtil.createSeleniumProxy(proxyServer));
+
+            // Keep a spare browser warmed up only if browsers are recycled
+            boolean isBrowserRecyclingEnabled = config.getBrowserRecyclingPageLimit() > 0
+                    || config.getBrowserRecyclingMemoryLimitInBytes() > 0;
+            browserPool = new BrowserPool(() -> startBrowser(browser, workerCapabilities),
+                    isBrowserRecyclingEnabled ? 1 : 0);
+
+            acquireBrowser();
+        }
+
+        /**
+         * Closes the browsers and stops the internal proxy server of the worker.
+         */
+        void shutdown() {
+            try {
+                if (webDriver != null) {
+                    quitBrowserQuietly();
+                }
+
+                if (browserPool != null) {
+                    browserPool.shutdown();
+                }
+            } finally {
+                if (proxyServer != null && proxyServer.isStarted()) {
+                    LOGGER.debug("Stopping proxy server");
+                    proxyServer.stop();
+                }
+            }
+        }
+
+        /**
+         * Closes the browser of the worker, ignoring the errors of a crashed browser.
+         */
+        private void quitBrowserQuietly() {
+            try {
+                LOGGER.debug("Closing browser");
+                webDriver.quit();
+            } catch (WebDriverException exception) {
+                LOGGER.debug("Failed to close browser", exception);
+            }
+        }
+
+        /**
+         * Processes crawl candidates until the crawl is finished or the crawler is stopped. If the
+         * worker fails, the other workers are stopped as well.
+         */
+        @Override
+        public void run() {
+            try {
+                crawl();
+            } catch (RuntimeException | Error exception) {
+                isStopInitiated.set(true);
+                crawlFrontier.signalWaitingThreads();
+
+                throw exception;
+            } finally {
+                crawlFrontier.completeCurrentCandidate();
+            }
+        }
+
+        /**
+         * Defines the workflow of the worker.
+         */
+        private void crawl() {
+            while (!isStopInitiated.get()) {
+                CrawlCandidate currentCandidate;
+                try {
+                    currentCandidate = crawlFrontier.awaitNextCandidate(isStopInitiated::get);
+                } catch (InterruptedException exception) {
+                    LOGGER.debug("Waiting for crawl candidate interrupted, stopping crawler");
+                    Thread.currentThread().interrupt();
+                    isStopInitiated.set(true);
+                    crawlFrontier.signalWaitingThreads();
+
+                    return;
+                }
+
+                if (currentCandidate == null) {
+                    return;
+                }
+
+                try {
+                    processCandidate(currentCandidate);
+                } catch (WebDriverException exception) {
+                    if (isBrowserAlive()) {
+                        throw exception;
+                    }
+
+                    LOGGER.warn("Browser crashed, replacing it with a new one", exception);
+                    handleNetworkError(new NetworkErrorEvent(currentCandidate,
+                            exception.toString()));
+
+                    long crawlDelay = getCrawlDelayAfterCrash();
+                    replaceBrowser();
+                    crawlFrontier.completeCurrentCandidate(crawlDelay);
+                    performanceMonitor.recordProcessedCrawlCandidate();
+                    continue;
+                }
+
+                performanceMonitor.recordProcessedCrawlCandidate();
+
+                // The frontier holds back the host of the candidate until the delay has passed,
+                // while the worker can continue with candidates of other hosts
+                crawlFrontier.completeCurrentCandidate(crawlDelayMechanism.getDelay());
+
+                pagesSinceBrowserStart++;
+                if (isBrowserPageLimitReached() || isBrowserMemoryLimitExceeded()) {
+                    LOGGER.debug("Recycling browser after {} pages", pagesSinceBrowserStart);
+                    replaceBrowser();
+                }
+            }
+        }
+
+        /**
+         * Returns the crawl delay to apply after the browser has crashed. The adaptive delay is
+         * measured through the browser, which cannot tell the load time of the page that crashed
+         * it, so the minimum delay is used instead.
+         *
+         * @return the crawl delay in milliseconds
+         */
+        private long getCrawlDelayAfterCrash() {
+            if (CrawlDelayStrategy.ADAPTIVE.equals(config.getCrawlDelayStrategy())) {
+                return config.getMinimumCrawlDelayDurationInMillis();
+            }
+
+            return crawlDelayMechanism.getDelay();
+        }
+
+        /**
+         * Starts and initializes a new browser.
+         *
+         * @param browser      the type of the browser to start
+         * @param capabilities the browser properties
+         *
+         * @return the started browser
+         */
+        private WebDriver startBrowser(
+                final Browser browser,
+                final MutableCapabilities capabilities) {
+            LOGGER.debug("Starting {} browser", browser);
+            WebDriver newWebDriver = WebDriverFactory.createWebDriver(browser, capabilities);
+            performanceMonitor.recordBrowserStart();
+
+            LOGGER.debug("Calling onBrowserInit callback");
+            onBrowserInit(newWebDriver.manage());
+
+            // If the crawl delay strategy is set to adaptive, we check if the browser supports the
+            // Navigation Timing API or not. However HtmlUnit requires a page to be loaded first
+            // before executing JavaScript, so we load a blank page.
+            if (Browser.HTML_UNIT.equals(browser)
+                    && CrawlDelayStrategy.ADAPTIVE.equals(config.getCrawlDelayStrategy())) {
+                newWebDriver.get(WebClient.ABOUT_BLANK);
+            }
+
+            return newWebDriver;
+        }
+
+        /**
+         * Takes a browser from the pool and sets it as the browser of the worker.
+         */
+        private void acquireBrowser() {
+            webDriver = browserPool.acquire();
+            pagesSinceBrowserStart = 0;
+
+            // Must be created here (the adaptive crawl delay strategy depends on the WebDriver)
+            crawlDelayMechanism = createCrawlDelayMechanism(webDriver);
+        }
+
+        /**
+         * Retires the browser of the worker and replaces it with one from the pool.
+         */
+        private void replaceBrowser() {
+            WebDriver retiredWebDriver = webDriver;
+            webDriver = null;
+
+            browserPool.retire(retiredWebDriver);
+            performanceMonitor.recordBrowserRecycle();
+            acquireBrowser();
+        }
+
+        /**
+         * Checks if the browser of the worker still responds to commands.
+         *
+         * @return <code>true</code> if the browser is alive, <code>false</code> otherwise
+         */
+        private boolean isBrowserAlive() {
+            try {
+                webDriver.getWindowHandle();
+                return true;
+            } catch (WebDriverException exception) {
+                return false;
+            }
+        }
+
+        /**
+         * Checks if the browser of the worker has loaded the configured number of pages.
+         *
+         * @return <code>true</code> if the page limit is reached, <code>false</code> otherwise
+         */
+        private boolean isBrowserPageLimitReached() {
+            int pageLimit = config.getBrowserRecyclingPageLimit();
+            return pageLimit > 0 && pagesSinceBrowserStart >= pageLimit;
+        }
+
+        /**
+         * Checks if the JavaScript heap size of the browser exceeds the configured limit. Browsers
+         * which do not expose their heap size never exceed the limit.
+         *
+         * @return <code>true</code> if the memory limit is exceeded, <code>false</code> otherwise
+         */
+        private boolean isBrowserMemoryLimitExceeded() {
+            long memoryLimit = config.getBrowserRecyclingMemoryLimitInBytes();
+            if (memoryLimit == 0) {
+                return false;
+            }
+
+            try {
+                Object heapSize = ((JavascriptExecutor) webDriver).executeScript(JS_HEAP_SIZE_JS);
+                return heapSize instanceof Number && ((Number) heapSize).longValue() > memoryLimit;
+            } catch (WebDriverException exception) {
+                LOGGER.debug("Failed to query JavaScript heap size", exception);
+                return false;
+            }
+        }
+
+        /**
+         * Visits the URL of the crawl candidate and delivers the corresponding event.
+         *
+         * @param currentCandidate the crawl candidate to process
+         */
+        private void processCandidate(final CrawlCandidate currentCandidate) {
+            LOGGER.debug("Next crawl candidate: {}", currentCandidate);
+
+            String candidateUrl = currentCandidate.getRequestUrl().toString();
+            if (isStaticPage(candidateUrl)) {
+                processStaticPage(currentCandidate);
+                return;
+            }
+
+            URI candidateUri = currentCandidate.getRequestUrl();
+            boolean isHeadRequestSkipped = mimeTypeCache != null
+                    && mimeTypeCache.isKnownHtml(candidateUri);
+            CloseableHttpResponse httpHeadResponse = null;
+
+            try {
+                if (isHeadRequestSkipped) {
+                    LOGGER.debug("Skipping HTTP head request, URL {} is known to point to HTML",
+                            candidateUrl);
+                } else {
+                    LOGGER.debug("Sending HTTP head request to URL {}", candidateUrl);
+
+                    long headRequestStartTime = System.nanoTime();
+                    try {
+                        httpHeadResponse = httpClient.execute(new HttpHead(candidateUrl));
+                    } catch (IOException exception) {
+                        handleNetworkError(new NetworkErrorEvent(currentCandidate,
+                                exception.toString()));
+
+                        return;
+                    } finally {
+                        performanceMonitor.recordHeadRequestLatency(
+                                System.nanoTime() - headRequestStartTime);
+                    }
+
+                    int statusCode = httpHeadResponse.getStatusLine().getStatusCode();
+
+                    // Check if there was an HTTP redirect
+                    Header locationHeader = httpHeadResponse.getFirstHeader(HttpHeaders.LOCATION);
+                    if (HttpStatus.isRedirection(statusCode) && locationHeader != null) {
+                        // Create a new crawl request for the redirected URL (HTTP redirect)
+                        CrawlRequest redirectedRequest =
+                                createCrawlRequestForRedirect(currentCandidate,
+                                        locationHeader.getValue());
+
+                        handleRequestRedirect(new RequestRedirectEvent(currentCandidate,
+                                new PartialCrawlResponse(httpHeadResponse), redirectedRequest));
+
+                        return;
+                    }
+
+                    String mimeType = getResponseMimeType(httpHeadResponse);
+                    if (!mimeType.equals(ContentType.TEXT_HTML.getMimeType())) {
+                        if (mimeTypeCache != null) {
+                            mimeTypeCache.recordNonHtml(candidateUri);
+                        }
+
+                        // URLs that point to non-HTML content should not be opened in the browser
+                        handleNonHtmlResponse(new NonHtmlResponseEvent(currentCandidate,
+                                new PartialCrawlResponse(httpHeadResponse)));
+
+                        return;
+                    }
+                }
+
+                responseCapture.startPage(candidateUrl);
+
+                LOGGER.debug("Opening URL {} in browser", candidateUrl);
+                long pageLoadStartTime = System.nanoTime();
+                try {
+                    webDriver.get(candidateUrl);
+                    performanceMonitor.recordPageLoadLatency(
+                            System.nanoTime() - pageLoadStartTime);
+
+                    // Ensure HTTP client and Selenium have the same cookies
+                    syncHttpClientCookies();
+                } catch (TimeoutException exception) {
+                    performanceMonitor.recordPageLoadLatency(
+                            System.nanoTime() - pageLoadStartTime);
+
+                    if (httpHeadResponse == null) {
+                        // The HEAD request was skipped, but the event carries its response
+                        try {
+                            httpHeadResponse = httpClient.execute(new HttpHead(candidateUrl));
+                        } catch (IOException ioException) {
+                            handleNetworkError(new NetworkErrorEvent(currentCandidate,
+                                    ioException.toString()));
+
+                            return;
+                        }
+                    }
+
+                    handlePageLoadTimeout(new PageLoadTimeoutEvent(currentCandidate,
+                            new PartialCrawlResponse(httpHeadResponse)));
+
+                    return;
+                }
+            } finally {
+                HttpClientUtils.closeQuietly(httpHeadResponse);
+            }
+
+            long lookupStartTime = System.nanoTime();
+            Optional<CapturedResponse> capturedResponseOpt =
+                    responseCapture.getMainDocumentResponse();
+            performanceMonitor.recordResponseCaptureLookupLatency(
+                    System.nanoTime() - lookupStartTime);
+            if (!capturedResponseOpt.isPresent()) {
+                handleNetworkError(new NetworkErrorEvent(currentCandidate,
+                        HarCaptureUtil.getNoResponseReceivedErrorMessage()));
+
+                return;
+            }
+
+            CapturedResponse capturedResponse = capturedResponseOpt.get();
+            Optional<String> errorOpt = capturedResponse.getError();
+            if (errorOpt.isPresent()) {
+                handleNetworkError(new NetworkErrorEvent(currentCandidate, errorOpt.get()));
+
+                return;
+            }
+
+            // We need to check both the redirect location in the captured response and the URL
+            // of the loaded page to see if there was a JS redirect
+            String redirectUrl = capturedResponse.getRedirectLocation().orElse("");
+            String loadedPageUrl = webDriver.getCurrentUrl();
+            if (!redirectUrl.isEmpty() || !loadedPageUrl.equals(candidateUrl)) {
+                if (redirectUrl.isEmpty()) {
+                    redirectUrl = loadedPageUrl;
+                } else if (isHeadRequestSkipped) {
+                    // The HEAD request would have prevented loading the page twice, but the
+                    // redirect says nothing about the content type of the page
+                    mimeTypeCache.resetHtmlStreak(candidateUri);
+                }
+
+                CrawlRequest request = createCrawlRequestForRedirect(currentCandidate, redirectUrl);
+
+                handleRequestRedirect(new RequestRedirectEvent(currentCandidate,
+                        createPartialCrawlResponse(capturedResponse), request));
+
+                return;
+            }
+
+            if (mimeTypeCache != null) {
+                // Without the HEAD request, the MIME type is known only after loading the page
+                if (isHeadRequestSkipped && !isHtmlResponse(capturedResponse)) {
+                    mimeTypeCache.recordNonHtml(candidateUri);
+
+                    handleNonHtmlResponse(new NonHtmlResponseEvent(currentCandidate,
+                            createPartialCrawlResponse(capturedResponse)));
+
+                    return;
+                }
+
+                mimeTypeCache.recordHtml(candidateUri);
+            }
+
+            Map<String, PartialCrawlResponse> subresourceResponses = new HashMap<>();
+            responseCapture.getSubresourceResponses()
+                    .forEach((url, response) ->
+                            subresourceResponses.put(url, createPartialCrawlResponse(response)));
+
+            // The browser moves on to the next candidate while the callbacks are running, so
+            // they get a snapshot of the page instead
+            PartialCrawlResponse mainDocumentResponse =
+                    createPartialCrawlResponse(capturedResponse);
+            CompleteCrawlResponse response = callbackExecutor != null
+                    ? new CompleteCrawlResponse(mainDocumentResponse, subresourceResponses,
+                            webDriver.getPageSource(), loadedPageUrl)
+                    : new CompleteCrawlResponse(mainDocumentResponse, subresourceResponses,
+                            webDriver);
+
+            int statusCode = response.getStatusCode();
+            if (HttpStatus.isClientError(statusCode) || HttpStatus.isServerError(statusCode)) {
+                handleResponseError(new ResponseErrorEvent(currentCandidate, response));
+
+                return;
+            }
+
+            handleResponseSuccess(new ResponseSuccessEvent(currentCandidate, response));
+        }
+
+        /**
+         * Fetches the static page of the crawl candidate with a single HTTP GET request, parses it
+         * and delivers the corresponding event. The browser is not used.
+         *
+         * @param currentCandidate the crawl candidate to process
+         */
+        private void processStaticPage(final CrawlCandidate currentCandidate) {
+            String candidateUrl = currentCandidate.getRequestUrl().toString();
+            CloseableHttpResponse httpGetResponse = null;
+            Document document;
+
+            try {
+                LOGGER.debug("Sending HTTP get request to URL {}", candidateUrl);
+
+                long pageLoadStartTime = System.nanoTime();
+                try {
+                    httpGetResponse = httpClient.execute(new HttpGet(candidateUrl));
+                } catch (IOException exception) {
+                    handleNetworkError(new NetworkErrorEvent(currentCandidate,
+                            exception.toString()));
+
+                    return;
+                } finally {
+                    performanceMonitor.recordPageLoadLatency(
+                            System.nanoTime() - pageLoadStartTime);
+                }
+
+                int statusCode = httpGetResponse.getStatusLine().getStatusCode();
+
+                // Check if there was an HTTP redirect
+                Header locationHeader = httpGetResponse.getFirstHeader(HttpHeaders.LOCATION);
+                if (HttpStatus.isRedirection(statusCode) && locationHeader != null) {
+                    CrawlRequest redirectedRequest =
+                            createCrawlRequestForRedirect(currentCandidate,
+                                    locationHeader.getValue());
+
+                    handleRequestRedirect(new RequestRedirectEvent(currentCandidate,
+                            new PartialCrawlResponse(httpGetResponse), redirectedRequest));
+
+                    return;
+                }
+
+                String mimeType = getResponseMimeType(httpGetResponse);
+                if (!mimeType.equals(ContentType.TEXT_HTML.getMimeType())) {
+                    handleNonHtmlResponse(new NonHtmlResponseEvent(currentCandidate,
+                            new PartialCrawlResponse(httpGetResponse)));
+
+                    return;
+                }
+
+                try {
+                    document = parseHtmlDocument(httpGetResponse, candidateUrl);
+                } catch (IOException exception) {
+                    handleNetworkError(new NetworkErrorEvent(currentCandidate,
+                            exception.toString()));
+
+                    return;
+                }
+            } finally {
+                HttpClientUtils.closeQuietly(httpGetResponse);
+            }
+
+            StaticCrawlResponse response = new StaticCrawlResponse(httpGetResponse, document);
+
+            int statusCode = response.getStatusCode();
+            if (HttpStatus.isClientError(statusCode) || HttpStatus.isServerError(statusCode)) {
+                handleStaticResponseError(new StaticResponseErrorEvent(currentCandidate,
+                        response));
+
+                return;
+            }
+
+            handleStaticResponseSuccess(new StaticResponseSuccessEvent(currentCandidate,
+                    response));
+        }
+
+        /**
+         * Copies all the Selenium cookies for the current domain to the HTTP client cookie store.
+         */
+        private void syncHttpClientCookies() {
+            LOGGER.debug("Synchronizing HTTP client cookies");
+
+            webDriver.manage()
+                    .getCookies()
+                    .stream()
+                    .map(CookieConverter::convertToHttpClientCookie)
+                    .forEach(cookieStore::addCookie);
+        }
+    }
 }
@@ -19,11 +19,14 @@ package com.github.peterbencze.serritor.api;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.github.peterbencze.serritor.internal.CrawlDomain;
 import com.google.common.net.InternetDomainName;
+import java.io.File;
 import java.io.Serializable;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.regex.Pattern;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
@@ -36,39 +39,98 @@ import org.apache.commons.lang3.builder.ToStringStyle;
         "crawlStrategy",
         "maximumCrawlDepth",
         "duplicateRequestFilterEnabled",
+        "duplicateRequestFilterStrategy",
+        "duplicateRequestFilterFalsePositiveRate",
         "offsiteRequestFilterEnabled",
         "allowedCrawlDomains",
+        "excludedCrawlDomains",
         "crawlDelayStrategy",
         "fixedCrawlDelayDurationInMillis",
         "minimumCrawlDelayDurationInMillis",
-        "maximumCrawlDelayDurationInMillis"
+        "maximumCrawlDelayDurationInMillis",
+        "workerCount",
+        "staticPageUrlPatterns",
+        "headRequestSkippingEnabled",
+        "crawlFrontierStorage",
+        "crawlFrontierDirectory",
+        "crawlFrontierHotWindowSize",
+        "checkpointDirectory",
+        "checkpointIntervalInMillis",
+        "browserRecyclingPageLimit",
+        "browserRecyclingMemoryLimitInBytes",
+        "subresourceCaptureEnabled",
+        "subresourceBlockingRules",
+        "asyncCallbackExecutionEnabled",
+        "callbackThreadCount",
+        "callbackQueueCapacity",
+        "callbackOrdering"
 })
 public final class CrawlerConfiguration implements Serializable {
 
     public static final long DEFAULT_PAGE_LOAD_TIMEOUT_IN_MILLIS = Duration.ofMinutes(3).toMillis();
 
+    private static final long serialVersionUID = 1L;
+
     private final Set<CrawlDomain> allowedCrawlDomains;
+    private final Set<CrawlDomain> excludedCrawlDomains;
     private final Set<CrawlRequest> crawlSeeds;
     private final CrawlStrategy crawlStrategy;
     private final boolean isDuplicateRequestFilterEnabled;
+    private final DuplicateRequestFilterStrategy duplicateRequestFilterStrategy;
+    private final double duplicateRequestFilterFalsePositiveRate;
     private final boolean isOffsiteRequestFilterEnabled;
     private final int maxCrawlDepth;
     private final CrawlDelayStrategy crawlDelayStrategy;
     private final long fixedCrawlDelayDurationInMillis;
     private final long minCrawlDelayDurationInMillis;
     private final long maxCrawlDelayDurationInMillis;
+    private final int workerCount;
+    private final List<Pattern> staticPageUrlPatterns;
+    private final boolean isHeadRequestSkippingEnabled;
+    private final CrawlFrontierStorage crawlFrontierStorage;
+    private final File crawlFrontierDirectory;
+    private final int crawlFrontierHotWindowSize;
+    private final File checkpointDirectory;
+    private final long checkpointIntervalInMillis;
+    private final int browserRecyclingPageLimit;
+    private final long browserRecyclingMemoryLimitInBytes;
+    private final boolean isSubresourceCaptureEnabled;
+    private final SubresourceBlockingRules subresourceBlockingRules;
+    private final boolean isAsyncCallbackExecutionEnabled;
+    private final int callbackThreadCount;
+    private final int callbackQueueCapacity;
+    private final CallbackOrdering callbackOrdering;
 
     private CrawlerConfiguration(final CrawlerConfigurationBuilder builder) {
         allowedCrawlDomains = builder.allowedCrawlDomains;
+        excludedCrawlDomains = builder.excludedCrawlDomains;
         crawlSeeds = builder.crawlSeeds;
         crawlStrategy = builder.crawlStrategy;
         isDuplicateRequestFilterEnabled = builder.isDuplicateRequestFilterEnabled;
+        duplicateRequestFilterStrategy = builder.duplicateRequestFilterStrategy;
+        duplicateRequestFilterFalsePositiveRate = builder.duplicateRequestFilterFalsePositiveRate;
         isOffsiteRequestFilterEnabled = builder.isOffsiteRequestFilterEnabled;
         maxCrawlDepth = builder.maxCrawlDepth;
         crawlDelayStrategy = builder.crawlDelayStrategy;
         fixedCrawlDelayDurationInMillis = builder.fixedCrawlDelayDurationInMillis;
         minCrawlDelayDurationInMillis = builder.minCrawlDelayDurationInMillis;
         maxCrawlDelayDurationInMillis = builder.maxCrawlDelayDurationInMillis;
+        workerCount = builder.workerCount;
+        staticPageUrlPatterns = builder.staticPageUrlPatterns;
+        isHeadRequestSkippingEnabled = builder.isHeadRequestSkippingEnabled;
+        crawlFrontierStorage = builder.crawlFrontierStorage;
+        crawlFrontierDirectory = builder.crawlFrontierDirectory;
+        crawlFrontierHotWindowSize = builder.crawlFrontierHotWindowSize;
+        checkpointDirectory = builder.checkpointDirectory;
+        checkpointIntervalInMillis = builder.checkpointIntervalInMillis;
+        browserRecyclingPageLimit = builder.browserRecyclingPageLimit;
+        browserRecyclingMemoryLimitInBytes = builder.browserRecyclingMemoryLimitInBytes;
+        isSubresourceCaptureEnabled = builder.isSubresourceCaptureEnabled;
+        subresourceBlockingRules = builder.subresourceBlockingRules;
+        isAsyncCallbackExecutionEnabled = builder.isAsyncCallbackExecutionEnabled;
+        callbackThreadCount = builder.callbackThreadCount;
+        callbackQueueCapacity = builder.callbackQueueCapacity;
+        callbackOrdering = builder.callbackOrdering;
     }
 
     /**
@@ -80,6 +142,15 @@ public final class CrawlerConfiguration implements Serializable {
         return allowedCrawlDomains;
     }
 
+    /**
+     * Returns the set of excluded crawl domains.
+     *
+     * @return the set of excluded crawl domains
+     */
+    public Set<CrawlDomain> getExcludedCrawlDomains() {
+        return excludedCrawlDomains;
+    }
+
     /**
      * Returns the set of crawl seeds.
      *
@@ -107,6 +178,26 @@ public final class CrawlerConfiguration implements Serializable {
         return isDuplicateRequestFilterEnabled;
     }
 
+    /**
+     * Returns the strategy which defines how the duplicate request filter stores the fingerprints
+     * of the seen URLs.
+     *
+     * @return the strategy of the duplicate request filter
+     */
+    public DuplicateRequestFilterStrategy getDuplicateRequestFilterStrategy() {
+        return duplicateRequestFilterStrategy;
+    }
+
+    /**
+     * Returns the maximum rate of new requests falsely filtered as duplicates when the Bloom filter
+     * strategy is used.
+     *
+     * @return the false positive rate of the duplicate request filter
+     */
+    public double getDuplicateRequestFilterFalsePositiveRate() {
+        return duplicateRequestFilterFalsePositiveRate;
+    }
+
     /**
      * Indicates if the offsite request filter is enabled.
      *
@@ -161,6 +252,160 @@ public final class CrawlerConfiguration implements Serializable {
         return maxCrawlDelayDurationInMillis;
     }
 
+    /**
+     * Returns the number of workers that crawl in parallel. Each worker uses its own browser.
+     *
+     * @return the number of workers that crawl in parallel
+     */
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    /**
+     * Returns the patterns of the URLs that are fetched over HTTP only, without using the
+     * browser.
+     *
+     * @return the patterns of the URLs that are fetched over HTTP only
+     */
+    public List<Pattern> getStaticPageUrlPatterns() {
+        return staticPageUrlPatterns;
+    }
+
+    /**
+     * Indicates if the HTTP HEAD request is skipped for URLs that are learned to point to HTML
+     * content.
+     *
+     * @return <code>true</code> if the HEAD request skipping is enabled, <code>false</code>
+     *         otherwise
+     */
+    public boolean isHeadRequestSkippingEnabled() {
+        return isHeadRequestSkippingEnabled;
+    }
+
+    /**
+     * Returns the storage where the crawl frontier keeps the crawl candidates.
+     *
+     * @return the storage of the crawl candidates
+     */
+    public CrawlFrontierStorage getCrawlFrontierStorage() {
+        return crawlFrontierStorage;
+    }
+
+    /**
+     * Returns the directory where the crawl frontier stores the crawl candidates on disk.
+     *
+     * @return the directory of the crawl frontier, or <code>null</code> if a temporary directory
+     *         is used
+     */
+    public File getCrawlFrontierDirectory() {
+        return crawlFrontierDirectory;
+    }
+
+    /**
+     * Returns the maximum number of crawl candidates kept in memory when the candidates are stored
+     * on disk. With persistent storage, it bounds the number of candidates deferred until their
+     * host becomes ready.
+     *
+     * @return the maximum number of crawl candidates kept in memory
+     */
+    public int getCrawlFrontierHotWindowSize() {
+        return crawlFrontierHotWindowSize;
+    }
+
+    /**
+     * Returns the directory where the crawler writes its checkpoints.
+     *
+     * @return the directory of the checkpoints, or <code>null</code> if checkpointing is disabled
+     */
+    public File getCheckpointDirectory() {
+        return checkpointDirectory;
+    }
+
+    /**
+     * Returns the interval between the checkpoints of the crawler.
+     *
+     * @return the interval between the checkpoints in milliseconds
+     */
+    public long getCheckpointIntervalInMillis() {
+        return checkpointIntervalInMillis;
+    }
+
+    /**
+     * Returns the number of pages after which a browser is replaced with a new one.
+     *
+     * @return the number of pages after which a browser is replaced (0 means no limit)
+     */
+    public int getBrowserRecyclingPageLimit() {
+        return browserRecyclingPageLimit;
+    }
+
+    /**
+     * Returns the JavaScript heap size above which a browser is replaced with a new one.
+     *
+     * @return the JavaScript heap size limit in bytes (0 means no limit)
+     */
+    public long getBrowserRecyclingMemoryLimitInBytes() {
+        return browserRecyclingMemoryLimitInBytes;
+    }
+
+    /**
+     * Indicates if the responses of the subresources (images, scripts, etc.) of the pages are
+     * captured in addition to the response of the main document.
+     *
+     * @return <code>true</code> if the subresource capture is enabled, <code>false</code>
+     *         otherwise
+     */
+    public boolean isSubresourceCaptureEnabled() {
+        return isSubresourceCaptureEnabled;
+    }
+
+    /**
+     * Returns the rules which specify the subresources blocked by the internal proxy server.
+     *
+     * @return the subresource blocking rules
+     */
+    public SubresourceBlockingRules getSubresourceBlockingRules() {
+        return subresourceBlockingRules;
+    }
+
+    /**
+     * Indicates if the callbacks are executed asynchronously, so the workers can continue with the
+     * next crawl candidate while the callbacks are running.
+     *
+     * @return <code>true</code> if the asynchronous callback execution is enabled,
+     *         <code>false</code> otherwise
+     */
+    public boolean isAsyncCallbackExecutionEnabled() {
+        return isAsyncCallbackExecutionEnabled;
+    }
+
+    /**
+     * Returns the number of threads which execute the callbacks asynchronously.
+     *
+     * @return the number of callback threads
+     */
+    public int getCallbackThreadCount() {
+        return callbackThreadCount;
+    }
+
+    /**
+     * Returns the maximum number of callbacks waiting for execution.
+     *
+     * @return the capacity of the callback queue
+     */
+    public int getCallbackQueueCapacity() {
+        return callbackQueueCapacity;
+    }
+
+    /**
+     * Returns the ordering guarantee of the callbacks which are executed asynchronously.
+     *
+     * @return the ordering guarantee of the callbacks
+     */
+    public CallbackOrdering getCallbackOrdering() {
+        return callbackOrdering;
+    }
+
     /**
      * Returns the string representation of this crawler configuration.
      *
@@ -173,12 +418,32 @@ public final class CrawlerConfiguration implements Serializable {
                 .append("crawlStrategy", crawlStrategy)
                 .append("maximumCrawlDepth", maxCrawlDepth)
                 .append("isDuplicateRequestFilterEnabled", isDuplicateRequestFilterEnabled)
+                .append("duplicateRequestFilterStrategy", duplicateRequestFilterStrategy)
+                .append("duplicateRequestFilterFalsePositiveRate",
+                        duplicateRequestFilterFalsePositiveRate)
                 .append("isOffsiteRequestFilterEnabled", isOffsiteRequestFilterEnabled)
                 .append("allowedCrawlDomains", allowedCrawlDomains)
+                .append("excludedCrawlDomains", excludedCrawlDomains)
                 .append("crawlDelayStrategy", crawlDelayStrategy)
                 .append("fixedCrawlDelayDurationInMillis", fixedCrawlDelayDurationInMillis)
                 .append("minimumCrawlDelayDurationInMillis", minCrawlDelayDurationInMillis)
                 .append("maximumCrawlDelayDurationInMillis", maxCrawlDelayDurationInMillis)
+                .append("workerCount", workerCount)
+                .append("staticPageUrlPatterns", staticPageUrlPatterns)
+                .append("isHeadRequestSkippingEnabled", isHeadRequestSkippingEnabled)
+                .append("crawlFrontierStorage", crawlFrontierStorage)
+                .append("crawlFrontierDirectory", crawlFrontierDirectory)
+                .append("crawlFrontierHotWindowSize", crawlFrontierHotWindowSize)
+                .append("checkpointDirectory", checkpointDirectory)
+                .append("checkpointIntervalInMillis", checkpointIntervalInMillis)
+                .append("browserRecyclingPageLimit", browserRecyclingPageLimit)
+                .append("browserRecyclingMemoryLimitInBytes", browserRecyclingMemoryLimitInBytes)
+                .append("isSubresourceCaptureEnabled", isSubresourceCaptureEnabled)
+                .append("subresourceBlockingRules", subresourceBlockingRules)
+                .append("isAsyncCallbackExecutionEnabled", isAsyncCallbackExecutionEnabled)
+                .append("callbackThreadCount", callbackThreadCount)
+                .append("callbackQueueCapacity", callbackQueueCapacity)
+                .append("callbackOrdering", callbackOrdering)
                 .toString();
     }
 
@@ -187,9 +452,13 @@ public final class CrawlerConfiguration implements Serializable {
      */
     public static final class CrawlerConfigurationBuilder {
 
+        private static final String WILDCARD_PREFIX = "*.";
         private static final CrawlStrategy DEFAULT_CRAWL_STRATEGY = CrawlStrategy.BREADTH_FIRST;
         private static final boolean IS_DUPLICATE_REQUEST_FILTER_ENABLED_BY_DEFAULT = true;
         private static final boolean IS_OFFSITE_REQUEST_FILTER_ENABLED_BY_DEFAULT = false;
+        private static final DuplicateRequestFilterStrategy
+                DEFAULT_DUPLICATE_REQUEST_FILTER_STRATEGY = DuplicateRequestFilterStrategy.EXACT;
+        private static final double DEFAULT_DUPLICATE_REQUEST_FILTER_FALSE_POSITIVE_RATE = 0.001;
         private static final int DEFAULT_MAX_CRAWL_DEPTH = 0;
         private static final CrawlDelayStrategy DEFAULT_CRAWL_DELAY = CrawlDelayStrategy.FIXED;
         private static final long DEFAULT_FIXED_CRAWL_DELAY_IN_MILLIS
@@ -198,18 +467,52 @@ public final class CrawlerConfiguration implements Serializable {
                 = Duration.ofSeconds(1).toMillis();
         private static final long DEFAULT_MAX_CRAWL_DELAY_IN_MILLIS
                 = Duration.ofMinutes(1).toMillis();
+        private static final int DEFAULT_WORKER_COUNT = 1;
+        private static final boolean IS_HEAD_REQUEST_SKIPPING_ENABLED_BY_DEFAULT = false;
+        private static final CrawlFrontierStorage DEFAULT_CRAWL_FRONTIER_STORAGE =
+                CrawlFrontierStorage.MEMORY;
+        private static final int DEFAULT_CRAWL_FRONTIER_HOT_WINDOW_SIZE = 100_000;
+        private static final long DEFAULT_CHECKPOINT_INTERVAL_IN_MILLIS
+                = Duration.ofMinutes(1).toMillis();
+        private static final int DEFAULT_BROWSER_RECYCLING_PAGE_LIMIT = 0;
+        private static final long DEFAULT_BROWSER_RECYCLING_MEMORY_LIMIT_IN_BYTES = 0;
+        private static final boolean IS_SUBRESOURCE_CAPTURE_ENABLED_BY_DEFAULT = false;
+        private static final boolean IS_ASYNC_CALLBACK_EXECUTION_ENABLED_BY_DEFAULT = false;
+        private static final int DEFAULT_CALLBACK_THREAD_COUNT = 1;
+        private static final int DEFAULT_CALLBACK_QUEUE_CAPACITY = 100;
+        private static final CallbackOrdering DEFAULT_CALLBACK_ORDERING =
+                CallbackOrdering.PER_HOST;
 
         private final Set<CrawlDomain> allowedCrawlDomains;
+        private final Set<CrawlDomain> excludedCrawlDomains;
         private final Set<CrawlRequest> crawlSeeds;
+        private final List<Pattern> staticPageUrlPatterns;
 
         private CrawlStrategy crawlStrategy;
         private boolean isDuplicateRequestFilterEnabled;
+        private DuplicateRequestFilterStrategy duplicateRequestFilterStrategy;
+        private double duplicateRequestFilterFalsePositiveRate;
         private boolean isOffsiteRequestFilterEnabled;
         private int maxCrawlDepth;
         private CrawlDelayStrategy crawlDelayStrategy;
         private long fixedCrawlDelayDurationInMillis;
         private long minCrawlDelayDurationInMillis;
         private long maxCrawlDelayDurationInMillis;
+        private int workerCount;
+        private boolean isHeadRequestSkippingEnabled;
+        private CrawlFrontierStorage crawlFrontierStorage;
+        private File crawlFrontierDirectory;
+        private int crawlFrontierHotWindowSize;
+        private File checkpointDirectory;
+        private long checkpointIntervalInMillis;
+        private int browserRecyclingPageLimit;
+        private long browserRecyclingMemoryLimitInBytes;
+        private boolean isSubresourceCaptureEnabled;
+        private SubresourceBlockingRules subresourceBlockingRules;
+        private boolean isAsyncCallbackExecutionEnabled;
+        private int callbackThreadCount;
+        private int callbackQueueCapacity;
+        private CallbackOrdering callbackOrdering;
 
         /**
          * Creates a {@link CrawlerConfigurationBuilder} instance.
@@ -217,32 +520,47 @@ public final class CrawlerConfiguration implements Serializable {
         public CrawlerConfigurationBuilder() {
             // Initialize with default values
             allowedCrawlDomains = new HashSet<>();
+            excludedCrawlDomains = new HashSet<>();
             crawlSeeds = new HashSet<>();
             crawlStrategy = DEFAULT_CRAWL_STRATEGY;
             isDuplicateRequestFilterEnabled = IS_DUPLICATE_REQUEST_FILTER_ENABLED_BY_DEFAULT;
+            duplicateRequestFilterStrategy = DEFAULT_DUPLICATE_REQUEST_FILTER_STRATEGY;
+            duplicateRequestFilterFalsePositiveRate =
+                    DEFAULT_DUPLICATE_REQUEST_FILTER_FALSE_POSITIVE_RATE;
             isOffsiteRequestFilterEnabled = IS_OFFSITE_REQUEST_FILTER_ENABLED_BY_DEFAULT;
             maxCrawlDepth = DEFAULT_MAX_CRAWL_DEPTH;
             crawlDelayStrategy = DEFAULT_CRAWL_DELAY;
             fixedCrawlDelayDurationInMillis = DEFAULT_FIXED_CRAWL_DELAY_IN_MILLIS;
             minCrawlDelayDurationInMillis = DEFAULT_MIN_CRAWL_DELAY_IN_MILLIS;
             maxCrawlDelayDurationInMillis = DEFAULT_MAX_CRAWL_DELAY_IN_MILLIS;
+            workerCount = DEFAULT_WORKER_COUNT;
+            staticPageUrlPatterns = new ArrayList<>();
+            isHeadRequestSkippingEnabled = IS_HEAD_REQUEST_SKIPPING_ENABLED_BY_DEFAULT;
+            crawlFrontierStorage = DEFAULT_CRAWL_FRONTIER_STORAGE;
+            crawlFrontierHotWindowSize = DEFAULT_CRAWL_FRONTIER_HOT_WINDOW_SIZE;
+            checkpointIntervalInMillis = DEFAULT_CHECKPOINT_INTERVAL_IN_MILLIS;
+            browserRecyclingPageLimit = DEFAULT_BROWSER_RECYCLING_PAGE_LIMIT;
+            browserRecyclingMemoryLimitInBytes = DEFAULT_BROWSER_RECYCLING_MEMORY_LIMIT_IN_BYTES;
+            isSubresourceCaptureEnabled = IS_SUBRESOURCE_CAPTURE_ENABLED_BY_DEFAULT;
+            subresourceBlockingRules = SubresourceBlockingRules.createEmpty();
+            isAsyncCallbackExecutionEnabled = IS_ASYNC_CALLBACK_EXECUTION_ENABLED_BY_DEFAULT;
+            callbackThreadCount = DEFAULT_CALLBACK_THREAD_COUNT;
+            callbackQueueCapacity = DEFAULT_CALLBACK_QUEUE_CAPACITY;
+            callbackOrdering = DEFAULT_CALLBACK_ORDERING;
         }
 
         /**
-         * Appends an internet domain to the list of allowed crawl domains.
+         * Appends an internet domain to the list of allowed crawl domains. The domain and all of
+         * its subdomains are allowed. If the domain name starts with <code>*.</code> (for example
+         * <code>*.example.com</code>), only its subdomains are allowed.
          *
-         * @param allowedCrawlDomain a well-formed internet domain name
+         * @param allowedCrawlDomain a well-formed internet domain name, optionally prefixed with
+         *                           <code>*.</code>
          *
          * @return the <code>CrawlerConfigurationBuilder</code> instance
          */
         public CrawlerConfigurationBuilder addAllowedCrawlDomain(final String allowedCrawlDomain) {
-            InternetDomainName domain = InternetDomainName.from(allowedCrawlDomain);
-
-            Validate.isTrue(domain.isUnderPublicSuffix(),
-                    String.format("The domain (\"%s\") is not under public suffix.",
-                            allowedCrawlDomain));
-
-            allowedCrawlDomains.add(new CrawlDomain(domain));
+            allowedCrawlDomains.add(createCrawlDomain(allowedCrawlDomain));
             return this;
         }
 
@@ -259,6 +577,37 @@ public final class CrawlerConfiguration implements Serializable {
             return this;
         }
 
+        /**
+         * Appends an internet domain to the list of excluded crawl domains. When the offsite
+         * request filter is enabled, requests to the domain and all of its subdomains are filtered,
+         * even if they belong to an allowed crawl domain. If the domain name starts with
+         * <code>*.</code>, only its subdomains are excluded. The most specific crawl domain
+         * decides if a request is offsite.
+         *
+         * @param excludedCrawlDomain a well-formed internet domain name, optionally prefixed with
+         *                            <code>*.</code>
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder addExcludedCrawlDomain(
+                final String excludedCrawlDomain) {
+            excludedCrawlDomains.add(createCrawlDomain(excludedCrawlDomain));
+            return this;
+        }
+
+        /**
+         * Appends a list of internet domains to the list of excluded crawl domains.
+         *
+         * @param excludedCrawlDomains a list of well-formed internet domain names
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder addExcludedCrawlDomains(
+                final List<String> excludedCrawlDomains) {
+            excludedCrawlDomains.forEach(this::addExcludedCrawlDomain);
+            return this;
+        }
+
         /**
          * Appends a crawl request to the set of crawl seeds.
          *
@@ -314,6 +663,40 @@ public final class CrawlerConfiguration implements Serializable {
             return this;
         }
 
+        /**
+         * Sets the strategy which defines how the duplicate request filter stores the
+         * fingerprints of the seen URLs. The compact and Bloom filter strategies use a fraction of
+         * the memory of the exact one, which matters on large crawls.
+         *
+         * @param strategy the strategy of the duplicate request filter
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setDuplicateRequestFilterStrategy(
+                final DuplicateRequestFilterStrategy strategy) {
+            Validate.notNull(strategy, "The strategy parameter cannot be null.");
+
+            this.duplicateRequestFilterStrategy = strategy;
+            return this;
+        }
+
+        /**
+         * Sets the maximum rate of new requests falsely filtered as duplicates when the Bloom
+         * filter strategy is used. Lower rates require more memory.
+         *
+         * @param falsePositiveRate the false positive rate (should be between 0 and 1, exclusive)
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setDuplicateRequestFilterFalsePositiveRate(
+                final double falsePositiveRate) {
+            Validate.isTrue(falsePositiveRate > 0 && falsePositiveRate < 1,
+                    "The false positive rate must be between 0 and 1 (exclusive).");
+
+            this.duplicateRequestFilterFalsePositiveRate = falsePositiveRate;
+            return this;
+        }
+
         /**
          * Enables or disables the offsite request filter.
          *
@@ -343,7 +726,9 @@ public final class CrawlerConfiguration implements Serializable {
 
         /**
          * Sets the crawl delay strategy to be used by the crawler. This strategy defines how the
-         * delay between each request is determined.
+         * delay between each request is determined. The delay is applied per host: requests to a
+         * host are sent one at a time with the delay between them, while requests to other hosts
+         * are not held back. A fixed delay of zero disables the per-host scheduling.
          *
          * @param strategy the crawl delay strategy
          *
@@ -417,13 +802,345 @@ public final class CrawlerConfiguration implements Serializable {
             return this;
         }
 
+        /**
+         * Sets the number of workers that crawl in parallel. Each worker starts its own browser
+         * and internal proxy server, and takes crawl candidates from the shared crawl frontier.
+         *
+         * @param workerCount the number of workers (should be at least 1)
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setWorkerCount(final int workerCount) {
+            Validate.isTrue(workerCount >= 1, "The worker count must be at least 1.");
+
+            this.workerCount = workerCount;
+            return this;
+        }
+
+        /**
+         * Appends a pattern to the list of static page URL patterns. Candidates whose request URL
+         * matches any of these patterns are fetched with a single HTTP GET request and parsed with
+         * a lightweight HTML parser instead of being opened in the browser. This is much faster,
+         * but JavaScript is not executed on these pages. The finders locate the elements of these
+         * pages with the parser, which supports the locating mechanisms of <code>By</code>, but
+         * not custom ones.
+         *
+         * @param urlPattern the pattern of the URLs to fetch over HTTP only
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder addStaticPageUrlPattern(final Pattern urlPattern) {
+            Validate.notNull(urlPattern, "The urlPattern parameter cannot be null.");
+
+            staticPageUrlPatterns.add(urlPattern);
+            return this;
+        }
+
+        /**
+         * Appends a list of patterns to the list of static page URL patterns. Candidates whose
+         * request URL matches any of these patterns are fetched with a single HTTP GET request and
+         * parsed with a lightweight HTML parser instead of being opened in the browser.
+         *
+         * @param urlPatterns the list of patterns of the URLs to fetch over HTTP only
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder addStaticPageUrlPatterns(
+                final List<Pattern> urlPatterns) {
+            urlPatterns.forEach(this::addStaticPageUrlPattern);
+            return this;
+        }
+
+        /**
+         * Enables or disables the HTTP HEAD request skipping. By default, an HTTP HEAD request is
+         * sent before opening each URL in the browser to check for redirects and non-HTML content.
+         * When enabled, the crawler learns the MIME types of similar URLs during the crawl and
+         * skips this extra round trip for the ones that are known to point to HTML content.
+         * Redirects and non-HTML content are then detected from the response captured while
+         * loading the page in the browser.
+         *
+         * @param skippingEnabled <code>true</code> enables, <code>false</code> disables the HEAD
+         *                        request skipping
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setHeadRequestSkippingEnabled(
+                final boolean skippingEnabled) {
+            this.isHeadRequestSkippingEnabled = skippingEnabled;
+            return this;
+        }
+
+        /**
+         * Sets the storage where the crawl frontier keeps the crawl candidates. With disk storage,
+         * only a bounded hot window of candidates is kept in memory and the rest is spilled to
+         * segment files, which allows crawls larger than the heap. With persistent storage, the
+         * candidates and the URL fingerprints are kept in an embedded key-value store in the crawl
+         * frontier directory, so a crawl can be resumed after a crash by creating a crawler with
+         * the same configuration and resuming it. The statistics are not kept in the store, so
+         * the resumed crawler counts the recovered candidates as remaining and starts the other
+         * counters from zero. Persistent storage cannot be used together with checkpoints.
+         *
+         * @param storage the storage of the crawl candidates
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setCrawlFrontierStorage(
+                final CrawlFrontierStorage storage) {
+            Validate.notNull(storage, "The storage parameter cannot be null.");
+
+            this.crawlFrontierStorage = storage;
+            return this;
+        }
+
+        /**
+         * Sets the directory where the crawl frontier stores the crawl candidates on disk. If not
+         * set, a temporary directory is used. The directory must be preserved to resume a crawl
+         * from a saved state, or from the persistent store after a crash.
+         *
+         * @param directory the directory of the crawl frontier
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setCrawlFrontierDirectory(final File directory) {
+            Validate.notNull(directory, "The directory parameter cannot be null.");
+            Validate.isTrue(directory.isDirectory(), "The directory parameter must be an "
+                    + "existing directory.");
+
+            this.crawlFrontierDirectory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of crawl candidates kept in memory when the candidates are
+         * stored on disk.
+         *
+         * @param hotWindowSize the maximum number of crawl candidates kept in memory (should be at
+         *                      least 2)
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setCrawlFrontierHotWindowSize(
+                final int hotWindowSize) {
+            Validate.isTrue(hotWindowSize >= 2, "The hot window size must be at least 2.");
+
+            this.crawlFrontierHotWindowSize = hotWindowSize;
+            return this;
+        }
+
+        /**
+         * Sets the directory where the crawler writes its checkpoints. When set, the changes of
+         * the crawl frontier are continuously appended to a journal in this directory, which is
+         * periodically compacted into a snapshot. Resuming a crawler created with this
+         * configuration restores the state from the checkpoint, and starting it discards the
+         * previous checkpoint. Checkpoints cannot be used with persistent crawl frontier storage.
+         *
+         * @param directory the directory of the checkpoints
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setCheckpointDirectory(final File directory) {
+            Validate.notNull(directory, "The directory parameter cannot be null.");
+            Validate.isTrue(directory.isDirectory(), "The directory parameter must be an "
+                    + "existing directory.");
+
+            this.checkpointDirectory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the interval between the checkpoints of the crawler. At each checkpoint the journal
+         * is flushed to disk together with the statistics of the crawl.
+         *
+         * @param checkpointInterval the interval between the checkpoints
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setCheckpointInterval(
+                final Duration checkpointInterval) {
+            Validate.notNull(checkpointInterval,
+                    "The checkpointInterval parameter cannot be null.");
+            Validate.isTrue(!checkpointInterval.isNegative() && !checkpointInterval.isZero(),
+                    "The checkpoint interval must be positive.");
+
+            this.checkpointIntervalInMillis = checkpointInterval.toMillis();
+            return this;
+        }
+
+        /**
+         * Sets the number of pages after which a browser is replaced with a new one, to keep
+         * memory leaks of long-running browsers in check. When browser recycling is enabled, a
+         * spare browser is warmed up in the background for each worker, so the replacement does
+         * not delay the crawl.
+         *
+         * @param pageLimit the number of pages after which a browser is replaced (0 means no
+         *                  limit)
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setBrowserRecyclingPageLimit(final int pageLimit) {
+            Validate.isTrue(pageLimit >= 0, "The page limit cannot be negative.");
+
+            this.browserRecyclingPageLimit = pageLimit;
+            return this;
+        }
+
+        /**
+         * Sets the JavaScript heap size above which a browser is replaced with a new one. The heap
+         * size is checked after each page using the <code>performance.memory</code> API, which is
+         * only supported by Chromium-based browsers; other browsers are not affected by this
+         * limit.
+         *
+         * @param memoryLimitInBytes the JavaScript heap size limit in bytes (0 means no limit)
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setBrowserRecyclingMemoryLimit(
+                final long memoryLimitInBytes) {
+            Validate.isTrue(memoryLimitInBytes >= 0, "The memory limit cannot be negative.");
+
+            this.browserRecyclingMemoryLimitInBytes = memoryLimitInBytes;
+            return this;
+        }
+
+        /**
+         * Enables or disables the capture of the subresource responses. By default, the internal
+         * proxy only records the status, headers and redirect location of the main document of
+         * each page. When enabled, the responses of the subresources (images, scripts, etc.) are
+         * recorded as well and made available through the complete crawl responses, at the cost
+         * of more memory per page.
+         *
+         * @param captureEnabled <code>true</code> enables, <code>false</code> disables the
+         *                       subresource capture
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setSubresourceCaptureEnabled(
+                final boolean captureEnabled) {
+            this.isSubresourceCaptureEnabled = captureEnabled;
+            return this;
+        }
+
+        /**
+         * Sets the rules which specify the subresources (images, fonts, videos, trackers, etc.)
+         * that the internal proxy server blocks instead of fetching them from the network. By
+         * default, no subresources are blocked.
+         *
+         * @param blockingRules the subresource blocking rules
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setSubresourceBlockingRules(
+                final SubresourceBlockingRules blockingRules) {
+            Validate.notNull(blockingRules, "The blockingRules parameter cannot be null.");
+
+            this.subresourceBlockingRules = blockingRules;
+            return this;
+        }
+
+        /**
+         * Enables or disables the asynchronous callback execution. By default, the callbacks are
+         * executed by the workers, so the browser is idle while they are running. When enabled,
+         * the workers hand the events over to a separate pool of callback threads and continue
+         * with the next crawl candidate right away. The complete crawl responses then contain a
+         * snapshot of the page instead of the browser, which is no longer accessible from the
+         * callbacks. The finders search the snapshot, which supports the locating mechanisms of
+         * <code>By</code>, but not custom ones. A crawl candidate is only considered to be
+         * completed (and the crawl to be finished) once its callbacks have returned.
+         *
+         * @param executionEnabled <code>true</code> enables, <code>false</code> disables the
+         *                         asynchronous callback execution
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setAsyncCallbackExecutionEnabled(
+                final boolean executionEnabled) {
+            this.isAsyncCallbackExecutionEnabled = executionEnabled;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads which execute the callbacks asynchronously. With global
+         * callback ordering, a single thread is used regardless of this setting.
+         *
+         * @param threadCount the number of callback threads
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setCallbackThreadCount(final int threadCount) {
+            Validate.isTrue(threadCount >= 1, "The callback thread count must be at least 1.");
+
+            this.callbackThreadCount = threadCount;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of callbacks waiting for asynchronous execution. When the queue
+         * is full, the workers wait before processing the next crawl candidate, which keeps the
+         * number of page snapshots held in memory bounded.
+         *
+         * @param queueCapacity the capacity of the callback queue
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setCallbackQueueCapacity(final int queueCapacity) {
+            Validate.isTrue(queueCapacity >= 1, "The callback queue capacity must be at least 1.");
+
+            this.callbackQueueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Sets the ordering guarantee of the callbacks which are executed asynchronously.
+         *
+         * @param ordering the ordering guarantee of the callbacks
+         *
+         * @return the <code>CrawlerConfigurationBuilder</code> instance
+         */
+        public CrawlerConfigurationBuilder setCallbackOrdering(final CallbackOrdering ordering) {
+            Validate.notNull(ordering, "The ordering parameter cannot be null.");
+
+            this.callbackOrdering = ordering;
+            return this;
+        }
+
         /**
          * Builds the configured <code>CrawlerConfiguration</code> instance.
          *
          * @return the configured <code>CrawlerConfiguration</code> instance
+         *
+         * @throws IllegalStateException if persistent crawl frontier storage is combined with a
+         *                               checkpoint directory
          */
         public CrawlerConfiguration build() {
+            Validate.validState(crawlFrontierStorage != CrawlFrontierStorage.PERSISTENT
+                            || checkpointDirectory == null,
+                    "Checkpoints cannot be used with persistent crawl frontier storage, the "
+                            + "store already keeps the crawl frontier.");
+
             return new CrawlerConfiguration(this);
         }
+
+        /**
+         * Creates a crawl domain from the given domain name, which is a wildcard crawl domain if
+         * the name starts with <code>*.</code>.
+         *
+         * @param crawlDomain a well-formed internet domain name, optionally prefixed with
+         *                    <code>*.</code>
+         *
+         * @return the crawl domain
+         */
+        private static CrawlDomain createCrawlDomain(final String crawlDomain) {
+            Validate.notNull(crawlDomain, "The crawlDomain parameter cannot be null.");
+
+            boolean isWildcard = crawlDomain.startsWith(WILDCARD_PREFIX);
+            InternetDomainName domain = InternetDomainName.from(isWildcard
+                    ? crawlDomain.substring(WILDCARD_PREFIX.length()) : crawlDomain);
+
+            Validate.isTrue(domain.isUnderPublicSuffix(),
+                    String.format("The domain (\"%s\") is not under public suffix.",
+                            crawlDomain));
+
+            return new CrawlDomain(domain, isWildcard);
+        }
     }
 }
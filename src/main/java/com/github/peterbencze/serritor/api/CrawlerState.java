@@ -16,19 +16,47 @@
 
 package com.github.peterbencze.serritor.api;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.io.StreamCorruptedException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import org.apache.commons.lang3.Validate;
 
 /**
  * Represents the current state of the crawling session. More specifically, it contains a set of
  * state objects that can be later reused to resume that particular session.
+ *
+ * <p>The state can be saved with {@link #writeTo(OutputStream, boolean)}, which prefixes the
+ * serialized state with a versioned header and optionally compresses it. The crawl candidates,
+ * crawl requests and URL fingerprints, which make up the bulk of the state, are serialized in a
+ * compact binary format.
  */
 public final class CrawlerState implements Serializable {
 
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAGIC_NUMBER = 0x53455253;
+    private static final int FORMAT_VERSION = 1;
+    private static final int UNCOMPRESSED = 0;
+    private static final int DEFLATE_COMPRESSED = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
     private final Map<Class<? extends Serializable>, Serializable> stateObjects;
 
     /**
@@ -62,4 +90,122 @@ public final class CrawlerState implements Serializable {
     public <T extends Serializable> Optional<T> getStateObject(final Class<T> stateObjectClass) {
         return Optional.ofNullable((T) stateObjects.get(stateObjectClass));
     }
+
+    /**
+     * Writes the state to the stream, prefixed with a header which contains the format version and
+     * the compression method. The stream is not closed.
+     *
+     * @param outputStream the stream to write the state to
+     * @param isCompressed indicates if the state should be compressed with DEFLATE
+     *
+     * @throws IOException if an I/O error occurs while writing the state
+     */
+    public void writeTo(final OutputStream outputStream, final boolean isCompressed)
+            throws IOException {
+        Validate.notNull(outputStream, "The outputStream parameter cannot be null.");
+
+        DataOutputStream headerStream = new DataOutputStream(outputStream);
+        headerStream.writeInt(MAGIC_NUMBER);
+        headerStream.writeByte(FORMAT_VERSION);
+        headerStream.writeByte(isCompressed ? DEFLATE_COMPRESSED : UNCOMPRESSED);
+        headerStream.flush();
+
+        if (!isCompressed) {
+            writeObjectTo(outputStream);
+            return;
+        }
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            DeflaterOutputStream deflaterStream =
+                    new DeflaterOutputStream(outputStream, deflater, BUFFER_SIZE);
+            writeObjectTo(deflaterStream);
+            deflaterStream.finish();
+            deflaterStream.flush();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Reads a state written by {@link #writeTo(OutputStream, boolean)} from the stream. The stream
+     * is not closed, and it may be read past the end of the state.
+     *
+     * @param inputStream the stream to read the state from
+     *
+     * @return the state read from the stream
+     *
+     * @throws IOException if an I/O error occurs while reading the state, or the stream does not
+     *                     contain a supported state
+     */
+    public static CrawlerState readFrom(final InputStream inputStream) throws IOException {
+        Validate.notNull(inputStream, "The inputStream parameter cannot be null.");
+
+        DataInputStream headerStream = new DataInputStream(inputStream);
+        if (headerStream.readInt() != MAGIC_NUMBER) {
+            throw new StreamCorruptedException("The stream does not contain a crawler state");
+        }
+
+        int formatVersion = headerStream.readUnsignedByte();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new StreamCorruptedException(
+                    String.format("Unsupported crawler state format version: %d", formatVersion));
+        }
+
+        int compressionMethod = headerStream.readUnsignedByte();
+        switch (compressionMethod) {
+            case UNCOMPRESSED:
+                return readObjectFrom(inputStream);
+            case DEFLATE_COMPRESSED:
+                Inflater inflater = new Inflater();
+                try {
+                    return readObjectFrom(
+                            new InflaterInputStream(inputStream, inflater, BUFFER_SIZE));
+                } finally {
+                    inflater.end();
+                }
+            default:
+                throw new StreamCorruptedException(
+                        String.format("Unsupported compression method: %d", compressionMethod));
+        }
+    }
+
+    /**
+     * Serializes the state to the stream.
+     *
+     * @param outputStream the stream to write the state to
+     *
+     * @throws IOException if an I/O error occurs while writing the state
+     */
+    private void writeObjectTo(final OutputStream outputStream) throws IOException {
+        ObjectOutputStream objectStream = new ObjectOutputStream(
+                new BufferedOutputStream(outputStream, BUFFER_SIZE));
+        objectStream.writeObject(this);
+        objectStream.flush();
+    }
+
+    /**
+     * Deserializes a state from the stream.
+     *
+     * @param inputStream the stream to read the state from
+     *
+     * @return the state read from the stream
+     *
+     * @throws IOException if an I/O error occurs while reading the state
+     */
+    private static CrawlerState readObjectFrom(final InputStream inputStream) throws IOException {
+        ObjectInputStream objectStream = new ObjectInputStream(
+                new BufferedInputStream(inputStream, BUFFER_SIZE));
+
+        try {
+            Object state = objectStream.readObject();
+            if (!(state instanceof CrawlerState)) {
+                throw new StreamCorruptedException("The stream does not contain a crawler state");
+            }
+
+            return (CrawlerState) state;
+        } catch (ClassNotFoundException exception) {
+            throw new IOException("Failed to read crawler state", exception);
+        }
+    }
 }
@@ -22,6 +22,7 @@ import com.github.peterbencze.serritor.api.web.http.HttpHandler;
 import com.github.peterbencze.serritor.api.web.http.HttpMethod;
 import com.github.peterbencze.serritor.api.web.socket.WebSocketHandler;
 import com.github.peterbencze.serritor.internal.web.SecuredWebApi;
+import com.github.peterbencze.serritor.internal.web.http.MetricsHttpHandler;
 import java.util.Set;
 import org.apache.commons.lang3.Validate;
 import org.eclipse.jetty.websocket.api.Session;
@@ -70,6 +71,17 @@ public abstract class CrawlerWithSecuredWebApi extends Crawler {
         super(state);
 
         webApi = new SecuredWebApi(serverConfig, accessControlConfig);
+
+        // The metrics endpoint is only accessible for authenticated users
+        serverConfig.getMetricsEndpointPath().ifPresent(path -> {
+            MetricsHttpHandler handler = new MetricsHttpHandler(createMetricsExporter());
+            Set<String> allowedRoles = accessControlConfig.getMetricsEndpointAllowedRoles();
+            if (allowedRoles.isEmpty()) {
+                webApi.addHttpEndpoint(HttpMethod.GET, path, handler);
+            } else {
+                webApi.addHttpEndpoint(HttpMethod.GET, path, allowedRoles, handler);
+            }
+        });
     }
 
     /**
@@ -21,6 +21,7 @@ import com.github.peterbencze.serritor.api.web.http.HttpHandler;
 import com.github.peterbencze.serritor.api.web.http.HttpMethod;
 import com.github.peterbencze.serritor.api.web.socket.WebSocketHandler;
 import com.github.peterbencze.serritor.internal.web.WebApi;
+import com.github.peterbencze.serritor.internal.web.http.MetricsHttpHandler;
 import java.util.Set;
 import org.apache.commons.lang3.Validate;
 import org.eclipse.jetty.websocket.api.Session;
@@ -61,6 +62,10 @@ public abstract class CrawlerWithWebApi extends Crawler {
         super(state);
 
         webApi = new WebApi(serverConfig);
+
+        serverConfig.getMetricsEndpointPath()
+                .ifPresent(path -> webApi.addHttpEndpoint(HttpMethod.GET, path,
+                        new MetricsHttpHandler(createMetricsExporter())));
     }
 
     /**
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.api;
+
+/**
+ * Available duplicate request filter strategies which define how the fingerprints of the seen URLs
+ * are stored.
+ */
+public enum DuplicateRequestFilterStrategy {
+
+    /**
+     * Stores the full fingerprints. Never reports false duplicates, but uses the most memory.
+     */
+    EXACT,
+
+    /**
+     * Stores 64-bit fingerprints in a primitive hash set. Uses about a tenth of the memory and
+     * false duplicates are practically impossible.
+     */
+    COMPACT,
+
+    /**
+     * Stores the fingerprints in a scalable Bloom filter. Uses the least memory, but reports false
+     * duplicates at the configured rate.
+     */
+    BLOOM_FILTER
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.api;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Summary of the latencies of an operation performed by the crawler. The percentiles are
+ * approximate, their relative error is about 3%.
+ */
+@JsonPropertyOrder({
+        "count",
+        "meanInMillis",
+        "p50InMillis",
+        "p95InMillis",
+        "p99InMillis",
+        "maxInMillis"
+})
+public final class LatencyStats {
+
+    private final long count;
+    private final double meanInMillis;
+    private final double p50InMillis;
+    private final double p95InMillis;
+    private final double p99InMillis;
+    private final double maxInMillis;
+
+    /**
+     * Creates a {@link LatencyStats} instance.
+     *
+     * @param count        the number of recorded latencies
+     * @param meanInMillis the mean latency in milliseconds
+     * @param p50InMillis  the median latency in milliseconds
+     * @param p95InMillis  the 95th percentile latency in milliseconds
+     * @param p99InMillis  the 99th percentile latency in milliseconds
+     * @param maxInMillis  the maximum latency in milliseconds
+     */
+    public LatencyStats(
+            final long count,
+            final double meanInMillis,
+            final double p50InMillis,
+            final double p95InMillis,
+            final double p99InMillis,
+            final double maxInMillis) {
+        this.count = count;
+        this.meanInMillis = meanInMillis;
+        this.p50InMillis = p50InMillis;
+        this.p95InMillis = p95InMillis;
+        this.p99InMillis = p99InMillis;
+        this.maxInMillis = maxInMillis;
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     *
+     * @return the number of recorded latencies
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean latency in milliseconds.
+     *
+     * @return the mean latency in milliseconds
+     */
+    public double getMeanInMillis() {
+        return meanInMillis;
+    }
+
+    /**
+     * Returns the median latency in milliseconds.
+     *
+     * @return the median latency in milliseconds
+     */
+    public double getP50InMillis() {
+        return p50InMillis;
+    }
+
+    /**
+     * Returns the 95th percentile latency in milliseconds.
+     *
+     * @return the 95th percentile latency in milliseconds
+     */
+    public double getP95InMillis() {
+        return p95InMillis;
+    }
+
+    /**
+     * Returns the 99th percentile latency in milliseconds.
+     *
+     * @return the 99th percentile latency in milliseconds
+     */
+    public double getP99InMillis() {
+        return p99InMillis;
+    }
+
+    /**
+     * Returns the maximum latency in milliseconds.
+     *
+     * @return the maximum latency in milliseconds
+     */
+    public double getMaxInMillis() {
+        return maxInMillis;
+    }
+
+    /**
+     * Returns a string representation of the latency statistics.
+     *
+     * @return a string representation of the latency statistics
+     */
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("count", count)
+                .append("meanInMillis", meanInMillis)
+                .append("p50InMillis", p50InMillis)
+                .append("p95InMillis", p95InMillis)
+                .append("p99InMillis", p99InMillis)
+                .append("maxInMillis", maxInMillis)
+                .toString();
+    }
+}
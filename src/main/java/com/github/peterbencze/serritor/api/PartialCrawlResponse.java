@@ -16,15 +16,12 @@
 
 package com.github.peterbencze.serritor.api;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import net.lightbody.bmp.core.har.HarResponse;
 import org.apache.http.Header;
 import org.apache.http.HttpResponse;
-import org.apache.http.message.BasicHeader;
 
 /**
  * Represents a partial response that only contains HTTP header information.
@@ -47,17 +44,20 @@ public class PartialCrawlResponse {
     }
 
     /**
-     * Creates a {@link PartialCrawlResponse} instance from an HAR capture.
+     * Creates a {@link PartialCrawlResponse} instance from the response captured by the internal
+     * proxy server.
      *
-     * @param harResponse the HAR capture
+     * @param statusCode the HTTP status code of the response
+     * @param statusText the status message corresponding to the status code
+     * @param headers    the headers of the response
      */
-    public PartialCrawlResponse(final HarResponse harResponse) {
-        statusCode = harResponse.getStatus();
-        statusText = harResponse.getStatusText();
-        headers = new ArrayList<>();
-        harResponse.getHeaders()
-                .forEach(header -> headers.add(new BasicHeader(header.getName(),
-                        header.getValue())));
+    public PartialCrawlResponse(
+            final int statusCode,
+            final String statusText,
+            final List<Header> headers) {
+        this.statusCode = statusCode;
+        this.statusText = statusText;
+        this.headers = headers;
     }
 
     /**
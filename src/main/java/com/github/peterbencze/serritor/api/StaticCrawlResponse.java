@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.api;
+
+import org.apache.http.HttpResponse;
+import org.jsoup.nodes.Document;
+
+/**
+ * Represents a crawl response of a static page that was fetched over HTTP only, without using the
+ * browser. It provides access to the HTTP header information and the parsed HTML document.
+ */
+public final class StaticCrawlResponse extends PartialCrawlResponse {
+
+    private final Document document;
+
+    /**
+     * Creates a {@link StaticCrawlResponse} instance from an HTTP response message.
+     *
+     * @param httpResponse the HTTP response message
+     * @param document     the parsed HTML document
+     */
+    public StaticCrawlResponse(final HttpResponse httpResponse, final Document document) {
+        super(httpResponse);
+
+        this.document = document;
+    }
+
+    /**
+     * Returns the parsed HTML document.
+     *
+     * @return the parsed HTML document
+     */
+    public Document getDocument() {
+        return document;
+    }
+}
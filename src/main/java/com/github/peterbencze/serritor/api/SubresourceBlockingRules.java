@@ -0,0 +1,223 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.api;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Declarative rules which specify the subresources (images, fonts, scripts, etc.) of the pages that
+ * the internal proxy server blocks instead of fetching them from the network. A subresource is
+ * blocked if its MIME type, file extension or host matches any of the block rules, unless its host
+ * matches any of the allowed host patterns. The main document of the page is never blocked.
+ */
+public final class SubresourceBlockingRules implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Set<String> blockedMimeTypes;
+    private final Set<String> blockedExtensions;
+    private final List<Pattern> blockedHostPatterns;
+    private final List<Pattern> allowedHostPatterns;
+
+    private SubresourceBlockingRules(final SubresourceBlockingRulesBuilder builder) {
+        blockedMimeTypes = builder.blockedMimeTypes;
+        blockedExtensions = builder.blockedExtensions;
+        blockedHostPatterns = builder.blockedHostPatterns;
+        allowedHostPatterns = builder.allowedHostPatterns;
+    }
+
+    /**
+     * Creates a set of rules which does not block any subresources.
+     *
+     * @return the set of rules which does not block any subresources
+     */
+    public static SubresourceBlockingRules createEmpty() {
+        return new SubresourceBlockingRulesBuilder().build();
+    }
+
+    /**
+     * Returns the MIME types of the blocked subresources. The MIME types are in lower case and may
+     * contain a wildcard subtype (for example <code>image/*</code>).
+     *
+     * @return the MIME types of the blocked subresources
+     */
+    public Set<String> getBlockedMimeTypes() {
+        return blockedMimeTypes;
+    }
+
+    /**
+     * Returns the file extensions of the blocked subresources. The extensions are in lower case
+     * and do not contain the leading dot.
+     *
+     * @return the file extensions of the blocked subresources
+     */
+    public Set<String> getBlockedExtensions() {
+        return blockedExtensions;
+    }
+
+    /**
+     * Returns the patterns of the hosts whose subresources are blocked.
+     *
+     * @return the patterns of the hosts whose subresources are blocked
+     */
+    public List<Pattern> getBlockedHostPatterns() {
+        return blockedHostPatterns;
+    }
+
+    /**
+     * Returns the patterns of the hosts whose subresources are never blocked.
+     *
+     * @return the patterns of the hosts whose subresources are never blocked
+     */
+    public List<Pattern> getAllowedHostPatterns() {
+        return allowedHostPatterns;
+    }
+
+    /**
+     * Indicates if the rules do not block any subresources.
+     *
+     * @return <code>true</code> if no block rules are defined, <code>false</code> otherwise
+     */
+    @JsonIgnore
+    public boolean isEmpty() {
+        return blockedMimeTypes.isEmpty()
+                && blockedExtensions.isEmpty()
+                && blockedHostPatterns.isEmpty();
+    }
+
+    /**
+     * Returns a string representation of these subresource blocking rules.
+     *
+     * @return a string representation of these subresource blocking rules
+     */
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("blockedMimeTypes", blockedMimeTypes)
+                .append("blockedExtensions", blockedExtensions)
+                .append("blockedHostPatterns", blockedHostPatterns)
+                .append("allowedHostPatterns", allowedHostPatterns)
+                .toString();
+    }
+
+    /**
+     * Builds {@link SubresourceBlockingRules} instances.
+     */
+    public static final class SubresourceBlockingRulesBuilder {
+
+        private final Set<String> blockedMimeTypes;
+        private final Set<String> blockedExtensions;
+        private final List<Pattern> blockedHostPatterns;
+        private final List<Pattern> allowedHostPatterns;
+
+        /**
+         * Creates a {@link SubresourceBlockingRulesBuilder} instance.
+         */
+        public SubresourceBlockingRulesBuilder() {
+            blockedMimeTypes = new HashSet<>();
+            blockedExtensions = new HashSet<>();
+            blockedHostPatterns = new ArrayList<>();
+            allowedHostPatterns = new ArrayList<>();
+        }
+
+        /**
+         * Blocks the subresources with the given MIME type. The subtype can be a wildcard to
+         * block a whole type of content (for example <code>image/*</code> or
+         * <code>font/*</code>). Since the MIME type is only known from the response headers, the
+         * request reaches the server, but the connection is closed before the body is downloaded.
+         *
+         * @param mimeType the MIME type of the subresources to block
+         *
+         * @return the <code>SubresourceBlockingRulesBuilder</code> instance
+         */
+        public SubresourceBlockingRulesBuilder blockMimeType(final String mimeType) {
+            Validate.notBlank(mimeType, "The mimeType parameter cannot be null or blank.");
+            Validate.isTrue(mimeType.indexOf('/') > 0,
+                    String.format("The MIME type (\"%s\") is not in type/subtype format.",
+                            mimeType));
+
+            blockedMimeTypes.add(mimeType.trim().toLowerCase(Locale.ROOT));
+            return this;
+        }
+
+        /**
+         * Blocks the subresources whose URL path ends with the given file extension (for example
+         * <code>woff2</code> or <code>.mp4</code>). These requests never reach the network.
+         *
+         * @param extension the file extension of the subresources to block
+         *
+         * @return the <code>SubresourceBlockingRulesBuilder</code> instance
+         */
+        public SubresourceBlockingRulesBuilder blockExtension(final String extension) {
+            Validate.notBlank(extension, "The extension parameter cannot be null or blank.");
+
+            blockedExtensions.add(StringUtils.removeStart(extension.trim(), ".")
+                    .toLowerCase(Locale.ROOT));
+            return this;
+        }
+
+        /**
+         * Blocks the subresources whose host matches the given pattern, such as third-party
+         * trackers and ad networks. These requests never reach the network.
+         *
+         * @param hostPattern the pattern of the hosts whose subresources are blocked
+         *
+         * @return the <code>SubresourceBlockingRulesBuilder</code> instance
+         */
+        public SubresourceBlockingRulesBuilder blockHostPattern(final Pattern hostPattern) {
+            Validate.notNull(hostPattern, "The hostPattern parameter cannot be null.");
+
+            blockedHostPatterns.add(hostPattern);
+            return this;
+        }
+
+        /**
+         * Exempts the subresources whose host matches the given pattern from all the block
+         * rules.
+         *
+         * @param hostPattern the pattern of the hosts whose subresources are never blocked
+         *
+         * @return the <code>SubresourceBlockingRulesBuilder</code> instance
+         */
+        public SubresourceBlockingRulesBuilder allowHostPattern(final Pattern hostPattern) {
+            Validate.notNull(hostPattern, "The hostPattern parameter cannot be null.");
+
+            allowedHostPatterns.add(hostPattern);
+            return this;
+        }
+
+        /**
+         * Builds the configured <code>SubresourceBlockingRules</code> instance.
+         *
+         * @return the configured <code>SubresourceBlockingRules</code> instance
+         */
+        public SubresourceBlockingRules build() {
+            return new SubresourceBlockingRules(this);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.api.event;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.api.StaticCrawlResponse;
+import com.github.peterbencze.serritor.internal.CrawlEvent;
+
+/**
+ * Event which gets delivered when a static page is fetched over HTTP only and the HTTP status code
+ * indicates success (2xx).
+ */
+public final class StaticResponseSuccessEvent extends CrawlEvent {
+
+    private final StaticCrawlResponse staticCrawlResponse;
+
+    /**
+     * Creates a {@link StaticResponseSuccessEvent} instance.
+     *
+     * @param crawlCandidate      the current crawl candidate
+     * @param staticCrawlResponse the static crawl response
+     */
+    public StaticResponseSuccessEvent(
+            final CrawlCandidate crawlCandidate,
+            final StaticCrawlResponse staticCrawlResponse) {
+        super(crawlCandidate);
+
+        this.staticCrawlResponse = staticCrawlResponse;
+    }
+
+    /**
+     * Returns the static crawl response.
+     *
+     * @return the static crawl response
+     */
+    public StaticCrawlResponse getStaticCrawlResponse() {
+        return staticCrawlResponse;
+    }
+}
@@ -17,6 +17,9 @@
 package com.github.peterbencze.serritor.api.helper;
 
 import com.github.peterbencze.serritor.api.CompleteCrawlResponse;
+import com.github.peterbencze.serritor.api.StaticCrawlResponse;
+import com.github.peterbencze.serritor.internal.util.BulkElementExtractor;
+import com.github.peterbencze.serritor.internal.util.DocumentElementLocator;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -26,7 +29,10 @@ import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.commons.lang3.Validate;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 
@@ -96,7 +102,10 @@ public final class TextFinder {
     }
 
     /**
-     * Finds all the text that match the pattern in the text content of the response.
+     * Finds all the text that match the pattern in the text content of the response. If the
+     * response contains a snapshot of the page, the snapshot is searched instead of the browser.
+     * Otherwise the texts are extracted from the browser in a single script execution if
+     * possible.
      *
      * @param response the complete crawl response
      *
@@ -105,6 +114,11 @@ public final class TextFinder {
     public List<MatchResult> findAllInResponse(final CompleteCrawlResponse response) {
         Validate.notNull(response, "The response parameter cannot be null");
 
+        Optional<Stream<String>> textsOpt = extractTexts(response);
+        if (textsOpt.isPresent()) {
+            return findAllInTexts(textsOpt.get());
+        }
+
         return locatingMechanisms.stream()
                 .flatMap(locatingMechanism ->
                         response.getWebDriver().findElements(locatingMechanism).stream())
@@ -113,7 +127,23 @@ public final class TextFinder {
     }
 
     /**
-     * Finds the text that first matches the pattern in the text content of the response.
+     * Finds all the text that match the pattern in the text content of the static page.
+     *
+     * @param response the static crawl response
+     *
+     * @return all the text that match the pattern in the text content of the static page
+     */
+    public List<MatchResult> findAllInResponse(final StaticCrawlResponse response) {
+        Validate.notNull(response, "The response parameter cannot be null");
+
+        return findAllInTexts(selectTexts(response.getDocument()));
+    }
+
+    /**
+     * Finds the text that first matches the pattern in the text content of the response. If the
+     * response contains a snapshot of the page, the snapshot is searched instead of the browser.
+     * Otherwise the texts are extracted from the browser in a single script execution if
+     * possible.
      *
      * @param response the complete crawl response
      *
@@ -122,6 +152,11 @@ public final class TextFinder {
     public Optional<MatchResult> findFirstInResponse(final CompleteCrawlResponse response) {
         Validate.notNull(response, "The response parameter cannot be null");
 
+        Optional<Stream<String>> textsOpt = extractTexts(response);
+        if (textsOpt.isPresent()) {
+            return findFirstInTexts(textsOpt.get());
+        }
+
         List<WebElement> matchedElements = locatingMechanisms.stream()
                 .flatMap(locatingMechanism ->
                         response.getWebDriver().findElements(locatingMechanism).stream())
@@ -138,6 +173,82 @@ public final class TextFinder {
         return Optional.empty();
     }
 
+    /**
+     * Finds the text that first matches the pattern in the text content of the static page.
+     *
+     * @param response the static crawl response
+     *
+     * @return the text that first matches the pattern in the text content of the static page
+     */
+    public Optional<MatchResult> findFirstInResponse(final StaticCrawlResponse response) {
+        Validate.notNull(response, "The response parameter cannot be null");
+
+        return findFirstInTexts(selectTexts(response.getDocument()));
+    }
+
+    /**
+     * Extracts the text content of the located elements from the snapshot of the page, or from
+     * the browser with a single script execution.
+     *
+     * @param response the complete crawl response
+     *
+     * @return the text content of the located elements, or an empty <code>Optional</code> if it
+     *         has to be queried element by element
+     */
+    private Optional<Stream<String>> extractTexts(final CompleteCrawlResponse response) {
+        Optional<Document> documentSnapshotOpt = response.getDocumentSnapshot();
+        if (documentSnapshotOpt.isPresent()) {
+            return Optional.of(selectTexts(documentSnapshotOpt.get()));
+        }
+
+        return BulkElementExtractor.extractTexts(response.getWebDriver(), locatingMechanisms)
+                .map(List::stream);
+    }
+
+    /**
+     * Finds all the text that match the pattern in the given texts.
+     *
+     * @param texts the text content of the located elements
+     *
+     * @return all the text that match the pattern in the given texts
+     */
+    private List<MatchResult> findAllInTexts(final Stream<String> texts) {
+        return texts
+                .flatMap(text -> findAllInText(text).stream())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds the text that first matches the pattern in the given texts.
+     *
+     * @param texts the text content of the located elements
+     *
+     * @return the text that first matches the pattern in the given texts
+     */
+    private Optional<MatchResult> findFirstInTexts(final Stream<String> texts) {
+        return texts
+                .map(this::findFirstInText)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .findFirst();
+    }
+
+    /**
+     * Selects the text content of the elements located by the locating mechanisms in the parsed
+     * HTML document.
+     *
+     * @param document the parsed HTML document
+     *
+     * @return the text content of the located elements
+     */
+    private Stream<String> selectTexts(final Document document) {
+        DocumentElementLocator elementLocator = new DocumentElementLocator(document);
+
+        return locatingMechanisms.stream()
+                .flatMap(locatingMechanism -> elementLocator.locate(locatingMechanism).stream())
+                .map(Element::text);
+    }
+
     /**
      * Finds all the text that match the pattern in the text content of the given web element.
      *
@@ -146,9 +257,31 @@ public final class TextFinder {
      * @return all the text that match the pattern in the text content of the given web element
      */
     private List<MatchResult> findAllInElement(final WebElement element) {
+        return findAllInText(element.getText());
+    }
+
+    /**
+     * Finds the text that first matches the pattern in the text content of the given web element.
+     *
+     * @param element the web element to check for text
+     *
+     * @return the text that first matches the pattern in the text content of the given web element
+     */
+    private Optional<MatchResult> findFirstInElement(final WebElement element) {
+        return findFirstInText(element.getText());
+    }
+
+    /**
+     * Finds all the text that match the pattern in the given text.
+     *
+     * @param text the text to search in
+     *
+     * @return all the text that match the pattern in the given text
+     */
+    private List<MatchResult> findAllInText(final String text) {
         List<MatchResult> matchResults = new ArrayList<>();
 
-        Matcher matcher = textPattern.matcher(element.getText());
+        Matcher matcher = textPattern.matcher(text);
         while (matcher.find()) {
             matchResults.add(matcher.toMatchResult());
         }
@@ -157,14 +290,14 @@ public final class TextFinder {
     }
 
     /**
-     * Finds the text that first matches the pattern in the text content of the given web element.
+     * Finds the text that first matches the pattern in the given text.
      *
-     * @param element the web element to check for text
+     * @param text the text to search in
      *
-     * @return the text that first matches the pattern in the text content of the given web element
+     * @return the text that first matches the pattern in the given text
      */
-    private Optional<MatchResult> findFirstInElement(final WebElement element) {
-        Matcher matcher = textPattern.matcher(element.getText());
+    private Optional<MatchResult> findFirstInText(final String text) {
+        Matcher matcher = textPattern.matcher(text);
         return matcher.find() ? Optional.of(matcher.toMatchResult()) : Optional.empty();
     }
 }
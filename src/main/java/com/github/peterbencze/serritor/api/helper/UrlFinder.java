@@ -17,18 +17,24 @@
 package com.github.peterbencze.serritor.api.helper;
 
 import com.github.peterbencze.serritor.api.CompleteCrawlResponse;
+import com.github.peterbencze.serritor.api.StaticCrawlResponse;
+import com.github.peterbencze.serritor.internal.util.BulkElementExtractor;
+import com.github.peterbencze.serritor.internal.util.DocumentElementLocator;
 import com.google.common.net.InternetDomainName;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
+import org.jsoup.nodes.Document;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 
@@ -97,7 +103,9 @@ public final class UrlFinder {
     }
 
     /**
-     * Finds all the URLs that match the pattern in the response content.
+     * Finds all the URLs that match the pattern in the response content. If the response contains
+     * a snapshot of the page, the snapshot is searched instead of the browser. Otherwise the
+     * attribute values are extracted from the browser in a single script execution if possible.
      *
      * @param response the complete crawl response
      *
@@ -106,18 +114,27 @@ public final class UrlFinder {
     public List<String> findAllInResponse(final CompleteCrawlResponse response) {
         Validate.notNull(response, "The response parameter cannot be null");
 
-        return locatingMechanisms.stream()
-                .flatMap(locatingMechanism ->
-                        response.getWebDriver().findElements(locatingMechanism).stream())
-                .map(element -> element.getAttribute(attributeName))
-                .map(this::findInAttributeValue)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toList());
+        return findAllInAttributeValues(queryAttributeValues(response));
+    }
+
+    /**
+     * Finds all the URLs that match the pattern in the static page content.
+     *
+     * @param response the static crawl response
+     *
+     * @return all the URLs that match the pattern in the static page content
+     */
+    public List<String> findAllInResponse(final StaticCrawlResponse response) {
+        Validate.notNull(response, "The response parameter cannot be null");
+
+        return findAllInAttributeValues(selectAttributeValues(response.getDocument()));
     }
 
     /**
-     * Finds the URL that first matches the pattern in the response content.
+     * Finds the URL that first matches the pattern in the response content. If the response
+     * contains a snapshot of the page, the snapshot is searched instead of the browser. Otherwise
+     * the attribute values are extracted from the browser in a single script execution if
+     * possible.
      *
      * @param response the complete crawl response
      *
@@ -126,6 +143,11 @@ public final class UrlFinder {
     public Optional<String> findFirstInResponse(final CompleteCrawlResponse response) {
         Validate.notNull(response, "The response parameter cannot be null");
 
+        Optional<Stream<String>> attributeValuesOpt = extractAttributeValues(response);
+        if (attributeValuesOpt.isPresent()) {
+            return findFirstInAttributeValues(attributeValuesOpt.get());
+        }
+
         List<WebElement> matchedElements = locatingMechanisms.stream()
                 .flatMap(locatingMechanism ->
                         response.getWebDriver().findElements(locatingMechanism).stream())
@@ -144,6 +166,152 @@ public final class UrlFinder {
         return Optional.empty();
     }
 
+    /**
+     * Finds the URL that first matches the pattern in the static page content.
+     *
+     * @param response the static crawl response
+     *
+     * @return the URL that first matches the pattern in the static page content
+     */
+    public Optional<String> findFirstInResponse(final StaticCrawlResponse response) {
+        Validate.notNull(response, "The response parameter cannot be null");
+
+        return findFirstInAttributeValues(selectAttributeValues(response.getDocument()));
+    }
+
+    /**
+     * Passes each URL that matches the pattern in the response content to the given action, in
+     * the order they are found. Unlike {@link #findAllInResponse(CompleteCrawlResponse)}, the
+     * URLs are not collected into a list, so they can be processed while the attribute values
+     * are being searched.
+     *
+     * @param response the complete crawl response
+     * @param action   the action to perform on each URL
+     */
+    public void forEachInResponse(
+            final CompleteCrawlResponse response,
+            final Consumer<String> action) {
+        Validate.notNull(response, "The response parameter cannot be null");
+        Validate.notNull(action, "The action parameter cannot be null");
+
+        forEachInAttributeValues(queryAttributeValues(response), action);
+    }
+
+    /**
+     * Passes each URL that matches the pattern in the static page content to the given action,
+     * in the order they are found.
+     *
+     * @param response the static crawl response
+     * @param action   the action to perform on each URL
+     */
+    public void forEachInResponse(
+            final StaticCrawlResponse response,
+            final Consumer<String> action) {
+        Validate.notNull(response, "The response parameter cannot be null");
+        Validate.notNull(action, "The action parameter cannot be null");
+
+        forEachInAttributeValues(selectAttributeValues(response.getDocument()), action);
+    }
+
+    /**
+     * Queries the attribute values of the located elements. The values are extracted in bulk if
+     * possible, otherwise they are queried element by element.
+     *
+     * @param response the complete crawl response
+     *
+     * @return the attribute values of the located elements
+     */
+    private Stream<String> queryAttributeValues(final CompleteCrawlResponse response) {
+        return extractAttributeValues(response)
+                .orElseGet(() -> locatingMechanisms.stream()
+                        .flatMap(locatingMechanism ->
+                                response.getWebDriver().findElements(locatingMechanism).stream())
+                        .map(element -> element.getAttribute(attributeName)));
+    }
+
+    /**
+     * Extracts the attribute values of the located elements from the snapshot of the page, or
+     * from the browser with a single script execution.
+     *
+     * @param response the complete crawl response
+     *
+     * @return the attribute values of the located elements, or an empty <code>Optional</code> if
+     *         they have to be queried element by element
+     */
+    private Optional<Stream<String>> extractAttributeValues(final CompleteCrawlResponse response) {
+        Optional<Document> documentSnapshotOpt = response.getDocumentSnapshot();
+        if (documentSnapshotOpt.isPresent()) {
+            return Optional.of(selectAttributeValues(documentSnapshotOpt.get()));
+        }
+
+        return BulkElementExtractor.extractAttributeValues(response.getWebDriver(),
+                locatingMechanisms, attributeName)
+                .map(List::stream);
+    }
+
+    /**
+     * Finds all the URLs that match the pattern in the given attribute values.
+     *
+     * @param attributeValues the attribute values of the located elements
+     *
+     * @return all the URLs that match the pattern in the attribute values
+     */
+    private List<String> findAllInAttributeValues(final Stream<String> attributeValues) {
+        return attributeValues
+                .map(this::findInAttributeValue)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Passes each URL that matches the pattern in the given attribute values to the action.
+     *
+     * @param attributeValues the attribute values of the located elements
+     * @param action          the action to perform on each URL
+     */
+    private void forEachInAttributeValues(
+            final Stream<String> attributeValues,
+            final Consumer<String> action) {
+        attributeValues.forEachOrdered(attributeValue ->
+                findInAttributeValue(attributeValue).ifPresent(action));
+    }
+
+    /**
+     * Finds the URL that first matches the pattern in the given attribute values.
+     *
+     * @param attributeValues the attribute values of the located elements
+     *
+     * @return the URL that first matches the pattern in the attribute values
+     */
+    private Optional<String> findFirstInAttributeValues(final Stream<String> attributeValues) {
+        return attributeValues
+                .map(this::findInAttributeValue)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .findFirst();
+    }
+
+    /**
+     * Selects the attribute values of the elements located by the locating mechanisms in the
+     * parsed HTML document. URLs are resolved against the base URI of the document, just like the
+     * browser does.
+     *
+     * @param document the parsed HTML document
+     *
+     * @return the attribute values of the located elements
+     */
+    private Stream<String> selectAttributeValues(final Document document) {
+        DocumentElementLocator elementLocator = new DocumentElementLocator(document);
+
+        return locatingMechanisms.stream()
+                .flatMap(locatingMechanism -> elementLocator.locate(locatingMechanism).stream())
+                .map(element -> {
+                    String absoluteUrl = element.absUrl(attributeName);
+                    return absoluteUrl.isEmpty() ? element.attr(attributeName) : absoluteUrl;
+                });
+    }
+
     /**
      * Finds a valid URL in the given attribute value.
      *
@@ -18,8 +18,10 @@ package com.github.peterbencze.serritor.api.web;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.builder.ToStringBuilder;
@@ -35,6 +37,7 @@ public final class AccessControlConfiguration {
     private final String secretKey;
     private final boolean isCookieAuthenticationEnabled;
     private final Duration jwtExpirationDuration;
+    private final Set<String> metricsEndpointAllowedRoles;
 
     private AccessControlConfiguration(final AccessControlConfigurationBuilder builder) {
         authenticationPath = builder.authenticationPath;
@@ -42,6 +45,7 @@ public final class AccessControlConfiguration {
         secretKey = builder.secretKey;
         isCookieAuthenticationEnabled = builder.isCookieAuthenticationEnabled;
         jwtExpirationDuration = builder.jwtExpirationDuration;
+        metricsEndpointAllowedRoles = builder.metricsEndpointAllowedRoles;
     }
 
     /**
@@ -89,6 +93,16 @@ public final class AccessControlConfiguration {
         return jwtExpirationDuration;
     }
 
+    /**
+     * Returns the set of roles which are allowed to access the metrics endpoint. If it is empty,
+     * any authenticated user can access the endpoint.
+     *
+     * @return the set of roles which are allowed to access the metrics endpoint
+     */
+    public Set<String> getMetricsEndpointAllowedRoles() {
+        return metricsEndpointAllowedRoles;
+    }
+
     /**
      * Returns a string representation of this access control configuration instance.
      *
@@ -101,6 +115,7 @@ public final class AccessControlConfiguration {
                 .append("users", users)
                 .append("isCookieAuthenticationEnabled", isCookieAuthenticationEnabled)
                 .append("jwtExpirationDuration", jwtExpirationDuration)
+                .append("metricsEndpointAllowedRoles", metricsEndpointAllowedRoles)
                 .toString();
     }
 
@@ -118,6 +133,7 @@ public final class AccessControlConfiguration {
         private String secretKey;
         private boolean isCookieAuthenticationEnabled;
         private Duration jwtExpirationDuration;
+        private Set<String> metricsEndpointAllowedRoles;
 
         /**
          * Creates a {@link AccessControlConfigurationBuilder} instance.
@@ -132,6 +148,7 @@ public final class AccessControlConfiguration {
 
             authenticationPath = DEFAULT_AUTHENTICATION_PATH;
             jwtExpirationDuration = DEFAULT_JWT_EXPIRATION_DURATION;
+            metricsEndpointAllowedRoles = Collections.emptySet();
         }
 
         /**
@@ -214,6 +231,25 @@ public final class AccessControlConfiguration {
             return this;
         }
 
+        /**
+         * Sets the set of roles which are allowed to access the metrics endpoint. By default, any
+         * authenticated user can access it.
+         *
+         * @param allowedRoles the set of allowed roles
+         *
+         * @return the <code>AccessControlConfigurationBuilder</code> instance
+         */
+        public AccessControlConfigurationBuilder setMetricsEndpointAllowedRoles(
+                final Set<String> allowedRoles) {
+            Validate.notEmpty(allowedRoles,
+                    "The allowedRoles parameter cannot be null or empty");
+            Validate.noNullElements(allowedRoles,
+                    "The allowedRoles parameter cannot contain null elements");
+
+            metricsEndpointAllowedRoles = allowedRoles;
+            return this;
+        }
+
         /**
          * Builds the configured <code>AccessControlConfiguration</code> instance.
          *
@@ -37,6 +37,7 @@ public final class ServerConfiguration {
     private final Set<String> corsAllowedHeaders;
     private final Set<String> corsExposedHeaders;
     private final SslContextConfiguration sslContextConfig;
+    private final String metricsEndpointPath;
 
     private ServerConfiguration(final ServerConfigurationBuilder builder) {
         port = builder.port;
@@ -45,6 +46,7 @@ public final class ServerConfiguration {
         corsAllowedHeaders = builder.corsAllowedHeaders;
         corsExposedHeaders = builder.corsExposedHeaders;
         sslContextConfig = builder.sslContextConfig;
+        metricsEndpointPath = builder.metricsEndpointPath;
     }
 
     /**
@@ -112,6 +114,16 @@ public final class ServerConfiguration {
         return Optional.ofNullable(sslContextConfig);
     }
 
+    /**
+     * Returns the path of the built-in metrics endpoint, which exposes the metrics of the crawler
+     * in the Prometheus text exposition format.
+     *
+     * @return the path of the metrics endpoint, or an empty optional if it is disabled
+     */
+    public Optional<String> getMetricsEndpointPath() {
+        return Optional.ofNullable(metricsEndpointPath);
+    }
+
     /**
      * Returns a string representation of this web server configuration.
      *
@@ -126,6 +138,7 @@ public final class ServerConfiguration {
                 .append("corsAllowedHeaders", corsAllowedHeaders)
                 .append("corsExposedHeaders", corsExposedHeaders)
                 .append("sslContextConfiguration", sslContextConfig)
+                .append("metricsEndpointPath", metricsEndpointPath)
                 .toString();
     }
 
@@ -151,6 +164,7 @@ public final class ServerConfiguration {
         private Set<String> corsAllowedHeaders;
         private Set<String> corsExposedHeaders;
         private SslContextConfiguration sslContextConfig;
+        private String metricsEndpointPath;
 
         /**
          * Creates a {@link ServerConfigurationBuilder} instance.
@@ -261,6 +275,23 @@ public final class ServerConfiguration {
             return this;
         }
 
+        /**
+         * Enables the built-in metrics endpoint, which exposes the metrics of the crawler in the
+         * Prometheus text exposition format. The endpoint is disabled by default.
+         *
+         * @param metricsEndpointPath the path of the metrics endpoint (for example /metrics)
+         *
+         * @return the <code>ServerConfigurationBuilder</code> instance
+         */
+        public ServerConfigurationBuilder setMetricsEndpointPath(
+                final String metricsEndpointPath) {
+            Validate.notBlank(metricsEndpointPath,
+                    "The metricsEndpointPath parameter cannot be null or blank");
+
+            this.metricsEndpointPath = metricsEndpointPath;
+            return this;
+        }
+
         /**
          * Builds the configured <code>ServerConfiguration</code> instance.
          *
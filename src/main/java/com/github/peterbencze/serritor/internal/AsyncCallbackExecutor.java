@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal;
+
+import com.github.peterbencze.serritor.api.CallbackOrdering;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes callbacks asynchronously on a fixed number of threads. The tasks wait in bounded
+ * queues, so submitting a task blocks while its queue is full. Depending on the ordering, the
+ * threads either share a single queue, or each thread has its own queue and the tasks with the
+ * same ordering key are always executed by the same thread, in submission order.
+ */
+public final class AsyncCallbackExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncCallbackExecutor.class);
+    private static final Runnable SHUTDOWN_SIGNAL = () -> {
+    };
+
+    private final Consumer<Throwable> failureHandler;
+    private final List<BlockingQueue<Runnable>> queues;
+    private final List<Thread> threads;
+    private final AtomicReference<Throwable> failure;
+    private final AtomicBoolean isShutdown;
+
+    /**
+     * Creates an {@link AsyncCallbackExecutor} instance and starts its threads.
+     *
+     * @param threadCount    the number of threads (a single thread is used with global ordering)
+     * @param queueCapacity  the maximum number of tasks waiting for execution
+     * @param ordering       the ordering guarantee of the tasks
+     * @param failureHandler the handler which is notified when a task fails for the first time
+     */
+    public AsyncCallbackExecutor(
+            final int threadCount,
+            final int queueCapacity,
+            final CallbackOrdering ordering,
+            final Consumer<Throwable> failureHandler) {
+        Validate.isTrue(threadCount >= 1, "The thread count must be at least 1.");
+        Validate.isTrue(queueCapacity >= 1, "The queue capacity must be at least 1.");
+        Validate.notNull(ordering, "The ordering parameter cannot be null.");
+        Validate.notNull(failureHandler, "The failureHandler parameter cannot be null.");
+
+        this.failureHandler = failureHandler;
+        failure = new AtomicReference<>();
+        isShutdown = new AtomicBoolean();
+
+        int actualThreadCount = CallbackOrdering.GLOBAL.equals(ordering) ? 1 : threadCount;
+        int queueCount = CallbackOrdering.PER_HOST.equals(ordering) ? actualThreadCount : 1;
+        int capacityPerQueue = (queueCapacity + queueCount - 1) / queueCount;
+
+        queues = new ArrayList<>(queueCount);
+        for (int i = 0; i < queueCount; i++) {
+            queues.add(new ArrayBlockingQueue<>(capacityPerQueue));
+        }
+
+        ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("crawl-callback-%d")
+                .build();
+        threads = new ArrayList<>(actualThreadCount);
+        for (int i = 0; i < actualThreadCount; i++) {
+            BlockingQueue<Runnable> queue = queues.get(i % queueCount);
+
+            Thread thread = threadFactory.newThread(() -> runTasks(queue));
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Submits a task for asynchronous execution, waiting if necessary until there is space in
+     * the queue.
+     *
+     * @param orderingKey the key of the task (tasks with the same key are executed in submission
+     *                    order when the ordering is per host)
+     * @param task        the task to execute
+     */
+    public void execute(final String orderingKey, final Runnable task) {
+        Validate.validState(!isShutdown.get(), "The executor is shut down.");
+
+        BlockingQueue<Runnable> queue = queues.size() == 1 ? queues.get(0)
+                : queues.get(Math.floorMod(Objects.hashCode(orderingKey), queues.size()));
+        Uninterruptibles.putUninterruptibly(queue, task);
+    }
+
+    /**
+     * Waits until all the submitted tasks are executed, then stops the threads. Further calls
+     * have no effect.
+     */
+    public void shutdown() {
+        if (!isShutdown.compareAndSet(false, true)) {
+            return;
+        }
+
+        LOGGER.debug("Waiting for {} pending callbacks",
+                queues.stream().mapToInt(BlockingQueue::size).sum());
+
+        // Each thread stops when it takes a shutdown signal from its queue
+        for (int i = 0; i < threads.size(); i++) {
+            Uninterruptibles.putUninterruptibly(queues.get(i % queues.size()), SHUTDOWN_SIGNAL);
+        }
+
+        threads.forEach(Uninterruptibles::joinUninterruptibly);
+    }
+
+    /**
+     * Returns the first failure of the tasks, if any. The subsequent failures are added to it as
+     * suppressed exceptions.
+     *
+     * @return the first failure of the tasks
+     */
+    public Optional<Throwable> getFailure() {
+        return Optional.ofNullable(failure.get());
+    }
+
+    /**
+     * Executes the tasks taken from the queue until a shutdown signal is taken.
+     *
+     * @param queue the queue of the tasks
+     */
+    private void runTasks(final BlockingQueue<Runnable> queue) {
+        while (true) {
+            Runnable task = Uninterruptibles.takeUninterruptibly(queue);
+            if (task == SHUTDOWN_SIGNAL) {
+                return;
+            }
+
+            try {
+                task.run();
+            } catch (RuntimeException | Error exception) {
+                if (failure.compareAndSet(null, exception)) {
+                    LOGGER.debug("Callback failed", exception);
+                    failureHandler.accept(exception);
+                } else {
+                    failure.get().addSuppressed(exception);
+                }
+            }
+        }
+    }
+}
@@ -16,17 +16,22 @@
 
 package com.github.peterbencze.serritor.internal;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.collect.ImmutableList;
 import com.google.common.net.InternetDomainName;
 import java.io.Serializable;
 
 /**
- * Represents an internet domain in which crawling is allowed.
+ * Represents an internet domain in which crawling is allowed. A wildcard crawl domain (written as
+ * <code>*.example.com</code>) only contains the subdomains of the domain, not the domain itself.
  */
 public final class CrawlDomain implements Serializable {
 
+    private static final long serialVersionUID = 1L;
+
     private final String domain;
     private final ImmutableList<String> parts;
+    private final boolean isWildcard;
 
     /**
      * Creates a <code>CrawlDomain</code> instance.
@@ -34,8 +39,20 @@ public final class CrawlDomain implements Serializable {
      * @param domain an immutable well-formed internet domain name
      */
     public CrawlDomain(final InternetDomainName domain) {
+        this(domain, false);
+    }
+
+    /**
+     * Creates a <code>CrawlDomain</code> instance.
+     *
+     * @param domain     an immutable well-formed internet domain name
+     * @param isWildcard <code>true</code> if only the subdomains of the domain belong to this crawl
+     *                   domain, <code>false</code> if the domain itself belongs to it as well
+     */
+    public CrawlDomain(final InternetDomainName domain, final boolean isWildcard) {
         this.domain = domain.toString();
         parts = domain.parts();
+        this.isWildcard = isWildcard;
     }
 
     /**
@@ -47,9 +64,28 @@ public final class CrawlDomain implements Serializable {
         return domain;
     }
 
+    /**
+     * Returns the labels of the domain name, from left to right.
+     *
+     * @return the labels of the domain name
+     */
+    @JsonIgnore
+    public ImmutableList<String> getParts() {
+        return parts;
+    }
+
+    /**
+     * Indicates if only the subdomains of the domain belong to this crawl domain.
+     *
+     * @return <code>true</code> if this is a wildcard crawl domain, <code>false</code> otherwise
+     */
+    public boolean isWildcard() {
+        return isWildcard;
+    }
+
     /**
      * Indicates if two <code>CrawlDomain</code> instances are equal. Crawl domains with the same
-     * domain name are considered equal.
+     * domain name and wildcard flag are considered equal.
      *
      * @param obj a <code>CrawlDomain</code> instance
      *
@@ -63,7 +99,7 @@ public final class CrawlDomain implements Serializable {
 
         if (obj instanceof CrawlDomain) {
             CrawlDomain other = (CrawlDomain) obj;
-            return parts.equals(other.parts);
+            return parts.equals(other.parts) && isWildcard == other.isWildcard;
         }
 
         return false;
@@ -89,7 +125,8 @@ public final class CrawlDomain implements Serializable {
     public boolean contains(final InternetDomainName domain) {
         ImmutableList<String> otherDomainParts = domain.parts();
 
-        if (parts.size() > otherDomainParts.size()) {
+        if (parts.size() > otherDomainParts.size()
+                || (isWildcard && parts.size() == otherDomainParts.size())) {
             return false;
         }
 
@@ -107,6 +144,6 @@ public final class CrawlDomain implements Serializable {
      */
     @Override
     public String toString() {
-        return domain;
+        return isWildcard ? "*." + domain : domain;
     }
 }
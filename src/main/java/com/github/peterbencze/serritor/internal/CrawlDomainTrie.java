@@ -0,0 +1,268 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal;
+
+import com.google.common.base.Ascii;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A trie over the reversed labels of the crawl domains, which decides if a host is allowed to be
+ * crawled in time proportional to the number of its labels, without allocating memory. The rules
+ * are applied as follows: the most specific crawl domain (the one with the most labels) that
+ * contains the host decides, and an excluded crawl domain takes precedence over an allowed one
+ * with the same labels. A host which is not contained by any crawl domain is not allowed.
+ */
+public final class CrawlDomainTrie {
+
+    private static final byte NO_RULE = 0;
+    private static final byte ALLOW = 1;
+    private static final byte EXCLUDE = 2;
+
+    private final Node root;
+
+    /**
+     * Creates a {@link CrawlDomainTrie} instance.
+     *
+     * @param allowedCrawlDomains  the crawl domains in which crawling is allowed
+     * @param excludedCrawlDomains the crawl domains in which crawling is not allowed, even if they
+     *                             are contained by an allowed one
+     */
+    public CrawlDomainTrie(
+            final Collection<CrawlDomain> allowedCrawlDomains,
+            final Collection<CrawlDomain> excludedCrawlDomains) {
+        root = new Node();
+
+        allowedCrawlDomains.forEach(crawlDomain -> addRule(crawlDomain, ALLOW));
+        excludedCrawlDomains.forEach(crawlDomain -> addRule(crawlDomain, EXCLUDE));
+    }
+
+    /**
+     * Indicates if crawling is allowed on the given host.
+     *
+     * @param host the host name of a URL
+     *
+     * @return <code>true</code> if crawling is allowed on the host, <code>false</code> otherwise
+     */
+    public boolean isAllowed(final String host) {
+        int labelEnd = host.endsWith(".") ? host.length() - 1 : host.length();
+        byte inheritedRule = NO_RULE;
+        Node node = root;
+
+        while (true) {
+            int labelStart = host.lastIndexOf('.', labelEnd - 1) + 1;
+
+            node = node.getChild(host, labelStart, labelEnd);
+            if (node == null) {
+                return inheritedRule == ALLOW;
+            }
+
+            if (labelStart == 0) {
+                byte rule = node.domainRule != NO_RULE ? node.domainRule : inheritedRule;
+                return rule == ALLOW;
+            }
+
+            if (node.subdomainRule != NO_RULE) {
+                inheritedRule = node.subdomainRule;
+            }
+
+            labelEnd = labelStart - 1;
+        }
+    }
+
+    /**
+     * Adds the rule of a crawl domain to the trie.
+     *
+     * @param crawlDomain the crawl domain
+     * @param rule        the rule to apply to the hosts contained by the crawl domain
+     */
+    private void addRule(final CrawlDomain crawlDomain, final byte rule) {
+        List<String> labels = crawlDomain.getParts();
+
+        Node node = root;
+        for (int i = labels.size() - 1; i >= 0; i--) {
+            node = node.getOrCreateChild(labels.get(i));
+        }
+
+        node.subdomainRule = mergeRules(node.subdomainRule, rule);
+        if (!crawlDomain.isWildcard()) {
+            node.domainRule = mergeRules(node.domainRule, rule);
+        }
+    }
+
+    /**
+     * Merges two rules which apply to the same hosts. Exclusion takes precedence over allowance.
+     *
+     * @param firstRule  the first rule
+     * @param secondRule the second rule
+     *
+     * @return the merged rule
+     */
+    private static byte mergeRules(final byte firstRule, final byte secondRule) {
+        return (byte) Math.max(firstRule, secondRule);
+    }
+
+    /**
+     * A node of the trie which represents a domain name label. The children are stored in an
+     * open-addressing hash table keyed by their lowercase label, so a label can be looked up
+     * directly in the host string.
+     */
+    private static final class Node {
+
+        private static final int INITIAL_CAPACITY = 4;
+
+        private String[] labels;
+        private Node[] children;
+        private int childCount;
+
+        private byte domainRule;
+        private byte subdomainRule;
+
+        /**
+         * Returns the child that represents the given region of the host.
+         *
+         * @param host  the host name
+         * @param start the start index of the label (inclusive)
+         * @param end   the end index of the label (exclusive)
+         *
+         * @return the child that represents the label, or <code>null</code> if there is none
+         */
+        Node getChild(final String host, final int start, final int end) {
+            if (childCount == 0) {
+                return null;
+            }
+
+            int mask = labels.length - 1;
+            int index = hashLabel(host, start, end) & mask;
+            while (labels[index] != null) {
+                if (isSameLabel(labels[index], host, start, end)) {
+                    return children[index];
+                }
+
+                index = (index + 1) & mask;
+            }
+
+            return null;
+        }
+
+        /**
+         * Returns the child that represents the given label, creating it if necessary.
+         *
+         * @param label the lowercase label
+         *
+         * @return the child that represents the label
+         */
+        Node getOrCreateChild(final String label) {
+            Node child = getChild(label, 0, label.length());
+            if (child != null) {
+                return child;
+            }
+
+            if (labels == null) {
+                labels = new String[INITIAL_CAPACITY];
+                children = new Node[INITIAL_CAPACITY];
+            } else if ((childCount + 1) * 2 > labels.length) {
+                resize();
+            }
+
+            child = new Node();
+            insert(label, child);
+            childCount++;
+            return child;
+        }
+
+        /**
+         * Doubles the capacity of the hash table, so it stays at most half full.
+         */
+        private void resize() {
+            String[] oldLabels = labels;
+            Node[] oldChildren = children;
+
+            labels = new String[oldLabels.length * 2];
+            children = new Node[oldLabels.length * 2];
+            for (int i = 0; i < oldLabels.length; i++) {
+                if (oldLabels[i] != null) {
+                    insert(oldLabels[i], oldChildren[i]);
+                }
+            }
+        }
+
+        /**
+         * Inserts a child into the first free slot of the hash table.
+         *
+         * @param label the lowercase label of the child
+         * @param child the child node
+         */
+        private void insert(final String label, final Node child) {
+            int mask = labels.length - 1;
+            int index = hashLabel(label, 0, label.length()) & mask;
+            while (labels[index] != null) {
+                index = (index + 1) & mask;
+            }
+
+            labels[index] = label;
+            children[index] = child;
+        }
+
+        /**
+         * Calculates the hash code of a label, ignoring the case of ASCII characters.
+         *
+         * @param str   the string containing the label
+         * @param start the start index of the label (inclusive)
+         * @param end   the end index of the label (exclusive)
+         *
+         * @return the hash code of the label
+         */
+        private static int hashLabel(final String str, final int start, final int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + Ascii.toLowerCase(str.charAt(i));
+            }
+
+            return hash ^ (hash >>> 16);
+        }
+
+        /**
+         * Indicates if the lowercase label equals the given region of the host, ignoring the case
+         * of ASCII characters.
+         *
+         * @param label the lowercase label
+         * @param host  the host name
+         * @param start the start index of the region (inclusive)
+         * @param end   the end index of the region (exclusive)
+         *
+         * @return <code>true</code> if the label equals the region, <code>false</code> otherwise
+         */
+        private static boolean isSameLabel(
+                final String label,
+                final String host,
+                final int start,
+                final int end) {
+            if (label.length() != end - start) {
+                return false;
+            }
+
+            for (int i = 0; i < label.length(); i++) {
+                if (label.charAt(i) != Ascii.toLowerCase(host.charAt(start + i))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
@@ -18,38 +18,76 @@ package com.github.peterbencze.serritor.internal;
 
 import com.github.peterbencze.serritor.api.CrawlCandidate;
 import com.github.peterbencze.serritor.api.CrawlCandidate.CrawlCandidateBuilder;
+import com.github.peterbencze.serritor.api.CrawlDelayStrategy;
+import com.github.peterbencze.serritor.api.CrawlFrontierStorage;
 import com.github.peterbencze.serritor.api.CrawlRequest;
 import com.github.peterbencze.serritor.api.CrawlerConfiguration;
+import com.github.peterbencze.serritor.internal.candidatequeue.BucketedCandidateQueue;
+import com.github.peterbencze.serritor.internal.candidatequeue.CandidateQueue;
+import com.github.peterbencze.serritor.internal.candidatequeue.CopyableCandidateQueue;
+import com.github.peterbencze.serritor.internal.candidatequeue.DiskBackedCandidateQueue;
+import com.github.peterbencze.serritor.internal.candidatequeue.PersistentCandidateQueue;
+import com.github.peterbencze.serritor.internal.checkpoint.CheckpointJournal;
+import com.github.peterbencze.serritor.internal.duplicatefilter.FingerprintSet;
+import com.github.peterbencze.serritor.internal.duplicatefilter.FingerprintSetFactory;
 import com.github.peterbencze.serritor.internal.stats.StatsCounter;
+import com.github.peterbencze.serritor.internal.util.FunctionalReentrantReadWriteLock;
+import com.github.peterbencze.serritor.internal.util.UrlCanonicalizer;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.Comparator;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Queue;
-import java.util.Set;
-import java.util.function.Function;
-import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.http.NameValuePair;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.function.BooleanSupplier;
+import java.util.function.ObjIntConsumer;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
 import org.apache.http.client.utils.URIBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Manages crawl requests and provides crawl candidates to the crawler.
+ * Manages crawl requests and provides crawl candidates to the crawler. The frontier is thread-safe,
+ * so it can be shared by multiple crawl workers. Each worker thread has its own current candidate,
+ * which is used as the parent of the requests fed by that thread.
+ *
+ * <p>The frontier is structured like the Mercator frontier. New candidates enter the front queue,
+ * which orders them by crawl depth and priority. When host politeness is enabled, candidates are
+ * moved from the front queue to per-host back queues whenever their host is not ready or already
+ * has deferred candidates, and a heap of host ready times decides which back queue is served next.
+ * The back queues use the same order as the front queue, so the crawl strategy and the priorities
+ * are kept within each host. A candidate is only handed out if its host may be visited right away.
  */
 public final class CrawlFrontier implements Serializable {
 
+    private static final long serialVersionUID = 1L;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(CrawlFrontier.class);
     private static final int INITIAL_CRAWL_DEPTH = 1;
 
     private final CrawlerConfiguration config;
     private final StatsCounter statsCounter;
-    private final Set<String> urlFingerprints;
-    private final Queue<CrawlCandidate> candidates;
+    private final CandidateQueue candidates;
+    private final HostPolitenessScheduler hostScheduler;
+    private final FunctionalReentrantReadWriteLock lock;
+    private final int maxDeferredCandidateCount;
 
-    private CrawlCandidate currentCandidate;
+    private FingerprintSet urlFingerprints;
+
+    private transient CrawlDomainTrie crawlDomainTrie;
+    private transient CheckpointJournal checkpointJournal;
+    private transient Condition candidateStateChanged;
+    private transient ThreadLocal<CrawlCandidate> currentCandidate;
+    private transient int inProgressCandidateCount;
+    private transient Map<CrawlCandidate, Integer> candidateHolderCounts;
+    private transient Comparator<CrawlCandidate> candidateComparator;
 
     /**
      * Creates a {@link CrawlFrontier} instance.
@@ -61,49 +99,458 @@ public final class CrawlFrontier implements Serializable {
     public CrawlFrontier(final CrawlerConfiguration config, final StatsCounter statsCounter) {
         this.config = config;
         this.statsCounter = statsCounter;
-        urlFingerprints = new HashSet<>();
-        candidates = createPriorityQueue();
+        candidates = createCandidateQueue();
+        urlFingerprints = createUrlFingerprintSet();
+        hostScheduler = new HostPolitenessScheduler(config.getCrawlStrategy());
+        lock = new FunctionalReentrantReadWriteLock();
+        maxDeferredCandidateCount = getMaxDeferredCandidateCount();
+
+        initTransientFields();
     }
 
     /**
-     * Feeds a crawl request to the frontier.
+     * Creates a copy of the given frontier. The caller must hold the read lock of the given
+     * frontier. The deferred and in-progress candidates are put back into the queue of the copy,
+     * so they are crawled again when the copy is used to resume the crawl. A candidate queue which
+     * cannot be copied is persistent and recovers them from its store, so it is shared with the
+     * copy instead, together with the URL fingerprints kept in the same store.
+     *
+     * @param frontier the frontier to copy
+     */
+    private CrawlFrontier(final CrawlFrontier frontier) {
+        config = frontier.config;
+        hostScheduler = new HostPolitenessScheduler(config.getCrawlStrategy());
+        lock = new FunctionalReentrantReadWriteLock();
+        maxDeferredCandidateCount = frontier.maxDeferredCandidateCount;
+
+        if (frontier.candidates instanceof CopyableCandidateQueue) {
+            candidates = ((CopyableCandidateQueue) frontier.candidates).copy();
+            urlFingerprints = frontier.urlFingerprints.copy();
+
+            frontier.hostScheduler.forEachDeferredCandidate(candidates::add);
+            frontier.candidateHolderCounts.keySet().forEach(candidates::add);
+        } else {
+            candidates = frontier.candidates;
+            urlFingerprints = frontier.urlFingerprints;
+        }
+
+        long remainingCandidateCount = (long) frontier.candidates.size()
+                + frontier.hostScheduler.getDeferredCandidateCount()
+                + frontier.candidateHolderCounts.size();
+        statsCounter = new StatsCounter();
+        statsCounter.restore(frontier.statsCounter.getSnapshot(), remainingCandidateCount);
+
+        initTransientFields();
+    }
+
+    /**
+     * Feeds a crawl request to the frontier. If the request is not a crawl seed, the current
+     * candidate of the calling thread is used as its parent. If the calling thread has no current
+     * candidate, the request is handled as a crawl seed.
      *
      * @param request     the crawl request
      * @param isCrawlSeed indicates if the request is a crawl seed
      */
     public void feedRequest(final CrawlRequest request, final boolean isCrawlSeed) {
-        LOGGER.debug("Feeding request: {}", request);
+        lock.writeWithLock(() -> feedRequestUnderLock(request, isCrawlSeed));
+    }
 
-        if (config.isOffsiteRequestFilterEnabled()) {
-            boolean inCrawlDomain = config.getAllowedCrawlDomains()
-                    .stream()
-                    .anyMatch(crawlDomain -> crawlDomain.contains(request.getDomain()));
+    /**
+     * Feeds a link found on the page of the current candidate of the calling thread to the
+     * frontier. The link is resolved against the URL of the candidate and a crawl request is
+     * created for it, then the offsite, duplicate and crawl depth filters are applied to the
+     * request. Links which cannot be turned into a request are ignored without being marked as
+     * seen.
+     *
+     * @param link the absolute or relative link
+     *
+     * @return <code>true</code> if the link was added to the frontier, <code>false</code> if it
+     *         was filtered or ignored
+     */
+    public boolean feedLink(final String link) {
+        CrawlCandidate parentCandidate = currentCandidate.get();
+        Validate.validState(parentCandidate != null,
+                "The calling thread has no current candidate.");
+
+        URI linkUrl;
+        try {
+            linkUrl = resolveLink(parentCandidate.getRequestUrl(), link);
+        } catch (IllegalArgumentException | URISyntaxException exception) {
+            LOGGER.debug("Ignoring malformed link: {}", link);
+            return false;
+        }
 
-            if (!inCrawlDomain) {
-                LOGGER.debug("Filtering offsite request");
+        String host = linkUrl.getHost();
+        if (host == null) {
+            LOGGER.debug("Ignoring link without host: {}", link);
+            return false;
+        }
 
-                statsCounter.recordOffsiteRequest();
-                return;
+        if (config.isOffsiteRequestFilterEnabled() && !crawlDomainTrie.isAllowed(host)) {
+            LOGGER.debug("Filtering offsite link: {}", linkUrl);
+
+            statsCounter.recordOffsiteRequest();
+            return false;
+        }
+
+        CrawlRequest request;
+        try {
+            request = CrawlRequest.createDefault(linkUrl);
+        } catch (IllegalArgumentException exception) {
+            LOGGER.debug("Ignoring link with invalid domain: {}", linkUrl);
+            return false;
+        }
+
+        byte[] urlFingerprint = config.isDuplicateRequestFilterEnabled()
+                ? UrlCanonicalizer.createFingerprint(linkUrl) : null;
+
+        return lock.writeWithLock(() -> {
+            if (urlFingerprint != null && !urlFingerprints.add(urlFingerprint)) {
+                LOGGER.debug("Filtering duplicate link: {}", linkUrl);
+
+                statsCounter.recordDuplicateRequest();
+                return false;
+            }
+
+            int crawlDepthLimit = config.getMaximumCrawlDepth();
+            int nextCrawlDepth = parentCandidate.getCrawlDepth() + 1;
+            if (crawlDepthLimit != 0 && nextCrawlDepth > crawlDepthLimit) {
+                LOGGER.debug("Filtering crawl depth limit exceeding link: {}", linkUrl);
+
+                statsCounter.recordCrawlDepthLimitExceedingRequest();
+                return false;
+            }
+
+            addCandidateUnderLock(new CrawlCandidateBuilder(request)
+                    .setRefererUrl(parentCandidate.getRequestUrl())
+                    .setCrawlDepth(nextCrawlDepth), urlFingerprint);
+            return true;
+        });
+    }
+
+    /**
+     * Resolves the link against the given base URL. If the resolved URL has a host but no path,
+     * the root path is defined for it, the same way as the request builder does, so that its
+     * fingerprint matches the one of the request created from it.
+     *
+     * @param baseUrl the URL to resolve the link against
+     * @param link    the absolute or relative link
+     *
+     * @return the resolved URL
+     *
+     * @throws URISyntaxException if the root path cannot be defined for the resolved URL
+     */
+    private static URI resolveLink(final URI baseUrl, final String link)
+            throws URISyntaxException {
+        URI linkUrl = baseUrl.resolve(link);
+        if (linkUrl.getHost() == null || StringUtils.isNotEmpty(linkUrl.getRawPath())) {
+            return linkUrl;
+        }
+
+        return new URIBuilder(linkUrl).setPath("/").build();
+    }
+
+    /**
+     * Indicates if there are any candidates left in the queue.
+     *
+     * @return <code>true</code> if there are candidates in the queue, <code>false</code> otherwise
+     */
+    public boolean hasNextCandidate() {
+        return lock.readWithLock(() -> !candidates.isEmpty()
+                || hostScheduler.getDeferredCandidateCount() > 0);
+    }
+
+    /**
+     * Returns the number of candidates in the queue, including the ones deferred until their host
+     * becomes ready.
+     *
+     * @return the number of candidates in the queue
+     */
+    public long getCandidateCount() {
+        return lock.readWithLock(() ->
+                (long) candidates.size() + hostScheduler.getDeferredCandidateCount());
+    }
+
+    /**
+     * Passes each host which has candidates deferred until it becomes ready to the given
+     * consumer, along with the number of its deferred candidates. The counts are copied under the
+     * lock and passed to the consumer after it is released, so a slow consumer does not block the
+     * crawl.
+     *
+     * @param consumer the consumer of the hosts and their deferred candidate counts
+     */
+    public void forEachDeferredHost(final ObjIntConsumer<String> consumer) {
+        Map<String, Integer> deferredCandidateCounts = lock.readWithLock(() -> {
+            Map<String, Integer> counts = new HashMap<>();
+            hostScheduler.forEachDeferredHost(counts::put);
+            return counts;
+        });
+
+        deferredCandidateCounts.forEach(consumer::accept);
+    }
+
+    /**
+     * Returns the next crawl candidate from the queue whose host is ready to be visited. The
+     * previous candidate of the calling thread (if any) is considered to be completed.
+     *
+     * @return the next crawl candidate from the queue, or <code>null</code> if there is no
+     *         candidate whose host is ready
+     */
+    public CrawlCandidate getNextCandidate() {
+        byte[] completedUrlFingerprint = createCompletionFingerprint(currentCandidate.get());
+
+        return lock.writeWithLock(() -> {
+            completeCurrentCandidateUnderLock(0, completedUrlFingerprint);
+            return pollCandidateUnderLock();
+        });
+    }
+
+    /**
+     * Returns the next crawl candidate from the queue, waiting if necessary until one becomes
+     * available and its host is ready to be visited. The previous candidate of the calling thread
+     * (if any) is considered to be completed. When the queue is empty and no other thread is
+     * processing a candidate (which could feed new requests), the crawl is finished and
+     * <code>null</code> is returned.
+     *
+     * @param stopCondition indicates if the caller should stop waiting for candidates
+     *
+     * @return the next crawl candidate from the queue, or <code>null</code> if the crawl is
+     *         finished or the stop condition is met
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public CrawlCandidate awaitNextCandidate(final BooleanSupplier stopCondition)
+            throws InterruptedException {
+        byte[] completedUrlFingerprint = createCompletionFingerprint(currentCandidate.get());
+
+        lock.writeLock().lock();
+
+        try {
+            completeCurrentCandidateUnderLock(0, completedUrlFingerprint);
+
+            while (!stopCondition.getAsBoolean()) {
+                CrawlCandidate nextCandidate = pollCandidateUnderLock();
+                if (nextCandidate != null) {
+                    return nextCandidate;
+                }
+
+                if (inProgressCandidateCount == 0 && candidates.isEmpty()
+                        && hostScheduler.getDeferredCandidateCount() == 0) {
+                    return null;
+                }
+
+                // Wait until a host becomes ready, or a candidate is fed or completed
+                long waitTime = hostScheduler.getTimeUntilNextReadyHost(System.nanoTime());
+                if (waitTime == Long.MAX_VALUE) {
+                    candidateStateChanged.await();
+                } else {
+                    candidateStateChanged.awaitNanos(waitTime);
+                }
+            }
+
+            return null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the current candidate of the calling thread as completed and wakes up the threads
+     * waiting for candidates.
+     */
+    public void completeCurrentCandidate() {
+        completeCurrentCandidate(0);
+    }
+
+    /**
+     * Marks the current candidate of the calling thread as completed and wakes up the threads
+     * waiting for candidates. The host of the candidate will not be visited again until the given
+     * crawl delay has passed.
+     *
+     * @param crawlDelayInMillis the delay which should pass before the next request to the host
+     *                           of the candidate
+     */
+    public void completeCurrentCandidate(final long crawlDelayInMillis) {
+        byte[] completedUrlFingerprint = createCompletionFingerprint(currentCandidate.get());
+
+        lock.writeWithLock(() ->
+                completeCurrentCandidateUnderLock(crawlDelayInMillis, completedUrlFingerprint));
+    }
+
+    /**
+     * Retains the current candidate of the calling thread, so it stays in progress after the
+     * calling thread completes it, until the candidate is released by
+     * {@link #runWithRetainedCandidate(CrawlCandidate, Runnable)}. Completing the candidate
+     * still makes its host available to other threads.
+     *
+     * @return the retained candidate
+     */
+    public CrawlCandidate retainCurrentCandidate() {
+        return lock.writeWithLock(() -> {
+            CrawlCandidate candidate = currentCandidate.get();
+            Validate.validState(candidate != null, "The calling thread has no current candidate.");
+
+            candidateHolderCounts.merge(candidate, 1, Integer::sum);
+            inProgressCandidateCount++;
+
+            return candidate;
+        });
+    }
+
+    /**
+     * Runs the given action with the retained candidate as the current candidate of the calling
+     * thread, so the requests fed by the action are its children. The candidate is released when
+     * the action returns.
+     *
+     * @param candidate the candidate retained by {@link #retainCurrentCandidate()}
+     * @param action    the action to run
+     */
+    public void runWithRetainedCandidate(final CrawlCandidate candidate, final Runnable action) {
+        currentCandidate.set(candidate);
+
+        try {
+            action.run();
+        } finally {
+            currentCandidate.remove();
+
+            byte[] urlFingerprint = createCompletionFingerprint(candidate);
+            lock.writeWithLock(() -> releaseCandidateUnderLock(candidate, urlFingerprint));
+        }
+    }
+
+    /**
+     * Wakes up all the threads waiting for candidates, so they can re-evaluate their stop
+     * condition.
+     */
+    public void signalWaitingThreads() {
+        lock.writeWithLock(() -> candidateStateChanged.signalAll());
+    }
+
+    /**
+     * Sets the journal which records the changes of the frontier for checkpointing.
+     *
+     * @param checkpointJournal the checkpoint journal, or <code>null</code> to stop recording
+     */
+    public void setCheckpointJournal(final CheckpointJournal checkpointJournal) {
+        lock.writeWithLock(() -> {
+            this.checkpointJournal = checkpointJournal;
+        });
+    }
+
+    /**
+     * Creates a copy of the frontier, which can be called during the crawl, since the frontier is
+     * locked only while the candidates and URL fingerprints are copied. The copy has its own stats
+     * counter, restored from the values at the time of the copy. Unless the candidate queue is
+     * persistent, the copy is consistent and not affected by the changes made to this frontier
+     * afterwards. A persistent queue and its URL fingerprints are shared with the copy, so they
+     * are not point-in-time. The copy should be released with {@link #releaseSnapshot()} once it
+     * is no longer used.
+     *
+     * @return the copy of the frontier
+     */
+    public CrawlFrontier createSnapshot() {
+        return lock.readWithLock(() -> new CrawlFrontier(this));
+    }
+
+    /**
+     * Releases a copy created by {@link #createSnapshot()} which is no longer used. A copied
+     * candidate queue is cleared, so the storage it shares with the frontier it was copied from is
+     * released. A persistent candidate queue is shared with that frontier, so it is left intact.
+     * The copy cannot be used afterwards.
+     */
+    public void releaseSnapshot() {
+        lock.writeWithLock(() -> {
+            if (candidates instanceof CopyableCandidateQueue) {
+                candidates.clear();
             }
+        });
+    }
+
+    /**
+     * Returns the stats counter which accumulates statistics during the operation of the crawler.
+     *
+     * @return the stats counter of the frontier
+     */
+    public StatsCounter getStatsCounter() {
+        return statsCounter;
+    }
+
+    /**
+     * Restores the state of the frontier from a checkpoint. The restored candidates are added to
+     * the queue without filtering.
+     *
+     * @param restoredUrlFingerprints the fingerprints of the URLs which were added before
+     * @param restoredCandidates      the crawl candidates which were not completed
+     */
+    public void restore(
+            final FingerprintSet restoredUrlFingerprints,
+            final List<CrawlCandidate> restoredCandidates) {
+        LOGGER.debug("Restoring {} crawl candidates", restoredCandidates.size());
+
+        lock.writeWithLock(() -> {
+            candidates.clear();
+            hostScheduler.clear();
+
+            urlFingerprints = restoredUrlFingerprints;
+            restoredCandidates.forEach(candidates::add);
+        });
+    }
+
+    /**
+     * Releases the resources held by the candidate queue. Candidates deferred until their host
+     * becomes ready are kept, so the frontier can still be used afterwards.
+     */
+    public void close() {
+        lock.writeWithLock(candidates::close);
+    }
+
+    /**
+     * Resets the crawl frontier to its initial state.
+     */
+    public void reset() {
+        LOGGER.debug("Setting crawl frontier to its initial state");
+
+        lock.writeWithLock(() -> {
+            urlFingerprints.clear();
+            candidates.clear();
+            hostScheduler.clear();
+        });
+    }
+
+    /**
+     * Feeds a crawl request to the frontier. The caller must hold the write lock.
+     *
+     * @param request     the crawl request
+     * @param isCrawlSeed indicates if the request is a crawl seed
+     */
+    private void feedRequestUnderLock(final CrawlRequest request, final boolean isCrawlSeed) {
+        LOGGER.debug("Feeding request: {}", request);
+
+        if (config.isOffsiteRequestFilterEnabled()
+                && !crawlDomainTrie.isAllowed(request.getDomain().toString())) {
+            LOGGER.debug("Filtering offsite request");
+
+            statsCounter.recordOffsiteRequest();
+            return;
         }
 
+        byte[] urlFingerprint = null;
         if (config.isDuplicateRequestFilterEnabled()) {
-            String urlFingerprint = createFingerprintForUrl(request.getRequestUrl());
-            if (urlFingerprints.contains(urlFingerprint)) {
+            urlFingerprint = UrlCanonicalizer.createFingerprint(request.getRequestUrl());
+            if (!urlFingerprints.add(urlFingerprint)) {
                 LOGGER.debug("Filtering duplicate request");
 
                 statsCounter.recordDuplicateRequest();
                 return;
             }
-
-            urlFingerprints.add(urlFingerprint);
         }
 
         CrawlCandidateBuilder builder = new CrawlCandidateBuilder(request);
+        CrawlCandidate parentCandidate = currentCandidate.get();
 
-        if (!isCrawlSeed) {
+        if (!isCrawlSeed && parentCandidate != null) {
             int crawlDepthLimit = config.getMaximumCrawlDepth();
-            int nextCrawlDepth = currentCandidate.getCrawlDepth() + 1;
+            int nextCrawlDepth = parentCandidate.getCrawlDepth() + 1;
 
             if (crawlDepthLimit != 0 && nextCrawlDepth > crawlDepthLimit) {
                 LOGGER.debug("Filtering crawl depth limit exceeding request");
@@ -112,99 +559,283 @@ public final class CrawlFrontier implements Serializable {
                 return;
             }
 
-            builder.setRefererUrl(currentCandidate.getRequestUrl())
+            builder.setRefererUrl(parentCandidate.getRequestUrl())
                     .setCrawlDepth(nextCrawlDepth);
         } else {
             builder.setCrawlDepth(INITIAL_CRAWL_DEPTH);
         }
 
+        addCandidateUnderLock(builder, urlFingerprint);
+    }
+
+    /**
+     * Adds a crawl candidate which passed the filters to the queue. The caller must hold the
+     * write lock.
+     *
+     * @param builder        the builder of the crawl candidate
+     * @param urlFingerprint the fingerprint of the request URL, or <code>null</code> if it was
+     *                       not created by the duplicate request filter
+     */
+    private void addCandidateUnderLock(
+            final CrawlCandidateBuilder builder,
+            final byte[] urlFingerprint) {
         LOGGER.debug("Adding request to the list of crawl candidates");
-        candidates.add(builder.build());
+        CrawlCandidate candidate = builder.build();
+        candidates.add(candidate);
         statsCounter.recordRemainingCrawlCandidate();
+
+        if (checkpointJournal != null) {
+            checkpointJournal.recordAddition(candidate, urlFingerprint != null ? urlFingerprint
+                    : UrlCanonicalizer.createFingerprint(candidate.getRequestUrl()));
+        }
+
+        candidateStateChanged.signalAll();
     }
 
     /**
-     * Indicates if there are any candidates left in the queue.
+     * Retrieves the next candidate whose host is ready to be visited and sets it as the current
+     * candidate of the calling thread. Candidates are moved from the front queue to the back queues
+     * of their hosts until one is found whose host is ready and has no deferred candidates, so a
+     * host with many candidates at the head of the front queue cannot starve the others. The head
+     * of the front queue is only taken if it precedes the head of the next ready back queue in the
+     * order of the crawl strategy, otherwise the back queue is served. The caller must hold the
+     * write lock.
      *
-     * @return <code>true</code> if there are candidates in the queue, <code>false</code> otherwise
+     * @return the next crawl candidate, or <code>null</code> if there is no candidate whose host
+     *         is ready
      */
-    public boolean hasNextCandidate() {
-        return !candidates.isEmpty();
+    private CrawlCandidate pollCandidateUnderLock() {
+        CrawlCandidate nextCandidate;
+
+        if (isHostPolitenessEnabled()) {
+            long now = System.nanoTime();
+
+            nextCandidate = null;
+            while (nextCandidate == null
+                    && hostScheduler.getDeferredCandidateCount() < maxDeferredCandidateCount) {
+                CrawlCandidate polledCandidate = candidates.poll();
+                if (polledCandidate == null) {
+                    break;
+                }
+
+                // The rest of the front queue cannot precede the ready candidate either
+                CrawlCandidate readyCandidate = hostScheduler.peekReadyCandidate(now);
+                if (readyCandidate != null
+                        && candidateComparator.compare(readyCandidate, polledCandidate) <= 0) {
+                    hostScheduler.defer(polledCandidate);
+                    break;
+                }
+
+                if (hostScheduler.canDispatch(polledCandidate, now)) {
+                    nextCandidate = polledCandidate;
+                } else {
+                    hostScheduler.defer(polledCandidate);
+                }
+            }
+
+            if (nextCandidate == null) {
+                nextCandidate = hostScheduler.pollReadyCandidate(now);
+            }
+
+            if (nextCandidate != null) {
+                hostScheduler.markDispatched(nextCandidate);
+            }
+        } else {
+            nextCandidate = candidates.poll();
+        }
+
+        if (nextCandidate != null) {
+            currentCandidate.set(nextCandidate);
+            candidateHolderCounts.put(nextCandidate, 1);
+            inProgressCandidateCount++;
+        }
+
+        return nextCandidate;
     }
 
     /**
-     * Returns the next crawl candidate from the queue.
+     * Marks the current candidate of the calling thread as completed. The caller must hold the
+     * write lock.
      *
-     * @return the next crawl candidate from the queue
+     * @param crawlDelayInMillis the delay which should pass before the next request to the host
+     *                           of the candidate
+     * @param urlFingerprint     the fingerprint of the candidate's URL created by
+     *                           {@link #createCompletionFingerprint(CrawlCandidate)}
      */
-    public CrawlCandidate getNextCandidate() {
-        currentCandidate = candidates.poll();
-        return currentCandidate;
+    private void completeCurrentCandidateUnderLock(
+            final long crawlDelayInMillis,
+            final byte[] urlFingerprint) {
+        CrawlCandidate completedCandidate = currentCandidate.get();
+        if (completedCandidate != null) {
+            if (isHostPolitenessEnabled()) {
+                hostScheduler.markCompleted(completedCandidate,
+                        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(crawlDelayInMillis));
+            }
+
+            currentCandidate.remove();
+            releaseCandidateUnderLock(completedCandidate, urlFingerprint);
+        }
     }
 
     /**
-     * Resets the crawl frontier to its initial state.
+     * Releases a holder of the in-progress candidate. The candidate is completed when its last
+     * holder releases it. The caller must hold the write lock.
+     *
+     * @param candidate      the in-progress candidate
+     * @param urlFingerprint the fingerprint of the candidate's URL created by
+     *                       {@link #createCompletionFingerprint(CrawlCandidate)}
      */
-    public void reset() {
-        LOGGER.debug("Setting crawl frontier to its initial state");
+    private void releaseCandidateUnderLock(
+            final CrawlCandidate candidate,
+            final byte[] urlFingerprint) {
+        Integer holderCount = candidateHolderCounts.remove(candidate);
+        if (holderCount != null && holderCount > 1) {
+            candidateHolderCounts.put(candidate, holderCount - 1);
+        } else {
+            candidates.markCompleted(candidate);
 
-        urlFingerprints.clear();
-        candidates.clear();
+            if (checkpointJournal != null) {
+                checkpointJournal.recordCompletion(candidate, urlFingerprint != null
+                        ? urlFingerprint
+                        : UrlCanonicalizer.createFingerprint(candidate.getRequestUrl()));
+            }
+        }
+
+        inProgressCandidateCount--;
+
+        candidateStateChanged.signalAll();
     }
 
     /**
-     * Creates the fingerprint of the given URL. If the URL contains query params, it sorts them by
-     * key and value. This way URLs that have the same query params but in different order will have
-     * the same fingerprint. Fragments are ignored.
+     * Creates the fingerprint of the candidate's URL which identifies its completion in the
+     * checkpoint journal. It is created before taking the lock, so the completion of a candidate
+     * does not hash its URL while the other threads are blocked.
      *
-     * @param url the URL for which the fingerprint is created
+     * @param candidate the candidate to be completed, or <code>null</code> if there is none
      *
-     * @return the fingerprint of the URL
+     * @return the fingerprint of the candidate's URL, or <code>null</code> if there is no
+     *         candidate or checkpointing is disabled
      */
-    private static String createFingerprintForUrl(final URI url) {
-        URIBuilder builder = new URIBuilder(url);
+    private byte[] createCompletionFingerprint(final CrawlCandidate candidate) {
+        if (candidate == null || config.getCheckpointDirectory() == null) {
+            return null;
+        }
 
-        // Change scheme and host to lowercase
-        builder.setScheme(builder.getScheme().toLowerCase())
-                .setHost(builder.getHost().toLowerCase());
+        return UrlCanonicalizer.createFingerprint(candidate.getRequestUrl());
+    }
 
-        // Sort query params by key and value
-        List<NameValuePair> queryParams = builder.getQueryParams();
-        queryParams.sort(Comparator.comparing(NameValuePair::getName)
-                .thenComparing(NameValuePair::getValue));
+    /**
+     * Indicates if requests to the same host should be scheduled according to the crawl delay.
+     * With a fixed crawl delay of zero, hosts are never throttled.
+     *
+     * @return <code>true</code> if host politeness is enabled, <code>false</code> otherwise
+     */
+    private boolean isHostPolitenessEnabled() {
+        return !CrawlDelayStrategy.FIXED.equals(config.getCrawlDelayStrategy())
+                || config.getFixedCrawlDelayDurationInMillis() > 0;
+    }
 
-        builder.setParameters(queryParams);
+    /**
+     * Initializes the fields which are not serialized.
+     */
+    private void initTransientFields() {
+        crawlDomainTrie = new CrawlDomainTrie(config.getAllowedCrawlDomains(),
+                config.getExcludedCrawlDomains());
+        candidateStateChanged = lock.writeLock().newCondition();
+        currentCandidate = new ThreadLocal<>();
+        inProgressCandidateCount = 0;
+        candidateHolderCounts = new IdentityHashMap<>();
+        candidateComparator = createCandidateComparator();
+    }
+
+    /**
+     * Restores the fields which are not serialized when the frontier is deserialized. A persistent
+     * candidate queue recovers the deferred candidates from its store, so they are dropped from
+     * the back queues to avoid crawling them twice.
+     *
+     * @param in the stream to read the object from
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        if (candidates.isPersistent()) {
+            hostScheduler.clear();
+        }
+
+        initTransientFields();
+    }
+
+    /**
+     * Returns the maximum number of candidates which can be held in the back queues. The back
+     * queues are kept in memory, so with disk and persistent storage they are bounded by the size
+     * of the hot window. With memory storage, moving a candidate from the front queue to a back
+     * queue does not take extra memory, so they are not bounded.
+     *
+     * @return the maximum number of candidates in the back queues
+     */
+    private int getMaxDeferredCandidateCount() {
+        if (CrawlFrontierStorage.MEMORY.equals(config.getCrawlFrontierStorage())) {
+            return Integer.MAX_VALUE;
+        }
 
-        // Remove fragment
-        builder.setFragment(null);
+        return config.getCrawlFrontierHotWindowSize();
+    }
 
-        return DigestUtils.sha256Hex(builder.toString());
+    /**
+     * Creates the candidate queue using the strategy and storage specified in the configuration.
+     *
+     * @return the candidate queue using the strategy and storage specified in the configuration
+     */
+    private CandidateQueue createCandidateQueue() {
+        switch (config.getCrawlFrontierStorage()) {
+            case MEMORY:
+                return new BucketedCandidateQueue(config.getCrawlStrategy());
+            case DISK:
+                return new DiskBackedCandidateQueue(createCandidateComparator(),
+                        config.getCrawlFrontierDirectory(), config.getCrawlFrontierHotWindowSize());
+            case PERSISTENT:
+                return new PersistentCandidateQueue(config.getCrawlStrategy(),
+                        config.getCrawlFrontierDirectory());
+            default:
+                throw new IllegalArgumentException("Unsupported crawl frontier storage");
+        }
     }
 
     /**
-     * Creates a priority queue using the strategy specified in the configuration.
+     * Creates the URL fingerprint set of the duplicate request filter. With persistent storage,
+     * the fingerprints are kept in the same store as the candidates.
      *
-     * @return the priority queue using the strategy specified in the configuration
+     * @return the URL fingerprint set
      */
-    private PriorityQueue<CrawlCandidate> createPriorityQueue() {
-        Function<CrawlCandidate, Integer> crawlDepthGetter =
-                (Function<CrawlCandidate, Integer> & Serializable) CrawlCandidate::getCrawlDepth;
-        Function<CrawlCandidate, Integer> priorityGetter =
-                (Function<CrawlCandidate, Integer> & Serializable) CrawlCandidate::getPriority;
+    private FingerprintSet createUrlFingerprintSet() {
+        if (candidates instanceof PersistentCandidateQueue) {
+            return ((PersistentCandidateQueue) candidates).getUrlFingerprints();
+        }
 
+        return FingerprintSetFactory.createFingerprintSet(config);
+    }
+
+    /**
+     * Creates a serializable comparator which orders the candidates using the strategy specified in
+     * the configuration. The crawl depths and priorities are compared as primitives, without
+     * boxing.
+     *
+     * @return the comparator which orders the candidates
+     */
+    private Comparator<CrawlCandidate> createCandidateComparator() {
         switch (config.getCrawlStrategy()) {
             case BREADTH_FIRST:
-                Comparator<CrawlCandidate> breadthFirstComparator =
-                        Comparator.comparing(crawlDepthGetter)
-                                .thenComparing(priorityGetter, Comparator.reverseOrder());
-
-                return new PriorityQueue<>(breadthFirstComparator);
+                return (Comparator<CrawlCandidate> & Serializable) (first, second) -> {
+                    int result = Integer.compare(first.getCrawlDepth(), second.getCrawlDepth());
+                    return result != 0
+                            ? result : Integer.compare(second.getPriority(), first.getPriority());
+                };
             case DEPTH_FIRST:
-                Comparator<CrawlCandidate> depthFirstComparator =
-                        Comparator.comparing(crawlDepthGetter, Comparator.reverseOrder())
-                                .thenComparing(priorityGetter, Comparator.reverseOrder());
-
-                return new PriorityQueue<>(depthFirstComparator);
+                return (Comparator<CrawlCandidate> & Serializable) (first, second) -> {
+                    int result = Integer.compare(second.getCrawlDepth(), first.getCrawlDepth());
+                    return result != 0
+                            ? result : Integer.compare(second.getPriority(), first.getPriority());
+                };
             default:
                 throw new IllegalArgumentException("Unsupported crawl strategy");
         }
@@ -18,25 +18,31 @@ package com.github.peterbencze.serritor.internal;
 
 import com.github.peterbencze.serritor.api.PatternMatchingCallback;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Manages custom callbacks associated with events.
+ * Manages custom callbacks associated with events. The URL patterns of all the callbacks are
+ * compiled into a single {@link UrlPatternMatcher} when the first event is delivered after a
+ * registration, so delivering an event does not evaluate every pattern one by one.
  */
 public final class CustomCallbackManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CustomCallbackManager.class);
+    private static final int URL_CACHE_SIZE = 1_024;
 
     private final Map<Class<? extends CrawlEvent>,
             List<PatternMatchingCallback<? extends CrawlEvent>>> customCallbacks;
 
+    private volatile DispatchTable dispatchTable;
+
     /**
      * Creates a {@link CustomCallbackManager} instance.
      */
@@ -51,13 +57,16 @@ public final class CustomCallbackManager {
      * @param eventClass the runtime class of the event for which the callback should be invoked
      * @param callback   the pattern matching callback to invoke
      */
-    public <T extends CrawlEvent> void addCustomCallback(
+    public synchronized <T extends CrawlEvent> void addCustomCallback(
             final Class<T> eventClass,
             final PatternMatchingCallback<T> callback) {
         LOGGER.debug("Adding custom callback for event {} with URL pattern {}",
                 eventClass.getSimpleName(), callback.getUrlPattern());
 
         customCallbacks.computeIfAbsent(eventClass, key -> new ArrayList<>()).add(callback);
+
+        // The table is rebuilt when the next event is delivered
+        dispatchTable = null;
     }
 
     /**
@@ -76,24 +85,95 @@ public final class CustomCallbackManager {
             final Class<T> eventClass,
             final T eventObject,
             final Consumer<T> defaultCallback) {
-        String requestUrl = eventObject.getCrawlCandidate().getRequestUrl().toString();
-        List<PatternMatchingCallback<? extends CrawlEvent>> applicableCustomCallbacks =
-                customCallbacks.getOrDefault(eventClass, Collections.emptyList())
-                        .stream()
-                        .filter(callback -> callback.getUrlPattern().matcher(requestUrl).find())
-                        .collect(Collectors.toList());
-
-        if (!applicableCustomCallbacks.isEmpty()) {
-            applicableCustomCallbacks.forEach(callback -> {
-                LOGGER.debug("Calling custom callback for event {} with URL pattern {}",
-                        eventClass.getSimpleName(), callback.getUrlPattern());
-
-                ((Consumer<T>) callback.getCallback()).accept(eventObject);
-            });
-        } else {
+        DispatchTable table = getDispatchTable();
+
+        List<PatternMatchingCallback<? extends CrawlEvent>> eventCallbacks =
+                table.callbacks.getOrDefault(eventClass, Collections.emptyList());
+        boolean isCustomCallbackCalled = false;
+        if (!eventCallbacks.isEmpty()) {
+            String requestUrl = eventObject.getCrawlCandidate().getRequestUrl().toString();
+            BitSet matchingPatterns = table.urlPatternMatcher.findMatchingPatterns(requestUrl);
+            int[] patternIndices = table.patternIndices.get(eventClass);
+
+            for (int i = 0; i < eventCallbacks.size(); i++) {
+                if (matchingPatterns.get(patternIndices[i])) {
+                    PatternMatchingCallback<? extends CrawlEvent> callback = eventCallbacks.get(i);
+                    LOGGER.debug("Calling custom callback for event {} with URL pattern {}",
+                            eventClass.getSimpleName(), callback.getUrlPattern());
+
+                    ((Consumer<T>) callback.getCallback()).accept(eventObject);
+                    isCustomCallbackCalled = true;
+                }
+            }
+        }
+
+        if (!isCustomCallbackCalled) {
             LOGGER.debug("Calling default callback for event {}", eventClass.getSimpleName());
 
             defaultCallback.accept(eventObject);
         }
     }
+
+    /**
+     * Returns the dispatch table of the registered callbacks, building it if necessary.
+     *
+     * @return the dispatch table of the registered callbacks
+     */
+    private DispatchTable getDispatchTable() {
+        DispatchTable table = dispatchTable;
+        if (table == null) {
+            synchronized (this) {
+                table = dispatchTable;
+                if (table == null) {
+                    table = new DispatchTable(customCallbacks);
+                    dispatchTable = table;
+                }
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * An immutable snapshot of the registered callbacks, along with the matcher of their URL
+     * patterns.
+     */
+    private static final class DispatchTable {
+
+        private final Map<Class<? extends CrawlEvent>,
+                List<PatternMatchingCallback<? extends CrawlEvent>>> callbacks;
+        private final Map<Class<? extends CrawlEvent>, int[]> patternIndices;
+        private final UrlPatternMatcher urlPatternMatcher;
+
+        /**
+         * Creates a {@link DispatchTable} instance.
+         *
+         * @param customCallbacks the registered callbacks by event
+         */
+        DispatchTable(
+                final Map<Class<? extends CrawlEvent>,
+                        List<PatternMatchingCallback<? extends CrawlEvent>>> customCallbacks) {
+            callbacks = new HashMap<>();
+            patternIndices = new HashMap<>();
+
+            // A pattern instance is only evaluated once, even if it is used by multiple callbacks
+            List<Pattern> patterns = new ArrayList<>();
+            Map<Pattern, Integer> patternIndexLookup = new HashMap<>();
+            customCallbacks.forEach((eventClass, eventCallbacks) -> {
+                int[] indices = new int[eventCallbacks.size()];
+                for (int i = 0; i < eventCallbacks.size(); i++) {
+                    Pattern urlPattern = eventCallbacks.get(i).getUrlPattern();
+                    indices[i] = patternIndexLookup.computeIfAbsent(urlPattern, key -> {
+                        patterns.add(key);
+                        return patterns.size() - 1;
+                    });
+                }
+
+                callbacks.put(eventClass, new ArrayList<>(eventCallbacks));
+                patternIndices.put(eventClass, indices);
+            });
+
+            urlPatternMatcher = new UrlPatternMatcher(patterns, URL_CACHE_SIZE);
+        }
+    }
 }
@@ -0,0 +1,394 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.api.CrawlStrategy;
+import com.github.peterbencze.serritor.internal.candidatequeue.BucketedCandidateQueue;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Schedules crawl candidates so that each host is visited by at most one worker at a time, and
+ * the crawl delay of the host passes between its requests. Candidates whose host is not ready yet
+ * are deferred to the back queue of the host until it becomes ready, while candidates of other
+ * hosts can be served in the meantime. The back queues order the candidates by the crawl strategy,
+ * so the crawl depths and priorities are respected within each host. Idle hosts with deferred
+ * candidates are kept in a heap ordered by their ready time. This class is not thread-safe, the
+ * crawl frontier guards it with its own lock. The times are given in nanoseconds, as returned by
+ * {@link System#nanoTime()}.
+ */
+public final class HostPolitenessScheduler implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int INITIAL_PRUNE_THRESHOLD = 1024;
+
+    private final CrawlStrategy crawlStrategy;
+
+    private transient Map<String, HostState> hostStates;
+    private transient int deferredCandidateCount;
+    private transient int pruneThreshold;
+    private transient Queue<HostState> waitingHosts;
+
+    /**
+     * Creates a {@link HostPolitenessScheduler} instance.
+     *
+     * @param crawlStrategy the strategy which defines the order of the deferred candidates
+     */
+    public HostPolitenessScheduler(final CrawlStrategy crawlStrategy) {
+        Validate.notNull(crawlStrategy, "The crawlStrategy parameter cannot be null.");
+
+        this.crawlStrategy = crawlStrategy;
+
+        initTransientFields();
+    }
+
+    /**
+     * Indicates if the candidate can be dispatched at the given time. This is the case if its host
+     * is ready and has no deferred candidates. Otherwise the candidate has to be deferred, so it is
+     * ordered together with the other deferred candidates of its host.
+     *
+     * @param candidate the crawl candidate
+     * @param now       the current time
+     *
+     * @return <code>true</code> if the candidate can be dispatched, <code>false</code> otherwise
+     */
+    public boolean canDispatch(final CrawlCandidate candidate, final long now) {
+        HostState hostState = hostStates.get(getHost(candidate));
+        return hostState == null
+                || (hostState.isReady(now) && hostState.deferredCandidates.isEmpty());
+    }
+
+    /**
+     * Defers the candidate until its host becomes ready.
+     *
+     * @param candidate the crawl candidate
+     */
+    public void defer(final CrawlCandidate candidate) {
+        HostState hostState = getOrCreateHostState(getHost(candidate));
+
+        // Idle hosts are waiting for their ready time, busy ones are re-queued on completion
+        if (hostState.deferredCandidates.isEmpty() && hostState.inFlightCount == 0) {
+            waitingHosts.add(hostState);
+        }
+
+        hostState.deferredCandidates.add(candidate);
+        deferredCandidateCount++;
+    }
+
+    /**
+     * Retrieves, but does not remove, the deferred candidate which would be returned by {@link
+     * #pollReadyCandidate(long)} at the given time.
+     *
+     * @param now the current time
+     *
+     * @return a deferred candidate whose host is ready, or <code>null</code> if there is no such
+     *         candidate
+     */
+    public CrawlCandidate peekReadyCandidate(final long now) {
+        HostState hostState = waitingHosts.peek();
+        if (hostState == null || !hostState.isReady(now)) {
+            return null;
+        }
+
+        return hostState.deferredCandidates.peek();
+    }
+
+    /**
+     * Retrieves a deferred candidate whose host is ready at the given time.
+     *
+     * @param now the current time
+     *
+     * @return a deferred candidate whose host is ready, or <code>null</code> if there is no such
+     *         candidate
+     */
+    public CrawlCandidate pollReadyCandidate(final long now) {
+        HostState hostState = waitingHosts.peek();
+        if (hostState == null || !hostState.isReady(now)) {
+            return null;
+        }
+
+        // The host becomes busy once the candidate is dispatched
+        waitingHosts.poll();
+        deferredCandidateCount--;
+
+        return hostState.deferredCandidates.poll();
+    }
+
+    /**
+     * Marks the host of the candidate as busy, since a request is being sent to it.
+     *
+     * @param candidate the dispatched crawl candidate
+     */
+    public void markDispatched(final CrawlCandidate candidate) {
+        getOrCreateHostState(getHost(candidate)).inFlightCount++;
+    }
+
+    /**
+     * Marks the candidate as completed and sets the time from which its host can be visited
+     * again. Hosts without deferred candidates are kept until they are pruned after their ready
+     * time.
+     *
+     * @param candidate the completed crawl candidate
+     * @param readyTime the time from which the host can be visited again
+     */
+    public void markCompleted(final CrawlCandidate candidate, final long readyTime) {
+        HostState hostState = hostStates.get(getHost(candidate));
+        if (hostState == null) {
+            return;
+        }
+
+        hostState.inFlightCount--;
+        hostState.readyTime = readyTime;
+
+        if (hostState.inFlightCount == 0 && !hostState.deferredCandidates.isEmpty()) {
+            waitingHosts.add(hostState);
+        }
+    }
+
+    /**
+     * Returns the time remaining until the next host with deferred candidates becomes ready.
+     *
+     * @param now the current time
+     *
+     * @return the remaining time, or {@link Long#MAX_VALUE} if there is no idle host with deferred
+     *         candidates
+     */
+    public long getTimeUntilNextReadyHost(final long now) {
+        HostState hostState = waitingHosts.peek();
+        if (hostState == null) {
+            return Long.MAX_VALUE;
+        }
+
+        return hostState.readyTime <= now ? 0 : hostState.readyTime - now;
+    }
+
+    /**
+     * Returns the number of deferred candidates.
+     *
+     * @return the number of deferred candidates
+     */
+    public int getDeferredCandidateCount() {
+        return deferredCandidateCount;
+    }
+
+    /**
+     * Returns the number of hosts whose state is tracked, including the idle hosts which have not
+     * been pruned yet.
+     *
+     * @return the number of tracked hosts
+     */
+    public int getHostCount() {
+        return hostStates.size();
+    }
+
+    /**
+     * Passes each host which has deferred candidates to the given consumer, along with the number
+     * of its deferred candidates.
+     *
+     * @param consumer the consumer of the hosts and their deferred candidate counts
+     */
+    public void forEachDeferredHost(final ObjIntConsumer<String> consumer) {
+        hostStates.forEach((host, hostState) -> {
+            int hostDeferredCandidateCount = hostState.deferredCandidates.size();
+            if (hostDeferredCandidateCount > 0) {
+                consumer.accept(host, hostDeferredCandidateCount);
+            }
+        });
+    }
+
+    /**
+     * Passes each deferred candidate to the given consumer.
+     *
+     * @param consumer the consumer of the deferred candidates
+     */
+    public void forEachDeferredCandidate(final Consumer<CrawlCandidate> consumer) {
+        hostStates.values().forEach(hostState -> hostState.deferredCandidates.forEach(consumer));
+    }
+
+    /**
+     * Removes all the deferred candidates and host states.
+     */
+    public void clear() {
+        hostStates.clear();
+        waitingHosts.clear();
+        deferredCandidateCount = 0;
+        pruneThreshold = INITIAL_PRUNE_THRESHOLD;
+    }
+
+    /**
+     * Initializes the fields which are not serialized.
+     */
+    private void initTransientFields() {
+        hostStates = new HashMap<>();
+        waitingHosts = new PriorityQueue<>(Comparator.comparingLong(HostState::getReadyTime));
+        deferredCandidateCount = 0;
+        pruneThreshold = INITIAL_PRUNE_THRESHOLD;
+    }
+
+    /**
+     * Returns the state of the given host, creating it if necessary. Before a new host is added,
+     * the idle hosts without deferred candidates whose ready time has passed are pruned whenever
+     * the number of hosts reaches the threshold, which is then set to double the number of the
+     * remaining hosts. This keeps the cost of pruning amortized constant per host.
+     *
+     * @param host the host
+     *
+     * @return the state of the host
+     */
+    private HostState getOrCreateHostState(final String host) {
+        HostState hostState = hostStates.get(host);
+        if (hostState == null) {
+            if (hostStates.size() >= pruneThreshold) {
+                pruneIdleHosts(System.nanoTime());
+            }
+
+            hostState = new HostState(crawlStrategy);
+            hostStates.put(host, hostState);
+        }
+
+        return hostState;
+    }
+
+    /**
+     * Removes the idle hosts which have no deferred candidates and whose ready time has passed,
+     * since they no longer constrain the scheduling.
+     *
+     * @param now the current time
+     */
+    private void pruneIdleHosts(final long now) {
+        hostStates.values().removeIf(hostState ->
+                hostState.isReady(now) && hostState.deferredCandidates.isEmpty());
+        pruneThreshold = Math.max(INITIAL_PRUNE_THRESHOLD, hostStates.size() * 2);
+    }
+
+    /**
+     * Returns the host of the candidate's request URL, normalized to all lower case.
+     *
+     * @param candidate the crawl candidate
+     *
+     * @return the host of the candidate
+     */
+    private static String getHost(final CrawlCandidate candidate) {
+        return candidate.getDomain().toString();
+    }
+
+    /**
+     * Writes the deferred candidates to the stream, grouped by host. The ready times are only
+     * valid within the JVM in which they were recorded and no request can be in flight after a
+     * restart, so the hosts without deferred candidates are not written.
+     *
+     * @param out the stream to write the object to
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+
+        int deferredHostCount = (int) hostStates.values().stream()
+                .filter(hostState -> !hostState.deferredCandidates.isEmpty())
+                .count();
+        out.writeInt(deferredHostCount);
+        for (Map.Entry<String, HostState> entry : hostStates.entrySet()) {
+            BucketedCandidateQueue deferredCandidates = entry.getValue().deferredCandidates;
+            if (!deferredCandidates.isEmpty()) {
+                out.writeUTF(entry.getKey());
+                out.writeObject(deferredCandidates);
+            }
+        }
+    }
+
+    /**
+     * Reads the deferred candidates from the stream. Their hosts are ready right away.
+     *
+     * @param in the stream to read the object from
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        initTransientFields();
+
+        int deferredHostCount = in.readInt();
+        for (int i = 0; i < deferredHostCount; i++) {
+            String host = in.readUTF();
+            HostState hostState = new HostState((BucketedCandidateQueue) in.readObject());
+            hostStates.put(host, hostState);
+            waitingHosts.add(hostState);
+            deferredCandidateCount += hostState.deferredCandidates.size();
+        }
+    }
+
+    /**
+     * The scheduling state of a host.
+     */
+    private static final class HostState {
+
+        private final BucketedCandidateQueue deferredCandidates;
+        private int inFlightCount;
+        private long readyTime;
+
+        /**
+         * Creates a {@link HostState} instance.
+         *
+         * @param crawlStrategy the strategy which defines the order of the deferred candidates
+         */
+        HostState(final CrawlStrategy crawlStrategy) {
+            this(new BucketedCandidateQueue(crawlStrategy));
+        }
+
+        /**
+         * Creates a {@link HostState} instance which is ready right away.
+         *
+         * @param deferredCandidates the back queue of the host
+         */
+        HostState(final BucketedCandidateQueue deferredCandidates) {
+            this.deferredCandidates = deferredCandidates;
+            inFlightCount = 0;
+            readyTime = Long.MIN_VALUE;
+        }
+
+        /**
+         * Returns the time from which the host can be visited again.
+         *
+         * @return the time from which the host can be visited again
+         */
+        long getReadyTime() {
+            return readyTime;
+        }
+
+        /**
+         * Indicates if the host can be visited at the given time.
+         *
+         * @param now the current time
+         *
+         * @return <code>true</code> if the host is idle and its ready time has passed,
+         *         <code>false</code> otherwise
+         */
+        boolean isReady(final long now) {
+            return inFlightCount == 0 && readyTime <= now;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Learns during the crawl which kinds of URLs point to HTML content. URLs are grouped by their
+ * shape, which consists of the host, the first path segment and the file extension of the last
+ * path segment. A shape is considered to be HTML after a number of consecutive HTML observations,
+ * and it is reset on the first non-HTML observation. This class is thread-safe.
+ */
+public final class MimeTypeCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MimeTypeCache.class);
+    private static final int DEFAULT_MIN_HTML_OBSERVATION_COUNT = 3;
+
+    private final int minHtmlObservationCount;
+    private final ConcurrentMap<String, Integer> htmlObservationCounts;
+
+    /**
+     * Creates a {@link MimeTypeCache} instance.
+     *
+     * @param minHtmlObservationCount the number of consecutive HTML observations after which a URL
+     *                                shape is considered to be HTML
+     */
+    public MimeTypeCache(final int minHtmlObservationCount) {
+        this.minHtmlObservationCount = minHtmlObservationCount;
+        htmlObservationCounts = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates a {@link MimeTypeCache} instance with the default number of required HTML
+     * observations.
+     */
+    public MimeTypeCache() {
+        this(DEFAULT_MIN_HTML_OBSERVATION_COUNT);
+    }
+
+    /**
+     * Indicates if the given URL is known to point to HTML content.
+     *
+     * @param url the URL to check
+     *
+     * @return <code>true</code> if URLs of the same shape pointed to HTML content recently,
+     *         <code>false</code> otherwise
+     */
+    public boolean isKnownHtml(final URI url) {
+        return htmlObservationCounts.getOrDefault(createShapeKey(url), 0)
+                >= minHtmlObservationCount;
+    }
+
+    /**
+     * Records that the given URL points to HTML content.
+     *
+     * @param url the URL that points to HTML content
+     */
+    public void recordHtml(final URI url) {
+        htmlObservationCounts.merge(createShapeKey(url), 1,
+                (count, increment) -> Math.min(count + increment, minHtmlObservationCount));
+    }
+
+    /**
+     * Records that the given URL does not point to HTML content. This resets the shape of the URL.
+     *
+     * @param url the URL that does not point to HTML content
+     */
+    public void recordNonHtml(final URI url) {
+        String shapeKey = createShapeKey(url);
+
+        LOGGER.debug("Resetting learned MIME type of URL shape {}", shapeKey);
+        htmlObservationCounts.put(shapeKey, 0);
+    }
+
+    /**
+     * Resets the consecutive HTML observations of the shape of the given URL without recording
+     * anything about its content. It is used when the content type of the URL cannot be decided
+     * without a separate request, for example, because it is redirected.
+     *
+     * @param url the URL whose content type is unknown
+     */
+    public void resetHtmlStreak(final URI url) {
+        String shapeKey = createShapeKey(url);
+
+        LOGGER.debug("Resetting HTML observations of URL shape {}", shapeKey);
+        htmlObservationCounts.remove(shapeKey);
+    }
+
+    /**
+     * Creates the key which identifies the shape of the given URL.
+     *
+     * @param url the URL
+     *
+     * @return the key which identifies the shape of the URL
+     */
+    private static String createShapeKey(final URI url) {
+        String host = StringUtils.defaultString(url.getHost()).toLowerCase(Locale.ROOT);
+        String path = StringUtils.defaultString(url.getRawPath());
+
+        String firstSegment = StringUtils.substringBefore(StringUtils.removeStart(path, "/"), "/");
+        String lastSegment = StringUtils.substringAfterLast(path, "/");
+        String extension = lastSegment.contains(".")
+                ? StringUtils.substringAfterLast(lastSegment, ".").toLowerCase(Locale.ROOT)
+                : StringUtils.EMPTY;
+
+        return String.join("|", host, firstSegment, extension);
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal;
+
+import com.github.peterbencze.serritor.internal.util.AhoCorasickAutomaton;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the URL patterns that match a URL. Most URL patterns contain a literal part which every
+ * matching URL must contain (for example, the host name), so the literals of all the patterns are
+ * searched for in a single pass over the URL, and only the patterns whose literal occurs in it
+ * (or which have no such literal) are evaluated. The results are cached for the recently seen
+ * URLs. This class is immutable and thread-safe.
+ */
+public final class UrlPatternMatcher {
+
+    private static final int UNSUPPORTED_FLAGS = Pattern.CASE_INSENSITIVE | Pattern.COMMENTS
+            | Pattern.CANON_EQ | Pattern.UNICODE_CASE;
+
+    // Escaped characters which are followed by arguments (hex, octal, control, name or property)
+    private static final String ESCAPES_WITH_ARGUMENT = "xu0cNkpP";
+
+    private final List<Pattern> patterns;
+    private final AhoCorasickAutomaton literalAutomaton;
+    private final int[] patternIndicesByLiteral;
+    private final BitSet patternsWithoutLiteral;
+    private final Cache<String, BitSet> matchCache;
+
+    /**
+     * Creates a {@link UrlPatternMatcher} instance.
+     *
+     * @param patterns  the URL patterns, which are identified by their index in the list
+     * @param cacheSize the maximum number of URLs whose results are cached
+     */
+    public UrlPatternMatcher(final List<Pattern> patterns, final int cacheSize) {
+        this.patterns = new ArrayList<>(patterns);
+
+        List<String> literals = new ArrayList<>();
+        List<Integer> patternIndices = new ArrayList<>();
+        patternsWithoutLiteral = new BitSet(patterns.size());
+        for (int i = 0; i < patterns.size(); i++) {
+            String literal = extractRequiredLiteral(patterns.get(i));
+            if (literal != null) {
+                literals.add(literal);
+                patternIndices.add(i);
+            } else {
+                patternsWithoutLiteral.set(i);
+            }
+        }
+
+        literalAutomaton = new AhoCorasickAutomaton(literals);
+        patternIndicesByLiteral = patternIndices.stream().mapToInt(Integer::intValue).toArray();
+        matchCache = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /**
+     * Returns the indices of the patterns which can be found in the URL. The returned set must
+     * not be modified.
+     *
+     * @param url the URL to match
+     *
+     * @return the indices of the matching patterns
+     */
+    public BitSet findMatchingPatterns(final String url) {
+        BitSet matchingPatterns = matchCache.getIfPresent(url);
+        if (matchingPatterns == null) {
+            matchingPatterns = evaluatePatterns(url);
+            matchCache.put(url, matchingPatterns);
+        }
+
+        return matchingPatterns;
+    }
+
+    /**
+     * Evaluates the patterns whose literal occurs in the URL, and the patterns without literal.
+     *
+     * @param url the URL to match
+     *
+     * @return the indices of the matching patterns
+     */
+    private BitSet evaluatePatterns(final String url) {
+        BitSet foundLiterals = new BitSet(patternIndicesByLiteral.length);
+        literalAutomaton.findKeywords(url, foundLiterals);
+
+        BitSet candidatePatterns = (BitSet) patternsWithoutLiteral.clone();
+        for (int i = foundLiterals.nextSetBit(0); i >= 0; i = foundLiterals.nextSetBit(i + 1)) {
+            candidatePatterns.set(patternIndicesByLiteral[i]);
+        }
+
+        BitSet matchingPatterns = new BitSet(patterns.size());
+        for (int i = candidatePatterns.nextSetBit(0); i >= 0;
+                i = candidatePatterns.nextSetBit(i + 1)) {
+            if (patterns.get(i).matcher(url).find()) {
+                matchingPatterns.set(i);
+            }
+        }
+
+        return matchingPatterns;
+    }
+
+    /**
+     * Extracts the longest literal from the pattern which every matching input must contain. The
+     * extraction is conservative: if the pattern contains constructs whose effect on the literals
+     * is not obvious (top-level alternation, inline flags, case-insensitive matching, etc.), no
+     * literal is extracted.
+     *
+     * @param pattern the pattern to extract the literal from
+     *
+     * @return the longest required literal, or <code>null</code> if there is none
+     */
+    static String extractRequiredLiteral(final Pattern pattern) {
+        String regex = pattern.pattern();
+        if (regex == null || (pattern.flags() & UNSUPPORTED_FLAGS) != 0) {
+            return null;
+        }
+
+        if ((pattern.flags() & Pattern.LITERAL) != 0) {
+            return regex.isEmpty() ? null : regex;
+        }
+
+        LiteralCollector collector = new LiteralCollector();
+        int groupDepth = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char character = regex.charAt(i);
+
+            switch (character) {
+                case '\\':
+                    if (i + 1 == regex.length()) {
+                        return null;
+                    }
+
+                    char escapedCharacter = regex.charAt(++i);
+                    if (hasEscapeArgument(regex, i)) {
+                        return null;
+                    }
+
+                    if (groupDepth == 0 && !Character.isLetterOrDigit(escapedCharacter)) {
+                        collector.append(escapedCharacter);
+                    } else if (escapedCharacter == 'Q') {
+                        // Quoted sections are skipped for simplicity
+                        int quoteEnd = regex.indexOf("\\E", i);
+                        i = quoteEnd == -1 ? regex.length() : quoteEnd + 1;
+                        collector.endLiteral();
+                    } else {
+                        collector.endLiteral();
+                    }
+                    break;
+                case '[':
+                    i = skipCharacterClass(regex, i);
+                    if (i == -1) {
+                        return null;
+                    }
+
+                    collector.endLiteral();
+                    break;
+                case '(':
+                    if (regex.startsWith("(?", i) && !isSupportedGroupConstruct(regex, i + 2)) {
+                        return null;
+                    }
+
+                    groupDepth++;
+                    collector.endLiteral();
+                    break;
+                case ')':
+                    groupDepth--;
+                    if (groupDepth < 0) {
+                        return null;
+                    }
+
+                    collector.endLiteral();
+                    break;
+                case '|':
+                    if (groupDepth == 0) {
+                        return null;
+                    }
+                    break;
+                case '?':
+                case '*':
+                case '{':
+                    // The preceding character is optional (or its repetition count is unknown)
+                    collector.removeLastCharacter();
+                    collector.endLiteral();
+                    if (character == '{') {
+                        int quantifierEnd = regex.indexOf('}', i);
+                        if (quantifierEnd == -1) {
+                            return null;
+                        }
+
+                        i = quantifierEnd;
+                    }
+                    break;
+                case '+':
+                case '.':
+                case '^':
+                case '$':
+                    collector.endLiteral();
+                    break;
+                default:
+                    if (groupDepth == 0) {
+                        collector.append(character);
+                    }
+                    break;
+            }
+        }
+
+        return collector.getLongestLiteral();
+    }
+
+    /**
+     * Indicates if the escape sequence whose escaped character is at the given index is followed
+     * by argument characters, such as the digits of <code>\x2F</code>, <code>\u002F</code> and
+     * <code>\0057</code>, the name of <code>\p{Alpha}</code> or the digits of a multi-digit
+     * back reference. The arguments must not be mistaken for literal text.
+     *
+     * @param regex the regular expression
+     * @param index the index of the escaped character
+     *
+     * @return <code>true</code> if the escape sequence has arguments, <code>false</code> otherwise
+     */
+    private static boolean hasEscapeArgument(final String regex, final int index) {
+        char escapedCharacter = regex.charAt(index);
+        if (ESCAPES_WITH_ARGUMENT.indexOf(escapedCharacter) != -1) {
+            return true;
+        }
+
+        return escapedCharacter >= '1' && escapedCharacter <= '9' && index + 1 < regex.length()
+                && Character.isDigit(regex.charAt(index + 1));
+    }
+
+    /**
+     * Returns the index of the closing bracket of the character class which starts at the given
+     * index.
+     *
+     * @param regex the regular expression
+     * @param start the index of the opening bracket
+     *
+     * @return the index of the closing bracket, or -1 if the character class is not supported
+     */
+    private static int skipCharacterClass(final String regex, final int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') {
+            i++;
+        }
+
+        // A closing bracket right after the opening one is part of the class
+        if (i < regex.length() && regex.charAt(i) == ']') {
+            i++;
+        }
+
+        while (i < regex.length()) {
+            char character = regex.charAt(i);
+            if (character == '\\') {
+                i += 2;
+            } else if (character == '[') {
+                // Nested classes, unions and intersections
+                return -1;
+            } else if (character == ']') {
+                return i;
+            } else {
+                i++;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Indicates if the special group construct at the given index does not change how the
+     * literals of the pattern are matched. Inline flags are not supported.
+     *
+     * @param regex the regular expression
+     * @param index the index of the character after the <code>(?</code> prefix
+     *
+     * @return <code>true</code> if the construct is supported, <code>false</code> otherwise
+     */
+    private static boolean isSupportedGroupConstruct(final String regex, final int index) {
+        if (index >= regex.length()) {
+            return false;
+        }
+
+        char construct = regex.charAt(index);
+        return construct == ':' || construct == '=' || construct == '!' || construct == '<'
+                || construct == '>';
+    }
+
+    /**
+     * Collects the literal runs of a pattern and keeps track of the longest one.
+     */
+    private static final class LiteralCollector {
+
+        private final StringBuilder currentLiteral;
+
+        private String longestLiteral;
+
+        /**
+         * Creates a {@link LiteralCollector} instance.
+         */
+        LiteralCollector() {
+            currentLiteral = new StringBuilder();
+            longestLiteral = "";
+        }
+
+        /**
+         * Appends a character to the current literal.
+         *
+         * @param character the character to append
+         */
+        void append(final char character) {
+            currentLiteral.append(character);
+        }
+
+        /**
+         * Removes the last character of the current literal, if any.
+         */
+        void removeLastCharacter() {
+            if (currentLiteral.length() > 0) {
+                currentLiteral.setLength(currentLiteral.length() - 1);
+            }
+        }
+
+        /**
+         * Ends the current literal.
+         */
+        void endLiteral() {
+            if (currentLiteral.length() > longestLiteral.length()) {
+                longestLiteral = currentLiteral.toString();
+            }
+
+            currentLiteral.setLength(0);
+        }
+
+        /**
+         * Returns the longest literal collected.
+         *
+         * @return the longest literal, or <code>null</code> if no literal was collected
+         */
+        String getLongestLiteral() {
+            endLiteral();
+            return longestLiteral.isEmpty() ? null : longestLiteral;
+        }
+    }
+}
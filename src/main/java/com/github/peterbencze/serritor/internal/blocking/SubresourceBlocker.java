@@ -0,0 +1,252 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.blocking;
+
+import com.github.peterbencze.serritor.api.SubresourceBlockingRules;
+import com.github.peterbencze.serritor.internal.stats.StatsCounter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import net.lightbody.bmp.filters.HttpsAwareFiltersAdapter;
+import org.apache.commons.lang3.StringUtils;
+import org.littleshoot.proxy.HttpFilters;
+import org.littleshoot.proxy.HttpFiltersSourceAdapter;
+import org.littleshoot.proxy.impl.ProxyUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies the subresource blocking rules at the internal proxy server. Subresources blocked by
+ * file extension or host are answered by the proxy without reaching the network. Subresources
+ * blocked by MIME type are detected from the response headers, answered with the same empty
+ * response and the connection to the server is closed before the body is downloaded.
+ */
+public final class SubresourceBlocker extends HttpFiltersSourceAdapter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SubresourceBlocker.class);
+
+    private final SubresourceBlockingRules blockingRules;
+    private final Predicate<String> mainDocumentUrlPredicate;
+    private final StatsCounter statsCounter;
+
+    /**
+     * Creates a {@link SubresourceBlocker} instance.
+     *
+     * @param blockingRules            the subresource blocking rules
+     * @param mainDocumentUrlPredicate the predicate which tells if a URL is the URL of the main
+     *                                 document of the current page, which is never blocked
+     * @param statsCounter             the stats counter which records the blocked subresources
+     */
+    public SubresourceBlocker(
+            final SubresourceBlockingRules blockingRules,
+            final Predicate<String> mainDocumentUrlPredicate,
+            final StatsCounter statsCounter) {
+        this.blockingRules = blockingRules;
+        this.mainDocumentUrlPredicate = mainDocumentUrlPredicate;
+        this.statsCounter = statsCounter;
+    }
+
+    /**
+     * Returns the filters that apply the blocking rules to the given request.
+     *
+     * @param originalRequest the request received from the browser
+     * @param ctx             the context of the client connection
+     *
+     * @return the filters for the request, or <code>null</code> if the request is an HTTP CONNECT
+     *         request
+     */
+    @Override
+    public HttpFilters filterRequest(
+            final HttpRequest originalRequest,
+            final ChannelHandlerContext ctx) {
+        if (ProxyUtils.isCONNECT(originalRequest)) {
+            return null;
+        }
+
+        return new SubresourceBlockingFilter(originalRequest, ctx);
+    }
+
+    /**
+     * Creates the empty response which is sent to the browser instead of a blocked subresource.
+     * The connection is closed after the response, so the browser does not retry the request on
+     * it when the connection to the server is closed.
+     *
+     * @return the empty response
+     */
+    private static HttpResponse createBlockedResponse() {
+        HttpResponse response =
+                new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NO_CONTENT);
+        HttpHeaders.setContentLength(response, 0);
+        response.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.CLOSE);
+        return response;
+    }
+
+    /**
+     * Extracts the lower case file extension from the path of the URL.
+     *
+     * @param url the URL to extract the file extension from
+     *
+     * @return the file extension, or an empty string if the path has no extension
+     */
+    private static String getExtension(final String url) {
+        int pathStart = url.indexOf('/', url.indexOf("://") + 3);
+        if (pathStart == -1) {
+            return "";
+        }
+
+        int pathEnd = StringUtils.indexOfAny(url, '?', '#');
+        String path = url.substring(pathStart, pathEnd == -1 ? url.length() : pathEnd);
+
+        int extensionStart = path.lastIndexOf('.');
+        if (extensionStart < path.lastIndexOf('/')) {
+            return "";
+        }
+
+        return path.substring(extensionStart + 1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indicates if the host matches any of the given patterns.
+     *
+     * @param patterns the patterns to match the host against
+     * @param host     the host to check
+     *
+     * @return <code>true</code> if the host matches any of the patterns, <code>false</code>
+     *         otherwise
+     */
+    private static boolean matchesAny(final List<Pattern> patterns, final String host) {
+        return patterns.stream().anyMatch(pattern -> pattern.matcher(host).find());
+    }
+
+    /**
+     * Indicates if the content type matches any of the blocked MIME types.
+     *
+     * @param contentType the value of the Content-Type header
+     *
+     * @return <code>true</code> if the content type is blocked, <code>false</code> otherwise
+     */
+    private boolean isBlockedContentType(final String contentType) {
+        if (contentType == null || blockingRules.getBlockedMimeTypes().isEmpty()) {
+            return false;
+        }
+
+        String mimeType = StringUtils.substringBefore(contentType, ";")
+                .trim()
+                .toLowerCase(Locale.ROOT);
+        String wildcardMimeType = StringUtils.substringBefore(mimeType, "/") + "/*";
+
+        return blockingRules.getBlockedMimeTypes().contains(mimeType)
+                || blockingRules.getBlockedMimeTypes().contains(wildcardMimeType);
+    }
+
+    /**
+     * Blocks the request of a subresource before it reaches the network, or its response before
+     * the body is downloaded.
+     */
+    private final class SubresourceBlockingFilter extends HttpsAwareFiltersAdapter {
+
+        private final String url;
+        private final boolean isExempt;
+
+        private volatile boolean isResponseBlocked;
+
+        /**
+         * Creates a {@link SubresourceBlockingFilter} instance.
+         *
+         * @param originalRequest the request received from the browser
+         * @param ctx             the context of the client connection
+         */
+        SubresourceBlockingFilter(
+                final HttpRequest originalRequest,
+                final ChannelHandlerContext ctx) {
+            super(originalRequest, ctx);
+
+            url = getFullUrl(originalRequest);
+            isExempt = mainDocumentUrlPredicate.test(url)
+                    || matchesAny(blockingRules.getAllowedHostPatterns(), getHost(originalRequest));
+        }
+
+        /**
+         * Answers the request with an empty response if the subresource is blocked by its file
+         * extension or host.
+         *
+         * @param httpObject the part of the request received from the browser
+         *
+         * @return the empty response if the subresource is blocked, <code>null</code> to proceed
+         *         with the request otherwise
+         */
+        @Override
+        public HttpResponse clientToProxyRequest(final HttpObject httpObject) {
+            if (!(httpObject instanceof HttpRequest) || isExempt) {
+                return null;
+            }
+
+            boolean isBlocked =
+                    blockingRules.getBlockedExtensions().contains(getExtension(url))
+                            || matchesAny(blockingRules.getBlockedHostPatterns(),
+                                    getHost((HttpRequest) httpObject));
+            if (!isBlocked) {
+                return null;
+            }
+
+            LOGGER.debug("Blocking subresource request to URL {}", url);
+            statsCounter.recordBlockedSubresource(0);
+
+            return createBlockedResponse();
+        }
+
+        /**
+         * Replaces the response with an empty one if the subresource is blocked by its MIME type,
+         * then closes the connection to the server when the body starts to arrive.
+         *
+         * @param httpObject the part of the response received from the server
+         *
+         * @return the unmodified part of the response, the empty response if the subresource is
+         *         blocked, or <code>null</code> to close the connection for the rest of the body
+         */
+        @Override
+        public HttpObject serverToProxyResponse(final HttpObject httpObject) {
+            if (isResponseBlocked) {
+                return null;
+            }
+
+            if (!(httpObject instanceof HttpResponse) || isExempt) {
+                return httpObject;
+            }
+
+            HttpResponse response = (HttpResponse) httpObject;
+            if (!isBlockedContentType(response.headers().get(HttpHeaders.Names.CONTENT_TYPE))) {
+                return httpObject;
+            }
+
+            LOGGER.debug("Blocking subresource response from URL {}", url);
+            statsCounter.recordBlockedSubresource(HttpHeaders.getContentLength(response, 0));
+
+            isResponseBlocked = true;
+            return createBlockedResponse();
+        }
+    }
+}
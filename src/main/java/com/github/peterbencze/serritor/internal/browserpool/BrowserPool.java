@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.browserpool;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of browsers which keeps a number of spare browsers warmed up in the background, so a
+ * browser can be replaced without waiting for a new one to start. Retired browsers are closed in
+ * the background as well. This class is not thread-safe, each crawl worker has its own pool.
+ */
+public final class BrowserPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrowserPool.class);
+    private static final long SHUTDOWN_TIMEOUT_IN_SECONDS = 30;
+
+    private final Supplier<WebDriver> webDriverFactory;
+    private final int spareBrowserCount;
+    private final Queue<Future<WebDriver>> spareBrowsers;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a {@link BrowserPool} instance.
+     *
+     * @param webDriverFactory  the factory which starts and initializes a new browser
+     * @param spareBrowserCount the number of browsers to keep warmed up
+     */
+    public BrowserPool(final Supplier<WebDriver> webDriverFactory, final int spareBrowserCount) {
+        this.webDriverFactory = webDriverFactory;
+        this.spareBrowserCount = spareBrowserCount;
+        spareBrowsers = new ArrayDeque<>(spareBrowserCount);
+        executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("browser-pool-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    /**
+     * Returns a browser from the pool. A warmed up browser is returned if available, otherwise a
+     * new one is started. The pool starts warming up a replacement in the background.
+     *
+     * @return the browser
+     */
+    public WebDriver acquire() {
+        WebDriver webDriver = null;
+
+        Future<WebDriver> spareBrowser = spareBrowsers.poll();
+        if (spareBrowser != null) {
+            try {
+                webDriver = Uninterruptibles.getUninterruptibly(spareBrowser);
+            } catch (ExecutionException exception) {
+                LOGGER.warn("Failed to warm up browser, starting a new one",
+                        exception.getCause());
+            }
+        }
+
+        if (webDriver == null) {
+            webDriver = webDriverFactory.get();
+        }
+
+        while (spareBrowsers.size() < spareBrowserCount) {
+            spareBrowsers.add(executor.submit(webDriverFactory::get));
+        }
+
+        return webDriver;
+    }
+
+    /**
+     * Closes the browser in the background. The browser must not be used afterwards.
+     *
+     * @param webDriver the browser to retire
+     */
+    public void retire(final WebDriver webDriver) {
+        executor.execute(() -> quitQuietly(webDriver));
+    }
+
+    /**
+     * Closes the spare browsers and stops the background thread of the pool. The browsers which
+     * were acquired from the pool and not retired have to be closed by the caller.
+     */
+    public void shutdown() {
+        for (Future<WebDriver> spareBrowser : spareBrowsers) {
+            try {
+                quitQuietly(Uninterruptibles.getUninterruptibly(spareBrowser));
+            } catch (ExecutionException exception) {
+                LOGGER.debug("Spare browser failed to start", exception.getCause());
+            }
+        }
+
+        spareBrowsers.clear();
+
+        // Wait for the retired browsers to be closed
+        MoreExecutors.shutdownAndAwaitTermination(executor, SHUTDOWN_TIMEOUT_IN_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Closes the browser, ignoring the errors of a crashed browser.
+     *
+     * @param webDriver the browser to close
+     */
+    private static void quitQuietly(final WebDriver webDriver) {
+        try {
+            LOGGER.debug("Closing browser");
+            webDriver.quit();
+        } catch (WebDriverException exception) {
+            LOGGER.debug("Failed to close browser", exception);
+        }
+    }
+}
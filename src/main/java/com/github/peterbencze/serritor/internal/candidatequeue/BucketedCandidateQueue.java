@@ -0,0 +1,365 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.candidatequeue;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.api.CrawlStrategy;
+import com.github.peterbencze.serritor.internal.util.BinaryCodec;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A candidate queue which keeps all the candidates in memory, in buckets indexed by crawl depth
+ * and then by priority. Each bucket is a FIFO segment, so candidates with the same crawl depth and
+ * priority are retrieved in insertion order. Crawl depths are bounded small integers, so the levels
+ * are stored in an array indexed by depth, and a cursor points to the level which is served next.
+ * A level keeps its buckets sorted by priority, and only the highest priority bucket is ever
+ * drained, so inserting and retrieving candidates takes constant time as long as the number of
+ * distinct priorities is small.
+ */
+public final class BucketedCandidateQueue implements CopyableCandidateQueue {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int INITIAL_LEVEL_COUNT = 8;
+
+    private final boolean isBreadthFirst;
+
+    private transient Level[] levels;
+    private transient int cursor;
+    private transient int size;
+
+    /**
+     * Creates a {@link BucketedCandidateQueue} instance.
+     *
+     * @param crawlStrategy the strategy which defines the order of the crawl depths
+     */
+    public BucketedCandidateQueue(final CrawlStrategy crawlStrategy) {
+        Validate.notNull(crawlStrategy, "The crawlStrategy parameter cannot be null.");
+
+        isBreadthFirst = crawlStrategy == CrawlStrategy.BREADTH_FIRST;
+        levels = new Level[INITIAL_LEVEL_COUNT];
+    }
+
+    /**
+     * Creates a copy of the given queue with its own levels and buckets.
+     *
+     * @param queue the queue to copy
+     */
+    private BucketedCandidateQueue(final BucketedCandidateQueue queue) {
+        isBreadthFirst = queue.isBreadthFirst;
+        levels = new Level[queue.levels.length];
+        for (int i = 0; i < levels.length; i++) {
+            if (queue.levels[i] != null) {
+                levels[i] = new Level(queue.levels[i]);
+            }
+        }
+
+        cursor = queue.cursor;
+        size = queue.size;
+    }
+
+    /**
+     * Inserts the candidate into the queue.
+     *
+     * @param candidate the crawl candidate to insert
+     */
+    @Override
+    public void add(final CrawlCandidate candidate) {
+        int depth = candidate.getCrawlDepth();
+        Validate.isTrue(depth >= 0, "The crawl depth of the candidate cannot be negative.");
+
+        if (depth >= levels.length) {
+            levels = Arrays.copyOf(levels, Math.max(levels.length * 2, depth + 1));
+        }
+
+        Level level = levels[depth];
+        if (level == null) {
+            level = new Level();
+            levels[depth] = level;
+        }
+
+        level.add(candidate);
+
+        if (size == 0 || (isBreadthFirst ? depth < cursor : depth > cursor)) {
+            cursor = depth;
+        }
+
+        size++;
+    }
+
+    /**
+     * Retrieves and removes the head of the queue.
+     *
+     * @return the head of the queue, or <code>null</code> if the queue is empty
+     */
+    @Override
+    public CrawlCandidate poll() {
+        if (size == 0) {
+            return null;
+        }
+
+        Level level = levels[cursor];
+        CrawlCandidate candidate = level.poll();
+        size--;
+
+        if (size > 0 && level.isEmpty()) {
+            int step = isBreadthFirst ? 1 : -1;
+            do {
+                cursor += step;
+            } while (levels[cursor] == null || levels[cursor].isEmpty());
+        }
+
+        return candidate;
+    }
+
+    /**
+     * Retrieves, but does not remove, the head of the queue.
+     *
+     * @return the head of the queue, or <code>null</code> if the queue is empty
+     */
+    public CrawlCandidate peek() {
+        return size > 0 ? levels[cursor].peek() : null;
+    }
+
+    /**
+     * Returns the number of candidates in the queue.
+     *
+     * @return the number of candidates in the queue
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the candidates from the queue.
+     */
+    @Override
+    public void clear() {
+        levels = new Level[INITIAL_LEVEL_COUNT];
+        cursor = 0;
+        size = 0;
+    }
+
+    /**
+     * Passes each candidate in the queue to the given consumer, in no particular order across the
+     * crawl depths and priorities.
+     *
+     * @param consumer the consumer of the candidates
+     */
+    public void forEach(final Consumer<CrawlCandidate> consumer) {
+        for (Level level : levels) {
+            if (level != null) {
+                level.forEach(consumer);
+            }
+        }
+    }
+
+    /**
+     * Creates an independent copy of the queue. The buckets are copied, while the candidates are
+     * shared with this queue.
+     *
+     * @return the copy of the queue
+     */
+    @Override
+    public CandidateQueue copy() {
+        return new BucketedCandidateQueue(this);
+    }
+
+    /**
+     * Writes the candidates to the stream in the compact binary format of {@link BinaryCodec},
+     * instead of serializing each of them as a separate object.
+     *
+     * @param out the stream to write the object to
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+
+        BinaryCodec.writeVarInt(out, size);
+        for (Level level : levels) {
+            if (level != null) {
+                level.writeCandidates(out);
+            }
+        }
+    }
+
+    /**
+     * Reads the candidates from the stream and puts them back into their buckets.
+     *
+     * @param in the stream to read the object from
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        clear();
+
+        int candidateCount = BinaryCodec.readVarInt(in);
+        for (int i = 0; i < candidateCount; i++) {
+            add(BinaryCodec.readCandidate(in));
+        }
+    }
+
+    /**
+     * The candidates of a crawl depth, in FIFO buckets sorted by ascending priority. Empty buckets
+     * are removed, so the last bucket always holds the candidates to be retrieved next.
+     */
+    private static final class Level {
+
+        private static final int INITIAL_BUCKET_COUNT = 2;
+
+        private int[] priorities;
+        private ArrayDeque<CrawlCandidate>[] buckets;
+        private int bucketCount;
+
+        /**
+         * Creates a {@link Level} instance.
+         */
+        Level() {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            ArrayDeque<CrawlCandidate>[] initialBuckets = new ArrayDeque[INITIAL_BUCKET_COUNT];
+
+            priorities = new int[INITIAL_BUCKET_COUNT];
+            buckets = initialBuckets;
+        }
+
+        /**
+         * Creates a copy of the given level with its own buckets.
+         *
+         * @param level the level to copy
+         */
+        Level(final Level level) {
+            priorities = level.priorities.clone();
+            buckets = level.buckets.clone();
+            bucketCount = level.bucketCount;
+
+            for (int i = 0; i < bucketCount; i++) {
+                buckets[i] = new ArrayDeque<>(buckets[i]);
+            }
+        }
+
+        /**
+         * Appends the candidate to the bucket of its priority.
+         *
+         * @param candidate the crawl candidate to insert
+         */
+        void add(final CrawlCandidate candidate) {
+            int priority = candidate.getPriority();
+
+            // Most candidates have the same priority as the last one added
+            int index = bucketCount - 1;
+            if (index < 0 || priorities[index] != priority) {
+                index = Arrays.binarySearch(priorities, 0, bucketCount, priority);
+                if (index < 0) {
+                    index = insertBucket(-index - 1, priority);
+                }
+            }
+
+            buckets[index].add(candidate);
+        }
+
+        /**
+         * Retrieves and removes the oldest candidate with the highest priority.
+         *
+         * @return the oldest candidate with the highest priority
+         */
+        CrawlCandidate poll() {
+            ArrayDeque<CrawlCandidate> bucket = buckets[bucketCount - 1];
+            CrawlCandidate candidate = bucket.poll();
+
+            if (bucket.isEmpty()) {
+                buckets[--bucketCount] = null;
+            }
+
+            return candidate;
+        }
+
+        /**
+         * Retrieves, but does not remove, the oldest candidate with the highest priority.
+         *
+         * @return the oldest candidate with the highest priority
+         */
+        CrawlCandidate peek() {
+            return buckets[bucketCount - 1].peek();
+        }
+
+        /**
+         * Passes each candidate of the level to the given consumer.
+         *
+         * @param consumer the consumer of the candidates
+         */
+        void forEach(final Consumer<CrawlCandidate> consumer) {
+            for (int i = 0; i < bucketCount; i++) {
+                buckets[i].forEach(consumer);
+            }
+        }
+
+        /**
+         * Writes the candidates of the level to the output, each bucket in FIFO order.
+         *
+         * @param out the output to write to
+         *
+         * @throws IOException if an I/O error occurs while writing
+         */
+        void writeCandidates(final DataOutput out) throws IOException {
+            for (int i = 0; i < bucketCount; i++) {
+                for (CrawlCandidate candidate : buckets[i]) {
+                    BinaryCodec.writeCandidate(out, candidate);
+                }
+            }
+        }
+
+        /**
+         * Indicates if the level has no candidates.
+         *
+         * @return <code>true</code> if the level is empty, <code>false</code> otherwise
+         */
+        boolean isEmpty() {
+            return bucketCount == 0;
+        }
+
+        /**
+         * Inserts an empty bucket for the given priority at the given index.
+         *
+         * @param index    the index of the new bucket
+         * @param priority the priority of the candidates in the new bucket
+         *
+         * @return the index of the new bucket
+         */
+        private int insertBucket(final int index, final int priority) {
+            if (bucketCount == priorities.length) {
+                priorities = Arrays.copyOf(priorities, bucketCount * 2);
+                buckets = Arrays.copyOf(buckets, bucketCount * 2);
+            }
+
+            System.arraycopy(priorities, index, priorities, index + 1, bucketCount - index);
+            System.arraycopy(buckets, index, buckets, index + 1, bucketCount - index);
+
+            priorities[index] = priority;
+            buckets[index] = new ArrayDeque<>();
+            bucketCount++;
+
+            return index;
+        }
+    }
+}
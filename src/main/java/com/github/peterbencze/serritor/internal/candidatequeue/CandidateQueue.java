@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.candidatequeue;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import java.io.Serializable;
+
+/**
+ * An interface which should be implemented by every crawl candidate queue. Candidates are retrieved
+ * in the order defined by the comparator of the queue. Implementations are not required to be
+ * thread-safe.
+ */
+public interface CandidateQueue extends Serializable {
+
+    /**
+     * Inserts the candidate into the queue.
+     *
+     * @param candidate the crawl candidate to insert
+     */
+    void add(CrawlCandidate candidate);
+
+    /**
+     * Retrieves and removes the head of the queue.
+     *
+     * @return the head of the queue, or <code>null</code> if the queue is empty
+     */
+    CrawlCandidate poll();
+
+    /**
+     * Returns the number of candidates in the queue.
+     *
+     * @return the number of candidates in the queue
+     */
+    int size();
+
+    /**
+     * Indicates if the queue is empty.
+     *
+     * @return <code>true</code> if the queue is empty, <code>false</code> otherwise
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all the candidates from the queue.
+     */
+    void clear();
+
+    /**
+     * Notifies the queue that a candidate retrieved from it has been completed. Queues which
+     * persist the candidates use it to forget the candidates which no longer have to be recovered
+     * after a crash.
+     *
+     * @param candidate the completed crawl candidate
+     */
+    default void markCompleted(CrawlCandidate candidate) {
+    }
+
+    /**
+     * Indicates if the queue recovers its candidates (including the ones retrieved but not
+     * completed) from durable storage when it is reopened.
+     *
+     * @return <code>true</code> if the queue is persistent, <code>false</code> otherwise
+     */
+    default boolean isPersistent() {
+        return false;
+    }
+
+    /**
+     * Releases the resources held by the queue. The queue can still be used afterwards, in which
+     * case the resources are acquired again.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.candidatequeue;
+
+/**
+ * A candidate queue which can be copied. The snapshots of the crawl frontier get their own copy of
+ * such a queue, while queues which do not implement this interface are shared with the snapshots,
+ * so they have to be persistent.
+ */
+public interface CopyableCandidateQueue extends CandidateQueue {
+
+    /**
+     * Creates an independent copy of the queue, which is not affected by later changes to this
+     * queue. The copy may share storage with this queue, which it releases when it is cleared.
+     *
+     * @return the copy of the queue
+     */
+    CandidateQueue copy();
+}
@@ -0,0 +1,747 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.peterbencze.serritor.internal.candidatequeue;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.internal.util.BinaryCodec;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A candidate queue which keeps only a bounded hot window of the best candidates in memory and
+ * spills the rest to segment files on disk. Each segment file contains a sorted run of candidates,
+ * which is read through a small buffer. Polling merges the head of the hot window with the heads
+ * of the segments, so the candidates are retrieved in the same order as from an in-memory queue.
+ * Each candidate is assigned a sequence number when it is added, which is written to the segment
+ * files along with the candidate, so candidates of the same order are retrieved in the order they
+ * were added.
+ *
+ * <p>Segment files are never modified once written, so a copy of the queue shares them with this
+ * queue and only keeps its own read positions. Each segment file is reference counted, and it is
+ * deleted when the last queue using it has fully consumed or cleared it. The files are only open
+ * while they are read, so they can be deleted on any platform. When the queue is serialized, the
+ * records not yet consumed are written to the stream along with the hot window, so the serialized
+ * queue does not depend on the segment files. They are written to new segment files when the queue
+ * is deserialized.
+ *
+ * <p>Each segment file starts with a magic number and the version of its format, which are checked
+ * when the file is opened.
+ */
+public final class DiskBackedCandidateQueue implements CopyableCandidateQueue {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DiskBackedCandidateQueue.class);
+    private static final String SEGMENT_FILE_PREFIX = "candidates-";
+    private static final String SEGMENT_FILE_SUFFIX = ".seg";
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+    private static final int READ_BUFFER_SIZE = 1 << 13;
+    private static final int RECORD_HEADER_LENGTH = Long.BYTES + Integer.BYTES;
+    private static final int SEGMENT_MAGIC = 0x53434E44;
+    private static final int SEGMENT_FORMAT_VERSION = 1;
+
+    private final SequencedComparator comparator;
+    private final int hotWindowSize;
+    private final PriorityQueue<SequencedCandidate> hotCandidates;
+
+    private File segmentDirectory;
+    private long nextSequence;
+    private transient PriorityQueue<Segment> segments;
+    private transient int segmentCandidateCount;
+
+    /**
+     * Creates a {@link DiskBackedCandidateQueue} instance.
+     *
+     * @param comparator       the comparator which defines the order of the candidates (should be
+     *                         serializable)
+     * @param segmentDirectory the directory to store the segment files in, or <code>null</code> to
+     *                         use a temporary directory
+     * @param hotWindowSize    the maximum number of candidates kept in memory
+     */
+    public DiskBackedCandidateQueue(
+            final Comparator<CrawlCandidate> comparator,
+            final File segmentDirectory,
+            final int hotWindowSize) {
+        Validate.isTrue(hotWindowSize >= 2, "The hot window size must be at least 2.");
+
+        this.comparator = new SequencedComparator(comparator);
+        this.segmentDirectory = segmentDirectory;
+        this.hotWindowSize = hotWindowSize;
+        hotCandidates = new PriorityQueue<>(this.comparator);
+        nextSequence = 0;
+
+        initSegments();
+    }
+
+    /**
+     * Creates a copy of the given queue. The segment files are shared with the given queue, so
+     * only the read positions of the segments are copied.
+     *
+     * @param queue the queue to copy
+     */
+    private DiskBackedCandidateQueue(final DiskBackedCandidateQueue queue) {
+        comparator = queue.comparator;
+        segmentDirectory = queue.segmentDirectory;
+        hotWindowSize = queue.hotWindowSize;
+        hotCandidates = new PriorityQueue<>(queue.hotCandidates);
+        nextSequence = queue.nextSequence;
+
+        initSegments();
+
+        queue.segments.forEach(segment -> segments.add(new Segment(segment)));
+        segmentCandidateCount = queue.segmentCandidateCount;
+    }
+
+    /**
+     * Inserts the candidate into the queue. If the hot window is full, its worse half is spilled to
+     * a new segment file.
+     *
+     * @param candidate the crawl candidate to insert
+     */
+    @Override
+    public void add(final CrawlCandidate candidate) {
+        hotCandidates.add(new SequencedCandidate(candidate, nextSequence++));
+
+        if (hotCandidates.size() > hotWindowSize) {
+            spillHotCandidates();
+        }
+    }
+
+    /**
+     * Retrieves and removes the head of the queue.
+     *
+     * @return the head of the queue, or <code>null</code> if the queue is empty
+     */
+    @Override
+    public CrawlCandidate poll() {
+        Segment bestSegment = segments.peek();
+        SequencedCandidate bestHotCandidate = hotCandidates.peek();
+
+        if (bestSegment == null || (bestHotCandidate != null
+                && comparator.compare(bestHotCandidate, bestSegment.getHead()) < 0)) {
+            return bestHotCandidate != null ? hotCandidates.poll().getCandidate() : null;
+        }
+
+        segments.poll();
+        segmentCandidateCount--;
+
+        CrawlCandidate candidate = bestSegment.getHead().getCandidate();
+        if (bestSegment.advance()) {
+            segments.add(bestSegment);
+        } else {
+            bestSegment.release();
+        }
+
+        return candidate;
+    }
+
+    /**
+     * Returns the number of candidates in the queue, including the ones on disk.
+     *
+     * @return the number of candidates in the queue
+     */
+    @Override
+    public int size() {
+        return hotCandidates.size() + segmentCandidateCount;
+    }
+
+    /**
+     * Removes all the candidates from the queue and releases the segment files. The segment files
+     * which are not shared with a copy of the queue are deleted.
+     */
+    @Override
+    public void clear() {
+        hotCandidates.clear();
+
+        segments.forEach(Segment::release);
+        segments.clear();
+        segmentCandidateCount = 0;
+    }
+
+    /**
+     * Creates an independent copy of the queue. The hot window is copied in memory, while the
+     * segment files are shared with this queue. The copy has to be cleared once it is no longer
+     * used, so the segment files consumed by this queue can be deleted.
+     *
+     * @return the copy of the queue
+     */
+    @Override
+    public CandidateQueue copy() {
+        return new DiskBackedCandidateQueue(this);
+    }
+
+    /**
+     * Returns the number of segment files in use.
+     *
+     * @return the number of segment files in use
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Sorts the hot window, keeps its better half in memory and writes the worse half to a new
+     * segment file.
+     */
+    private void spillHotCandidates() {
+        List<SequencedCandidate> sortedCandidates = new ArrayList<>(hotCandidates);
+        sortedCandidates.sort(comparator);
+
+        int keptCandidateCount = hotWindowSize / 2;
+        List<SequencedCandidate> spilledCandidates =
+                sortedCandidates.subList(keptCandidateCount, sortedCandidates.size());
+
+        LOGGER.debug("Spilling {} crawl candidates to disk", spilledCandidates.size());
+
+        try {
+            File segmentFile = writeSegmentFile(spilledCandidates);
+            segments.add(new Segment(new SegmentFile(segmentFile), BinaryCodec.HEADER_LENGTH,
+                    spilledCandidates.size()));
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to spill crawl candidates to disk", exception);
+        }
+
+        segmentCandidateCount += spilledCandidates.size();
+
+        hotCandidates.clear();
+        hotCandidates.addAll(sortedCandidates.subList(0, keptCandidateCount));
+    }
+
+    /**
+     * Writes the sorted run of candidates to a new segment file, after the header of the file.
+     * Each record consists of the sequence number of the candidate, the length of the serialized
+     * candidate and the serialized candidate.
+     *
+     * @param sortedCandidates the sorted run of candidates
+     *
+     * @return the segment file
+     *
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    private File writeSegmentFile(final List<SequencedCandidate> sortedCandidates)
+            throws IOException {
+        File segmentFile = createSegmentFile();
+        try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(segmentFile.toPath())))) {
+            BinaryCodec.writeHeader(outputStream, SEGMENT_MAGIC, SEGMENT_FORMAT_VERSION);
+            for (SequencedCandidate candidate : sortedCandidates) {
+                byte[] serializedCandidate = BinaryCodec.encode(candidate.getCandidate());
+                outputStream.writeLong(candidate.getSequence());
+                outputStream.writeInt(serializedCandidate.length);
+                outputStream.write(serializedCandidate);
+            }
+        }
+
+        return segmentFile;
+    }
+
+    /**
+     * Writes the given number of bytes from the stream to a new segment file, after the header of
+     * the file.
+     *
+     * @param inputStream the stream to read the records from
+     * @param byteCount   the number of bytes to copy
+     *
+     * @return the segment file
+     *
+     * @throws IOException if an I/O error occurs while reading the stream or writing the file
+     */
+    private File writeSegmentFile(final DataInput inputStream, final int byteCount)
+            throws IOException {
+        File segmentFile = createSegmentFile();
+        try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(segmentFile.toPath())))) {
+            BinaryCodec.writeHeader(outputStream, SEGMENT_MAGIC, SEGMENT_FORMAT_VERSION);
+
+            byte[] copyBuffer = new byte[Math.min(byteCount, COPY_BUFFER_SIZE)];
+            int remainingByteCount = byteCount;
+            while (remainingByteCount > 0) {
+                int chunkSize = Math.min(remainingByteCount, copyBuffer.length);
+                inputStream.readFully(copyBuffer, 0, chunkSize);
+                outputStream.write(copyBuffer, 0, chunkSize);
+                remainingByteCount -= chunkSize;
+            }
+        }
+
+        return segmentFile;
+    }
+
+    /**
+     * Creates a new, empty segment file in the segment directory.
+     *
+     * @return the segment file
+     *
+     * @throws IOException if an I/O error occurs while creating the file
+     */
+    private File createSegmentFile() throws IOException {
+        if (segmentDirectory == null) {
+            segmentDirectory = Files.createTempDirectory("serritor-frontier").toFile();
+        }
+
+        return File.createTempFile(SEGMENT_FILE_PREFIX, SEGMENT_FILE_SUFFIX, segmentDirectory);
+    }
+
+    /**
+     * Deletes the given segment file.
+     *
+     * @param segmentFile the segment file to delete
+     */
+    private static void deleteSegmentFile(final File segmentFile) {
+        try {
+            Files.deleteIfExists(segmentFile.toPath());
+        } catch (IOException exception) {
+            LOGGER.warn("Failed to delete segment file {}", segmentFile, exception);
+        }
+    }
+
+    /**
+     * Initializes the queue of segments which is ordered by the head candidates.
+     */
+    private void initSegments() {
+        segments = new PriorityQueue<>((segment1, segment2) ->
+                comparator.compare(segment1.getHead(), segment2.getHead()));
+        segmentCandidateCount = 0;
+    }
+
+    /**
+     * Writes the hot window and the records not yet consumed from the segments to the stream.
+     *
+     * @param out the stream to write the object to
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+
+        out.writeInt(segments.size());
+        for (Segment segment : segments) {
+            out.writeInt(segment.getRemainingCount());
+            segment.writeRemainingRecords(out);
+        }
+    }
+
+    /**
+     * Restores the hot window and writes the records of each segment to a new segment file.
+     *
+     * @param in the stream to read the object from
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        initSegments();
+
+        int segmentCount = in.readInt();
+        for (int i = 0; i < segmentCount; i++) {
+            int remainingCount = in.readInt();
+            File segmentFile = writeSegmentFile(in, in.readInt());
+
+            segments.add(new Segment(new SegmentFile(segmentFile), BinaryCodec.HEADER_LENGTH,
+                    remainingCount));
+            segmentCandidateCount += remainingCount;
+        }
+    }
+
+    /**
+     * A crawl candidate along with the sequence number which was assigned to it when it was added
+     * to the queue.
+     */
+    private static final class SequencedCandidate implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CrawlCandidate candidate;
+        private final long sequence;
+
+        /**
+         * Creates a {@link SequencedCandidate} instance.
+         *
+         * @param candidate the crawl candidate
+         * @param sequence  the sequence number of the candidate
+         */
+        SequencedCandidate(final CrawlCandidate candidate, final long sequence) {
+            this.candidate = candidate;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Returns the crawl candidate.
+         *
+         * @return the crawl candidate
+         */
+        CrawlCandidate getCandidate() {
+            return candidate;
+        }
+
+        /**
+         * Returns the sequence number of the candidate.
+         *
+         * @return the sequence number of the candidate
+         */
+        long getSequence() {
+            return sequence;
+        }
+    }
+
+    /**
+     * Orders the candidates using the comparator of the queue, and the candidates of the same
+     * order by their sequence numbers.
+     */
+    private static final class SequencedComparator
+            implements Comparator<SequencedCandidate>, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Comparator<CrawlCandidate> candidateComparator;
+
+        /**
+         * Creates a {@link SequencedComparator} instance.
+         *
+         * @param candidateComparator the comparator which defines the order of the candidates
+         */
+        SequencedComparator(final Comparator<CrawlCandidate> candidateComparator) {
+            this.candidateComparator = candidateComparator;
+        }
+
+        /**
+         * Compares two candidates by their order, then by their sequence numbers.
+         *
+         * @param first  the first candidate
+         * @param second the second candidate
+         *
+         * @return a negative integer, zero, or a positive integer as the first candidate is to be
+         *         retrieved before, together with, or after the second
+         */
+        @Override
+        public int compare(final SequencedCandidate first, final SequencedCandidate second) {
+            int result =
+                    candidateComparator.compare(first.getCandidate(), second.getCandidate());
+            return result != 0 ? result : Long.compare(first.getSequence(), second.getSequence());
+        }
+    }
+
+    /**
+     * A segment file which is shared by a queue and its copies. The file is only open while it is
+     * read, and it is deleted when the last of the queues releases it.
+     */
+    private static final class SegmentFile {
+
+        private final File file;
+        private final AtomicInteger referenceCount;
+
+        /**
+         * Creates a {@link SegmentFile} instance by checking the header of the given file. The
+         * instance holds one reference to the file.
+         *
+         * @param file the segment file
+         *
+         * @throws IOException if an I/O error occurs while reading the file, or the header does
+         *                     not match
+         */
+        SegmentFile(final File file) throws IOException {
+            this.file = file;
+            referenceCount = new AtomicInteger(1);
+
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                BinaryCodec.readHeader(new DataInputStream(Channels.newInputStream(channel)),
+                        SEGMENT_MAGIC, SEGMENT_FORMAT_VERSION, "candidate segment " + file);
+            }
+        }
+
+        /**
+         * Reads bytes from the file into the buffer, starting at the given position of the file,
+         * until the buffer is full or the end of the file is reached.
+         *
+         * @param buffer   the buffer to read the bytes into
+         * @param position the position of the file to start reading at
+         *
+         * @return the number of bytes read
+         *
+         * @throws IOException if an I/O error occurs while reading the file
+         */
+        int read(final ByteBuffer buffer, final long position) throws IOException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                int totalReadCount = 0;
+                while (buffer.hasRemaining()) {
+                    int readCount = channel.read(buffer, position + totalReadCount);
+                    if (readCount == -1) {
+                        break;
+                    }
+
+                    totalReadCount += readCount;
+                }
+
+                return totalReadCount;
+            }
+        }
+
+        /**
+         * Writes the length of the file from the given position onwards, followed by the bytes of
+         * the file from that position.
+         *
+         * @param out      the output to write the bytes to
+         * @param position the position of the file to start writing from
+         *
+         * @throws IOException if an I/O error occurs while reading the file or writing the bytes
+         */
+        void writeTo(final DataOutput out, final long position) throws IOException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                int byteCount = Math.toIntExact(channel.size() - position);
+                out.writeInt(byteCount);
+
+                ByteBuffer copyBuffer = ByteBuffer.allocate(Math.min(byteCount, COPY_BUFFER_SIZE));
+                long copyPosition = position;
+                while (copyPosition < position + byteCount) {
+                    // Cast to Buffer, as the covariant overrides of ByteBuffer do not exist on
+                    // Java 8
+                    ((Buffer) copyBuffer).clear();
+                    int readCount = channel.read(copyBuffer, copyPosition);
+                    if (readCount == -1) {
+                        throw new EOFException("Unexpected end of segment file " + file);
+                    }
+
+                    out.write(copyBuffer.array(), 0, readCount);
+                    copyPosition += readCount;
+                }
+            }
+        }
+
+        /**
+         * Returns the path of the file.
+         *
+         * @return the path of the file
+         */
+        @Override
+        public String toString() {
+            return file.toString();
+        }
+
+        /**
+         * Acquires a reference to the file.
+         */
+        void retain() {
+            referenceCount.incrementAndGet();
+        }
+
+        /**
+         * Releases a reference to the file, and deletes the file if it was the last one.
+         */
+        void release() {
+            if (referenceCount.decrementAndGet() == 0) {
+                deleteSegmentFile(file);
+            }
+        }
+    }
+
+    /**
+     * A sorted run of candidates stored in a segment file. The run is read through a small buffer,
+     * and only the head candidate of the run is kept deserialized in memory.
+     */
+    private static final class Segment {
+
+        private final SegmentFile file;
+        private final ByteBuffer buffer;
+
+        private long readPosition;
+        private int remainingCount;
+        private long headPosition;
+        private SequencedCandidate head;
+
+        /**
+         * Creates a {@link Segment} instance which reads the given file. The segment takes over
+         * the reference held by the caller.
+         *
+         * @param file           the segment file
+         * @param headPosition   the position of the head candidate in the file
+         * @param remainingCount the number of candidates remaining in the file (including the head)
+         */
+        Segment(final SegmentFile file, final long headPosition, final int remainingCount) {
+            this.file = file;
+            this.remainingCount = remainingCount;
+            readPosition = headPosition;
+            buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+            // Cast to Buffer, as the covariant overrides of ByteBuffer do not exist on Java 8
+            ((Buffer) buffer).limit(0);
+            readHead();
+        }
+
+        /**
+         * Creates a copy of the given segment, which acquires a new reference to its file and
+         * reads it independently from the given segment.
+         *
+         * @param segment the segment to copy
+         */
+        Segment(final Segment segment) {
+            file = segment.file;
+            buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            buffer.put(segment.buffer.duplicate());
+            ((Buffer) buffer).flip();
+            readPosition = segment.readPosition;
+            remainingCount = segment.remainingCount;
+            headPosition = segment.headPosition;
+            head = segment.head;
+
+            file.retain();
+        }
+
+        /**
+         * Returns the head candidate of the run.
+         *
+         * @return the head candidate of the run
+         */
+        SequencedCandidate getHead() {
+            return head;
+        }
+
+        /**
+         * Returns the number of candidates remaining in the run, including the head.
+         *
+         * @return the number of candidates remaining in the run
+         */
+        int getRemainingCount() {
+            return remainingCount;
+        }
+
+        /**
+         * Writes the length of the records of the run from the head candidate onwards, followed by
+         * the records. The run is consumed in order, so these are the records which are not yet
+         * consumed.
+         *
+         * @param out the output to write the records to
+         *
+         * @throws IOException if an I/O error occurs while writing the records
+         */
+        void writeRemainingRecords(final DataOutput out) throws IOException {
+            file.writeTo(out, headPosition);
+        }
+
+        /**
+         * Releases the reference of the segment to its file.
+         */
+        void release() {
+            file.release();
+        }
+
+        /**
+         * Moves on to the next candidate of the run.
+         *
+         * @return <code>true</code> if there are candidates left in the run, <code>false</code>
+         *         otherwise
+         */
+        boolean advance() {
+            remainingCount--;
+            if (remainingCount == 0) {
+                head = null;
+                return false;
+            }
+
+            readHead();
+            return true;
+        }
+
+        /**
+         * Deserializes the candidate at the current read position.
+         */
+        private void readHead() {
+            headPosition = readPosition - buffer.remaining();
+
+            try {
+                fillBuffer(RECORD_HEADER_LENGTH);
+                long sequence = buffer.getLong();
+                byte[] serializedCandidate = new byte[buffer.getInt()];
+                readRecord(serializedCandidate);
+
+                head = new SequencedCandidate(BinaryCodec.decode(serializedCandidate), sequence);
+            } catch (IOException exception) {
+                throw new UncheckedIOException("Failed to read crawl candidates from disk",
+                        exception);
+            }
+        }
+
+        /**
+         * Reads the serialized candidate of a record. Records which do not fit into the buffer are
+         * read directly from the file.
+         *
+         * @param serializedCandidate the array to read the serialized candidate into
+         *
+         * @throws IOException if an I/O error occurs while reading the file, or the record is
+         *                     truncated
+         */
+        private void readRecord(final byte[] serializedCandidate) throws IOException {
+            int bufferedByteCount = Math.min(buffer.remaining(), serializedCandidate.length);
+            buffer.get(serializedCandidate, 0, bufferedByteCount);
+
+            int missingByteCount = serializedCandidate.length - bufferedByteCount;
+            if (missingByteCount > buffer.capacity()) {
+                ByteBuffer target =
+                        ByteBuffer.wrap(serializedCandidate, bufferedByteCount, missingByteCount);
+                readPosition += file.read(target, readPosition);
+                if (target.hasRemaining()) {
+                    throw new EOFException("Truncated record in segment file " + file);
+                }
+            } else if (missingByteCount > 0) {
+                fillBuffer(missingByteCount);
+                buffer.get(serializedCandidate, bufferedByteCount, missingByteCount);
+            }
+        }
+
+        /**
+         * Refills the buffer from the file if it holds fewer than the given number of bytes.
+         *
+         * @param byteCount the number of bytes needed in the buffer (at most its capacity)
+         *
+         * @throws IOException if an I/O error occurs while reading the file, or the file ends
+         *                     before the given number of bytes
+         */
+        private void fillBuffer(final int byteCount) throws IOException {
+            if (buffer.remaining() >= byteCount) {
+                return;
+            }
+
+            buffer.compact();
+            readPosition += file.read(buffer, readPosition);
+            ((Buffer) buffer).flip();
+
+            if (buffer.remaining() < byteCount) {
+                throw new EOFException("Truncated record in segment file " + file);
+            }
+        }
+    }
+}
@@ -0,0 +1,523 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.candidatequeue;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.api.CrawlStrategy;
+import com.github.peterbencze.serritor.internal.duplicatefilter.ExactFingerprintSet;
+import com.github.peterbencze.serritor.internal.duplicatefilter.FingerprintSet;
+import com.github.peterbencze.serritor.internal.util.BinaryCodec;
+import com.google.common.primitives.UnsignedBytes;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.apache.commons.lang3.Validate;
+import org.h2.mvstore.DataUtils;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.h2.mvstore.WriteBuffer;
+import org.h2.mvstore.type.DataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A candidate queue which keeps the candidates in an embedded, ordered key-value store on disk.
+ * The key of a candidate consists of its crawl depth, its priority and a sequence number, encoded
+ * so that the byte order of the keys is the order in which the candidates are retrieved. The
+ * URL fingerprints of the duplicate request filter are kept in the same store.
+ *
+ * <p>Changes are written to the store file in batches by a background thread, so a crash loses at
+ * most the changes of the last commit delay. Retrieved candidates are kept in the store until
+ * they are completed, and the ones which were not completed are put back into the queue when the
+ * store is reopened. Reopening the store does not read the queued candidates, so a crawl can be
+ * resumed right away, without deserializing the frontier. The version of the format of the keys
+ * and values is recorded in the store, and a store written in another format is rejected.
+ */
+public final class PersistentCandidateQueue implements CandidateQueue {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistentCandidateQueue.class);
+    private static final String STORE_FILE_NAME = "frontier.mv.db";
+    private static final String CANDIDATE_MAP_NAME = "candidates";
+    private static final String IN_PROGRESS_CANDIDATE_MAP_NAME = "inProgressCandidates";
+    private static final String URL_FINGERPRINT_MAP_NAME = "urlFingerprints";
+    private static final String META_MAP_NAME = "meta";
+    private static final String NEXT_SEQUENCE_KEY = "nextSequence";
+    private static final String FORMAT_VERSION_KEY = "formatVersion";
+    private static final long FORMAT_VERSION = 1;
+    private static final int AUTO_COMMIT_DELAY_IN_MILLIS = 1000;
+    private static final int KEY_LENGTH = 2 * Integer.BYTES + Long.BYTES;
+    private static final byte[] EMPTY_VALUE = new byte[0];
+
+    private final boolean isBreadthFirst;
+
+    private File storeDirectory;
+
+    private transient Map<CrawlCandidate, byte[]> inProgressCandidateKeys;
+    private transient MVStore store;
+    private transient MVMap<byte[], byte[]> candidateMap;
+    private transient MVMap<byte[], byte[]> inProgressCandidateMap;
+    private transient MVMap<byte[], byte[]> urlFingerprintMap;
+    private transient MVMap<String, Long> metaMap;
+    private transient long nextSequence;
+    private transient boolean isRecovered;
+
+    /**
+     * Creates a {@link PersistentCandidateQueue} instance. If the directory already contains a
+     * store, its candidates and URL fingerprints are recovered.
+     *
+     * @param crawlStrategy  the strategy which defines the order of the crawl depths
+     * @param storeDirectory the directory to keep the store file in, or <code>null</code> to use a
+     *                       temporary directory
+     */
+    public PersistentCandidateQueue(final CrawlStrategy crawlStrategy, final File storeDirectory) {
+        Validate.notNull(crawlStrategy, "The crawlStrategy parameter cannot be null.");
+
+        isBreadthFirst = crawlStrategy == CrawlStrategy.BREADTH_FIRST;
+        inProgressCandidateKeys = new IdentityHashMap<>();
+        this.storeDirectory = storeDirectory;
+    }
+
+    /**
+     * Inserts the candidate into the queue.
+     *
+     * @param candidate the crawl candidate to insert
+     */
+    @Override
+    public void add(final CrawlCandidate candidate) {
+        open();
+
+        candidateMap.put(createKey(candidate, nextSequence++),
+                BinaryCodec.encode(candidate));
+        metaMap.put(NEXT_SEQUENCE_KEY, nextSequence);
+    }
+
+    /**
+     * Retrieves and removes the head of the queue. The candidate is kept in the store until it is
+     * completed.
+     *
+     * @return the head of the queue, or <code>null</code> if the queue is empty
+     */
+    @Override
+    public CrawlCandidate poll() {
+        open();
+
+        byte[] key = candidateMap.firstKey();
+        if (key == null) {
+            return null;
+        }
+
+        byte[] serializedCandidate = candidateMap.remove(key);
+        inProgressCandidateMap.put(key, serializedCandidate);
+
+        CrawlCandidate candidate = BinaryCodec.decode(serializedCandidate);
+        inProgressCandidateKeys.put(candidate, key);
+        return candidate;
+    }
+
+    /**
+     * Returns the number of candidates in the queue.
+     *
+     * @return the number of candidates in the queue
+     */
+    @Override
+    public int size() {
+        open();
+
+        return candidateMap.size();
+    }
+
+    /**
+     * Removes all the candidates from the queue, including the ones which were retrieved but not
+     * completed.
+     */
+    @Override
+    public void clear() {
+        open();
+
+        candidateMap.clear();
+        inProgressCandidateMap.clear();
+        inProgressCandidateKeys.clear();
+
+        nextSequence = 0;
+        metaMap.put(NEXT_SEQUENCE_KEY, nextSequence);
+    }
+
+    /**
+     * Removes the completed candidate from the store.
+     *
+     * @param candidate the completed crawl candidate
+     */
+    @Override
+    public void markCompleted(final CrawlCandidate candidate) {
+        byte[] key = inProgressCandidateKeys.remove(candidate);
+        if (key != null) {
+            open();
+
+            inProgressCandidateMap.remove(key);
+        }
+    }
+
+    /**
+     * Indicates if the queue recovers its candidates from durable storage when it is reopened.
+     *
+     * @return always <code>true</code>
+     */
+    @Override
+    public boolean isPersistent() {
+        return true;
+    }
+
+    /**
+     * Commits the pending changes and closes the store. The store is reopened on the next access.
+     */
+    @Override
+    public void close() {
+        if (store != null) {
+            LOGGER.debug("Closing persistent frontier store");
+
+            store.close();
+            store = null;
+        }
+    }
+
+    /**
+     * Returns the set of URL fingerprints which is kept in the same store as the candidates.
+     *
+     * @return the set of URL fingerprints
+     */
+    public FingerprintSet getUrlFingerprints() {
+        return new PersistentFingerprintSet(this);
+    }
+
+    /**
+     * Opens the store if it is not open yet. When the store is opened by this instance for the
+     * first time, the candidates which were retrieved but not completed before are put back into
+     * the queue.
+     *
+     * @throws IllegalStateException if the store was written in another format
+     */
+    private void open() {
+        if (store != null) {
+            return;
+        }
+
+        try {
+            if (storeDirectory == null) {
+                storeDirectory = Files.createTempDirectory("serritor-frontier").toFile();
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to create frontier directory", exception);
+        }
+
+        File storeFile = new File(storeDirectory, STORE_FILE_NAME);
+        LOGGER.debug("Opening persistent frontier store {}", storeFile);
+
+        store = new MVStore.Builder()
+                .fileName(storeFile.getPath())
+                .open();
+        store.setAutoCommitDelay(AUTO_COMMIT_DELAY_IN_MILLIS);
+
+        boolean isNewStore = store.getMapNames().isEmpty();
+        metaMap = store.openMap(META_MAP_NAME);
+        if (isNewStore) {
+            metaMap.put(FORMAT_VERSION_KEY, FORMAT_VERSION);
+        } else {
+            checkFormatVersion(storeFile);
+        }
+
+        candidateMap = openByteArrayMap(CANDIDATE_MAP_NAME);
+        inProgressCandidateMap = openByteArrayMap(IN_PROGRESS_CANDIDATE_MAP_NAME);
+        urlFingerprintMap = openByteArrayMap(URL_FINGERPRINT_MAP_NAME);
+        nextSequence = metaMap.getOrDefault(NEXT_SEQUENCE_KEY, 0L);
+
+        if (!isRecovered) {
+            LOGGER.debug("Recovering {} crawl candidates which were not completed",
+                    inProgressCandidateMap.size());
+
+            inProgressCandidateMap.forEach(candidateMap::put);
+            inProgressCandidateMap.clear();
+            inProgressCandidateKeys.clear();
+            isRecovered = true;
+        }
+    }
+
+    /**
+     * Checks that the format version recorded in the store is the current one. If it is not, the
+     * store is closed without changes.
+     *
+     * @param storeFile the store file, which is used in the error message
+     *
+     * @throws IllegalStateException if the store was written in another format
+     */
+    private void checkFormatVersion(final File storeFile) {
+        Long formatVersion = metaMap.get(FORMAT_VERSION_KEY);
+        if (formatVersion != null && formatVersion == FORMAT_VERSION) {
+            return;
+        }
+
+        store.closeImmediately();
+        store = null;
+
+        throw new IllegalStateException(String.format(
+                "Unsupported format version %s of persistent frontier store %s, expected version "
+                        + "%d", formatVersion != null ? formatVersion : "(none)", storeFile,
+                FORMAT_VERSION));
+    }
+
+    /**
+     * Opens a map of the store which has byte array keys and values.
+     *
+     * @param name the name of the map
+     *
+     * @return the map of the store
+     */
+    private MVMap<byte[], byte[]> openByteArrayMap(final String name) {
+        return store.openMap(name, new MVMap.Builder<byte[], byte[]>()
+                .keyType(ByteArrayType.INSTANCE)
+                .valueType(ByteArrayType.INSTANCE));
+    }
+
+    /**
+     * Creates the key of the candidate. Comparing the keys as unsigned bytes orders them by crawl
+     * depth (ascending for breadth-first, descending for depth-first crawls), then by descending
+     * priority, then by sequence number.
+     *
+     * @param candidate the crawl candidate
+     * @param sequence  the sequence number of the candidate
+     *
+     * @return the key of the candidate
+     */
+    private byte[] createKey(final CrawlCandidate candidate, final long sequence) {
+        int depth = candidate.getCrawlDepth();
+
+        return ByteBuffer.allocate(KEY_LENGTH)
+                .putInt((isBreadthFirst ? depth : ~depth) ^ Integer.MIN_VALUE)
+                .putInt(~candidate.getPriority() ^ Integer.MIN_VALUE)
+                .putLong(sequence)
+                .array();
+    }
+
+    /**
+     * Adds the fingerprint to the store if it is not already present.
+     *
+     * @param fingerprint the URL fingerprint
+     *
+     * @return <code>true</code> if the fingerprint was added, <code>false</code> if it is already
+     *         present
+     */
+    private boolean addUrlFingerprint(final byte[] fingerprint) {
+        open();
+
+        return urlFingerprintMap.putIfAbsent(fingerprint, EMPTY_VALUE) == null;
+    }
+
+    /**
+     * Copies the URL fingerprints of the store into an in-memory set.
+     *
+     * @return the in-memory set of URL fingerprints
+     */
+    private FingerprintSet copyUrlFingerprints() {
+        open();
+
+        FingerprintSet fingerprintSet = new ExactFingerprintSet();
+        urlFingerprintMap.keySet().forEach(fingerprintSet::add);
+        return fingerprintSet;
+    }
+
+    /**
+     * Removes all the URL fingerprints from the store.
+     */
+    private void clearUrlFingerprints() {
+        open();
+
+        urlFingerprintMap.clear();
+    }
+
+    /**
+     * Restores the fields which are not serialized when the queue is deserialized. The store is
+     * reopened on the next access.
+     *
+     * @param in the stream to read the object from
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        inProgressCandidateKeys = new IdentityHashMap<>();
+    }
+
+    /**
+     * A URL fingerprint set which is kept in the store of a persistent candidate queue.
+     */
+    private static final class PersistentFingerprintSet implements FingerprintSet {
+
+        private static final long serialVersionUID = 1L;
+
+        private final PersistentCandidateQueue queue;
+
+        /**
+         * Creates a {@link PersistentFingerprintSet} instance.
+         *
+         * @param queue the queue which owns the store
+         */
+        PersistentFingerprintSet(final PersistentCandidateQueue queue) {
+            this.queue = queue;
+        }
+
+        /**
+         * Adds the fingerprint to the set if it is not already present.
+         *
+         * @param fingerprint the URL fingerprint
+         *
+         * @return <code>true</code> if the fingerprint was added, <code>false</code> if it is
+         *         already present
+         */
+        @Override
+        public boolean add(final byte[] fingerprint) {
+            return queue.addUrlFingerprint(fingerprint);
+        }
+
+        /**
+         * Removes all the fingerprints from the set.
+         */
+        @Override
+        public void clear() {
+            queue.clearUrlFingerprints();
+        }
+
+        /**
+         * Creates an independent copy of the set. The fingerprints are copied from the store into
+         * memory.
+         *
+         * @return the copy of the set
+         */
+        @Override
+        public FingerprintSet copy() {
+            return queue.copyUrlFingerprints();
+        }
+    }
+
+    /**
+     * The data type of the byte array keys and values of the store. Keys are compared as unsigned
+     * bytes, lexicographically.
+     */
+    private static final class ByteArrayType implements DataType {
+
+        static final ByteArrayType INSTANCE = new ByteArrayType();
+
+        private static final Comparator<byte[]> COMPARATOR =
+                UnsignedBytes.lexicographicalComparator();
+        private static final int MEMORY_OVERHEAD = 24;
+
+        /**
+         * Compares two byte arrays as unsigned bytes, lexicographically.
+         *
+         * @param first  the first byte array
+         * @param second the second byte array
+         *
+         * @return a negative integer, zero, or a positive integer as the first array is less than,
+         *         equal to, or greater than the second
+         */
+        @Override
+        public int compare(final Object first, final Object second) {
+            return COMPARATOR.compare((byte[]) first, (byte[]) second);
+        }
+
+        /**
+         * Returns the estimated memory usage of the byte array.
+         *
+         * @param obj the byte array
+         *
+         * @return the estimated memory usage in bytes
+         */
+        @Override
+        public int getMemory(final Object obj) {
+            return MEMORY_OVERHEAD + ((byte[]) obj).length;
+        }
+
+        /**
+         * Writes the length of the byte array followed by its content.
+         *
+         * @param buff the target buffer
+         * @param obj  the byte array
+         */
+        @Override
+        public void write(final WriteBuffer buff, final Object obj) {
+            byte[] bytes = (byte[]) obj;
+            buff.putVarInt(bytes.length).put(bytes);
+        }
+
+        /**
+         * Writes the given number of byte arrays.
+         *
+         * @param buff the target buffer
+         * @param obj  the byte arrays
+         * @param len  the number of byte arrays to write
+         * @param key  indicates if the byte arrays are keys
+         */
+        @Override
+        public void write(
+                final WriteBuffer buff,
+                final Object[] obj,
+                final int len,
+                final boolean key) {
+            for (int i = 0; i < len; i++) {
+                write(buff, obj[i]);
+            }
+        }
+
+        /**
+         * Reads a byte array.
+         *
+         * @param buff the source buffer
+         *
+         * @return the byte array
+         */
+        @Override
+        public Object read(final ByteBuffer buff) {
+            byte[] bytes = new byte[DataUtils.readVarInt(buff)];
+            buff.get(bytes);
+            return bytes;
+        }
+
+        /**
+         * Reads the given number of byte arrays.
+         *
+         * @param buff the source buffer
+         * @param obj  the array to read the byte arrays into
+         * @param len  the number of byte arrays to read
+         * @param key  indicates if the byte arrays are keys
+         */
+        @Override
+        public void read(
+                final ByteBuffer buff,
+                final Object[] obj,
+                final int len,
+                final boolean key) {
+            for (int i = 0; i < len; i++) {
+                obj[i] = read(buff);
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.capture;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+
+/**
+ * The status, headers and network error of a response captured by the internal proxy server.
+ */
+public final class CapturedResponse {
+
+    private final int statusCode;
+    private final String statusText;
+    private final List<Header> headers;
+    private final String error;
+
+    /**
+     * Creates a {@link CapturedResponse} instance.
+     *
+     * @param statusCode the HTTP status code of the response
+     * @param statusText the status message corresponding to the status code
+     * @param headers    the headers of the response
+     * @param error      the description of the network error, or <code>null</code> if the
+     *                   response was received
+     */
+    private CapturedResponse(
+            final int statusCode,
+            final String statusText,
+            final List<Header> headers,
+            final String error) {
+        this.statusCode = statusCode;
+        this.statusText = statusText;
+        this.headers = headers;
+        this.error = error;
+    }
+
+    /**
+     * Creates a {@link CapturedResponse} instance for a received response.
+     *
+     * @param statusCode the HTTP status code of the response
+     * @param statusText the status message corresponding to the status code
+     * @param headers    the headers of the response
+     *
+     * @return the captured response
+     */
+    public static CapturedResponse forResponse(
+            final int statusCode,
+            final String statusText,
+            final List<Header> headers) {
+        return new CapturedResponse(statusCode, statusText, headers, null);
+    }
+
+    /**
+     * Creates a {@link CapturedResponse} instance for a request which failed due to a network
+     * error.
+     *
+     * @param error the description of the network error
+     *
+     * @return the captured response
+     */
+    public static CapturedResponse forError(final String error) {
+        return new CapturedResponse(0, "", Collections.emptyList(), error);
+    }
+
+    /**
+     * Returns the HTTP status code of the response.
+     *
+     * @return the HTTP status code
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns the status message corresponding to the status code of the response.
+     *
+     * @return the status message
+     */
+    public String getStatusText() {
+        return statusText;
+    }
+
+    /**
+     * Returns all the headers of the response.
+     *
+     * @return all the headers
+     */
+    public List<Header> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Returns the description of the network error that prevented receiving the response.
+     *
+     * @return the description of the network error, if any
+     */
+    public Optional<String> getError() {
+        return Optional.ofNullable(error);
+    }
+
+    /**
+     * Returns the value of the Location header of the response.
+     *
+     * @return the redirect location, if any
+     */
+    public Optional<String> getRedirectLocation() {
+        return getFirstHeaderValue(HttpHeaders.LOCATION);
+    }
+
+    /**
+     * Returns the value of the Content-Type header of the response.
+     *
+     * @return the content type, if any
+     */
+    public Optional<String> getContentType() {
+        return getFirstHeaderValue(HttpHeaders.CONTENT_TYPE);
+    }
+
+    /**
+     * Returns the value of the first header with the specified name, ignoring case.
+     *
+     * @param name the name of the header
+     *
+     * @return the value of the first header with the specified name, if any
+     */
+    private Optional<String> getFirstHeaderValue(final String name) {
+        return headers.stream()
+                .filter(header -> name.equalsIgnoreCase(header.getName()))
+                .map(Header::getValue)
+                .findFirst();
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.capture;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import net.lightbody.bmp.filters.HttpsAwareFiltersAdapter;
+import net.lightbody.bmp.filters.util.HarCaptureUtil;
+import org.apache.http.Header;
+import org.apache.http.message.BasicHeader;
+import org.littleshoot.proxy.HttpFilters;
+import org.littleshoot.proxy.HttpFiltersAdapter;
+import org.littleshoot.proxy.HttpFiltersSourceAdapter;
+import org.littleshoot.proxy.impl.ProxyUtils;
+
+/**
+ * A lightweight alternative to the HAR capture of the internal proxy server. It only records the
+ * status, headers and network error of the responses, keyed by the request URL. Unless the capture
+ * of the subresources is enabled, only the response of the main document of the page is recorded.
+ * The responses are recorded on the threads of the proxy server and read by the crawl worker which
+ * owns the proxy server.
+ */
+public final class ResponseCapture extends HttpFiltersSourceAdapter {
+
+    private static final int DEFAULT_HTTPS_PORT = 443;
+
+    private final boolean isSubresourceCaptureEnabled;
+    private final Map<String, CapturedResponse> responses;
+    private final Map<String, String> connectErrors;
+
+    private volatile String mainDocumentUrl;
+
+    /**
+     * Creates a {@link ResponseCapture} instance.
+     *
+     * @param isSubresourceCaptureEnabled <code>true</code> if the responses of the subresources
+     *                                    should be recorded as well, <code>false</code> otherwise
+     */
+    public ResponseCapture(final boolean isSubresourceCaptureEnabled) {
+        this.isSubresourceCaptureEnabled = isSubresourceCaptureEnabled;
+        responses = new ConcurrentHashMap<>();
+        connectErrors = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Discards the responses recorded for the previous page and starts recording the responses of
+     * the page with the given URL.
+     *
+     * @param pageUrl the URL of the main document of the page
+     */
+    public void startPage(final String pageUrl) {
+        mainDocumentUrl = pageUrl;
+        responses.clear();
+        connectErrors.clear();
+    }
+
+    /**
+     * Indicates if the given URL is the URL of the main document of the current page.
+     *
+     * @param url the URL to check
+     *
+     * @return <code>true</code> if the URL is the URL of the main document, <code>false</code>
+     *         otherwise
+     */
+    public boolean isMainDocumentUrl(final String url) {
+        return url.equals(mainDocumentUrl);
+    }
+
+    /**
+     * Returns the response recorded for the main document of the current page. If the tunnel to
+     * an HTTPS server could not be established, the response carries the corresponding error.
+     *
+     * @return the response of the main document, if any
+     */
+    public Optional<CapturedResponse> getMainDocumentResponse() {
+        CapturedResponse response = responses.get(mainDocumentUrl);
+        if (response != null) {
+            return Optional.of(response);
+        }
+
+        return Optional.ofNullable(connectErrors.get(getHostAndPort(mainDocumentUrl)))
+                .map(CapturedResponse::forError);
+    }
+
+    /**
+     * Returns the responses recorded for the subresources of the current page, keyed by the
+     * request URL. The map is empty if the subresource capture is disabled.
+     *
+     * @return the responses of the subresources
+     */
+    public Map<String, CapturedResponse> getSubresourceResponses() {
+        Map<String, CapturedResponse> subresourceResponses = new HashMap<>(responses);
+        subresourceResponses.remove(mainDocumentUrl);
+        return subresourceResponses;
+    }
+
+    /**
+     * Returns the filters that record the response of the given request.
+     *
+     * @param originalRequest the request received from the browser
+     * @param ctx             the context of the client connection
+     *
+     * @return the filters for the request
+     */
+    @Override
+    public HttpFilters filterRequest(
+            final HttpRequest originalRequest,
+            final ChannelHandlerContext ctx) {
+        if (ProxyUtils.isCONNECT(originalRequest)) {
+            return new ConnectCaptureFilter(originalRequest, ctx);
+        }
+
+        return new ResponseCaptureFilter(originalRequest, ctx);
+    }
+
+    /**
+     * Returns the host and port in the format used by the HTTP CONNECT requests.
+     *
+     * @param url the URL to get the host and port of
+     *
+     * @return the host and port of the URL
+     */
+    private static String getHostAndPort(final String url) {
+        URI uri = URI.create(url);
+        int port = uri.getPort() == -1 ? DEFAULT_HTTPS_PORT : uri.getPort();
+        return uri.getHost() + ":" + port;
+    }
+
+    /**
+     * Records the network errors which occur while establishing a tunnel to an HTTPS server, since
+     * the requests sent through the tunnel never reach the server in this case.
+     */
+    private final class ConnectCaptureFilter extends HttpFiltersAdapter {
+
+        private final String tunnelHostAndPort;
+
+        /**
+         * Creates a {@link ConnectCaptureFilter} instance.
+         *
+         * @param originalRequest the HTTP CONNECT request received from the browser
+         * @param ctx             the context of the client connection
+         */
+        ConnectCaptureFilter(final HttpRequest originalRequest, final ChannelHandlerContext ctx) {
+            super(originalRequest, ctx);
+
+            tunnelHostAndPort = originalRequest.getUri();
+        }
+
+        /**
+         * Records the error when the host name of the server cannot be resolved.
+         *
+         * @param hostAndPort the host and port of the server
+         */
+        @Override
+        public void proxyToServerResolutionFailed(final String hostAndPort) {
+            connectErrors.putIfAbsent(tunnelHostAndPort,
+                    HarCaptureUtil.getResolutionFailedErrorMessage(hostAndPort));
+        }
+
+        /**
+         * Records the error when the connection to the server cannot be established.
+         */
+        @Override
+        public void proxyToServerConnectionFailed() {
+            connectErrors.putIfAbsent(tunnelHostAndPort,
+                    HarCaptureUtil.getConnectionFailedErrorMessage());
+        }
+    }
+
+    /**
+     * Records the status and headers of the response, or the network error which prevented
+     * receiving it.
+     */
+    private final class ResponseCaptureFilter extends HttpsAwareFiltersAdapter {
+
+        private final String url;
+
+        /**
+         * Creates a {@link ResponseCaptureFilter} instance.
+         *
+         * @param originalRequest the request received from the browser
+         * @param ctx             the context of the client connection
+         */
+        ResponseCaptureFilter(final HttpRequest originalRequest, final ChannelHandlerContext ctx) {
+            super(originalRequest, ctx);
+
+            url = getFullUrl(originalRequest);
+        }
+
+        /**
+         * Records the status and headers of the response received from the server.
+         *
+         * @param httpObject the part of the response received from the server
+         *
+         * @return the unmodified part of the response
+         */
+        @Override
+        public HttpObject serverToProxyResponse(final HttpObject httpObject) {
+            if (httpObject instanceof HttpResponse && isCaptured()) {
+                HttpResponse httpResponse = (HttpResponse) httpObject;
+
+                List<Header> headers = new ArrayList<>();
+                httpResponse.headers()
+                        .forEach(header -> headers.add(new BasicHeader(header.getKey(),
+                                header.getValue())));
+
+                responses.putIfAbsent(url,
+                        CapturedResponse.forResponse(httpResponse.getStatus().code(),
+                                httpResponse.getStatus().reasonPhrase(), headers));
+            }
+
+            return httpObject;
+        }
+
+        /**
+         * Records the error when the server does not respond in time.
+         */
+        @Override
+        public void serverToProxyResponseTimedOut() {
+            recordError(HarCaptureUtil.getResponseTimedOutErrorMessage());
+        }
+
+        /**
+         * Records the error when the host name of the server cannot be resolved.
+         *
+         * @param hostAndPort the host and port of the server
+         */
+        @Override
+        public void proxyToServerResolutionFailed(final String hostAndPort) {
+            recordError(HarCaptureUtil.getResolutionFailedErrorMessage(hostAndPort));
+        }
+
+        /**
+         * Records the error when the connection to the server cannot be established.
+         */
+        @Override
+        public void proxyToServerConnectionFailed() {
+            recordError(HarCaptureUtil.getConnectionFailedErrorMessage());
+        }
+
+        /**
+         * Records a network error for the request URL.
+         *
+         * @param error the description of the network error
+         */
+        private void recordError(final String error) {
+            if (isCaptured()) {
+                responses.putIfAbsent(url, CapturedResponse.forError(error));
+            }
+        }
+
+        /**
+         * Indicates if the response of the request should be recorded.
+         *
+         * @return <code>true</code> if the request is for the main document or the subresource
+         *         capture is enabled, <code>false</code> otherwise
+         */
+        private boolean isCaptured() {
+            return isSubresourceCaptureEnabled || isMainDocumentUrl(url);
+        }
+    }
+}
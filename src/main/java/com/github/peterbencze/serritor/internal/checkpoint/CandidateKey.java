@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.checkpoint;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Longs;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.URI;
+
+/**
+ * A fixed-size key which identifies a pending crawl candidate in the checkpoint. It is a 128-bit
+ * hash of the URL fingerprint, the crawl depth, the priority and the referer URL of the candidate,
+ * so candidates with the same URL but different origins get different keys. Candidates with the
+ * same key only differ in their metadata, so they are interchangeable when one of them completes.
+ */
+final class CandidateKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+
+    /**
+     * Creates a {@link CandidateKey} instance.
+     *
+     * @param mostSignificantBits  the first 64 bits of the key
+     * @param leastSignificantBits the last 64 bits of the key
+     */
+    private CandidateKey(final long mostSignificantBits, final long leastSignificantBits) {
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+    }
+
+    /**
+     * Creates the key of the given crawl candidate.
+     *
+     * @param urlFingerprint the fingerprint of the candidate's URL
+     * @param candidate      the crawl candidate
+     *
+     * @return the key of the candidate
+     */
+    static CandidateKey of(final byte[] urlFingerprint, final CrawlCandidate candidate) {
+        Hasher hasher = HASH_FUNCTION.newHasher()
+                .putBytes(urlFingerprint)
+                .putInt(candidate.getCrawlDepth())
+                .putInt(candidate.getPriority());
+
+        URI refererUrl = candidate.getRefererUrl();
+        if (refererUrl != null) {
+            hasher.putUnencodedChars(refererUrl.toString());
+        }
+
+        byte[] hash = hasher.hash().asBytes();
+        return new CandidateKey(
+                Longs.fromBytes(hash[0], hash[1], hash[2], hash[3],
+                        hash[4], hash[5], hash[6], hash[7]),
+                Longs.fromBytes(hash[8], hash[9], hash[10], hash[11],
+                        hash[12], hash[13], hash[14], hash[15]));
+    }
+
+    /**
+     * Reads a key from the given input.
+     *
+     * @param in the input to read from
+     *
+     * @return the key
+     *
+     * @throws IOException if an I/O error occurs while reading
+     */
+    static CandidateKey readFrom(final DataInput in) throws IOException {
+        return new CandidateKey(in.readLong(), in.readLong());
+    }
+
+    /**
+     * Writes the key to the given output.
+     *
+     * @param out the output to write to
+     *
+     * @throws IOException if an I/O error occurs while writing
+     */
+    void writeTo(final DataOutput out) throws IOException {
+        out.writeLong(mostSignificantBits);
+        out.writeLong(leastSignificantBits);
+    }
+
+    /**
+     * Indicates if two <code>CandidateKey</code> instances are equal. Keys with the same bits are
+     * considered equal.
+     *
+     * @param obj a <code>CandidateKey</code> instance
+     *
+     * @return <code>true</code> if equal, <code>false</code> otherwise
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+
+        if (obj instanceof CandidateKey) {
+            CandidateKey other = (CandidateKey) obj;
+            return mostSignificantBits == other.mostSignificantBits
+                    && leastSignificantBits == other.leastSignificantBits;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the hash code of the key. The bits are already uniformly distributed, so a part of
+     * them is used as is.
+     *
+     * @return the hash code of the key
+     */
+    @Override
+    public int hashCode() {
+        return (int) leastSignificantBits;
+    }
+}
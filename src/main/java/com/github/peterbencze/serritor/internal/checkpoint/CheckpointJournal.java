@@ -0,0 +1,541 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.checkpoint;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.internal.duplicatefilter.FingerprintSet;
+import com.github.peterbencze.serritor.internal.stats.StatsCounter;
+import com.github.peterbencze.serritor.internal.util.BinaryCodec;
+import com.github.peterbencze.serritor.internal.util.FunctionalReentrantReadWriteLock;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.commons.lang3.SerializationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only journal of the crawl frontier changes, which is used to checkpoint the state of
+ * the crawler incrementally. The additions and completions of crawl candidates are appended to the
+ * current journal segment as they happen. At each checkpoint the statistics of the crawl are
+ * appended and a new segment is started, then the previous segment is synced to disk, so the cost
+ * of a checkpoint is proportional to the changes since the previous one and the changes can be
+ * recorded while the segment is synced. The closed segments are
+ * periodically compacted into a snapshot by the checkpointing thread, off the crawl path. On
+ * recovery, the segments written after the snapshot are replayed on top of it.
+ *
+ * <p>Both the segment files and the snapshot file start with a magic number and the version of
+ * their format, so checkpoints written in an incompatible format are rejected on recovery.
+ */
+public final class CheckpointJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CheckpointJournal.class);
+
+    private static final String SNAPSHOT_FILE_NAME = "snapshot.ser";
+    private static final String TEMP_SNAPSHOT_FILE_NAME = "snapshot.ser.tmp";
+    private static final String SEGMENT_FILE_NAME_FORMAT = "journal-%019d.log";
+    private static final Pattern SEGMENT_FILE_NAME_PATTERN
+            = Pattern.compile("journal-(\\d+)\\.log");
+    private static final int COMPACTION_SEGMENT_THRESHOLD = 10;
+
+    private static final int SEGMENT_MAGIC = 0x534A524E;
+    private static final int SNAPSHOT_MAGIC = 0x53534E50;
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte ADDITION_RECORD = 1;
+    private static final byte COMPLETION_RECORD = 2;
+    private static final byte STATS_RECORD = 3;
+
+    private final File directory;
+    private final Supplier<FingerprintSet> fingerprintSetSupplier;
+    private final FunctionalReentrantReadWriteLock lock;
+
+    private Segment currentSegment;
+    private long currentSegmentNumber;
+    private long lastCompactedSegmentNumber;
+
+    /**
+     * Creates a {@link CheckpointJournal} instance.
+     *
+     * @param directory              the directory of the checkpoint files
+     * @param fingerprintSetSupplier the supplier of empty URL fingerprint sets, which are used to
+     *                               collect the fingerprints in the snapshot
+     */
+    public CheckpointJournal(
+            final File directory,
+            final Supplier<FingerprintSet> fingerprintSetSupplier) {
+        this.directory = directory;
+        this.fingerprintSetSupplier = fingerprintSetSupplier;
+        lock = new FunctionalReentrantReadWriteLock();
+        currentSegmentNumber = 0;
+        lastCompactedSegmentNumber = 0;
+    }
+
+    /**
+     * Recovers the state of the crawler from the checkpoint files. All the journal segments are
+     * compacted into the snapshot, so the recovered state is persisted before crawling continues.
+     *
+     * @return the recovered snapshot, or an empty optional if there is no checkpoint in the
+     *         directory
+     */
+    public Optional<CheckpointSnapshot> recover() {
+        if (!new File(directory, SNAPSHOT_FILE_NAME).exists() && findSegmentNumbers().length == 0) {
+            return Optional.empty();
+        }
+
+        LOGGER.debug("Recovering crawler state from checkpoint in {}", directory);
+        return Optional.of(compact(Long.MAX_VALUE));
+    }
+
+    /**
+     * Deletes all the checkpoint files from the directory.
+     */
+    public void clear() {
+        LOGGER.debug("Deleting checkpoint files from {}", directory);
+
+        for (long segmentNumber : findSegmentNumbers()) {
+            deleteFile(getSegmentFile(segmentNumber));
+        }
+
+        deleteFile(new File(directory, SNAPSHOT_FILE_NAME));
+        lastCompactedSegmentNumber = 0;
+    }
+
+    /**
+     * Opens a new journal segment for appending.
+     */
+    public void open() {
+        lock.writeWithLock(() -> {
+            currentSegment = openSegment(lastCompactedSegmentNumber + 1);
+        });
+    }
+
+    /**
+     * Appends the addition of a crawl candidate to the journal.
+     *
+     * @param candidate      the added crawl candidate
+     * @param urlFingerprint the fingerprint of the candidate's URL
+     */
+    public void recordAddition(final CrawlCandidate candidate, final byte[] urlFingerprint) {
+        byte[] candidateData = BinaryCodec.encode(candidate);
+
+        lock.writeWithLock(() -> {
+            try {
+                DataOutputStream out = currentSegment.getStream();
+                out.writeByte(ADDITION_RECORD);
+                BinaryCodec.writeBytes(out, urlFingerprint);
+                BinaryCodec.writeBytes(out, candidateData);
+            } catch (IOException exception) {
+                throw new UncheckedIOException("Failed to write checkpoint journal", exception);
+            }
+        });
+    }
+
+    /**
+     * Appends the completion of a crawl candidate to the journal. The candidate is identified by
+     * its fixed-size key, which is derived from the same data as at its addition.
+     *
+     * @param candidate      the completed crawl candidate
+     * @param urlFingerprint the fingerprint of the candidate's URL
+     */
+    public void recordCompletion(final CrawlCandidate candidate, final byte[] urlFingerprint) {
+        CandidateKey candidateKey = CandidateKey.of(urlFingerprint, candidate);
+
+        lock.writeWithLock(() -> {
+            try {
+                DataOutputStream out = currentSegment.getStream();
+                out.writeByte(COMPLETION_RECORD);
+                candidateKey.writeTo(out);
+            } catch (IOException exception) {
+                throw new UncheckedIOException("Failed to write checkpoint journal", exception);
+            }
+        });
+    }
+
+    /**
+     * Takes a checkpoint: appends the statistics of the crawl to the current segment, starts a new
+     * one and syncs the previous one to disk. Only the switch of the segments blocks the
+     * recording of changes, the sync does not. When enough segments have been closed, they are
+     * compacted into the snapshot. The compaction does not block the recording of changes either.
+     *
+     * @param statsCounter    the statistics of the crawl
+     * @param elapsedDuration the run time of the crawl
+     */
+    public void checkpoint(final StatsCounter statsCounter, final Duration elapsedDuration) {
+        byte[] statsData = SerializationUtils.serialize(statsCounter);
+
+        Segment closedSegment = lock.writeWithLock(() -> {
+            Segment segment = currentSegment;
+            if (segment != null) {
+                writeStatsRecord(segment, statsData, elapsedDuration);
+            }
+
+            currentSegment = openSegment(currentSegmentNumber + 1);
+            return segment;
+        });
+
+        if (closedSegment == null) {
+            return;
+        }
+
+        // Sync the closed segment while the changes are already recorded to the new one
+        closeSegment(closedSegment);
+
+        long closedSegmentNumber = closedSegment.getNumber();
+        LOGGER.debug("Checkpoint taken, journal segment {} closed", closedSegmentNumber);
+
+        if (closedSegmentNumber - lastCompactedSegmentNumber >= COMPACTION_SEGMENT_THRESHOLD) {
+            compact(closedSegmentNumber);
+        }
+    }
+
+    /**
+     * Appends the final statistics of the crawl and closes the current segment.
+     *
+     * @param statsCounter    the statistics of the crawl
+     * @param elapsedDuration the run time of the crawl
+     */
+    public void close(final StatsCounter statsCounter, final Duration elapsedDuration) {
+        byte[] statsData = SerializationUtils.serialize(statsCounter);
+
+        Segment closedSegment = lock.writeWithLock(() -> {
+            Segment segment = currentSegment;
+            if (segment != null) {
+                writeStatsRecord(segment, statsData, elapsedDuration);
+                currentSegment = null;
+            }
+
+            return segment;
+        });
+
+        if (closedSegment != null) {
+            closeSegment(closedSegment);
+        }
+    }
+
+    /**
+     * Applies the journal segments up to the given one to the snapshot, then persists the snapshot
+     * and deletes the applied segments.
+     *
+     * @param lastSegmentNumber the number of the last segment to apply
+     *
+     * @return the compacted snapshot
+     */
+    private CheckpointSnapshot compact(final long lastSegmentNumber) {
+        CheckpointSnapshot snapshot = readSnapshot()
+                .orElseGet(() -> new CheckpointSnapshot(fingerprintSetSupplier.get()));
+
+        long[] segmentNumbers = Arrays.stream(findSegmentNumbers())
+                .filter(segmentNumber -> segmentNumber > snapshot.getLastSegmentNumber()
+                        && segmentNumber <= lastSegmentNumber)
+                .toArray();
+
+        for (long segmentNumber : segmentNumbers) {
+            applySegment(snapshot, segmentNumber);
+            snapshot.setLastSegmentNumber(segmentNumber);
+        }
+
+        writeSnapshot(snapshot);
+
+        for (long segmentNumber : segmentNumbers) {
+            deleteFile(getSegmentFile(segmentNumber));
+        }
+
+        lastCompactedSegmentNumber = snapshot.getLastSegmentNumber();
+        LOGGER.debug("Checkpoint compacted up to journal segment {}", lastCompactedSegmentNumber);
+
+        return snapshot;
+    }
+
+    /**
+     * Replays the records of a journal segment on the snapshot. A truncated record at the end of
+     * the segment (caused by a crash while writing) is ignored, but a segment written in another
+     * format is rejected.
+     *
+     * @param snapshot      the snapshot to apply the records to
+     * @param segmentNumber the number of the segment
+     */
+    private void applySegment(final CheckpointSnapshot snapshot, final long segmentNumber) {
+        File segmentFile = getSegmentFile(segmentNumber);
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(segmentFile)))) {
+            BinaryCodec.readHeader(in, SEGMENT_MAGIC, FORMAT_VERSION,
+                    "checkpoint journal segment " + segmentFile);
+
+            while (true) {
+                int recordType = in.read();
+                if (recordType == -1) {
+                    return;
+                }
+
+                switch (recordType) {
+                    case ADDITION_RECORD:
+                        byte[] urlFingerprint = BinaryCodec.readBytes(in);
+                        CrawlCandidate candidate = BinaryCodec.decode(BinaryCodec.readBytes(in));
+                        snapshot.applyAddition(candidate, urlFingerprint);
+                        break;
+                    case COMPLETION_RECORD:
+                        snapshot.applyCompletion(CandidateKey.readFrom(in));
+                        break;
+                    case STATS_RECORD:
+                        StatsCounter statsCounter =
+                                SerializationUtils.deserialize(BinaryCodec.readBytes(in));
+                        snapshot.applyStats(statsCounter, Duration.ofMillis(in.readLong()));
+                        break;
+                    default:
+                        throw new IllegalStateException(
+                                String.format("Corrupt checkpoint journal segment: %s",
+                                        segmentFile));
+                }
+            }
+        } catch (EOFException exception) {
+            LOGGER.warn("Ignoring truncated record at the end of journal segment {}",
+                    segmentFile);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to read checkpoint journal", exception);
+        }
+    }
+
+    /**
+     * Reads the snapshot from the checkpoint directory.
+     *
+     * @return the snapshot, or an empty optional if there is no snapshot in the directory
+     */
+    private Optional<CheckpointSnapshot> readSnapshot() {
+        File snapshotFile = new File(directory, SNAPSHOT_FILE_NAME);
+        if (!snapshotFile.exists()) {
+            return Optional.empty();
+        }
+
+        try (InputStream fileIn = new BufferedInputStream(new FileInputStream(snapshotFile))) {
+            BinaryCodec.readHeader(new DataInputStream(fileIn), SNAPSHOT_MAGIC, FORMAT_VERSION,
+                    "checkpoint snapshot " + snapshotFile);
+
+            return Optional.of((CheckpointSnapshot) new ObjectInputStream(fileIn).readObject());
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to read checkpoint snapshot", exception);
+        } catch (ClassNotFoundException exception) {
+            throw new IllegalStateException("Failed to read checkpoint snapshot", exception);
+        }
+    }
+
+    /**
+     * Writes the snapshot to the checkpoint directory, after the header of the snapshot file. The
+     * snapshot is written to a temporary file first, which then replaces the previous snapshot
+     * atomically.
+     *
+     * @param snapshot the snapshot to write
+     */
+    private void writeSnapshot(final CheckpointSnapshot snapshot) {
+        File tempSnapshotFile = new File(directory, TEMP_SNAPSHOT_FILE_NAME);
+
+        try {
+            try (FileOutputStream fileOut = new FileOutputStream(tempSnapshotFile);
+                    DataOutputStream dataOut =
+                            new DataOutputStream(new BufferedOutputStream(fileOut))) {
+                BinaryCodec.writeHeader(dataOut, SNAPSHOT_MAGIC, FORMAT_VERSION);
+
+                ObjectOutputStream out = new ObjectOutputStream(dataOut);
+                out.writeObject(snapshot);
+                out.flush();
+                fileOut.getFD().sync();
+            }
+
+            Files.move(tempSnapshotFile.toPath(), new File(directory, SNAPSHOT_FILE_NAME).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to write checkpoint snapshot", exception);
+        }
+    }
+
+    /**
+     * Opens the journal segment with the given number for appending. The caller must hold the
+     * write lock.
+     *
+     * @param segmentNumber the number of the segment
+     *
+     * @return the opened segment
+     */
+    private Segment openSegment(final long segmentNumber) {
+        try {
+            Segment segment = new Segment(getSegmentFile(segmentNumber), segmentNumber);
+            currentSegmentNumber = segmentNumber;
+            return segment;
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to open checkpoint journal", exception);
+        }
+    }
+
+    /**
+     * Appends the statistics of the crawl to the given segment. The caller must hold the write
+     * lock.
+     *
+     * @param segment         the segment to append the statistics to
+     * @param statsData       the serialized statistics of the crawl
+     * @param elapsedDuration the run time of the crawl
+     */
+    private static void writeStatsRecord(
+            final Segment segment,
+            final byte[] statsData,
+            final Duration elapsedDuration) {
+        try {
+            DataOutputStream out = segment.getStream();
+            out.writeByte(STATS_RECORD);
+            BinaryCodec.writeBytes(out, statsData);
+            out.writeLong(elapsedDuration.toMillis());
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to write checkpoint journal", exception);
+        }
+    }
+
+    /**
+     * Syncs the given segment to disk and closes it. The segment must no longer be the current
+     * one, so the caller does not need to hold the lock.
+     *
+     * @param segment the segment to close
+     */
+    private static void closeSegment(final Segment segment) {
+        try {
+            segment.close();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to close checkpoint journal", exception);
+        }
+    }
+
+    /**
+     * Returns the numbers of the journal segments in the checkpoint directory, in ascending order.
+     *
+     * @return the numbers of the journal segments
+     */
+    private long[] findSegmentNumbers() {
+        String[] fileNames = directory.list();
+        if (fileNames == null) {
+            return new long[0];
+        }
+
+        return Arrays.stream(fileNames)
+                .map(SEGMENT_FILE_NAME_PATTERN::matcher)
+                .filter(Matcher::matches)
+                .mapToLong(matcher -> Long.parseLong(matcher.group(1)))
+                .sorted()
+                .toArray();
+    }
+
+    /**
+     * Returns the file of the journal segment with the given number.
+     *
+     * @param segmentNumber the number of the segment
+     *
+     * @return the file of the segment
+     */
+    private File getSegmentFile(final long segmentNumber) {
+        return new File(directory, String.format(SEGMENT_FILE_NAME_FORMAT, segmentNumber));
+    }
+
+    /**
+     * Deletes the given file if it exists.
+     *
+     * @param file the file to delete
+     */
+    private static void deleteFile(final File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to delete checkpoint file", exception);
+        }
+    }
+
+    /**
+     * An open journal segment which records are appended to.
+     */
+    private static final class Segment {
+
+        private final long number;
+        private final FileOutputStream fileStream;
+        private final DataOutputStream stream;
+
+        /**
+         * Creates a {@link Segment} instance by opening the given file for appending. The header
+         * of the segment is written if the file is new.
+         *
+         * @param file   the segment file
+         * @param number the number of the segment
+         *
+         * @throws IOException if an I/O error occurs while opening the file
+         */
+        Segment(final File file, final long number) throws IOException {
+            this.number = number;
+            fileStream = new FileOutputStream(file, true);
+            stream = new DataOutputStream(new BufferedOutputStream(fileStream));
+
+            if (fileStream.getChannel().size() == 0) {
+                BinaryCodec.writeHeader(stream, SEGMENT_MAGIC, FORMAT_VERSION);
+            }
+        }
+
+        /**
+         * Returns the number of the segment.
+         *
+         * @return the number of the segment
+         */
+        long getNumber() {
+            return number;
+        }
+
+        /**
+         * Returns the stream to append the records to.
+         *
+         * @return the stream of the segment
+         */
+        DataOutputStream getStream() {
+            return stream;
+        }
+
+        /**
+         * Flushes the appended records, syncs them to disk and closes the segment.
+         *
+         * @throws IOException if an I/O error occurs while syncing or closing the segment
+         */
+        void close() throws IOException {
+            try {
+                stream.flush();
+                fileStream.getFD().sync();
+            } finally {
+                stream.close();
+            }
+        }
+    }
+}
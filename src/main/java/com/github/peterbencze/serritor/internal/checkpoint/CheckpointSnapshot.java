@@ -0,0 +1,193 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.checkpoint;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.internal.duplicatefilter.FingerprintSet;
+import com.github.peterbencze.serritor.internal.stats.StatsCounter;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * The compacted state of the crawler at the end of a journal segment. It contains the crawl
+ * candidates which were added to the crawl frontier but not completed yet, the fingerprints of
+ * all the added URLs and the latest statistics of the crawl.
+ */
+public final class CheckpointSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<CandidateKey, PendingCandidate> pendingCandidates;
+    private final FingerprintSet urlFingerprints;
+    private int pendingCandidateCount;
+    private long lastSegmentNumber;
+    private StatsCounter statsCounter;
+    private Duration elapsedDuration;
+
+    /**
+     * Creates a {@link CheckpointSnapshot} instance.
+     *
+     * @param urlFingerprints the empty set to collect the URL fingerprints in
+     */
+    CheckpointSnapshot(final FingerprintSet urlFingerprints) {
+        this.urlFingerprints = urlFingerprints;
+        pendingCandidates = new LinkedHashMap<>();
+        pendingCandidateCount = 0;
+        lastSegmentNumber = 0;
+        elapsedDuration = Duration.ZERO;
+    }
+
+    /**
+     * Returns the crawl candidates which were added but not completed, in the order of addition.
+     * The candidates which were in progress when the checkpoint was written are included as well.
+     *
+     * @return the pending crawl candidates
+     */
+    public List<CrawlCandidate> getPendingCandidates() {
+        return pendingCandidates.values()
+                .stream()
+                .flatMap(pendingCandidate ->
+                        Collections.nCopies(pendingCandidate.count, pendingCandidate.candidate)
+                                .stream())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the number of pending crawl candidates.
+     *
+     * @return the number of pending crawl candidates
+     */
+    public int getPendingCandidateCount() {
+        return pendingCandidateCount;
+    }
+
+    /**
+     * Returns the fingerprints of the URLs which were added to the crawl frontier.
+     *
+     * @return the fingerprints of the added URLs
+     */
+    public FingerprintSet getUrlFingerprints() {
+        return urlFingerprints;
+    }
+
+    /**
+     * Returns the statistics of the crawl at the latest checkpoint.
+     *
+     * @return the statistics of the crawl, or an empty optional if no checkpoint was taken
+     */
+    public Optional<StatsCounter> getStatsCounter() {
+        return Optional.ofNullable(statsCounter);
+    }
+
+    /**
+     * Returns the run time of the crawl at the latest checkpoint.
+     *
+     * @return the run time of the crawl
+     */
+    public Duration getElapsedDuration() {
+        return elapsedDuration;
+    }
+
+    /**
+     * Returns the number of the last journal segment applied to the snapshot.
+     *
+     * @return the number of the last applied journal segment
+     */
+    long getLastSegmentNumber() {
+        return lastSegmentNumber;
+    }
+
+    /**
+     * Sets the number of the last journal segment applied to the snapshot.
+     *
+     * @param lastSegmentNumber the number of the last applied journal segment
+     */
+    void setLastSegmentNumber(final long lastSegmentNumber) {
+        this.lastSegmentNumber = lastSegmentNumber;
+    }
+
+    /**
+     * Applies the addition of a crawl candidate to the snapshot.
+     *
+     * @param candidate      the added crawl candidate
+     * @param urlFingerprint the fingerprint of the candidate's URL
+     */
+    void applyAddition(final CrawlCandidate candidate, final byte[] urlFingerprint) {
+        urlFingerprints.add(urlFingerprint);
+
+        pendingCandidates.computeIfAbsent(CandidateKey.of(urlFingerprint, candidate),
+                key -> new PendingCandidate(candidate))
+                .count++;
+        pendingCandidateCount++;
+    }
+
+    /**
+     * Applies the completion of a crawl candidate to the snapshot.
+     *
+     * @param candidateKey the key of the completed crawl candidate
+     */
+    void applyCompletion(final CandidateKey candidateKey) {
+        PendingCandidate pendingCandidate = pendingCandidates.get(candidateKey);
+        if (pendingCandidate == null) {
+            return;
+        }
+
+        pendingCandidateCount--;
+
+        if (--pendingCandidate.count == 0) {
+            pendingCandidates.remove(candidateKey);
+        }
+    }
+
+    /**
+     * Applies the statistics of a checkpoint to the snapshot.
+     *
+     * @param statsCounter    the statistics of the crawl
+     * @param elapsedDuration the run time of the crawl
+     */
+    void applyStats(final StatsCounter statsCounter, final Duration elapsedDuration) {
+        this.statsCounter = statsCounter;
+        this.elapsedDuration = elapsedDuration;
+    }
+
+    /**
+     * A pending crawl candidate, along with the number of identical candidates which are pending.
+     */
+    private static final class PendingCandidate implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CrawlCandidate candidate;
+        private int count;
+
+        /**
+         * Creates a {@link PendingCandidate} instance.
+         *
+         * @param candidate the pending crawl candidate
+         */
+        PendingCandidate(final CrawlCandidate candidate) {
+            this.candidate = candidate;
+            count = 0;
+        }
+    }
+}
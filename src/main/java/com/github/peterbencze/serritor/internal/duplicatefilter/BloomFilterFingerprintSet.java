@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.duplicatefilter;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A fingerprint set backed by a scalable Bloom filter. When the current filter reaches its
+ * capacity, a new filter with double the capacity and a tighter false positive rate is added, so
+ * the overall false positive rate stays below the configured one regardless of the number of
+ * fingerprints.
+ */
+public final class BloomFilterFingerprintSet implements FingerprintSet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int INITIAL_CAPACITY = 100_000;
+    private static final int GROWTH_FACTOR = 2;
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private final double falsePositiveRate;
+    private final List<BloomFilter<byte[]>> filters;
+
+    private int currentCapacity;
+    private int currentFilterSize;
+
+    /**
+     * Creates a {@link BloomFilterFingerprintSet} instance.
+     *
+     * @param falsePositiveRate the maximum rate of reporting a new fingerprint as already present
+     */
+    public BloomFilterFingerprintSet(final double falsePositiveRate) {
+        Validate.isTrue(falsePositiveRate > 0 && falsePositiveRate < 1,
+                "The false positive rate must be between 0 and 1 (exclusive).");
+
+        this.falsePositiveRate = falsePositiveRate;
+        filters = new ArrayList<>();
+
+        clear();
+    }
+
+    /**
+     * Creates a copy of the given set with its own copies of the Bloom filters.
+     *
+     * @param fingerprintSet the set to copy
+     */
+    private BloomFilterFingerprintSet(final BloomFilterFingerprintSet fingerprintSet) {
+        falsePositiveRate = fingerprintSet.falsePositiveRate;
+        filters = new ArrayList<>(fingerprintSet.filters.size());
+        fingerprintSet.filters.forEach(filter -> filters.add(filter.copy()));
+
+        currentCapacity = fingerprintSet.currentCapacity;
+        currentFilterSize = fingerprintSet.currentFilterSize;
+    }
+
+    /**
+     * Adds the fingerprint to the set if it is not already present.
+     *
+     * @param fingerprint the URL fingerprint
+     *
+     * @return <code>true</code> if the fingerprint was added, <code>false</code> if it might be
+     *         already present
+     */
+    @Override
+    public boolean add(final byte[] fingerprint) {
+        for (BloomFilter<byte[]> filter : filters) {
+            if (filter.mightContain(fingerprint)) {
+                return false;
+            }
+        }
+
+        if (currentFilterSize >= currentCapacity) {
+            currentCapacity *= GROWTH_FACTOR;
+            addFilter();
+        }
+
+        filters.get(filters.size() - 1).put(fingerprint);
+        currentFilterSize++;
+
+        return true;
+    }
+
+    /**
+     * Removes all the fingerprints from the set.
+     */
+    @Override
+    public void clear() {
+        filters.clear();
+        currentCapacity = INITIAL_CAPACITY;
+        addFilter();
+    }
+
+    /**
+     * Returns the number of Bloom filters in use.
+     *
+     * @return the number of Bloom filters in use
+     */
+    public int getFilterCount() {
+        return filters.size();
+    }
+
+    /**
+     * Creates an independent copy of the set.
+     *
+     * @return the copy of the set
+     */
+    @Override
+    public FingerprintSet copy() {
+        return new BloomFilterFingerprintSet(this);
+    }
+
+    /**
+     * Adds a new filter with the current capacity. The false positive rates of the filters form a
+     * geometric series whose sum does not exceed the configured rate.
+     */
+    private void addFilter() {
+        double filterFalsePositiveRate = falsePositiveRate * (1 - TIGHTENING_RATIO)
+                * Math.pow(TIGHTENING_RATIO, filters.size());
+
+        filters.add(BloomFilter.create(Funnels.byteArrayFunnel(), currentCapacity,
+                filterFalsePositiveRate));
+        currentFilterSize = 0;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.duplicatefilter;
+
+import com.google.common.primitives.Longs;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * A fingerprint set which stores the first 64 bits of the fingerprints in an open-addressing hash
+ * table backed by a primitive <code>long</code> array. It uses around 16 bytes per fingerprint.
+ * With 64-bit fingerprints, the probability of a false duplicate is negligible even for billions
+ * of URLs.
+ */
+public final class CompactFingerprintSet implements FingerprintSet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    // Zero marks empty slots, so the fingerprint with the value of zero is stored as this one
+    private static final long ZERO_FINGERPRINT_REPLACEMENT = 1L;
+
+    private transient long[] slots;
+    private transient int size;
+
+    /**
+     * Creates a {@link CompactFingerprintSet} instance.
+     */
+    public CompactFingerprintSet() {
+        slots = new long[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Creates a copy of the given set.
+     *
+     * @param fingerprintSet the set to copy
+     */
+    private CompactFingerprintSet(final CompactFingerprintSet fingerprintSet) {
+        slots = fingerprintSet.slots.clone();
+        size = fingerprintSet.size;
+    }
+
+    /**
+     * Adds the fingerprint to the set if it is not already present.
+     *
+     * @param fingerprint the URL fingerprint (at least 8 bytes)
+     *
+     * @return <code>true</code> if the fingerprint was added, <code>false</code> if it is already
+     *         present
+     */
+    @Override
+    public boolean add(final byte[] fingerprint) {
+        long value = Longs.fromByteArray(fingerprint);
+        if (value == 0) {
+            value = ZERO_FINGERPRINT_REPLACEMENT;
+        }
+
+        if (!insert(slots, value)) {
+            return false;
+        }
+
+        size++;
+        if (size > slots.length * MAX_LOAD_FACTOR) {
+            resize();
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes all the fingerprints from the set.
+     */
+    @Override
+    public void clear() {
+        slots = new long[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Returns the number of fingerprints in the set.
+     *
+     * @return the number of fingerprints in the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Creates an independent copy of the set.
+     *
+     * @return the copy of the set
+     */
+    @Override
+    public FingerprintSet copy() {
+        return new CompactFingerprintSet(this);
+    }
+
+    /**
+     * Doubles the capacity of the hash table.
+     */
+    private void resize() {
+        long[] newSlots = new long[slots.length * 2];
+        for (long value : slots) {
+            if (value != 0) {
+                insert(newSlots, value);
+            }
+        }
+
+        slots = newSlots;
+    }
+
+    /**
+     * Writes only the occupied slots of the hash table to the stream, as a packed array.
+     *
+     * @param out the stream to write the object to
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+
+        out.writeInt(size);
+        for (long value : slots) {
+            if (value != 0) {
+                out.writeLong(value);
+            }
+        }
+    }
+
+    /**
+     * Reads the packed array from the stream and rebuilds the hash table.
+     *
+     * @param in the stream to read the object from
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        int fingerprintCount = in.readInt();
+        int capacity = INITIAL_CAPACITY;
+        while (fingerprintCount > capacity * MAX_LOAD_FACTOR) {
+            capacity *= 2;
+        }
+
+        slots = new long[capacity];
+        for (int i = 0; i < fingerprintCount; i++) {
+            insert(slots, in.readLong());
+        }
+
+        size = fingerprintCount;
+    }
+
+    /**
+     * Inserts the value into the hash table using linear probing.
+     *
+     * @param table the hash table (its length must be a power of two)
+     * @param value the non-zero value to insert
+     *
+     * @return <code>true</code> if the value was inserted, <code>false</code> if it is already
+     *         present
+     */
+    private static boolean insert(final long[] table, final long value) {
+        int mask = table.length - 1;
+
+        // The fingerprint is already a uniformly distributed hash, so its bits are used directly
+        int index = (int) (value ^ (value >>> 32)) & mask;
+        while (table[index] != 0) {
+            if (table[index] == value) {
+                return false;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        table[index] = value;
+        return true;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.duplicatefilter;
+
+import com.github.peterbencze.serritor.internal.util.BinaryCodec;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.commons.codec.binary.Hex;
+
+/**
+ * A fingerprint set which stores the full fingerprints as hexadecimal strings.
+ */
+public final class ExactFingerprintSet implements FingerprintSet {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient Set<String> fingerprints;
+
+    /**
+     * Creates an {@link ExactFingerprintSet} instance.
+     */
+    public ExactFingerprintSet() {
+        fingerprints = new HashSet<>();
+    }
+
+    /**
+     * Creates a copy of the given set.
+     *
+     * @param fingerprintSet the set to copy
+     */
+    private ExactFingerprintSet(final ExactFingerprintSet fingerprintSet) {
+        fingerprints = new HashSet<>(fingerprintSet.fingerprints);
+    }
+
+    /**
+     * Adds the fingerprint to the set if it is not already present.
+     *
+     * @param fingerprint the URL fingerprint
+     *
+     * @return <code>true</code> if the fingerprint was added, <code>false</code> if it is already
+     *         present
+     */
+    @Override
+    public boolean add(final byte[] fingerprint) {
+        return fingerprints.add(Hex.encodeHexString(fingerprint));
+    }
+
+    /**
+     * Removes all the fingerprints from the set.
+     */
+    @Override
+    public void clear() {
+        fingerprints.clear();
+    }
+
+    /**
+     * Creates an independent copy of the set.
+     *
+     * @return the copy of the set
+     */
+    @Override
+    public FingerprintSet copy() {
+        return new ExactFingerprintSet(this);
+    }
+
+    /**
+     * Writes the fingerprints to the stream as a packed array of length-prefixed byte arrays,
+     * instead of the hexadecimal strings they are stored as.
+     *
+     * @param out the stream to write the object to
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+
+        BinaryCodec.writeVarInt(out, fingerprints.size());
+        for (String fingerprint : fingerprints) {
+            BinaryCodec.writeBytes(out, decodeHex(fingerprint));
+        }
+    }
+
+    /**
+     * Reads the packed fingerprints from the stream.
+     *
+     * @param in the stream to read the object from
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        int fingerprintCount = BinaryCodec.readVarInt(in);
+        fingerprints = new HashSet<>(Math.max(16, (int) (fingerprintCount / 0.75f) + 1));
+        for (int i = 0; i < fingerprintCount; i++) {
+            fingerprints.add(Hex.encodeHexString(BinaryCodec.readBytes(in)));
+        }
+    }
+
+    /**
+     * Decodes a fingerprint which was encoded as a hexadecimal string by this set.
+     *
+     * @param fingerprint the hexadecimal string
+     *
+     * @return the fingerprint
+     */
+    private static byte[] decodeHex(final String fingerprint) {
+        byte[] bytes = new byte[fingerprint.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ((Character.digit(fingerprint.charAt(2 * i), 16) << 4)
+                    | Character.digit(fingerprint.charAt(2 * i + 1), 16));
+        }
+
+        return bytes;
+    }
+}
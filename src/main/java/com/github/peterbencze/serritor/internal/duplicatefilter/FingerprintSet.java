@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.duplicatefilter;
+
+import java.io.Serializable;
+
+/**
+ * An interface which should be implemented by every URL fingerprint set used by the duplicate
+ * request filter. Implementations are not required to be thread-safe.
+ */
+public interface FingerprintSet extends Serializable {
+
+    /**
+     * Adds the fingerprint to the set if it is not already present.
+     *
+     * @param fingerprint the URL fingerprint (should be a uniformly distributed hash of at least 8
+     *                    bytes)
+     *
+     * @return <code>true</code> if the fingerprint was added, <code>false</code> if it is (or
+     *         might be) already present
+     */
+    boolean add(byte[] fingerprint);
+
+    /**
+     * Removes all the fingerprints from the set.
+     */
+    void clear();
+
+    /**
+     * Creates an independent copy of the set, which is not affected by later changes to this set.
+     *
+     * @return the copy of the set
+     */
+    FingerprintSet copy();
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.duplicatefilter;
+
+import com.github.peterbencze.serritor.api.CrawlerConfiguration;
+
+/**
+ * Provides URL fingerprint sets for the duplicate request filter.
+ */
+public final class FingerprintSetFactory {
+
+    /**
+     * Private constructor to hide the implicit public one.
+     */
+    private FingerprintSetFactory() {
+    }
+
+    /**
+     * Creates the URL fingerprint set using the duplicate request filter strategy specified in the
+     * configuration.
+     *
+     * @param config the crawler configuration
+     *
+     * @return the URL fingerprint set
+     */
+    public static FingerprintSet createFingerprintSet(final CrawlerConfiguration config) {
+        switch (config.getDuplicateRequestFilterStrategy()) {
+            case EXACT:
+                return new ExactFingerprintSet();
+            case COMPACT:
+                return new CompactFingerprintSet();
+            case BLOOM_FILTER:
+                return new BloomFilterFingerprintSet(
+                        config.getDuplicateRequestFilterFalsePositiveRate());
+            default:
+                throw new IllegalArgumentException("Unsupported duplicate request filter strategy");
+        }
+    }
+}
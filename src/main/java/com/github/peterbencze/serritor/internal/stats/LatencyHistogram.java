@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.stats;
+
+import com.github.peterbencze.serritor.api.LatencyStats;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with logarithmic buckets, similar to an HDR histogram. Values are
+ * recorded in microseconds. Each power of two is split into 32 linear sub-buckets, so the
+ * percentiles are accurate to about 3%, regardless of the magnitude of the values.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_TRACKABLE_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT =
+            (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final AtomicLongArray buckets;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+    /**
+     * Creates a {@link LatencyHistogram} instance.
+     */
+    public LatencyHistogram() {
+        buckets = new AtomicLongArray(BUCKET_COUNT);
+        sum = new LongAdder();
+        max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param latencyInNanos the latency in nanoseconds
+     */
+    public void recordLatency(final long latencyInNanos) {
+        long valueInMicros = Math.min(
+                Math.max(TimeUnit.NANOSECONDS.toMicros(latencyInNanos), 0), MAX_TRACKABLE_VALUE);
+
+        buckets.incrementAndGet(getBucketIndex(valueInMicros));
+        sum.add(valueInMicros);
+        max.accumulate(valueInMicros);
+    }
+
+    /**
+     * Resets the histogram.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Returns the summary of the recorded latencies. The buckets are scanned in place without
+     * copying them, so a scrape does not allocate more than the returned summary.
+     *
+     * @return the summary of the recorded latencies
+     */
+    public LatencyStats getSnapshot() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += buckets.get(i);
+        }
+
+        if (count == 0) {
+            return new LatencyStats(0, 0, 0, 0, 0, 0);
+        }
+
+        long maxInMicros = max.get();
+        long p50Target = getPercentileTargetCount(count, 50);
+        long p95Target = getPercentileTargetCount(count, 95);
+        long p99Target = getPercentileTargetCount(count, 99);
+        long p50InMicros = maxInMicros;
+        long p95InMicros = maxInMicros;
+        long p99InMicros = maxInMicros;
+
+        // Values recorded during the scan can only increase the cumulative counts
+        long cumulativeCount = 0;
+        for (int i = 0; i < BUCKET_COUNT && cumulativeCount < p99Target; i++) {
+            long previousCumulativeCount = cumulativeCount;
+            cumulativeCount += buckets.get(i);
+
+            long upperBound = Math.min(getBucketUpperBound(i), maxInMicros);
+            if (previousCumulativeCount < p50Target && cumulativeCount >= p50Target) {
+                p50InMicros = upperBound;
+            }
+            if (previousCumulativeCount < p95Target && cumulativeCount >= p95Target) {
+                p95InMicros = upperBound;
+            }
+            if (cumulativeCount >= p99Target) {
+                p99InMicros = upperBound;
+            }
+        }
+
+        return new LatencyStats(count,
+                sum.sum() / MICROS_PER_MILLI / count,
+                p50InMicros / MICROS_PER_MILLI,
+                p95InMicros / MICROS_PER_MILLI,
+                p99InMicros / MICROS_PER_MILLI,
+                maxInMicros / MICROS_PER_MILLI);
+    }
+
+    /**
+     * Returns the index of the bucket which the given value belongs to.
+     *
+     * @param value the value in microseconds
+     *
+     * @return the index of the bucket
+     */
+    static int getBucketIndex(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Returns the highest value that belongs to the bucket with the given index.
+     *
+     * @param index the index of the bucket
+     *
+     * @return the highest value of the bucket in microseconds
+     */
+    static long getBucketUpperBound(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    /**
+     * Returns the number of values which are less than or equal to the given percentile.
+     *
+     * @param count      the total number of values
+     * @param percentile the percentile
+     *
+     * @return the number of values which are less than or equal to the percentile
+     */
+    private static long getPercentileTargetCount(final long count, final int percentile) {
+        return (long) Math.ceil(count * percentile / 100.0);
+    }
+}
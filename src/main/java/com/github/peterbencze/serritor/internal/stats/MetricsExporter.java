@@ -0,0 +1,426 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.stats;
+
+import com.github.peterbencze.serritor.api.LatencyStats;
+import com.github.peterbencze.serritor.internal.CrawlFrontier;
+import com.github.peterbencze.serritor.internal.util.DomainNameCache;
+import com.github.peterbencze.serritor.internal.util.stopwatch.Stopwatch;
+import com.google.common.cache.CacheStats;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Exports the statistics of the crawler, the state of the crawl frontier and the JVM in the
+ * Prometheus text exposition format. The values are read directly from the lock-free counters,
+ * so exporting them does not block the crawl workers.
+ */
+public final class MetricsExporter {
+
+    private static final String COUNTER = "counter";
+    private static final String GAUGE = "gauge";
+    private static final String SUMMARY = "summary";
+
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    private static final int MAX_LABELED_DEFERRED_HOST_COUNT = 20;
+    private static final String OTHER_HOSTS_LABEL = "_other";
+
+    private final StatsCounter statsCounter;
+    private final PerformanceMonitor performanceMonitor;
+    private final CrawlFrontier crawlFrontier;
+    private final Stopwatch runTimeStopwatch;
+    private final MemoryMXBean memoryBean;
+    private final ThreadMXBean threadBean;
+    private final List<GarbageCollectorMXBean> garbageCollectorBeans;
+
+    /**
+     * Creates a {@link MetricsExporter} instance.
+     *
+     * @param statsCounter       the stats counter of the crawler
+     * @param performanceMonitor the performance monitor of the crawler
+     * @param crawlFrontier      the crawl frontier of the crawler
+     * @param runTimeStopwatch   the stopwatch which measures the run time of the crawler
+     */
+    public MetricsExporter(
+            final StatsCounter statsCounter,
+            final PerformanceMonitor performanceMonitor,
+            final CrawlFrontier crawlFrontier,
+            final Stopwatch runTimeStopwatch) {
+        this.statsCounter = statsCounter;
+        this.performanceMonitor = performanceMonitor;
+        this.crawlFrontier = crawlFrontier;
+        this.runTimeStopwatch = runTimeStopwatch;
+        memoryBean = ManagementFactory.getMemoryMXBean();
+        threadBean = ManagementFactory.getThreadMXBean();
+        garbageCollectorBeans = ManagementFactory.getGarbageCollectorMXBeans();
+    }
+
+    /**
+     * Writes all the metrics in the Prometheus text exposition format.
+     *
+     * @param format the writer of the text exposition format
+     */
+    public void export(final PrometheusTextFormat format) {
+        exportCrawlMetrics(format);
+        exportPerformanceMetrics(format);
+        exportFrontierMetrics(format);
+        exportJvmMetrics(format);
+    }
+
+    /**
+     * Writes the counters of the crawl.
+     *
+     * @param format the writer of the text exposition format
+     */
+    private void exportCrawlMetrics(final PrometheusTextFormat format) {
+        format.metadata("serritor_run_duration_seconds", GAUGE,
+                "Duration of the crawl, including the previous runs.")
+                .sample("serritor_run_duration_seconds")
+                .value(runTimeStopwatch.getElapsedDuration().toMillis() / MILLIS_PER_SECOND);
+
+        format.metadata("serritor_crawl_candidates_processed_total", COUNTER,
+                "Number of processed crawl candidates by outcome.");
+        writeOutcome(format, "response_success", statsCounter.getResponseSuccessCount());
+        writeOutcome(format, "page_load_timeout", statsCounter.getPageLoadTimeoutCount());
+        writeOutcome(format, "request_redirect", statsCounter.getRequestRedirectCount());
+        writeOutcome(format, "non_html_response", statsCounter.getNonHtmlResponseCount());
+        writeOutcome(format, "response_error", statsCounter.getResponseErrorCount());
+        writeOutcome(format, "network_error", statsCounter.getNetworkErrorCount());
+
+        format.metadata("serritor_crawl_candidates_remaining", GAUGE,
+                "Number of crawl candidates which are not processed yet.")
+                .sample("serritor_crawl_candidates_remaining")
+                .value(statsCounter.getRemainingCrawlCandidateCount());
+
+        format.metadata("serritor_filtered_requests_total", COUNTER,
+                "Number of crawl requests filtered by the crawl frontier by reason.");
+        writeFilteredRequests(format, "duplicate",
+                statsCounter.getFilteredDuplicateRequestCount());
+        writeFilteredRequests(format, "offsite", statsCounter.getFilteredOffsiteRequestCount());
+        writeFilteredRequests(format, "crawl_depth_limit",
+                statsCounter.getFilteredCrawlDepthLimitExceedingRequestCount());
+
+        format.metadata("serritor_blocked_subresources_total", COUNTER,
+                "Number of subresources blocked by the internal proxy server.")
+                .sample("serritor_blocked_subresources_total")
+                .value(statsCounter.getBlockedSubresourceCount());
+        format.metadata("serritor_blocked_subresource_bytes_total", COUNTER,
+                "Number of bytes saved by blocking subresources.")
+                .sample("serritor_blocked_subresource_bytes_total")
+                .value(statsCounter.getBlockedSubresourceByteCount());
+    }
+
+    /**
+     * Writes the throughput, the latencies and the browser counters of the current run.
+     *
+     * @param format the writer of the text exposition format
+     */
+    private void exportPerformanceMetrics(final PrometheusTextFormat format) {
+        PerformanceSnapshot snapshot = performanceMonitor.getSnapshot();
+
+        format.metadata("serritor_throughput_per_second", GAUGE,
+                "Number of crawl candidates processed per second in the given window.");
+        writeThroughput(format, "1m", snapshot.getThroughputLastMinute());
+        writeThroughput(format, "5m", snapshot.getThroughputLast5Minutes());
+        writeThroughput(format, "15m", snapshot.getThroughputLast15Minutes());
+
+        format.metadata("serritor_latency_seconds", SUMMARY,
+                "Latency of the operations performed while processing a crawl candidate.");
+        writeLatency(format, "head_request", snapshot.getHeadRequestLatency());
+        writeLatency(format, "page_load", snapshot.getPageLoadLatency());
+        writeLatency(format, "response_capture_lookup",
+                snapshot.getResponseCaptureLookupLatency());
+        writeLatency(format, "callback", snapshot.getCallbackLatency());
+
+        format.metadata("serritor_browsers_started_total", COUNTER,
+                "Number of browsers started in the current run, including the spare ones.")
+                .sample("serritor_browsers_started_total")
+                .value(performanceMonitor.getStartedBrowserCount());
+        format.metadata("serritor_browsers_recycled_total", COUNTER,
+                "Number of browsers replaced in the current run.")
+                .sample("serritor_browsers_recycled_total")
+                .value(performanceMonitor.getRecycledBrowserCount());
+    }
+
+    /**
+     * Writes the size of the crawl frontier, the number of deferred candidates per host and the
+     * statistics of the domain name cache used when requests are fed to the frontier. To keep the
+     * number of time series bounded on broad crawls, only the hosts with the most deferred
+     * candidates get their own label, and the candidates of the rest are summed under a single
+     * label.
+     *
+     * @param format the writer of the text exposition format
+     */
+    private void exportFrontierMetrics(final PrometheusTextFormat format) {
+        format.metadata("serritor_frontier_candidates", GAUGE,
+                "Number of crawl candidates in the crawl frontier.")
+                .sample("serritor_frontier_candidates")
+                .value(crawlFrontier.getCandidateCount());
+
+        format.metadata("serritor_frontier_host_deferred_candidates", GAUGE,
+                "Number of crawl candidates waiting for their host to become ready. Only the hosts "
+                        + "with the most of them are labeled, the rest are summed under the "
+                        + OTHER_HOSTS_LABEL + " host.");
+        DeferredHostAggregator deferredHostAggregator =
+                new DeferredHostAggregator(MAX_LABELED_DEFERRED_HOST_COUNT);
+        crawlFrontier.forEachDeferredHost(deferredHostAggregator);
+        deferredHostAggregator.write(format);
+
+        CacheStats domainNameCacheStats = DomainNameCache.getStats();
+        format.metadata("serritor_domain_name_cache_requests_total", COUNTER,
+                "Number of domain name cache lookups by result.")
+                .sample("serritor_domain_name_cache_requests_total").label("result", "hit")
+                .value(domainNameCacheStats.hitCount())
+                .sample("serritor_domain_name_cache_requests_total").label("result", "miss")
+                .value(domainNameCacheStats.missCount());
+    }
+
+    /**
+     * Writes the memory, thread and garbage collection metrics of the JVM.
+     *
+     * @param format the writer of the text exposition format
+     */
+    private void exportJvmMetrics(final PrometheusTextFormat format) {
+        MemoryUsage heapMemoryUsage = memoryBean.getHeapMemoryUsage();
+        format.metadata("jvm_memory_heap_bytes", GAUGE, "Heap memory usage of the JVM.")
+                .sample("jvm_memory_heap_bytes").label("area", "used")
+                .value(heapMemoryUsage.getUsed())
+                .sample("jvm_memory_heap_bytes").label("area", "committed")
+                .value(heapMemoryUsage.getCommitted())
+                .sample("jvm_memory_heap_bytes").label("area", "max")
+                .value(heapMemoryUsage.getMax());
+
+        format.metadata("jvm_threads", GAUGE, "Number of live threads of the JVM.")
+                .sample("jvm_threads")
+                .value(threadBean.getThreadCount());
+
+        format.metadata("jvm_gc_collections_total", COUNTER,
+                "Number of garbage collections by collector.");
+        for (GarbageCollectorMXBean garbageCollectorBean : garbageCollectorBeans) {
+            format.sample("jvm_gc_collections_total")
+                    .label("gc", garbageCollectorBean.getName())
+                    .value(garbageCollectorBean.getCollectionCount());
+        }
+
+        format.metadata("jvm_gc_collection_seconds_total", COUNTER,
+                "Time spent in garbage collection by collector.");
+        for (GarbageCollectorMXBean garbageCollectorBean : garbageCollectorBeans) {
+            format.sample("jvm_gc_collection_seconds_total")
+                    .label("gc", garbageCollectorBean.getName())
+                    .value(garbageCollectorBean.getCollectionTime() / MILLIS_PER_SECOND);
+        }
+    }
+
+    /**
+     * Writes the number of crawl candidates processed with the given outcome.
+     *
+     * @param format  the writer of the text exposition format
+     * @param outcome the outcome of the processing
+     * @param count   the number of crawl candidates
+     */
+    private static void writeOutcome(
+            final PrometheusTextFormat format,
+            final String outcome,
+            final long count) {
+        format.sample("serritor_crawl_candidates_processed_total")
+                .label("outcome", outcome)
+                .value(count);
+    }
+
+    /**
+     * Writes the number of crawl requests filtered for the given reason.
+     *
+     * @param format the writer of the text exposition format
+     * @param reason the reason of the filtering
+     * @param count  the number of filtered crawl requests
+     */
+    private static void writeFilteredRequests(
+            final PrometheusTextFormat format,
+            final String reason,
+            final long count) {
+        format.sample("serritor_filtered_requests_total")
+                .label("reason", reason)
+                .value(count);
+    }
+
+    /**
+     * Writes the throughput in the given window.
+     *
+     * @param format     the writer of the text exposition format
+     * @param window     the window of the throughput
+     * @param throughput the number of crawl candidates processed per second
+     */
+    private static void writeThroughput(
+            final PrometheusTextFormat format,
+            final String window,
+            final double throughput) {
+        format.sample("serritor_throughput_per_second")
+                .label("window", window)
+                .value(throughput);
+    }
+
+    /**
+     * Writes the quantiles, the sum and the count of the latencies of an operation.
+     *
+     * @param format       the writer of the text exposition format
+     * @param operation    the name of the operation
+     * @param latencyStats the summary of the latencies
+     */
+    private static void writeLatency(
+            final PrometheusTextFormat format,
+            final String operation,
+            final LatencyStats latencyStats) {
+        writeQuantile(format, operation, "0.5", latencyStats.getP50InMillis());
+        writeQuantile(format, operation, "0.95", latencyStats.getP95InMillis());
+        writeQuantile(format, operation, "0.99", latencyStats.getP99InMillis());
+        writeQuantile(format, operation, "1", latencyStats.getMaxInMillis());
+
+        format.sample("serritor_latency_seconds_sum")
+                .label("operation", operation)
+                .value(latencyStats.getMeanInMillis() * latencyStats.getCount()
+                        / MILLIS_PER_SECOND);
+        format.sample("serritor_latency_seconds_count")
+                .label("operation", operation)
+                .value(latencyStats.getCount());
+    }
+
+    /**
+     * Writes a quantile of the latencies of an operation.
+     *
+     * @param format          the writer of the text exposition format
+     * @param operation       the name of the operation
+     * @param quantile        the quantile
+     * @param latencyInMillis the latency at the quantile in milliseconds
+     */
+    private static void writeQuantile(
+            final PrometheusTextFormat format,
+            final String operation,
+            final String quantile,
+            final double latencyInMillis) {
+        format.sample("serritor_latency_seconds")
+                .label("operation", operation)
+                .label("quantile", quantile)
+                .value(latencyInMillis / MILLIS_PER_SECOND);
+    }
+
+    /**
+     * Keeps the hosts with the most deferred candidates and sums the deferred candidates of the
+     * rest.
+     */
+    private static final class DeferredHostAggregator implements ObjIntConsumer<String> {
+
+        private final int maxHostCount;
+        private final PriorityQueue<DeferredHost> topHosts;
+
+        private long otherCount;
+
+        /**
+         * Creates a {@link DeferredHostAggregator} instance.
+         *
+         * @param maxHostCount the maximum number of hosts to keep
+         */
+        DeferredHostAggregator(final int maxHostCount) {
+            this.maxHostCount = maxHostCount;
+            topHosts = new PriorityQueue<>(Comparator.comparingInt(DeferredHost::getCount));
+        }
+
+        /**
+         * Adds a host along with the number of its deferred candidates. If more hosts are added
+         * than the maximum, the host with the fewest deferred candidates is moved to the rest.
+         *
+         * @param host  the host
+         * @param count the number of deferred candidates of the host
+         */
+        @Override
+        public void accept(final String host, final int count) {
+            topHosts.add(new DeferredHost(host, count));
+
+            if (topHosts.size() > maxHostCount) {
+                otherCount += topHosts.poll().getCount();
+            }
+        }
+
+        /**
+         * Writes the kept hosts in descending order of their deferred candidates, followed by the
+         * sum of the rest, if there are any.
+         *
+         * @param format the writer of the text exposition format
+         */
+        void write(final PrometheusTextFormat format) {
+            List<DeferredHost> sortedHosts = new ArrayList<>(topHosts);
+            sortedHosts.sort(Comparator.comparingInt(DeferredHost::getCount).reversed());
+
+            sortedHosts.forEach(deferredHost ->
+                    format.sample("serritor_frontier_host_deferred_candidates")
+                            .label("host", deferredHost.getHost())
+                            .value(deferredHost.getCount()));
+
+            if (otherCount > 0) {
+                format.sample("serritor_frontier_host_deferred_candidates")
+                        .label("host", OTHER_HOSTS_LABEL)
+                        .value(otherCount);
+            }
+        }
+    }
+
+    /**
+     * A host along with the number of its deferred candidates.
+     */
+    private static final class DeferredHost {
+
+        private final String host;
+        private final int count;
+
+        /**
+         * Creates a {@link DeferredHost} instance.
+         *
+         * @param host  the host
+         * @param count the number of deferred candidates of the host
+         */
+        DeferredHost(final String host, final int count) {
+            this.host = host;
+            this.count = count;
+        }
+
+        /**
+         * Returns the host.
+         *
+         * @return the host
+         */
+        String getHost() {
+            return host;
+        }
+
+        /**
+         * Returns the number of deferred candidates of the host.
+         *
+         * @return the number of deferred candidates of the host
+         */
+        int getCount() {
+            return count;
+        }
+    }
+}
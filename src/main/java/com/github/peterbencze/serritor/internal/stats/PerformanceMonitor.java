@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.stats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the throughput of the crawler and the latencies of the operations performed while
+ * processing a crawl candidate. Unlike the {@link StatsCounter}, it is not part of the crawler
+ * state: the values describe the current run only.
+ */
+public final class PerformanceMonitor {
+
+    static final int ONE_MINUTE_IN_SECONDS = 60;
+    static final int FIVE_MINUTES_IN_SECONDS = 5 * 60;
+    static final int FIFTEEN_MINUTES_IN_SECONDS = 15 * 60;
+
+    private final ThroughputMeter throughputMeter;
+    private final LatencyHistogram headRequestLatency;
+    private final LatencyHistogram pageLoadLatency;
+    private final LatencyHistogram responseCaptureLookupLatency;
+    private final LatencyHistogram callbackLatency;
+    private final LongAdder startedBrowserCount;
+    private final LongAdder recycledBrowserCount;
+
+    /**
+     * Creates a {@link PerformanceMonitor} instance.
+     *
+     * @param throughputMeter the meter to use for measuring the throughput
+     */
+    public PerformanceMonitor(final ThroughputMeter throughputMeter) {
+        this.throughputMeter = throughputMeter;
+        headRequestLatency = new LatencyHistogram();
+        pageLoadLatency = new LatencyHistogram();
+        responseCaptureLookupLatency = new LatencyHistogram();
+        callbackLatency = new LatencyHistogram();
+        startedBrowserCount = new LongAdder();
+        recycledBrowserCount = new LongAdder();
+    }
+
+    /**
+     * Creates a {@link PerformanceMonitor} instance.
+     */
+    public PerformanceMonitor() {
+        this(new ThroughputMeter());
+    }
+
+    /**
+     * Records a processed crawl candidate.
+     */
+    public void recordProcessedCrawlCandidate() {
+        throughputMeter.recordEvent();
+    }
+
+    /**
+     * Records the latency of an HTTP HEAD request.
+     *
+     * @param latencyInNanos the latency in nanoseconds
+     */
+    public void recordHeadRequestLatency(final long latencyInNanos) {
+        headRequestLatency.recordLatency(latencyInNanos);
+    }
+
+    /**
+     * Records the time it took to load a page in the browser, or to fetch a static page over
+     * HTTP.
+     *
+     * @param latencyInNanos the latency in nanoseconds
+     */
+    public void recordPageLoadLatency(final long latencyInNanos) {
+        pageLoadLatency.recordLatency(latencyInNanos);
+    }
+
+    /**
+     * Records the time it took to look up the captured response of the main document.
+     *
+     * @param latencyInNanos the latency in nanoseconds
+     */
+    public void recordResponseCaptureLookupLatency(final long latencyInNanos) {
+        responseCaptureLookupLatency.recordLatency(latencyInNanos);
+    }
+
+    /**
+     * Records the time it took to run the callbacks of an event.
+     *
+     * @param latencyInNanos the latency in nanoseconds
+     */
+    public void recordCallbackLatency(final long latencyInNanos) {
+        callbackLatency.recordLatency(latencyInNanos);
+    }
+
+    /**
+     * Records a started browser.
+     */
+    public void recordBrowserStart() {
+        startedBrowserCount.increment();
+    }
+
+    /**
+     * Records a browser which was replaced by a new one, because it crashed or reached its page
+     * or memory limit.
+     */
+    public void recordBrowserRecycle() {
+        recycledBrowserCount.increment();
+    }
+
+    /**
+     * Returns the number of browsers started in the current run.
+     *
+     * @return the number of started browsers
+     */
+    public long getStartedBrowserCount() {
+        return startedBrowserCount.sum();
+    }
+
+    /**
+     * Returns the number of browsers replaced in the current run.
+     *
+     * @return the number of recycled browsers
+     */
+    public long getRecycledBrowserCount() {
+        return recycledBrowserCount.sum();
+    }
+
+    /**
+     * Resets the throughput, the latencies and the browser counts.
+     */
+    public void reset() {
+        throughputMeter.reset();
+        headRequestLatency.reset();
+        pageLoadLatency.reset();
+        responseCaptureLookupLatency.reset();
+        callbackLatency.reset();
+        startedBrowserCount.reset();
+        recycledBrowserCount.reset();
+    }
+
+    /**
+     * Returns a snapshot of the throughput and the latencies.
+     *
+     * @return a snapshot of the throughput and the latencies
+     */
+    public PerformanceSnapshot getSnapshot() {
+        return new PerformanceSnapshot(
+                throughputMeter.getRate(ONE_MINUTE_IN_SECONDS),
+                throughputMeter.getRate(FIVE_MINUTES_IN_SECONDS),
+                throughputMeter.getRate(FIFTEEN_MINUTES_IN_SECONDS),
+                headRequestLatency.getSnapshot(),
+                pageLoadLatency.getSnapshot(),
+                responseCaptureLookupLatency.getSnapshot(),
+                callbackLatency.getSnapshot());
+    }
+}
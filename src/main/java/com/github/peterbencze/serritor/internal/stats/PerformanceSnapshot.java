@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.stats;
+
+import com.github.peterbencze.serritor.api.LatencyStats;
+
+/**
+ * Represents a snapshot of the values collected by the performance monitor.
+ */
+public final class PerformanceSnapshot {
+
+    private final double throughputLastMinute;
+    private final double throughputLast5Minutes;
+    private final double throughputLast15Minutes;
+    private final LatencyStats headRequestLatency;
+    private final LatencyStats pageLoadLatency;
+    private final LatencyStats responseCaptureLookupLatency;
+    private final LatencyStats callbackLatency;
+
+    /**
+     * Creates a {@link PerformanceSnapshot} instance.
+     *
+     * @param throughputLastMinute         the crawl candidates processed per second in the last
+     *                                     minute
+     * @param throughputLast5Minutes       the crawl candidates processed per second in the last
+     *                                     5 minutes
+     * @param throughputLast15Minutes      the crawl candidates processed per second in the last
+     *                                     15 minutes
+     * @param headRequestLatency           the latencies of the HTTP HEAD requests
+     * @param pageLoadLatency              the latencies of the page loads
+     * @param responseCaptureLookupLatency the latencies of the captured response lookups
+     * @param callbackLatency              the latencies of the callbacks
+     */
+    public PerformanceSnapshot(
+            final double throughputLastMinute,
+            final double throughputLast5Minutes,
+            final double throughputLast15Minutes,
+            final LatencyStats headRequestLatency,
+            final LatencyStats pageLoadLatency,
+            final LatencyStats responseCaptureLookupLatency,
+            final LatencyStats callbackLatency) {
+        this.throughputLastMinute = throughputLastMinute;
+        this.throughputLast5Minutes = throughputLast5Minutes;
+        this.throughputLast15Minutes = throughputLast15Minutes;
+        this.headRequestLatency = headRequestLatency;
+        this.pageLoadLatency = pageLoadLatency;
+        this.responseCaptureLookupLatency = responseCaptureLookupLatency;
+        this.callbackLatency = callbackLatency;
+    }
+
+    /**
+     * Returns the number of crawl candidates processed per second in the last minute.
+     *
+     * @return the number of crawl candidates processed per second in the last minute
+     */
+    public double getThroughputLastMinute() {
+        return throughputLastMinute;
+    }
+
+    /**
+     * Returns the number of crawl candidates processed per second in the last 5 minutes.
+     *
+     * @return the number of crawl candidates processed per second in the last 5 minutes
+     */
+    public double getThroughputLast5Minutes() {
+        return throughputLast5Minutes;
+    }
+
+    /**
+     * Returns the number of crawl candidates processed per second in the last 15 minutes.
+     *
+     * @return the number of crawl candidates processed per second in the last 15 minutes
+     */
+    public double getThroughputLast15Minutes() {
+        return throughputLast15Minutes;
+    }
+
+    /**
+     * Returns the latencies of the HTTP HEAD requests.
+     *
+     * @return the latencies of the HTTP HEAD requests
+     */
+    public LatencyStats getHeadRequestLatency() {
+        return headRequestLatency;
+    }
+
+    /**
+     * Returns the latencies of the page loads.
+     *
+     * @return the latencies of the page loads
+     */
+    public LatencyStats getPageLoadLatency() {
+        return pageLoadLatency;
+    }
+
+    /**
+     * Returns the latencies of the captured response lookups.
+     *
+     * @return the latencies of the captured response lookups
+     */
+    public LatencyStats getResponseCaptureLookupLatency() {
+        return responseCaptureLookupLatency;
+    }
+
+    /**
+     * Returns the latencies of the callbacks.
+     *
+     * @return the latencies of the callbacks
+     */
+    public LatencyStats getCallbackLatency() {
+        return callbackLatency;
+    }
+}
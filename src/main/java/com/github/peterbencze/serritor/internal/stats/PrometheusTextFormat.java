@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.stats;
+
+/**
+ * Writes metrics in the Prometheus text exposition format. The text is appended to a reusable
+ * buffer, and numbers are appended without creating intermediate strings, so the same instance
+ * can be used for each scrape without allocating new objects. This class is not thread-safe.
+ */
+public final class PrometheusTextFormat {
+
+    /**
+     * The content type of the Prometheus text exposition format.
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    private final StringBuilder text;
+
+    private boolean hasLabels;
+
+    /**
+     * Creates a {@link PrometheusTextFormat} instance.
+     */
+    public PrometheusTextFormat() {
+        text = new StringBuilder(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Writes the help text and the type of a metric family.
+     *
+     * @param name the name of the metric family
+     * @param type the type of the metric family (counter, gauge, summary, etc.)
+     * @param help the description of the metric family
+     *
+     * @return the <code>PrometheusTextFormat</code> instance
+     */
+    public PrometheusTextFormat metadata(final String name, final String type, final String help) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    /**
+     * Starts a sample of a metric. The labels of the sample can be written after this, and the
+     * sample has to be completed by writing its value.
+     *
+     * @param name the name of the metric
+     *
+     * @return the <code>PrometheusTextFormat</code> instance
+     */
+    public PrometheusTextFormat sample(final String name) {
+        text.append(name);
+        hasLabels = false;
+        return this;
+    }
+
+    /**
+     * Writes a label of the current sample.
+     *
+     * @param name  the name of the label
+     * @param value the value of the label
+     *
+     * @return the <code>PrometheusTextFormat</code> instance
+     */
+    public PrometheusTextFormat label(final String name, final String value) {
+        text.append(hasLabels ? ',' : '{').append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            if (character == '\\' || character == '"') {
+                text.append('\\').append(character);
+            } else if (character == '\n') {
+                text.append("\\n");
+            } else {
+                text.append(character);
+            }
+        }
+
+        text.append('"');
+        hasLabels = true;
+        return this;
+    }
+
+    /**
+     * Writes the value of the current sample and completes it.
+     *
+     * @param value the value of the sample
+     *
+     * @return the <code>PrometheusTextFormat</code> instance
+     */
+    public PrometheusTextFormat value(final long value) {
+        closeLabels();
+        text.append(' ').append(value).append('\n');
+        return this;
+    }
+
+    /**
+     * Writes the value of the current sample and completes it.
+     *
+     * @param value the value of the sample
+     *
+     * @return the <code>PrometheusTextFormat</code> instance
+     */
+    public PrometheusTextFormat value(final double value) {
+        closeLabels();
+        text.append(' ');
+        if (Double.isInfinite(value)) {
+            text.append(value > 0 ? "+Inf" : "-Inf");
+        } else {
+            text.append(value);
+        }
+
+        text.append('\n');
+        return this;
+    }
+
+    /**
+     * Returns the text written since the last reset.
+     *
+     * @return the text written since the last reset
+     */
+    public CharSequence getText() {
+        return text;
+    }
+
+    /**
+     * Clears the written text, so the buffer can be reused.
+     */
+    public void reset() {
+        text.setLength(0);
+        hasLabels = false;
+    }
+
+    /**
+     * Closes the label set of the current sample, if it has any labels.
+     */
+    private void closeLabels() {
+        if (hasLabels) {
+            text.append('}');
+            hasLabels = false;
+        }
+    }
+}
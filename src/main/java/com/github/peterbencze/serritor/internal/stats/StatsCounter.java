@@ -16,34 +16,51 @@
 
 package com.github.peterbencze.serritor.internal.stats;
 
-import com.github.peterbencze.serritor.internal.util.FunctionalReentrantReadWriteLock;
 import java.io.Serializable;
-import org.apache.commons.lang3.Validate;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Accumulates statistics during the operation of the crawler.
+ * Accumulates statistics during the operation of the crawler. The counters are lock-free: each
+ * event updates a single {@link LongAdder}, and the number of processed and remaining crawl
+ * candidates are derived from the other counters. This way, the counters can be read at any time
+ * without blocking the workers. The counters are read one after another, so values read while the
+ * workers record events do not belong to a single point in time. Each of them is at least as
+ * recent as the start of the read, and the derived number of remaining crawl candidates is
+ * clamped at zero.
  */
 public final class StatsCounter implements Serializable {
 
-    private final FunctionalReentrantReadWriteLock lock;
-
-    private int remainingCrawlCandidateCount;
-    private int processedCrawlCandidateCount;
-    private int responseSuccessCount;
-    private int pageLoadTimeoutCount;
-    private int requestRedirectCount;
-    private int nonHtmlResponseCount;
-    private int responseErrorCount;
-    private int networkErrorCount;
-    private int filteredDuplicateRequestCount;
-    private int filteredOffsiteRequestCount;
-    private int filteredCrawlDepthLimitExceedingRequestCount;
+    private static final long serialVersionUID = 1L;
+
+    private final LongAdder addedCrawlCandidateCount;
+    private final LongAdder responseSuccessCount;
+    private final LongAdder pageLoadTimeoutCount;
+    private final LongAdder requestRedirectCount;
+    private final LongAdder nonHtmlResponseCount;
+    private final LongAdder responseErrorCount;
+    private final LongAdder networkErrorCount;
+    private final LongAdder filteredDuplicateRequestCount;
+    private final LongAdder filteredOffsiteRequestCount;
+    private final LongAdder filteredCrawlDepthLimitExceedingRequestCount;
+    private final LongAdder blockedSubresourceCount;
+    private final LongAdder blockedSubresourceByteCount;
 
     /**
      * Creates a {@link StatsCounter} instance.
      */
     public StatsCounter() {
-        lock = new FunctionalReentrantReadWriteLock();
+        addedCrawlCandidateCount = new LongAdder();
+        responseSuccessCount = new LongAdder();
+        pageLoadTimeoutCount = new LongAdder();
+        requestRedirectCount = new LongAdder();
+        nonHtmlResponseCount = new LongAdder();
+        responseErrorCount = new LongAdder();
+        networkErrorCount = new LongAdder();
+        filteredDuplicateRequestCount = new LongAdder();
+        filteredOffsiteRequestCount = new LongAdder();
+        filteredCrawlDepthLimitExceedingRequestCount = new LongAdder();
+        blockedSubresourceCount = new LongAdder();
+        blockedSubresourceByteCount = new LongAdder();
     }
 
     /**
@@ -51,8 +68,8 @@ public final class StatsCounter implements Serializable {
      *
      * @return the number of remaining crawl candidates
      */
-    public int getRemainingCrawlCandidateCount() {
-        return lock.readWithLock(() -> remainingCrawlCandidateCount);
+    public long getRemainingCrawlCandidateCount() {
+        return calculateRemainingCrawlCandidateCount(getProcessedCrawlCandidateCount());
     }
 
     /**
@@ -60,7 +77,7 @@ public final class StatsCounter implements Serializable {
      * the crawl frontier.
      */
     public void recordRemainingCrawlCandidate() {
-        lock.writeWithLock(() -> ++remainingCrawlCandidateCount);
+        addedCrawlCandidateCount.increment();
     }
 
     /**
@@ -68,8 +85,13 @@ public final class StatsCounter implements Serializable {
      *
      * @return the number of processed crawl candidates
      */
-    public int getProcessedCrawlCandidateCount() {
-        return lock.readWithLock(() -> processedCrawlCandidateCount);
+    public long getProcessedCrawlCandidateCount() {
+        return responseSuccessCount.sum()
+                + pageLoadTimeoutCount.sum()
+                + requestRedirectCount.sum()
+                + nonHtmlResponseCount.sum()
+                + responseErrorCount.sum()
+                + networkErrorCount.sum();
     }
 
     /**
@@ -79,20 +101,15 @@ public final class StatsCounter implements Serializable {
      * @return the number of responses received during the crawl, whose HTTP status code indicated
      *         success (2xx)
      */
-    public int getResponseSuccessCount() {
-        return lock.readWithLock(() -> responseSuccessCount);
+    public long getResponseSuccessCount() {
+        return responseSuccessCount.sum();
     }
 
     /**
      * Records the receipt of a response whose HTTP status code indicates success (2xx).
      */
     public void recordResponseSuccess() {
-        lock.writeWithLock(() -> {
-            decrementRemainingCrawlCandidateCount();
-
-            ++responseSuccessCount;
-            incrementProcessedCrawlCandidateCount();
-        });
+        responseSuccessCount.increment();
     }
 
     /**
@@ -100,20 +117,15 @@ public final class StatsCounter implements Serializable {
      *
      * @return the number of page load timeouts that occurred during the crawl
      */
-    public int getPageLoadTimeoutCount() {
-        return lock.readWithLock(() -> pageLoadTimeoutCount);
+    public long getPageLoadTimeoutCount() {
+        return pageLoadTimeoutCount.sum();
     }
 
     /**
      * Records a page load timeout.
      */
     public void recordPageLoadTimeout() {
-        lock.writeWithLock(() -> {
-            decrementRemainingCrawlCandidateCount();
-
-            ++pageLoadTimeoutCount;
-            incrementProcessedCrawlCandidateCount();
-        });
+        pageLoadTimeoutCount.increment();
     }
 
     /**
@@ -121,20 +133,15 @@ public final class StatsCounter implements Serializable {
      *
      * @return the number of request redirects that occurred during the crawl
      */
-    public int getRequestRedirectCount() {
-        return lock.readWithLock(() -> requestRedirectCount);
+    public long getRequestRedirectCount() {
+        return requestRedirectCount.sum();
     }
 
     /**
      * Records a request redirect.
      */
     public void recordRequestRedirect() {
-        lock.writeWithLock(() -> {
-            decrementRemainingCrawlCandidateCount();
-
-            ++requestRedirectCount;
-            incrementProcessedCrawlCandidateCount();
-        });
+        requestRedirectCount.increment();
     }
 
     /**
@@ -142,20 +149,15 @@ public final class StatsCounter implements Serializable {
      *
      * @return the number of responses received with non-HTML content
      */
-    public int getNonHtmlResponseCount() {
-        return lock.readWithLock(() -> nonHtmlResponseCount);
+    public long getNonHtmlResponseCount() {
+        return nonHtmlResponseCount.sum();
     }
 
     /**
      * Records the receipt of a response with non-HTML content.
      */
     public void recordNonHtmlResponse() {
-        lock.writeWithLock(() -> {
-            decrementRemainingCrawlCandidateCount();
-
-            ++nonHtmlResponseCount;
-            incrementProcessedCrawlCandidateCount();
-        });
+        nonHtmlResponseCount.increment();
     }
 
     /**
@@ -165,20 +167,15 @@ public final class StatsCounter implements Serializable {
      * @return the number of responses received during the crawl, whose HTTP status code indicated
      *         error (4xx or 5xx)
      */
-    public int getResponseErrorCount() {
-        return lock.readWithLock(() -> responseErrorCount);
+    public long getResponseErrorCount() {
+        return responseErrorCount.sum();
     }
 
     /**
      * Records the receipt of a response whose HTTP status code indicates error (4xx or 5xx).
      */
     public void recordResponseError() {
-        lock.writeWithLock(() -> {
-            decrementRemainingCrawlCandidateCount();
-
-            ++responseErrorCount;
-            incrementProcessedCrawlCandidateCount();
-        });
+        responseErrorCount.increment();
     }
 
     /**
@@ -186,8 +183,8 @@ public final class StatsCounter implements Serializable {
      *
      * @return the number of network errors that occurred during the crawl
      */
-    public int getNetworkErrorCount() {
-        return lock.readWithLock(() -> networkErrorCount);
+    public long getNetworkErrorCount() {
+        return networkErrorCount.sum();
     }
 
     /**
@@ -195,12 +192,7 @@ public final class StatsCounter implements Serializable {
      * fulfill a request.
      */
     public void recordNetworkError() {
-        lock.writeWithLock(() -> {
-            decrementRemainingCrawlCandidateCount();
-
-            ++networkErrorCount;
-            incrementProcessedCrawlCandidateCount();
-        });
+        networkErrorCount.increment();
     }
 
     /**
@@ -208,8 +200,8 @@ public final class StatsCounter implements Serializable {
      *
      * @return the number of filtered duplicate requests
      */
-    public int getFilteredDuplicateRequestCount() {
-        return lock.readWithLock(() -> filteredDuplicateRequestCount);
+    public long getFilteredDuplicateRequestCount() {
+        return filteredDuplicateRequestCount.sum();
     }
 
     /**
@@ -217,7 +209,7 @@ public final class StatsCounter implements Serializable {
      * enabled and a duplicate request is encountered.
      */
     public void recordDuplicateRequest() {
-        lock.writeWithLock(() -> ++filteredDuplicateRequestCount);
+        filteredDuplicateRequestCount.increment();
     }
 
     /**
@@ -225,8 +217,8 @@ public final class StatsCounter implements Serializable {
      *
      * @return the number of filtered offsite requests
      */
-    public int getFilteredOffsiteRequestCount() {
-        return lock.readWithLock(() -> filteredOffsiteRequestCount);
+    public long getFilteredOffsiteRequestCount() {
+        return filteredOffsiteRequestCount.sum();
     }
 
     /**
@@ -234,7 +226,7 @@ public final class StatsCounter implements Serializable {
      * and an offsite request is encountered.
      */
     public void recordOffsiteRequest() {
-        lock.writeWithLock(() -> ++filteredOffsiteRequestCount);
+        filteredOffsiteRequestCount.increment();
     }
 
     /**
@@ -242,8 +234,8 @@ public final class StatsCounter implements Serializable {
      *
      * @return the number of filtered crawl depth limit exceeding requests
      */
-    public int getFilteredCrawlDepthLimitExceedingRequestCount() {
-        return lock.readWithLock(() -> filteredCrawlDepthLimitExceedingRequestCount);
+    public long getFilteredCrawlDepthLimitExceedingRequestCount() {
+        return filteredCrawlDepthLimitExceedingRequestCount.sum();
     }
 
     /**
@@ -251,51 +243,111 @@ public final class StatsCounter implements Serializable {
      * is set and the request's crawl depth exceeds this limit.
      */
     public void recordCrawlDepthLimitExceedingRequest() {
-        lock.writeWithLock(() -> ++filteredCrawlDepthLimitExceedingRequestCount);
+        filteredCrawlDepthLimitExceedingRequestCount.increment();
     }
 
     /**
-     * Returns a snapshot of this counter's values.
+     * Returns the number of subresources blocked by the internal proxy server.
+     *
+     * @return the number of blocked subresources
+     */
+    public long getBlockedSubresourceCount() {
+        return blockedSubresourceCount.sum();
+    }
+
+    /**
+     * Returns the number of bytes saved by blocking subresources. Only the size of the responses
+     * blocked by MIME type is known (from their Content-Length header), the subresources blocked
+     * by file extension or host never reach the network.
+     *
+     * @return the number of bytes saved by blocking subresources
+     */
+    public long getBlockedSubresourceByteCount() {
+        return blockedSubresourceByteCount.sum();
+    }
+
+    /**
+     * Records a blocked subresource. This should be called when the internal proxy server blocks
+     * a subresource according to the subresource blocking rules.
+     *
+     * @param byteCount the number of bytes saved by blocking the subresource, or 0 if unknown
+     */
+    public void recordBlockedSubresource(final long byteCount) {
+        blockedSubresourceCount.increment();
+        blockedSubresourceByteCount.add(byteCount);
+    }
+
+    /**
+     * Returns a snapshot of this counter's values. The snapshot is taken without blocking the
+     * workers that update the counters, so it is not a point-in-time snapshot: events recorded
+     * while it is taken may be included in some of its values, but not in others.
      *
      * @return a snapshot of this counter's values
      */
     public StatsCounterSnapshot getSnapshot() {
-        return lock.readWithLock(() -> new StatsCounterSnapshot(this));
+        return new StatsCounterSnapshot(this);
     }
 
     /**
-     * Resets stats counter to its initial state.
+     * Restores the values of the stats counter from a checkpoint. This must not be called
+     * concurrently with the methods that record events.
+     *
+     * @param snapshot                     the values of the stats counter at the checkpoint
+     * @param remainingCrawlCandidateCount the number of crawl candidates restored to the crawl
+     *                                     frontier
      */
-    public void reset() {
-        lock.writeWithLock(() -> {
-            remainingCrawlCandidateCount = 0;
-            processedCrawlCandidateCount = 0;
-            responseSuccessCount = 0;
-            pageLoadTimeoutCount = 0;
-            requestRedirectCount = 0;
-            nonHtmlResponseCount = 0;
-            responseErrorCount = 0;
-            networkErrorCount = 0;
-            filteredDuplicateRequestCount = 0;
-            filteredOffsiteRequestCount = 0;
-            filteredCrawlDepthLimitExceedingRequestCount = 0;
-        });
+    public void restore(
+            final StatsCounterSnapshot snapshot,
+            final long remainingCrawlCandidateCount) {
+        reset();
+
+        addedCrawlCandidateCount.add(remainingCrawlCandidateCount
+                + snapshot.getProcessedCrawlCandidateCount());
+        responseSuccessCount.add(snapshot.getResponseSuccessCount());
+        pageLoadTimeoutCount.add(snapshot.getPageLoadTimeoutCount());
+        requestRedirectCount.add(snapshot.getRequestRedirectCount());
+        nonHtmlResponseCount.add(snapshot.getNonHtmlResponseCount());
+        responseErrorCount.add(snapshot.getResponseErrorCount());
+        networkErrorCount.add(snapshot.getNetworkErrorCount());
+        filteredDuplicateRequestCount.add(snapshot.getFilteredDuplicateRequestCount());
+        filteredOffsiteRequestCount.add(snapshot.getFilteredOffsiteRequestCount());
+        filteredCrawlDepthLimitExceedingRequestCount.add(
+                snapshot.getFilteredCrawlDepthLimitExceedingRequestCount());
+        blockedSubresourceCount.add(snapshot.getBlockedSubresourceCount());
+        blockedSubresourceByteCount.add(snapshot.getBlockedSubresourceByteCount());
     }
 
     /**
-     * Increments the number of processed crawl candidates.
+     * Resets stats counter to its initial state. This must not be called concurrently with the
+     * methods that record events.
      */
-    private void incrementProcessedCrawlCandidateCount() {
-        ++processedCrawlCandidateCount;
+    public void reset() {
+        addedCrawlCandidateCount.reset();
+        responseSuccessCount.reset();
+        pageLoadTimeoutCount.reset();
+        requestRedirectCount.reset();
+        nonHtmlResponseCount.reset();
+        responseErrorCount.reset();
+        networkErrorCount.reset();
+        filteredDuplicateRequestCount.reset();
+        filteredOffsiteRequestCount.reset();
+        filteredCrawlDepthLimitExceedingRequestCount.reset();
+        blockedSubresourceCount.reset();
+        blockedSubresourceByteCount.reset();
     }
 
     /**
-     * Decrements the number of remaining crawl candidates. This number cannot be negative.
+     * Calculates the number of remaining crawl candidates from the number of processed ones. The
+     * number of added crawl candidates is read after the processed ones, since a candidate is
+     * usually added before it is processed. The added candidates can still fall behind, for
+     * example, when the candidates come from a store which was not counted when it was opened, so
+     * the result is clamped at zero.
+     *
+     * @param processedCrawlCandidateCount the number of processed crawl candidates
+     *
+     * @return the number of remaining crawl candidates
      */
-    private void decrementRemainingCrawlCandidateCount() {
-        Validate.validState(remainingCrawlCandidateCount > 0,
-                "The number of remaining crawl candidates cannot be negative.");
-
-        --remainingCrawlCandidateCount;
+    long calculateRemainingCrawlCandidateCount(final long processedCrawlCandidateCount) {
+        return Math.max(addedCrawlCandidateCount.sum() - processedCrawlCandidateCount, 0);
     }
 }
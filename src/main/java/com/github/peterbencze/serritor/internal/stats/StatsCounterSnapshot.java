@@ -21,17 +21,19 @@ package com.github.peterbencze.serritor.internal.stats;
  */
 public final class StatsCounterSnapshot {
 
-    private final int remainingCrawlCandidateCount;
-    private final int processedCrawlCandidateCount;
-    private final int responseSuccessCount;
-    private final int pageLoadTimeoutCount;
-    private final int requestRedirectCount;
-    private final int nonHtmlResponseCount;
-    private final int responseErrorCount;
-    private final int networkErrorCount;
-    private final int filteredDuplicateRequestCount;
-    private final int filteredOffsiteRequestCount;
-    private final int filteredCrawlDepthLimitExceedingRequestCount;
+    private final long remainingCrawlCandidateCount;
+    private final long processedCrawlCandidateCount;
+    private final long responseSuccessCount;
+    private final long pageLoadTimeoutCount;
+    private final long requestRedirectCount;
+    private final long nonHtmlResponseCount;
+    private final long responseErrorCount;
+    private final long networkErrorCount;
+    private final long filteredDuplicateRequestCount;
+    private final long filteredOffsiteRequestCount;
+    private final long filteredCrawlDepthLimitExceedingRequestCount;
+    private final long blockedSubresourceCount;
+    private final long blockedSubresourceByteCount;
 
     /**
      * Creates a {@link StatsCounterSnapshot} instance.
@@ -39,18 +41,24 @@ public final class StatsCounterSnapshot {
      * @param statsCounter the stats counter object to create the snapshot from
      */
     public StatsCounterSnapshot(final StatsCounter statsCounter) {
-        remainingCrawlCandidateCount = statsCounter.getRemainingCrawlCandidateCount();
-        processedCrawlCandidateCount = statsCounter.getProcessedCrawlCandidateCount();
+        // The outcomes are read before the added candidates, which are usually added first
         responseSuccessCount = statsCounter.getResponseSuccessCount();
         pageLoadTimeoutCount = statsCounter.getPageLoadTimeoutCount();
         requestRedirectCount = statsCounter.getRequestRedirectCount();
         nonHtmlResponseCount = statsCounter.getNonHtmlResponseCount();
         responseErrorCount = statsCounter.getResponseErrorCount();
         networkErrorCount = statsCounter.getNetworkErrorCount();
+        processedCrawlCandidateCount = responseSuccessCount + pageLoadTimeoutCount
+                + requestRedirectCount + nonHtmlResponseCount + responseErrorCount
+                + networkErrorCount;
+        remainingCrawlCandidateCount =
+                statsCounter.calculateRemainingCrawlCandidateCount(processedCrawlCandidateCount);
         filteredDuplicateRequestCount = statsCounter.getFilteredDuplicateRequestCount();
         filteredOffsiteRequestCount = statsCounter.getFilteredOffsiteRequestCount();
         filteredCrawlDepthLimitExceedingRequestCount =
                 statsCounter.getFilteredCrawlDepthLimitExceedingRequestCount();
+        blockedSubresourceCount = statsCounter.getBlockedSubresourceCount();
+        blockedSubresourceByteCount = statsCounter.getBlockedSubresourceByteCount();
     }
 
     /**
@@ -58,7 +66,7 @@ public final class StatsCounterSnapshot {
      *
      * @return the number of remaining crawl candidates
      */
-    public int getRemainingCrawlCandidateCount() {
+    public long getRemainingCrawlCandidateCount() {
         return remainingCrawlCandidateCount;
     }
 
@@ -67,7 +75,7 @@ public final class StatsCounterSnapshot {
      *
      * @return the number of processed crawl candidates
      */
-    public int getProcessedCrawlCandidateCount() {
+    public long getProcessedCrawlCandidateCount() {
         return processedCrawlCandidateCount;
     }
 
@@ -78,7 +86,7 @@ public final class StatsCounterSnapshot {
      * @return the number of responses received during the crawl, whose HTTP status code indicated
      *         success (2xx)
      */
-    public int getResponseSuccessCount() {
+    public long getResponseSuccessCount() {
         return responseSuccessCount;
     }
 
@@ -87,7 +95,7 @@ public final class StatsCounterSnapshot {
      *
      * @return the number of page load timeouts that occurred during the crawl
      */
-    public int getPageLoadTimeoutCount() {
+    public long getPageLoadTimeoutCount() {
         return pageLoadTimeoutCount;
     }
 
@@ -96,7 +104,7 @@ public final class StatsCounterSnapshot {
      *
      * @return the number of request redirects that occurred during the crawl.
      */
-    public int getRequestRedirectCount() {
+    public long getRequestRedirectCount() {
         return requestRedirectCount;
     }
 
@@ -105,7 +113,7 @@ public final class StatsCounterSnapshot {
      *
      * @return the number of responses received with non-HTML content
      */
-    public int getNonHtmlResponseCount() {
+    public long getNonHtmlResponseCount() {
         return nonHtmlResponseCount;
     }
 
@@ -116,7 +124,7 @@ public final class StatsCounterSnapshot {
      * @return the number of responses received during the crawl, whose HTTP status code indicated
      *         error (4xx or 5xx)
      */
-    public int getResponseErrorCount() {
+    public long getResponseErrorCount() {
         return responseErrorCount;
     }
 
@@ -125,7 +133,7 @@ public final class StatsCounterSnapshot {
      *
      * @return the number of network errors that occurred during the crawl
      */
-    public int getNetworkErrorCount() {
+    public long getNetworkErrorCount() {
         return networkErrorCount;
     }
 
@@ -134,7 +142,7 @@ public final class StatsCounterSnapshot {
      *
      * @return the number of filtered duplicate requests
      */
-    public int getFilteredDuplicateRequestCount() {
+    public long getFilteredDuplicateRequestCount() {
         return filteredDuplicateRequestCount;
     }
 
@@ -143,7 +151,7 @@ public final class StatsCounterSnapshot {
      *
      * @return the number of filtered offsite requests
      */
-    public int getFilteredOffsiteRequestCount() {
+    public long getFilteredOffsiteRequestCount() {
         return filteredOffsiteRequestCount;
     }
 
@@ -152,7 +160,27 @@ public final class StatsCounterSnapshot {
      *
      * @return the number of filtered crawl depth limit exceeding requests
      */
-    public int getFilteredCrawlDepthLimitExceedingRequestCount() {
+    public long getFilteredCrawlDepthLimitExceedingRequestCount() {
         return filteredCrawlDepthLimitExceedingRequestCount;
     }
+
+    /**
+     * Returns the number of subresources blocked by the internal proxy server.
+     *
+     * @return the number of blocked subresources
+     */
+    public long getBlockedSubresourceCount() {
+        return blockedSubresourceCount;
+    }
+
+    /**
+     * Returns the number of bytes saved by blocking subresources. Only the size of the responses
+     * blocked by MIME type is known (from their Content-Length header), the subresources blocked
+     * by file extension or host never reach the network.
+     *
+     * @return the number of bytes saved by blocking subresources
+     */
+    public long getBlockedSubresourceByteCount() {
+        return blockedSubresourceByteCount;
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.stats;
+
+import com.github.peterbencze.serritor.internal.util.FunctionalReentrantReadWriteLock;
+import com.github.peterbencze.serritor.internal.util.stopwatch.TimeSource;
+import com.github.peterbencze.serritor.internal.util.stopwatch.UtcTimeSource;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Measures the rate of events over sliding time windows. The events are counted in one-second
+ * slots of a ring buffer which covers the longest supported window.
+ */
+public final class ThroughputMeter {
+
+    static final int MAX_WINDOW_IN_SECONDS = 15 * 60;
+
+    private final FunctionalReentrantReadWriteLock lock;
+    private final TimeSource timeSource;
+    private final long[] slotCounts;
+    private final long[] slotSeconds;
+
+    private long startSecond;
+
+    /**
+     * Creates a {@link ThroughputMeter} instance.
+     *
+     * @param timeSource a source providing access to the current instant
+     */
+    public ThroughputMeter(final TimeSource timeSource) {
+        this.timeSource = timeSource;
+        lock = new FunctionalReentrantReadWriteLock();
+        slotCounts = new long[MAX_WINDOW_IN_SECONDS];
+        slotSeconds = new long[MAX_WINDOW_IN_SECONDS];
+        reset();
+    }
+
+    /**
+     * Creates a {@link ThroughputMeter} instance.
+     */
+    public ThroughputMeter() {
+        this(new UtcTimeSource());
+    }
+
+    /**
+     * Records an event.
+     */
+    public void recordEvent() {
+        lock.writeWithLock(() -> {
+            long currentSecond = getCurrentSecond();
+            int slot = (int) (currentSecond % MAX_WINDOW_IN_SECONDS);
+            if (slotSeconds[slot] != currentSecond) {
+                slotSeconds[slot] = currentSecond;
+                slotCounts[slot] = 0;
+            }
+
+            slotCounts[slot]++;
+        });
+    }
+
+    /**
+     * Returns the number of events per second in the given window. If the meter was reset less
+     * than the window size ago, the rate is calculated over the elapsed time only.
+     *
+     * @param windowInSeconds the size of the window in seconds
+     *
+     * @return the number of events per second in the given window
+     */
+    public double getRate(final int windowInSeconds) {
+        Validate.inclusiveBetween(1, MAX_WINDOW_IN_SECONDS, windowInSeconds,
+                "The windowInSeconds parameter must be between 1 and "
+                        + MAX_WINDOW_IN_SECONDS + ".");
+
+        return lock.readWithLock(() -> {
+            long currentSecond = getCurrentSecond();
+            long eventCount = 0;
+            for (int i = 0; i < MAX_WINDOW_IN_SECONDS; i++) {
+                if (slotSeconds[i] <= currentSecond
+                        && currentSecond - slotSeconds[i] < windowInSeconds) {
+                    eventCount += slotCounts[i];
+                }
+            }
+
+            long elapsedSeconds = Math.max(currentSecond - startSecond + 1, 1);
+            return (double) eventCount / Math.min(windowInSeconds, elapsedSeconds);
+        });
+    }
+
+    /**
+     * Resets the meter.
+     */
+    public void reset() {
+        lock.writeWithLock(() -> {
+            for (int i = 0; i < MAX_WINDOW_IN_SECONDS; i++) {
+                slotCounts[i] = 0;
+                slotSeconds[i] = Long.MIN_VALUE;
+            }
+
+            startSecond = getCurrentSecond();
+        });
+    }
+
+    /**
+     * Returns the current time in epoch seconds.
+     *
+     * @return the current time in epoch seconds
+     */
+    private long getCurrentSecond() {
+        return timeSource.getTime().getEpochSecond();
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * An Aho-Corasick automaton which finds all the occurrences of a set of keywords in a text with a
+ * single pass over the text, regardless of the number of keywords. The transitions of each state
+ * are stored in sorted arrays, so the automaton stays compact even with thousands of keywords.
+ * This class is immutable and thread-safe.
+ */
+public final class AhoCorasickAutomaton {
+
+    private static final int ROOT = 0;
+    private static final int NO_STATE = -1;
+
+    private final char[][] transitionChars;
+    private final int[][] transitionStates;
+    private final int[] failureStates;
+    private final int[][] outputs;
+
+    /**
+     * Creates a {@link AhoCorasickAutomaton} instance.
+     *
+     * @param keywords the keywords to search for, which are identified by their index in the list
+     */
+    public AhoCorasickAutomaton(final List<String> keywords) {
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> keywordsByState = new ArrayList<>();
+        addState(trie, keywordsByState);
+
+        for (int keywordIndex = 0; keywordIndex < keywords.size(); keywordIndex++) {
+            String keyword = keywords.get(keywordIndex);
+
+            int state = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                Integer nextState = trie.get(state).get(keyword.charAt(i));
+                if (nextState == null) {
+                    nextState = addState(trie, keywordsByState);
+                    trie.get(state).put(keyword.charAt(i), nextState);
+                }
+
+                state = nextState;
+            }
+
+            keywordsByState.get(state).add(keywordIndex);
+        }
+
+        int stateCount = trie.size();
+        transitionChars = new char[stateCount][];
+        transitionStates = new int[stateCount][];
+        for (int state = 0; state < stateCount; state++) {
+            Map<Character, Integer> transitions = trie.get(state);
+            transitionChars[state] = new char[transitions.size()];
+            transitionStates[state] = new int[transitions.size()];
+
+            // The tree map keeps the transitions sorted by their characters
+            int i = 0;
+            for (Map.Entry<Character, Integer> transition : transitions.entrySet()) {
+                transitionChars[state][i] = transition.getKey();
+                transitionStates[state][i] = transition.getValue();
+                i++;
+            }
+        }
+
+        failureStates = new int[stateCount];
+        outputs = new int[stateCount][];
+        outputs[ROOT] = toArray(keywordsByState.get(ROOT));
+        buildFailureStates(keywordsByState);
+    }
+
+    /**
+     * Finds the keywords which occur in the given text and sets the bits of their indices in the
+     * result.
+     *
+     * @param text   the text to search in
+     * @param result the set of keyword indices to add the found keywords to
+     */
+    public void findKeywords(final CharSequence text, final BitSet result) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = nextState(state, text.charAt(i));
+
+            for (int keywordIndex : outputs[state]) {
+                result.set(keywordIndex);
+            }
+        }
+    }
+
+    /**
+     * Returns the state which the automaton moves to from the given state when reading the
+     * character, following the failure states if necessary.
+     *
+     * @param state     the current state
+     * @param character the character read
+     *
+     * @return the next state
+     */
+    private int nextState(final int state, final char character) {
+        int currentState = state;
+        while (true) {
+            int nextState = getTransition(currentState, character);
+            if (nextState != NO_STATE) {
+                return nextState;
+            }
+
+            if (currentState == ROOT) {
+                return ROOT;
+            }
+
+            currentState = failureStates[currentState];
+        }
+    }
+
+    /**
+     * Returns the state reachable from the given state with the character in the trie.
+     *
+     * @param state     the state
+     * @param character the character
+     *
+     * @return the reachable state, or {@link #NO_STATE} if there is no such transition
+     */
+    private int getTransition(final int state, final char character) {
+        int index = Arrays.binarySearch(transitionChars[state], character);
+        return index >= 0 ? transitionStates[state][index] : NO_STATE;
+    }
+
+    /**
+     * Calculates the failure state of each state in breadth-first order, and merges the outputs
+     * of the failure states into the outputs of the states.
+     *
+     * @param keywordsByState the indices of the keywords which end in each state
+     */
+    private void buildFailureStates(final List<List<Integer>> keywordsByState) {
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int childState : transitionStates[ROOT]) {
+            failureStates[childState] = ROOT;
+            outputs[childState] = toArray(keywordsByState.get(childState));
+            queue.add(childState);
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+
+            for (int i = 0; i < transitionChars[state].length; i++) {
+                char character = transitionChars[state][i];
+                int childState = transitionStates[state][i];
+
+                int failureState = nextState(failureStates[state], character);
+                failureStates[childState] = failureState;
+                outputs[childState] = merge(keywordsByState.get(childState),
+                        outputs[failureState]);
+
+                queue.add(childState);
+            }
+        }
+    }
+
+    /**
+     * Adds a new state to the trie under construction.
+     *
+     * @param trie            the transitions of the states
+     * @param keywordsByState the indices of the keywords which end in each state
+     *
+     * @return the new state
+     */
+    private static int addState(
+            final List<TreeMap<Character, Integer>> trie,
+            final List<List<Integer>> keywordsByState) {
+        trie.add(new TreeMap<>());
+        keywordsByState.add(new ArrayList<>());
+        return trie.size() - 1;
+    }
+
+    /**
+     * Merges the keyword indices of a state with the outputs of its failure state.
+     *
+     * @param keywordIndices      the indices of the keywords which end in the state
+     * @param failureStateOutputs the outputs of the failure state
+     *
+     * @return the merged outputs
+     */
+    private static int[] merge(
+            final List<Integer> keywordIndices,
+            final int[] failureStateOutputs) {
+        int[] merged = Arrays.copyOf(failureStateOutputs,
+                failureStateOutputs.length + keywordIndices.size());
+        for (int i = 0; i < keywordIndices.size(); i++) {
+            merged[failureStateOutputs.length + i] = keywordIndices.get(i);
+        }
+
+        return merged;
+    }
+
+    /**
+     * Converts a list of indices to an array.
+     *
+     * @param indices the list of indices
+     *
+     * @return the array of indices
+     */
+    private static int[] toArray(final List<Integer> indices) {
+        return indices.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.util;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.api.CrawlCandidate.CrawlCandidateBuilder;
+import com.github.peterbencze.serritor.api.CrawlRequest;
+import com.github.peterbencze.serritor.api.CrawlRequest.CrawlRequestBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.lang3.SerializationUtils;
+
+/**
+ * Encodes crawl candidates and crawl requests in a compact binary format. Integers are written as
+ * variable-length quantities (signed ones in zigzag encoding), and URLs as length-prefixed UTF-8
+ * strings. Only the metadata of the requests, which can be any serializable object, is written
+ * with Java serialization. When the output is an object stream, the metadata is written through
+ * it, so the class descriptors are shared by the records of the stream. The records carry no
+ * format version, the format is versioned by the container they are written to.
+ */
+public final class BinaryCodec {
+
+    /**
+     * The length of a file header in bytes.
+     */
+    public static final int HEADER_LENGTH = 2 * Integer.BYTES;
+
+    private static final int HAS_REFERER_URL_FLAG = 1;
+    private static final int HAS_METADATA_FLAG = 1 << 1;
+    private static final int VAR_INT_PAYLOAD_MASK = 0x7F;
+    private static final int VAR_INT_CONTINUATION_BIT = 0x80;
+    private static final int VAR_INT_MAX_SHIFT = 28;
+
+    /**
+     * Private constructor to hide the implicit public one.
+     */
+    private BinaryCodec() {
+    }
+
+    /**
+     * Encodes the crawl candidate into a byte array.
+     *
+     * @param candidate the crawl candidate
+     *
+     * @return the encoded crawl candidate
+     */
+    public static byte[] encode(final CrawlCandidate candidate) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try {
+            writeCandidate(new DataOutputStream(outputStream), candidate);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to encode crawl candidate", exception);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Decodes a crawl candidate from the byte array.
+     *
+     * @param data the encoded crawl candidate
+     *
+     * @return the decoded crawl candidate
+     */
+    public static CrawlCandidate decode(final byte[] data) {
+        try {
+            return readCandidate(new DataInputStream(new ByteArrayInputStream(data)));
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to decode crawl candidate", exception);
+        }
+    }
+
+    /**
+     * Writes the crawl candidate to the output.
+     *
+     * @param out       the output to write to
+     * @param candidate the crawl candidate
+     *
+     * @throws IOException if an I/O error occurs while writing
+     */
+    public static void writeCandidate(final DataOutput out, final CrawlCandidate candidate)
+            throws IOException {
+        URI refererUrl = candidate.getRefererUrl();
+        Serializable metadata = candidate.getMetadata().orElse(null);
+
+        out.writeByte((refererUrl != null ? HAS_REFERER_URL_FLAG : 0)
+                | (metadata != null ? HAS_METADATA_FLAG : 0));
+        writeVarInt(out, candidate.getCrawlDepth());
+        if (refererUrl != null) {
+            writeString(out, refererUrl.toString());
+        }
+
+        writeRequestFields(out, candidate.getRequestUrl(), candidate.getPriority(), metadata);
+    }
+
+    /**
+     * Reads a crawl candidate from the input. The input has to be an object stream if the
+     * candidate was written to an object stream, and only then.
+     *
+     * @param in the input to read from
+     *
+     * @return the crawl candidate
+     *
+     * @throws IOException if an I/O error occurs while reading, or the data is corrupt
+     */
+    public static CrawlCandidate readCandidate(final DataInput in) throws IOException {
+        int flags = in.readUnsignedByte();
+        int crawlDepth = readVarInt(in);
+        URI refererUrl = (flags & HAS_REFERER_URL_FLAG) != 0 ? readUrl(in) : null;
+
+        return new CrawlCandidateBuilder(readRequestFields(in, flags))
+                .setRefererUrl(refererUrl)
+                .setCrawlDepth(crawlDepth)
+                .build();
+    }
+
+    /**
+     * Writes the crawl request to the output.
+     *
+     * @param out     the output to write to
+     * @param request the crawl request
+     *
+     * @throws IOException if an I/O error occurs while writing
+     */
+    public static void writeRequest(final DataOutput out, final CrawlRequest request)
+            throws IOException {
+        Serializable metadata = request.getMetadata().orElse(null);
+
+        out.writeByte(metadata != null ? HAS_METADATA_FLAG : 0);
+        writeRequestFields(out, request.getRequestUrl(), request.getPriority(), metadata);
+    }
+
+    /**
+     * Reads a crawl request from the input. The input has to be an object stream if the request
+     * was written to an object stream, and only then.
+     *
+     * @param in the input to read from
+     *
+     * @return the crawl request
+     *
+     * @throws IOException if an I/O error occurs while reading, or the data is corrupt
+     */
+    public static CrawlRequest readRequest(final DataInput in) throws IOException {
+        return readRequestFields(in, in.readUnsignedByte());
+    }
+
+    /**
+     * Writes the header of a file: a magic number which identifies the kind of the file, followed
+     * by the version of its format.
+     *
+     * @param out     the output to write to
+     * @param magic   the magic number of the kind of the file
+     * @param version the version of the format
+     *
+     * @throws IOException if an I/O error occurs while writing
+     */
+    public static void writeHeader(final DataOutput out, final int magic, final int version)
+            throws IOException {
+        out.writeInt(magic);
+        out.writeInt(version);
+    }
+
+    /**
+     * Reads the header written by {@link #writeHeader(DataOutput, int, int)} and checks that it
+     * matches the expected kind of file and format version.
+     *
+     * @param in          the input to read from
+     * @param magic       the expected magic number
+     * @param version     the expected version of the format
+     * @param description the description of the file, which is used in the error messages
+     *
+     * @throws IOException if an I/O error occurs while reading, or the header does not match
+     */
+    public static void readHeader(
+            final DataInput in,
+            final int magic,
+            final int version,
+            final String description) throws IOException {
+        int actualMagic = in.readInt();
+        if (actualMagic != magic) {
+            throw new StreamCorruptedException(String.format(
+                    "Not a %s, unexpected magic number %08x", description, actualMagic));
+        }
+
+        int actualVersion = in.readInt();
+        if (actualVersion != version) {
+            throw new StreamCorruptedException(String.format(
+                    "Unsupported format version %d of %s, expected version %d", actualVersion,
+                    description, version));
+        }
+    }
+
+    /**
+     * Writes the integer as an unsigned variable-length quantity: 7 bits per byte, least
+     * significant group first.
+     *
+     * @param out   the output to write to
+     * @param value the integer to write
+     *
+     * @throws IOException if an I/O error occurs while writing
+     */
+    public static void writeVarInt(final DataOutput out, final int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~VAR_INT_PAYLOAD_MASK) != 0) {
+            out.writeByte((remaining & VAR_INT_PAYLOAD_MASK) | VAR_INT_CONTINUATION_BIT);
+            remaining >>>= 7;
+        }
+
+        out.writeByte(remaining);
+    }
+
+    /**
+     * Reads an integer written by {@link #writeVarInt(DataOutput, int)}.
+     *
+     * @param in the input to read from
+     *
+     * @return the integer
+     *
+     * @throws IOException if an I/O error occurs while reading, or the integer is too long
+     */
+    public static int readVarInt(final DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift <= VAR_INT_MAX_SHIFT; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & VAR_INT_PAYLOAD_MASK) << shift;
+            if ((b & VAR_INT_CONTINUATION_BIT) == 0) {
+                return value;
+            }
+        }
+
+        throw new StreamCorruptedException("Malformed variable-length integer");
+    }
+
+    /**
+     * Writes a signed integer in zigzag encoding, so integers with a small absolute value take a
+     * single byte.
+     *
+     * @param out   the output to write to
+     * @param value the integer to write
+     *
+     * @throws IOException if an I/O error occurs while writing
+     */
+    public static void writeSignedVarInt(final DataOutput out, final int value)
+            throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Reads a signed integer written by {@link #writeSignedVarInt(DataOutput, int)}.
+     *
+     * @param in the input to read from
+     *
+     * @return the integer
+     *
+     * @throws IOException if an I/O error occurs while reading, or the integer is too long
+     */
+    public static int readSignedVarInt(final DataInput in) throws IOException {
+        int value = readVarInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes the byte array prefixed with its length.
+     *
+     * @param out  the output to write to
+     * @param data the byte array to write
+     *
+     * @throws IOException if an I/O error occurs while writing
+     */
+    public static void writeBytes(final DataOutput out, final byte[] data) throws IOException {
+        writeVarInt(out, data.length);
+        out.write(data);
+    }
+
+    /**
+     * Reads a byte array written by {@link #writeBytes(DataOutput, byte[])}.
+     *
+     * @param in the input to read from
+     *
+     * @return the byte array
+     *
+     * @throws IOException if an I/O error occurs while reading, or the length is invalid
+     */
+    public static byte[] readBytes(final DataInput in) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0) {
+            throw new StreamCorruptedException("Invalid byte array length: " + length);
+        }
+
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return data;
+    }
+
+    /**
+     * Writes the string as length-prefixed UTF-8. Unlike {@link DataOutput#writeUTF(String)}, the
+     * length of the string is not limited.
+     *
+     * @param out   the output to write to
+     * @param value the string to write
+     *
+     * @throws IOException if an I/O error occurs while writing
+     */
+    public static void writeString(final DataOutput out, final String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutput, String)}.
+     *
+     * @param in the input to read from
+     *
+     * @return the string
+     *
+     * @throws IOException if an I/O error occurs while reading, or the length is invalid
+     */
+    public static String readString(final DataInput in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the fields of a crawl request which follow the flags.
+     *
+     * @param out        the output to write to
+     * @param requestUrl the request URL
+     * @param priority   the priority of the request
+     * @param metadata   the metadata associated with the request, or <code>null</code> if there
+     *                   is none
+     *
+     * @throws IOException if an I/O error occurs while writing
+     */
+    private static void writeRequestFields(
+            final DataOutput out,
+            final URI requestUrl,
+            final int priority,
+            final Serializable metadata) throws IOException {
+        writeString(out, requestUrl.toString());
+        writeSignedVarInt(out, priority);
+        if (metadata != null) {
+            writeMetadata(out, metadata);
+        }
+    }
+
+    /**
+     * Reads the fields of a crawl request which follow the flags.
+     *
+     * @param in    the input to read from
+     * @param flags the flags which indicate the optional fields
+     *
+     * @return the crawl request
+     *
+     * @throws IOException if an I/O error occurs while reading, or the data is corrupt
+     */
+    private static CrawlRequest readRequestFields(final DataInput in, final int flags)
+            throws IOException {
+        CrawlRequestBuilder builder = new CrawlRequestBuilder(readUrl(in))
+                .setPriority(readSignedVarInt(in));
+        if ((flags & HAS_METADATA_FLAG) != 0) {
+            builder.setMetadata(readMetadata(in));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Reads a URL written as a string.
+     *
+     * @param in the input to read from
+     *
+     * @return the URL
+     *
+     * @throws IOException if an I/O error occurs while reading, or the URL is invalid
+     */
+    private static URI readUrl(final DataInput in) throws IOException {
+        String url = readString(in);
+
+        try {
+            return URI.create(url);
+        } catch (IllegalArgumentException exception) {
+            throw new StreamCorruptedException("Invalid URL: " + url);
+        }
+    }
+
+    /**
+     * Writes the metadata of a crawl request. If the output is an object stream, the metadata is
+     * written through it, otherwise it is serialized into a length-prefixed byte array.
+     *
+     * @param out      the output to write to
+     * @param metadata the metadata associated with the request
+     *
+     * @throws IOException if an I/O error occurs while writing
+     */
+    private static void writeMetadata(final DataOutput out, final Serializable metadata)
+            throws IOException {
+        if (out instanceof ObjectOutput) {
+            ((ObjectOutput) out).writeObject(metadata);
+        } else {
+            writeBytes(out, SerializationUtils.serialize(metadata));
+        }
+    }
+
+    /**
+     * Reads the metadata of a crawl request written by
+     * {@link #writeMetadata(DataOutput, Serializable)}. If the input is an object stream, the
+     * metadata is read through it, so its classes are resolved by the stream.
+     *
+     * @param in the input to read from
+     *
+     * @return the metadata associated with the request
+     *
+     * @throws IOException if an I/O error occurs while reading, or the metadata is corrupt
+     */
+    private static Serializable readMetadata(final DataInput in) throws IOException {
+        if (!(in instanceof ObjectInput)) {
+            return SerializationUtils.deserialize(readBytes(in));
+        }
+
+        try {
+            Object metadata = ((ObjectInput) in).readObject();
+            if (!(metadata instanceof Serializable)) {
+                throw new StreamCorruptedException("Invalid crawl request metadata");
+            }
+
+            return (Serializable) metadata;
+        } catch (ClassNotFoundException exception) {
+            throw new IOException("Failed to read crawl request metadata", exception);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Extracts the attribute values or texts of all the web elements located by the locating
+ * mechanisms with a single script execution in the browser, instead of a separate round trip for
+ * locating the elements and for each element.
+ */
+public final class BulkElementExtractor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkElementExtractor.class);
+
+    // Mirrors WebElement#getAttribute (property first, attribute second) and WebElement#getText
+    private static final String EXTRACTION_JS = "var selectors = arguments[0];"
+            + "var attributeName = arguments[1];"
+            + "var values = [];"
+            + "for (var i = 0; i < selectors.length; i++) {"
+            + "  var elements = document.querySelectorAll(selectors[i]);"
+            + "  for (var j = 0; j < elements.length; j++) {"
+            + "    var element = elements[j];"
+            + "    var value;"
+            + "    if (attributeName === '') {"
+            + "      value = typeof element.innerText === 'string'"
+            + "          ? element.innerText : element.textContent;"
+            + "    } else {"
+            + "      value = element[attributeName];"
+            + "      if (value === undefined || value === null || typeof value === 'object'"
+            + "          || typeof value === 'function') {"
+            + "        value = element.getAttribute(attributeName);"
+            + "      }"
+            + "    }"
+            + "    values.push(value === null || value === undefined ? null : String(value));"
+            + "  }"
+            + "}"
+            + "return values;";
+
+    /**
+     * Private constructor to hide the implicit public one.
+     */
+    private BulkElementExtractor() {
+    }
+
+    /**
+     * Extracts the values of the given attribute of the web elements located by the locating
+     * mechanisms.
+     *
+     * @param webDriver          the <code>WebDriver</code> instance of the loaded page
+     * @param locatingMechanisms the mechanisms to use for locating web elements
+     * @param attributeName      the name of the attribute
+     *
+     * @return the attribute values (<code>null</code> if an element has no such attribute), or
+     *         an empty <code>Optional</code> if the extraction is not possible with this browser
+     *         or locating mechanism
+     */
+    public static Optional<List<String>> extractAttributeValues(
+            final WebDriver webDriver,
+            final Set<By> locatingMechanisms,
+            final String attributeName) {
+        return extract(webDriver, locatingMechanisms, attributeName);
+    }
+
+    /**
+     * Extracts the rendered texts of the web elements located by the locating mechanisms.
+     *
+     * @param webDriver          the <code>WebDriver</code> instance of the loaded page
+     * @param locatingMechanisms the mechanisms to use for locating web elements
+     *
+     * @return the texts of the elements, or an empty <code>Optional</code> if the extraction is
+     *         not possible with this browser or locating mechanism
+     */
+    public static Optional<List<String>> extractTexts(
+            final WebDriver webDriver,
+            final Set<By> locatingMechanisms) {
+        return extract(webDriver, locatingMechanisms, "")
+                .map(texts -> {
+                    texts.replaceAll(text -> text == null ? "" : text.trim());
+                    return texts;
+                });
+    }
+
+    /**
+     * Runs the extraction script in the browser.
+     *
+     * @param webDriver          the <code>WebDriver</code> instance of the loaded page
+     * @param locatingMechanisms the mechanisms to use for locating web elements
+     * @param attributeName      the name of the attribute, or an empty string to extract the
+     *                           texts of the elements (some browsers do not accept
+     *                           <code>null</code> script arguments)
+     *
+     * @return the extracted values, or an empty <code>Optional</code> if the extraction is not
+     *         possible
+     */
+    private static Optional<List<String>> extract(
+            final WebDriver webDriver,
+            final Set<By> locatingMechanisms,
+            final String attributeName) {
+        if (!(webDriver instanceof JavascriptExecutor)) {
+            return Optional.empty();
+        }
+
+        List<String> cssSelectors = new ArrayList<>(locatingMechanisms.size());
+        for (By locatingMechanism : locatingMechanisms) {
+            try {
+                cssSelectors.add(LocatingMechanismConverter.convertToCssSelector(
+                        locatingMechanism));
+            } catch (UnsupportedOperationException exception) {
+                return Optional.empty();
+            }
+        }
+
+        Object result;
+        try {
+            result = ((JavascriptExecutor) webDriver).executeScript(EXTRACTION_JS, cssSelectors,
+                    attributeName);
+        } catch (WebDriverException | UnsupportedOperationException exception) {
+            LOGGER.debug("Bulk element extraction failed", exception);
+            return Optional.empty();
+        }
+
+        if (!(result instanceof List)) {
+            return Optional.empty();
+        }
+
+        List<?> resultValues = (List<?>) result;
+        List<String> values = new ArrayList<>(resultValues.size());
+        for (Object value : resultValues) {
+            values.add(value == null ? null : value.toString());
+        }
+
+        return Optional.of(values);
+    }
+}
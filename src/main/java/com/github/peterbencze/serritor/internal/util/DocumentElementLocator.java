@@ -0,0 +1,247 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+import org.openqa.selenium.By;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.DOMException;
+import org.w3c.dom.NodeList;
+
+/**
+ * Locates elements in a parsed HTML document using Selenium locating mechanisms. The locating
+ * mechanisms which have a CSS equivalent are converted to CSS selectors, the link text based ones
+ * are matched against the text of the links, and XPath expressions are evaluated on a W3C DOM copy
+ * of the document. The copy is created on the first XPath expression and reused for the rest.
+ * Custom locating mechanisms are not supported.
+ */
+public final class DocumentElementLocator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentElementLocator.class);
+    private static final String LINK_TAG_NAME = "a";
+
+    private final Document document;
+
+    private org.w3c.dom.Document w3cDocument;
+    private Map<org.w3c.dom.Node, Element> elementsByW3cElement;
+
+    /**
+     * Creates a {@link DocumentElementLocator} instance.
+     *
+     * @param document the parsed HTML document to locate the elements in
+     */
+    public DocumentElementLocator(final Document document) {
+        this.document = document;
+    }
+
+    /**
+     * Locates the elements matched by the locating mechanism, in document order.
+     *
+     * @param locatingMechanism the locating mechanism
+     *
+     * @return the located elements
+     *
+     * @throws UnsupportedOperationException if the locating mechanism is not supported
+     * @throws IllegalArgumentException      if the XPath expression is invalid
+     */
+    public List<Element> locate(final By locatingMechanism) {
+        if (locatingMechanism instanceof By.ByXPath) {
+            return locateByXPath(LocatingMechanismConverter.getLocatorValue(locatingMechanism));
+        }
+
+        if (locatingMechanism instanceof By.ByLinkText) {
+            String linkText = LocatingMechanismConverter.getLocatorValue(locatingMechanism);
+            return locateLinks(linkText, true);
+        }
+
+        if (locatingMechanism instanceof By.ByPartialLinkText) {
+            String linkText = LocatingMechanismConverter.getLocatorValue(locatingMechanism);
+            return locateLinks(linkText, false);
+        }
+
+        return document.select(LocatingMechanismConverter.convertToCssSelector(locatingMechanism));
+    }
+
+    /**
+     * Locates the links whose text matches the given one. Just like in the browser, the text of
+     * the links is trimmed before matching.
+     *
+     * @param linkText     the text to match
+     * @param isExactMatch <code>true</code> if the text of the link has to be equal to the given
+     *                     one, <code>false</code> if it only has to contain it
+     *
+     * @return the matched links
+     */
+    private List<Element> locateLinks(final String linkText, final boolean isExactMatch) {
+        List<Element> links = new ArrayList<>();
+        for (Element link : document.getElementsByTag(LINK_TAG_NAME)) {
+            String text = link.text();
+            if (isExactMatch ? text.equals(linkText) : text.contains(linkText)) {
+                links.add(link);
+            }
+        }
+
+        return links;
+    }
+
+    /**
+     * Evaluates the XPath expression on the W3C DOM copy of the document and maps the matched
+     * elements back to the elements of the document. Matched nodes which are not elements are
+     * ignored, since Selenium can only locate elements.
+     *
+     * @param expression the XPath expression
+     *
+     * @return the matched elements
+     */
+    private List<Element> locateByXPath(final String expression) {
+        if (w3cDocument == null) {
+            convertToW3cDocument();
+        }
+
+        NodeList matchedNodes;
+        try {
+            matchedNodes = (NodeList) XPathFactory.newInstance().newXPath()
+                    .evaluate(expression, w3cDocument, XPathConstants.NODESET);
+        } catch (XPathExpressionException exception) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid XPath expression: %s", expression), exception);
+        }
+
+        List<Element> matchedElements = new ArrayList<>(matchedNodes.getLength());
+        for (int i = 0; i < matchedNodes.getLength(); i++) {
+            Element element = elementsByW3cElement.get(matchedNodes.item(i));
+            if (element != null) {
+                matchedElements.add(element);
+            }
+        }
+
+        return matchedElements;
+    }
+
+    /**
+     * Creates the W3C DOM copy of the document. Unlike <code>W3CDom</code> of the HTML parser, the
+     * elements are created without namespaces, so XPath expressions match the elements of XHTML
+     * documents the same way as in the browser. The elements of the copy are mapped to the
+     * elements of the document they were created from.
+     */
+    private void convertToW3cDocument() {
+        try {
+            w3cDocument = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException exception) {
+            throw new IllegalStateException("Failed to create W3C document", exception);
+        }
+
+        elementsByW3cElement = new IdentityHashMap<>();
+        for (Element rootElement : document.children()) {
+            NodeTraversor.traverse(new W3cDocumentBuilder(), rootElement);
+        }
+    }
+
+    /**
+     * Builds the W3C DOM copy of the document while the document is traversed.
+     */
+    private final class W3cDocumentBuilder implements NodeVisitor {
+
+        private static final String INVALID_TAG_NAME = "invalid";
+
+        private org.w3c.dom.Node parent = w3cDocument;
+
+        /**
+         * Appends the copy of the node to the current parent. The copy of an element becomes the
+         * parent of the copies of its children.
+         *
+         * @param node  the visited node
+         * @param depth the depth of the node
+         */
+        @Override
+        public void head(final Node node, final int depth) {
+            if (node instanceof Element) {
+                Element element = (Element) node;
+                org.w3c.dom.Element w3cElement = createElement(element);
+                elementsByW3cElement.put(w3cElement, element);
+
+                parent.appendChild(w3cElement);
+                parent = w3cElement;
+            } else if (node instanceof TextNode) {
+                parent.appendChild(w3cDocument.createTextNode(((TextNode) node).getWholeText()));
+            } else if (node instanceof DataNode) {
+                parent.appendChild(w3cDocument.createTextNode(((DataNode) node).getWholeData()));
+            } else if (node instanceof Comment) {
+                parent.appendChild(w3cDocument.createComment(((Comment) node).getData()));
+            }
+        }
+
+        /**
+         * Makes the parent of the copy of the element the current parent again.
+         *
+         * @param node  the visited node
+         * @param depth the depth of the node
+         */
+        @Override
+        public void tail(final Node node, final int depth) {
+            if (node instanceof Element) {
+                parent = parent.getParentNode();
+            }
+        }
+
+        /**
+         * Creates the copy of the element with its attributes. Names which are valid in HTML but
+         * not in XML are replaced (in case of tags) or skipped (in case of attributes).
+         *
+         * @param element the element to copy
+         *
+         * @return the copy of the element
+         */
+        private org.w3c.dom.Element createElement(final Element element) {
+            org.w3c.dom.Element w3cElement;
+            try {
+                w3cElement = w3cDocument.createElement(element.tagName());
+            } catch (DOMException exception) {
+                w3cElement = w3cDocument.createElement(INVALID_TAG_NAME);
+            }
+
+            for (Attribute attribute : element.attributes()) {
+                try {
+                    w3cElement.setAttribute(attribute.getKey(), attribute.getValue());
+                } catch (DOMException exception) {
+                    LOGGER.debug("Skipping attribute which is invalid in XML: {}",
+                            attribute.getKey());
+                }
+            }
+
+            return w3cElement;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.util;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.net.InternetDomainName;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Caches the parsed domain names of the recently seen hosts. Parsing a host into an
+ * {@link InternetDomainName} validates it and looks up its public suffix, which is wasteful to
+ * repeat for every request, as a crawl usually visits many URLs of the same few hosts. The cache is
+ * bounded and shared by all the crawlers of the JVM. This class is thread-safe.
+ */
+public final class DomainNameCache {
+
+    private static final int MAX_CACHED_HOST_COUNT = 10_000;
+
+    private static final LoadingCache<String, InternetDomainName> DOMAIN_NAMES =
+            CacheBuilder.newBuilder()
+                    .maximumSize(MAX_CACHED_HOST_COUNT)
+                    .recordStats()
+                    .build(CacheLoader.from(InternetDomainName::from));
+
+    /**
+     * Private constructor to hide the implicit public one.
+     */
+    private DomainNameCache() {
+    }
+
+    /**
+     * Returns the parsed domain name of the given host.
+     *
+     * @param host the host name of a URL
+     *
+     * @return the parsed domain name of the host
+     *
+     * @throws IllegalArgumentException if the host is not a well-formed domain name
+     */
+    public static InternetDomainName getDomainName(final String host) {
+        try {
+            return DOMAIN_NAMES.getUnchecked(host);
+        } catch (UncheckedExecutionException exception) {
+            if (exception.getCause() instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) exception.getCause();
+            }
+
+            throw exception;
+        }
+    }
+
+    /**
+     * Returns the hit and miss statistics of the cache.
+     *
+     * @return the statistics of the cache
+     */
+    public static CacheStats getStats() {
+        return DOMAIN_NAMES.stats();
+    }
+}
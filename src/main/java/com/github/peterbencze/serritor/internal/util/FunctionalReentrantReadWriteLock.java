@@ -25,6 +25,8 @@ import java.util.function.Supplier;
  */
 public final class FunctionalReentrantReadWriteLock extends ReentrantReadWriteLock {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Executes the given action under the read lock of this lock.
      *
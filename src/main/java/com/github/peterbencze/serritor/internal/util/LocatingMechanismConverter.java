@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.util;
+
+import org.openqa.selenium.By;
+
+/**
+ * Converts Selenium locating mechanisms to CSS selectors which can be used with the HTML parser.
+ */
+public final class LocatingMechanismConverter {
+
+    /**
+     * Private constructor to hide the implicit public one.
+     */
+    private LocatingMechanismConverter() {
+    }
+
+    /**
+     * Converts a Selenium locating mechanism to a CSS selector. XPath and link text based locating
+     * mechanisms are not supported, since they have no CSS equivalent.
+     *
+     * @param locatingMechanism the locating mechanism to be converted
+     *
+     * @return the equivalent CSS selector
+     *
+     * @throws UnsupportedOperationException if the locating mechanism cannot be converted
+     */
+    public static String convertToCssSelector(final By locatingMechanism) {
+        // The locator value is only accessible through the string representation
+        String value = getLocatorValue(locatingMechanism);
+
+        if (locatingMechanism instanceof By.ByCssSelector) {
+            return value;
+        }
+
+        if (locatingMechanism instanceof By.ByTagName) {
+            return value;
+        }
+
+        if (locatingMechanism instanceof By.ById) {
+            return String.format("[id=\"%s\"]", value);
+        }
+
+        if (locatingMechanism instanceof By.ByName) {
+            return String.format("[name=\"%s\"]", value);
+        }
+
+        if (locatingMechanism instanceof By.ByClassName) {
+            return "." + value;
+        }
+
+        throw new UnsupportedOperationException(
+                String.format("Unsupported locating mechanism: %s", locatingMechanism));
+    }
+
+    /**
+     * Extracts the locator value from the string representation of the locating mechanism, which
+     * has the form of <code>By.type: value</code>.
+     *
+     * @param locatingMechanism the locating mechanism
+     *
+     * @return the locator value
+     */
+    static String getLocatorValue(final By locatingMechanism) {
+        String locator = locatingMechanism.toString();
+        int separatorIndex = locator.indexOf(": ");
+        if (separatorIndex == -1) {
+            throw new UnsupportedOperationException(
+                    String.format("Unsupported locating mechanism: %s", locatingMechanism));
+        }
+
+        return locator.substring(separatorIndex + 2);
+    }
+}
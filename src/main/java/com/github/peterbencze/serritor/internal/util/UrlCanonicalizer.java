@@ -0,0 +1,345 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.util;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.net.URI;
+
+/**
+ * Creates fingerprints of URLs in canonical form. The scheme and the host are lowercased, the
+ * query params are decoded and sorted and the fragment is ignored. This way URLs that only differ
+ * in these parts will have the same fingerprint. The path is kept as is, so an empty path differs
+ * from the root path. The canonical form is never materialized: the characters are streamed
+ * directly into a 128-bit Murmur3 hash, and the query params are decoded on the fly and sorted by
+ * their offsets in the raw query string.
+ */
+public final class UrlCanonicalizer {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    /**
+     * Private constructor to hide the implicit public one.
+     */
+    private UrlCanonicalizer() {
+    }
+
+    /**
+     * Creates the fingerprint of the given URL in canonical form.
+     *
+     * @param url the URL for which the fingerprint is created
+     *
+     * @return the 16-byte fingerprint of the URL
+     */
+    public static byte[] createFingerprint(final URI url) {
+        Hasher hasher = HASH_FUNCTION.newHasher();
+
+        String scheme = url.getScheme();
+        if (scheme != null) {
+            putChars(hasher, scheme, 0, scheme.length(), true);
+            hasher.putChar(':');
+        }
+
+        String host = url.getHost();
+        if (host == null) {
+            // Opaque or relative URL, there is no host or query to normalize
+            String schemeSpecificPart = url.getRawSchemeSpecificPart();
+            putChars(hasher, schemeSpecificPart, 0, schemeSpecificPart.length(), false);
+
+            return hasher.hash().asBytes();
+        }
+
+        hasher.putChar('/').putChar('/');
+
+        String userInfo = url.getRawUserInfo();
+        if (userInfo != null) {
+            putChars(hasher, userInfo, 0, userInfo.length(), false);
+            hasher.putChar('@');
+        }
+
+        putChars(hasher, host, 0, host.length(), true);
+
+        int port = url.getPort();
+        if (port != -1) {
+            hasher.putChar(':').putInt(port);
+        }
+
+        String path = url.getRawPath();
+        if (path != null) {
+            putChars(hasher, path, 0, path.length(), false);
+        }
+
+        String query = url.getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            hasher.putChar('?');
+            putSortedQueryParams(hasher, query);
+        }
+
+        return hasher.hash().asBytes();
+    }
+
+    /**
+     * Puts the query params of the raw query string into the hasher in sorted order. Both
+     * <code>&amp;</code> and <code>;</code> are accepted as param separators, and params which are
+     * empty or have an empty name are skipped. The params are compared and hashed in decoded form,
+     * so params which only differ in their percent-encoding are equal.
+     *
+     * @param hasher the hasher to put the query params into
+     * @param query  the raw query string
+     */
+    private static void putSortedQueryParams(final Hasher hasher, final String query) {
+        int maxParamCount = 1;
+        for (int i = 0; i < query.length(); i++) {
+            if (isParamSeparator(query.charAt(i))) {
+                maxParamCount++;
+            }
+        }
+
+        int[] starts = new int[maxParamCount];
+        int[] ends = new int[maxParamCount];
+        int paramCount = 0;
+
+        QueryParamReader firstReader = new QueryParamReader(query);
+        QueryParamReader secondReader = new QueryParamReader(query);
+
+        int paramStart = 0;
+        for (int i = 0; i <= query.length(); i++) {
+            if (i == query.length() || isParamSeparator(query.charAt(i))) {
+                if (i > paramStart && query.charAt(paramStart) != '=') {
+                    // Insertion sort, queries rarely have more than a handful of params
+                    int position = paramCount++;
+                    while (position > 0 && compareParams(firstReader, starts[position - 1],
+                            ends[position - 1], secondReader, paramStart, i) > 0) {
+                        starts[position] = starts[position - 1];
+                        ends[position] = ends[position - 1];
+                        position--;
+                    }
+
+                    starts[position] = paramStart;
+                    ends[position] = i;
+                }
+
+                paramStart = i + 1;
+            }
+        }
+
+        for (int i = 0; i < paramCount; i++) {
+            if (i > 0) {
+                hasher.putChar('&');
+            }
+
+            firstReader.reset(starts[i], ends[i]);
+            while (firstReader.hasNext()) {
+                hasher.putChar((char) firstReader.next());
+            }
+        }
+    }
+
+    /**
+     * Compares two query params in decoded form.
+     *
+     * @param firstReader  the reader to use for the first param
+     * @param firstStart   the start index of the first param (inclusive)
+     * @param firstEnd     the end index of the first param (exclusive)
+     * @param secondReader the reader to use for the second param
+     * @param secondStart  the start index of the second param (inclusive)
+     * @param secondEnd    the end index of the second param (exclusive)
+     *
+     * @return a negative integer, zero, or a positive integer as the first param is less than,
+     *         equal to, or greater than the second one
+     */
+    private static int compareParams(
+            final QueryParamReader firstReader,
+            final int firstStart,
+            final int firstEnd,
+            final QueryParamReader secondReader,
+            final int secondStart,
+            final int secondEnd) {
+        firstReader.reset(firstStart, firstEnd);
+        secondReader.reset(secondStart, secondEnd);
+
+        while (firstReader.hasNext() && secondReader.hasNext()) {
+            int difference = firstReader.next() - secondReader.next();
+            if (difference != 0) {
+                return difference;
+            }
+        }
+
+        return Boolean.compare(firstReader.hasNext(), secondReader.hasNext());
+    }
+
+    /**
+     * Puts the characters of the given string region into the hasher.
+     *
+     * @param hasher    the hasher to put the characters into
+     * @param str       the string containing the region
+     * @param start     the start index of the region (inclusive)
+     * @param end       the end index of the region (exclusive)
+     * @param lowerCase <code>true</code> if the characters should be lowercased
+     */
+    private static void putChars(
+            final Hasher hasher,
+            final String str,
+            final int start,
+            final int end,
+            final boolean lowerCase) {
+        for (int i = start; i < end; i++) {
+            char character = str.charAt(i);
+            hasher.putChar(lowerCase ? Character.toLowerCase(character) : character);
+        }
+    }
+
+    /**
+     * Indicates if the given character separates query params.
+     *
+     * @param character the character to check
+     *
+     * @return <code>true</code> if the character is a query param separator, <code>false</code>
+     *         otherwise
+     */
+    private static boolean isParamSeparator(final char character) {
+        return character == '&' || character == ';';
+    }
+
+    /**
+     * Reads a query param of the raw query string as a sequence of decoded bytes. Percent-encoded
+     * octets are decoded, <code>+</code> is read as a space and the characters which are not
+     * encoded are read as their UTF-8 bytes. The first <code>=</code> which separates the name of
+     * the param from its value is read as a value outside the byte range, so it differs from an
+     * encoded <code>=</code>.
+     */
+    private static final class QueryParamReader {
+
+        private static final int NAME_VALUE_SEPARATOR = 0x100;
+
+        private final String query;
+
+        private int index;
+        private int end;
+        private boolean isValueStarted;
+        private int pendingBytes;
+        private int pendingByteCount;
+
+        /**
+         * Creates a {@link QueryParamReader} instance.
+         *
+         * @param query the raw query string
+         */
+        QueryParamReader(final String query) {
+            this.query = query;
+        }
+
+        /**
+         * Starts reading the given param of the query string.
+         *
+         * @param start the start index of the param (inclusive)
+         * @param end   the end index of the param (exclusive)
+         */
+        void reset(final int start, final int end) {
+            index = start;
+            this.end = end;
+            isValueStarted = false;
+            pendingByteCount = 0;
+        }
+
+        /**
+         * Indicates if there are decoded bytes left in the param.
+         *
+         * @return <code>true</code> if there are decoded bytes left, <code>false</code> otherwise
+         */
+        boolean hasNext() {
+            return pendingByteCount > 0 || index < end;
+        }
+
+        /**
+         * Reads the next decoded byte of the param.
+         *
+         * @return the next decoded byte, or {@link #NAME_VALUE_SEPARATOR}
+         */
+        int next() {
+            if (pendingByteCount > 0) {
+                return nextPendingByte();
+            }
+
+            char character = query.charAt(index++);
+            if (character == '%') {
+                // The escapes of a URI are always followed by two hex digits
+                int octet = Character.digit(query.charAt(index), 16) << 4
+                        | Character.digit(query.charAt(index + 1), 16);
+                index += 2;
+                return octet;
+            }
+
+            if (character == '+') {
+                return ' ';
+            }
+
+            if (character == '=' && !isValueStarted) {
+                isValueStarted = true;
+                return NAME_VALUE_SEPARATOR;
+            }
+
+            if (character < 0x80) {
+                return character;
+            }
+
+            int codePoint = character;
+            if (Character.isHighSurrogate(character) && index < end
+                    && Character.isLowSurrogate(query.charAt(index))) {
+                codePoint = Character.toCodePoint(character, query.charAt(index++));
+            }
+
+            encodeUtf8(codePoint);
+            return nextPendingByte();
+        }
+
+        /**
+         * Encodes the non-ASCII code point to its UTF-8 bytes and stores them as pending bytes.
+         *
+         * @param codePoint the code point to encode
+         */
+        private void encodeUtf8(final int codePoint) {
+            if (codePoint < 0x800) {
+                pendingBytes = (0xC0 | codePoint >>> 6) << 8
+                        | 0x80 | (codePoint & 0x3F);
+                pendingByteCount = 2;
+            } else if (codePoint < 0x10000) {
+                pendingBytes = (0xE0 | codePoint >>> 12) << 16
+                        | (0x80 | (codePoint >>> 6 & 0x3F)) << 8
+                        | 0x80 | (codePoint & 0x3F);
+                pendingByteCount = 3;
+            } else {
+                pendingBytes = (0xF0 | codePoint >>> 18) << 24
+                        | (0x80 | (codePoint >>> 12 & 0x3F)) << 16
+                        | (0x80 | (codePoint >>> 6 & 0x3F)) << 8
+                        | 0x80 | (codePoint & 0x3F);
+                pendingByteCount = 4;
+            }
+        }
+
+        /**
+         * Returns the next pending byte of an encoded code point.
+         *
+         * @return the next pending byte
+         */
+        private int nextPendingByte() {
+            pendingByteCount--;
+            return pendingBytes >>> (8 * pendingByteCount) & 0xFF;
+        }
+    }
+}
@@ -28,6 +28,8 @@ import org.apache.commons.lang3.Validate;
  */
 public final class Stopwatch implements Serializable {
 
+    private static final long serialVersionUID = 1L;
+
     private final FunctionalReentrantReadWriteLock lock;
 
     private TimeSource timeSource;
@@ -102,4 +104,17 @@ public final class Stopwatch implements Serializable {
             return elapsedDuration;
         });
     }
+
+    /**
+     * Restores the elapsed duration of a stopped stopwatch from a checkpoint.
+     *
+     * @param elapsedDuration the elapsed duration at the checkpoint
+     */
+    public void restore(final Duration elapsedDuration) {
+        lock.writeWithLock(() -> {
+            Validate.validState(!isRunning, "The stopwatch is running.");
+
+            this.elapsedDuration = elapsedDuration;
+        });
+    }
 }
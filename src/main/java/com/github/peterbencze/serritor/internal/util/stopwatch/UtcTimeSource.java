@@ -23,6 +23,8 @@ import java.time.Instant;
  */
 public final class UtcTimeSource implements TimeSource {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Returns the current instant from the system UTC clock.
      *
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.web.http;
+
+import com.github.peterbencze.serritor.api.web.http.HttpHandler;
+import com.github.peterbencze.serritor.internal.stats.MetricsExporter;
+import com.github.peterbencze.serritor.internal.stats.PrometheusTextFormat;
+import java.io.IOException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * An HTTP endpoint handler which exposes the metrics of the crawler in the Prometheus text
+ * exposition format. Each server thread reuses its own buffer, so frequent scrapes do not put
+ * pressure on the garbage collector.
+ */
+public final class MetricsHttpHandler implements HttpHandler {
+
+    private final transient MetricsExporter metricsExporter;
+    private final transient ThreadLocal<PrometheusTextFormat> formats;
+
+    /**
+     * Creates a {@link MetricsHttpHandler} instance.
+     *
+     * @param metricsExporter the exporter of the crawler metrics
+     */
+    public MetricsHttpHandler(final MetricsExporter metricsExporter) {
+        this.metricsExporter = metricsExporter;
+        formats = ThreadLocal.withInitial(PrometheusTextFormat::new);
+    }
+
+    /**
+     * Writes the metrics of the crawler to the response.
+     *
+     * @param request  an object to provide client request information to the handler
+     * @param response an object to assist the handler in sending a response to the client
+     *
+     * @throws IOException if an error occurs while writing the response
+     */
+    @Override
+    public void handle(final HttpServletRequest request, final HttpServletResponse response)
+            throws IOException {
+        PrometheusTextFormat format = formats.get();
+        format.reset();
+        metricsExporter.export(format);
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(PrometheusTextFormat.CONTENT_TYPE);
+        response.getWriter().append(format.getText());
+    }
+}
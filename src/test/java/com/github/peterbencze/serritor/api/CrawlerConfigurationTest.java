@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.peterbencze.serritor.api;
+
+import com.github.peterbencze.serritor.api.CrawlerConfiguration.CrawlerConfigurationBuilder;
+import java.io.IOException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test cases for {@link CrawlerConfiguration}.
+ */
+public final class CrawlerConfigurationTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test(expected = IllegalStateException.class)
+    public void testBuildWhenPersistentStorageIsUsedWithCheckpoints() throws IOException {
+        new CrawlerConfigurationBuilder()
+                .setCrawlFrontierStorage(CrawlFrontierStorage.PERSISTENT)
+                .setCheckpointDirectory(temporaryFolder.newFolder())
+                .build();
+    }
+
+    @Test
+    public void testBuildWhenDiskStorageIsUsedWithCheckpoints() throws IOException {
+        new CrawlerConfigurationBuilder()
+                .setCrawlFrontierStorage(CrawlFrontierStorage.DISK)
+                .setCheckpointDirectory(temporaryFolder.newFolder())
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.api;
+
+import com.github.peterbencze.serritor.internal.duplicatefilter.ExactFingerprintSet;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+import java.util.List;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link CrawlerState}.
+ */
+public final class CrawlerStateTest {
+
+    private static final List<String> CRAWL_SEED_URLS =
+            Arrays.asList("http://example.com/foo", "http://example.com/bar");
+
+    @Test
+    public void testReadFromWhenStateIsNotCompressed() throws IOException {
+        assertStateIsRestored(false);
+    }
+
+    @Test
+    public void testReadFromWhenStateIsCompressed() throws IOException {
+        assertStateIsRestored(true);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testReadFromWhenStreamDoesNotContainState() throws IOException {
+        CrawlerState.readFrom(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6}));
+    }
+
+    private static void assertStateIsRestored(final boolean isCompressed) throws IOException {
+        CrawlerConfiguration.CrawlerConfigurationBuilder configBuilder =
+                new CrawlerConfiguration.CrawlerConfigurationBuilder();
+        CRAWL_SEED_URLS.forEach(url -> configBuilder.addCrawlSeed(CrawlRequest.createDefault(url)));
+        ExactFingerprintSet fingerprintSet = new ExactFingerprintSet();
+        fingerprintSet.add(new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        CrawlerState state = new CrawlerState(Arrays.asList(configBuilder.build(), fingerprintSet));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        state.writeTo(outputStream, isCompressed);
+        CrawlerState restoredState =
+                CrawlerState.readFrom(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        CrawlerConfiguration restoredConfig =
+                restoredState.getStateObject(CrawlerConfiguration.class).get();
+        Assert.assertThat(restoredConfig.getCrawlSeeds().stream()
+                        .map(request -> request.getRequestUrl().toString())
+                        .toArray(),
+                Matchers.arrayContainingInAnyOrder(CRAWL_SEED_URLS.toArray()));
+
+        ExactFingerprintSet restoredFingerprintSet =
+                restoredState.getStateObject(ExactFingerprintSet.class).get();
+        Assert.assertThat(restoredFingerprintSet.add(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}),
+                Matchers.is(false));
+        Assert.assertThat(restoredFingerprintSet.add(new byte[]{8, 7, 6, 5, 4, 3, 2, 1}),
+                Matchers.is(true));
+    }
+}
@@ -17,14 +17,18 @@
 package com.github.peterbencze.serritor.api.helper;
 
 import com.github.peterbencze.serritor.api.CompleteCrawlResponse;
+import com.github.peterbencze.serritor.api.StaticCrawlResponse;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.regex.Pattern;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
@@ -117,4 +121,58 @@ public final class TextFinderTest {
         // never be accessed
         Mockito.verify(webElementMock2, Mockito.never()).getText();
     }
+
+    @Test
+    public void testFindFirstInResponseWhenBrowserCanExecuteScripts() {
+        WebDriver scriptingWebDriverMock = Mockito.mock(WebDriver.class,
+                Mockito.withSettings().extraInterfaces(JavascriptExecutor.class));
+        Mockito.when(((JavascriptExecutor) scriptingWebDriverMock)
+                .executeScript(Mockito.anyString(), Mockito.any()))
+                .thenReturn(Arrays.asList("Should not match", " Should match "));
+        Mockito.when(crawlResponseMock.getWebDriver()).thenReturn(scriptingWebDriverMock);
+
+        Assert.assertEquals("Should match",
+                textFinder.findFirstInResponse(crawlResponseMock).get().group());
+        Mockito.verify(scriptingWebDriverMock, Mockito.never())
+                .findElements(Mockito.any(By.class));
+    }
+
+    @Test
+    public void testFindAllInResponseWhenResponseIsStaticPage() {
+        TextFinder paragraphTextFinder = new TextFinder(textPattern, By.tagName("p"));
+
+        Document document = Jsoup.parse("<p>Should match</p><p>Should not match</p>"
+                + "<div>Should match</div><p> Should  match </p>");
+
+        StaticCrawlResponse staticResponseMock = Mockito.mock(StaticCrawlResponse.class);
+        Mockito.when(staticResponseMock.getDocument()).thenReturn(document);
+
+        // The whitespace in the text content is normalized
+        Assert.assertEquals(2, paragraphTextFinder.findAllInResponse(staticResponseMock).size());
+    }
+
+    @Test
+    public void testFindFirstInResponseWhenResponseIsStaticPage() {
+        TextFinder paragraphTextFinder = new TextFinder(textPattern, By.cssSelector("p.match"));
+
+        Document document = Jsoup.parse("<p>Should match</p><p class=\"match\">Should match</p>");
+
+        StaticCrawlResponse staticResponseMock = Mockito.mock(StaticCrawlResponse.class);
+        Mockito.when(staticResponseMock.getDocument()).thenReturn(document);
+
+        Assert.assertEquals("Should match",
+                paragraphTextFinder.findFirstInResponse(staticResponseMock).get().group());
+    }
+
+    @Test
+    public void testFindAllInResponseWhenStaticPageIsSearchedByLinkText() {
+        TextFinder linkTextFinder = new TextFinder(textPattern, By.partialLinkText("match"));
+
+        Document document = Jsoup.parse("<a href=\"/\">Should match</a><p>Should match</p>");
+
+        StaticCrawlResponse staticResponseMock = Mockito.mock(StaticCrawlResponse.class);
+        Mockito.when(staticResponseMock.getDocument()).thenReturn(document);
+
+        Assert.assertEquals(1, linkTextFinder.findAllInResponse(staticResponseMock).size());
+    }
 }
@@ -17,13 +17,21 @@
 package com.github.peterbencze.serritor.api.helper;
 
 import com.github.peterbencze.serritor.api.CompleteCrawlResponse;
+import com.github.peterbencze.serritor.api.PartialCrawlResponse;
+import com.github.peterbencze.serritor.api.StaticCrawlResponse;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
@@ -144,4 +152,103 @@ public final class UrlFinderTest {
         // never be accessed
         Mockito.verify(webElementMock2, Mockito.never()).getAttribute(urlFinder.getAttributeName());
     }
+
+    @Test
+    public void testFindAllInResponseWhenBrowserCanExecuteScripts() {
+        WebDriver scriptingWebDriverMock = Mockito.mock(WebDriver.class,
+                Mockito.withSettings().extraInterfaces(JavascriptExecutor.class));
+        Mockito.when(((JavascriptExecutor) scriptingWebDriverMock)
+                .executeScript(Mockito.anyString(), Mockito.any()))
+                .thenReturn(Arrays.asList("http://example.com", null, "Should not match"));
+        Mockito.when(crawlResponseMock.getWebDriver()).thenReturn(scriptingWebDriverMock);
+
+        Assert.assertEquals(Collections.singletonList("http://example.com"),
+                urlFinder.findAllInResponse(crawlResponseMock));
+        Mockito.verify(scriptingWebDriverMock, Mockito.never())
+                .findElements(Mockito.any(By.class));
+    }
+
+    @Test
+    public void testFindFirstInResponseWhenResponseContainsPageSnapshot() {
+        CompleteCrawlResponse response = new CompleteCrawlResponse(
+                new PartialCrawlResponse(200, "OK", Collections.emptyList()),
+                Collections.emptyMap(), "<a href=\"/foo\">Foo</a>", "http://example.com/");
+
+        Assert.assertEquals(Optional.of("http://example.com/foo"),
+                urlFinder.findFirstInResponse(response));
+    }
+
+    @Test
+    public void testFindAllInResponseWhenPageSnapshotIsSearchedByXPath() {
+        UrlFinder xpathUrlFinder = new UrlFinder.UrlFinderBuilder()
+                .setLocatingMechanism(By.xpath("//nav//a"))
+                .build();
+        CompleteCrawlResponse response = new CompleteCrawlResponse(
+                new PartialCrawlResponse(200, "OK", Collections.emptyList()),
+                Collections.emptyMap(),
+                "<nav><a href=\"/foo\">Foo</a></nav><a href=\"/bar\">Bar</a>",
+                "http://example.com/");
+
+        Assert.assertEquals(Collections.singletonList("http://example.com/foo"),
+                xpathUrlFinder.findAllInResponse(response));
+    }
+
+    @Test
+    public void testFindAllInResponseWhenResponseIsStaticPage() {
+        Document document = Jsoup.parse("<a href=\"/relative\">Link</a>"
+                + "<a href=\"https://example.com\">Link</a>"
+                + "<a href=\"mailto:test@example.com\">Link</a>", "http://example.com/");
+
+        StaticCrawlResponse staticResponseMock = Mockito.mock(StaticCrawlResponse.class);
+        Mockito.when(staticResponseMock.getDocument()).thenReturn(document);
+
+        Assert.assertEquals(Arrays.asList("http://example.com/relative", "https://example.com"),
+                urlFinder.findAllInResponse(staticResponseMock));
+    }
+
+    @Test
+    public void testFindFirstInResponseWhenResponseIsStaticPage() {
+        Document document = Jsoup.parse("<a>Link</a>"
+                + "<a href=\"https://example.com\">Link</a>", "http://example.com/");
+
+        StaticCrawlResponse staticResponseMock = Mockito.mock(StaticCrawlResponse.class);
+        Mockito.when(staticResponseMock.getDocument()).thenReturn(document);
+
+        Assert.assertEquals(Optional.of("https://example.com"),
+                urlFinder.findFirstInResponse(staticResponseMock));
+    }
+
+    @Test
+    public void testForEachInResponseWhenUrlsMatchThePatternAndAreValid() {
+        WebElement webElementMock1 = Mockito.mock(WebElement.class);
+        Mockito.when(webElementMock1.getAttribute(urlFinder.getAttributeName()))
+                .thenReturn("http://example.com");
+        WebElement webElementMock2 = Mockito.mock(WebElement.class);
+        Mockito.when(webElementMock2.getAttribute(urlFinder.getAttributeName()))
+                .thenReturn("Should not match");
+
+        Mockito.when(webDriverMock.findElements(Mockito.any(By.class)))
+                .thenReturn(Arrays.asList(webElementMock1, webElementMock2));
+
+        List<String> foundUrls = new ArrayList<>();
+        urlFinder.forEachInResponse(crawlResponseMock, foundUrls::add);
+
+        Assert.assertEquals(Collections.singletonList("http://example.com"), foundUrls);
+    }
+
+    @Test
+    public void testForEachInStaticResponse() {
+        Document document = Jsoup.parse("<a href=\"/relative\">Link</a>"
+                + "<a href=\"https://example.com\">Link</a>"
+                + "<a href=\"mailto:test@example.com\">Link</a>", "http://example.com/");
+
+        StaticCrawlResponse staticResponseMock = Mockito.mock(StaticCrawlResponse.class);
+        Mockito.when(staticResponseMock.getDocument()).thenReturn(document);
+
+        List<String> foundUrls = new ArrayList<>();
+        urlFinder.forEachInResponse(staticResponseMock, foundUrls::add);
+
+        Assert.assertEquals(Arrays.asList("http://example.com/relative", "https://example.com"),
+                foundUrls);
+    }
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.benchmark;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.api.CrawlCandidate.CrawlCandidateBuilder;
+import com.github.peterbencze.serritor.api.CrawlRequest;
+import com.github.peterbencze.serritor.api.PatternMatchingCallback;
+import com.github.peterbencze.serritor.api.event.NetworkErrorEvent;
+import com.github.peterbencze.serritor.internal.CustomCallbackManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the callback dispatch of {@link CustomCallbackManager} with the previous implementation,
+ * which evaluated the URL pattern of every registered callback sequentially for each event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CallbackDispatchBenchmark {
+
+    private static final int EVENT_COUNT = 1_000;
+
+    @Param({"10", "100", "1000"})
+    private int patternCount;
+
+    private CustomCallbackManager callbackManager;
+    private List<PatternMatchingCallback<NetworkErrorEvent>> callbacks;
+    private NetworkErrorEvent[] events;
+    private Blackhole blackhole;
+
+    /**
+     * Registers the callbacks and creates the events to dispatch. Most of the patterns are anchored
+     * on a site section, the rest only contain character classes and quantifiers.
+     *
+     * @param blackhole the blackhole to consume the dispatched events
+     */
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        this.blackhole = blackhole;
+
+        callbackManager = new CustomCallbackManager();
+        callbacks = new ArrayList<>(patternCount);
+        for (int i = 0; i < patternCount; i++) {
+            Pattern urlPattern = i % 10 == 0
+                    ? Pattern.compile(String.format("[?&]id=%d(&|$)", i))
+                    : Pattern.compile(String.format("^https://example\\.com/section-%d/.+", i));
+            PatternMatchingCallback<NetworkErrorEvent> callback =
+                    new PatternMatchingCallback<>(urlPattern, this::consume);
+
+            callbacks.add(callback);
+            callbackManager.addCustomCallback(NetworkErrorEvent.class, callback);
+        }
+
+        events = new NetworkErrorEvent[EVENT_COUNT];
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            CrawlRequest request = CrawlRequest.createDefault(String.format(
+                    "https://example.com/section-%d/item-%d?id=%d", i % (patternCount * 2), i, i));
+            CrawlCandidate candidate = new CrawlCandidateBuilder(request).build();
+            events[i] = new NetworkErrorEvent(candidate, "");
+        }
+    }
+
+    /**
+     * Dispatches the events using the callback manager.
+     */
+    @Benchmark
+    public void customCallbackManager() {
+        for (NetworkErrorEvent event : events) {
+            callbackManager.callCustomOrDefault(NetworkErrorEvent.class, event, this::consume);
+        }
+    }
+
+    /**
+     * Dispatches the events using the previous implementation.
+     */
+    @Benchmark
+    public void sequentialScan() {
+        for (NetworkErrorEvent event : events) {
+            callSequentially(event, this::consume);
+        }
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the command line arguments
+     *
+     * @throws RunnerException if the benchmark fails to run
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CallbackDispatchBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    /**
+     * The previous callback dispatch implementation of the callback manager.
+     *
+     * @param event           the event to dispatch
+     * @param defaultCallback the default callback for the event
+     */
+    private void callSequentially(
+            final NetworkErrorEvent event,
+            final Consumer<NetworkErrorEvent> defaultCallback) {
+        String requestUrl = event.getCrawlCandidate().getRequestUrl().toString();
+        List<PatternMatchingCallback<NetworkErrorEvent>> applicableCallbacks = callbacks.stream()
+                .filter(callback -> callback.getUrlPattern().matcher(requestUrl).find())
+                .collect(Collectors.toList());
+
+        if (!applicableCallbacks.isEmpty()) {
+            applicableCallbacks.forEach(callback -> callback.getCallback().accept(event));
+        } else {
+            defaultCallback.accept(event);
+        }
+    }
+
+    /**
+     * Consumes the dispatched event.
+     *
+     * @param event the dispatched event
+     */
+    private void consume(final NetworkErrorEvent event) {
+        blackhole.consume(event);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.benchmark;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.api.CrawlCandidate.CrawlCandidateBuilder;
+import com.github.peterbencze.serritor.api.CrawlRequest.CrawlRequestBuilder;
+import com.github.peterbencze.serritor.api.CrawlStrategy;
+import com.github.peterbencze.serritor.internal.candidatequeue.BucketedCandidateQueue;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link BucketedCandidateQueue} with the previous binary heap based queue, which used a
+ * boxed comparator chain. Each operation fills the queue with the candidates and drains it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CandidateQueueBenchmark {
+
+    private static final int MAX_CRAWL_DEPTH = 10;
+    private static final int MAX_PRIORITY = 3;
+
+    @Param({"10000", "1000000"})
+    private int candidateCount;
+
+    private CrawlCandidate[] candidates;
+
+    /**
+     * Creates the candidates with random crawl depths and priorities.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(0);
+
+        candidates = new CrawlCandidate[candidateCount];
+        for (int i = 0; i < candidateCount; i++) {
+            CrawlRequestBuilder requestBuilder =
+                    new CrawlRequestBuilder(String.format("http://example.com/%d", i))
+                            .setPriority(random.nextInt(MAX_PRIORITY + 1));
+            candidates[i] = new CrawlCandidateBuilder(requestBuilder.build())
+                    .setCrawlDepth(random.nextInt(MAX_CRAWL_DEPTH) + 1)
+                    .build();
+        }
+    }
+
+    /**
+     * Fills and drains the bucketed queue.
+     *
+     * @param blackhole the blackhole to consume the polled candidates
+     */
+    @Benchmark
+    public void bucketedQueue(final Blackhole blackhole) {
+        BucketedCandidateQueue queue = new BucketedCandidateQueue(CrawlStrategy.BREADTH_FIRST);
+        for (CrawlCandidate candidate : candidates) {
+            queue.add(candidate);
+        }
+
+        while (!queue.isEmpty()) {
+            blackhole.consume(queue.poll());
+        }
+    }
+
+    /**
+     * Fills and drains the binary heap with the previous comparator.
+     *
+     * @param blackhole the blackhole to consume the polled candidates
+     */
+    @Benchmark
+    public void priorityQueue(final Blackhole blackhole) {
+        Function<CrawlCandidate, Integer> crawlDepthGetter = CrawlCandidate::getCrawlDepth;
+        Function<CrawlCandidate, Integer> priorityGetter = CrawlCandidate::getPriority;
+
+        PriorityQueue<CrawlCandidate> queue = new PriorityQueue<>(
+                Comparator.comparing(crawlDepthGetter)
+                        .thenComparing(priorityGetter, Comparator.reverseOrder()));
+        for (CrawlCandidate candidate : candidates) {
+            queue.add(candidate);
+        }
+
+        while (!queue.isEmpty()) {
+            blackhole.consume(queue.poll());
+        }
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the command line arguments
+     *
+     * @throws RunnerException if the benchmark fails to run
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CandidateQueueBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
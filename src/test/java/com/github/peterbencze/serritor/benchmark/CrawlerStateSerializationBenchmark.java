@@ -0,0 +1,255 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.benchmark;
+
+import com.github.peterbencze.serritor.api.CrawlRequest;
+import com.github.peterbencze.serritor.api.CrawlRequest.CrawlRequestBuilder;
+import com.github.peterbencze.serritor.api.CrawlerConfiguration;
+import com.github.peterbencze.serritor.api.CrawlerConfiguration.CrawlerConfigurationBuilder;
+import com.github.peterbencze.serritor.api.CrawlerState;
+import com.github.peterbencze.serritor.internal.CrawlFrontier;
+import com.github.peterbencze.serritor.internal.stats.StatsCounter;
+import com.github.peterbencze.serritor.internal.util.UrlCanonicalizer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.codec.binary.Hex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares saving and restoring the state of a crawl frontier with the compact binary format to
+ * default Java serialization. The baseline is an object graph with the same fields as the
+ * candidates and the exact URL fingerprint set had before they got their own serialized form, so
+ * it is written with <code>URI</code> objects and a <code>HashSet</code> of hexadecimal strings.
+ * The sizes of the serialized states are printed during the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CrawlerStateSerializationBenchmark {
+
+    private static final int CANDIDATE_COUNT = 10_000;
+    private static final int HOST_COUNT = 100;
+
+    private CrawlerState state;
+    private JavaSerializedFrontier javaSerializedFrontier;
+    private byte[] serializedState;
+    private byte[] compressedState;
+    private byte[] javaSerializedState;
+
+    /**
+     * Feeds the candidates to the frontier, builds the baseline object graph with the same
+     * content, and serializes both once for the read benchmarks.
+     *
+     * @throws IOException if the serialization fails
+     */
+    @Setup
+    public void setUp() throws IOException {
+        CrawlerConfiguration config = new CrawlerConfigurationBuilder().build();
+        CrawlFrontier crawlFrontier = new CrawlFrontier(config, new StatsCounter());
+        javaSerializedFrontier = new JavaSerializedFrontier();
+
+        for (int i = 0; i < CANDIDATE_COUNT; i++) {
+            URI url = URI.create(String.format("https://www.host-%d.com/category/%d/item-%d",
+                    i % HOST_COUNT, i % 10, i));
+            CrawlRequest request = new CrawlRequestBuilder(url)
+                    .setPriority(i % 3)
+                    .build();
+            crawlFrontier.feedRequest(request, true);
+
+            javaSerializedFrontier.candidates.add(
+                    new JavaSerializedCandidate(url, request.getPriority()));
+            javaSerializedFrontier.fingerprints.add(
+                    Hex.encodeHexString(UrlCanonicalizer.createFingerprint(url)));
+        }
+
+        state = new CrawlerState(Collections.singletonList(crawlFrontier));
+        serializedState = writeState(false);
+        compressedState = writeState(true);
+        javaSerializedState = writeJavaSerializedFrontier();
+    }
+
+    /**
+     * Writes the baseline object graph with default Java serialization.
+     *
+     * @return the serialized object graph
+     *
+     * @throws IOException if the serialization fails
+     */
+    @Benchmark
+    public byte[] writeJavaSerializedFrontier() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectStream = new ObjectOutputStream(outputStream)) {
+            objectStream.writeObject(javaSerializedFrontier);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Writes the state in the compact binary format.
+     *
+     * @return the serialized state
+     *
+     * @throws IOException if the serialization fails
+     */
+    @Benchmark
+    public byte[] writeCompactState() throws IOException {
+        return writeState(false);
+    }
+
+    /**
+     * Writes the state in the compact binary format, compressed with DEFLATE.
+     *
+     * @return the serialized state
+     *
+     * @throws IOException if the serialization fails
+     */
+    @Benchmark
+    public byte[] writeCompressedState() throws IOException {
+        return writeState(true);
+    }
+
+    /**
+     * Reads the baseline object graph with default Java serialization.
+     *
+     * @return the deserialized object graph
+     *
+     * @throws IOException            if the deserialization fails
+     * @throws ClassNotFoundException if a class of the object graph cannot be found
+     */
+    @Benchmark
+    public Object readJavaSerializedFrontier() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream objectStream =
+                new ObjectInputStream(new ByteArrayInputStream(javaSerializedState))) {
+            return objectStream.readObject();
+        }
+    }
+
+    /**
+     * Reads the state in the compact binary format.
+     *
+     * @return the deserialized state
+     *
+     * @throws IOException if the deserialization fails
+     */
+    @Benchmark
+    public CrawlerState readCompactState() throws IOException {
+        return CrawlerState.readFrom(new ByteArrayInputStream(serializedState));
+    }
+
+    /**
+     * Reads the state in the compact binary format, compressed with DEFLATE.
+     *
+     * @return the deserialized state
+     *
+     * @throws IOException if the deserialization fails
+     */
+    @Benchmark
+    public CrawlerState readCompressedState() throws IOException {
+        return CrawlerState.readFrom(new ByteArrayInputStream(compressedState));
+    }
+
+    /**
+     * Writes the state to a byte array.
+     *
+     * @param isCompressed indicates if the state should be compressed
+     *
+     * @return the serialized state
+     *
+     * @throws IOException if the serialization fails
+     */
+    private byte[] writeState(final boolean isCompressed) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        state.writeTo(outputStream, isCompressed);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the command line arguments
+     *
+     * @throws RunnerException if the benchmark fails to run
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CrawlerStateSerializationBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    /**
+     * The frontier content written with default Java serialization.
+     */
+    private static final class JavaSerializedFrontier implements Serializable {
+
+        private final List<JavaSerializedCandidate> candidates = new ArrayList<>();
+        private final Set<String> fingerprints = new HashSet<>();
+    }
+
+    /**
+     * A crawl candidate written with default Java serialization.
+     */
+    private static final class JavaSerializedCandidate implements Serializable {
+
+        private final URI refererUrl;
+        private final int crawlDepth;
+        private final URI requestUrl;
+        private final int priority;
+        private final Serializable metadata;
+
+        /**
+         * Creates a {@link JavaSerializedCandidate} instance.
+         *
+         * @param requestUrl the request URL
+         * @param priority   the priority of the request
+         */
+        JavaSerializedCandidate(final URI requestUrl, final int priority) {
+            refererUrl = null;
+            crawlDepth = 1;
+            this.requestUrl = requestUrl;
+            this.priority = priority;
+            metadata = null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.benchmark;
+
+import com.github.peterbencze.serritor.api.CrawlRequest;
+import com.github.peterbencze.serritor.api.CrawlerConfiguration;
+import com.github.peterbencze.serritor.api.CrawlerConfiguration.CrawlerConfigurationBuilder;
+import com.github.peterbencze.serritor.internal.CrawlFrontier;
+import com.github.peterbencze.serritor.internal.stats.StatsCounter;
+import com.github.peterbencze.serritor.internal.util.DomainNameCache;
+import com.google.common.net.InternetDomainName;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the effect of {@link DomainNameCache} on feeding requests to the crawl frontier. The
+ * difference between parsing the hosts and looking them up in the cache is the time saved per
+ * request, which can be compared to the time it takes to create and feed the requests. The
+ * requests are offsite, so the frontier does not grow during the benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DomainNameCacheBenchmark {
+
+    private static final int URL_COUNT = 1_000;
+
+    @Param({"10", "1000"})
+    private int hostCount;
+
+    private URI[] urls;
+    private String[] hosts;
+    private CrawlFrontier crawlFrontier;
+
+    /**
+     * Creates the URLs, which are spread over the given number of hosts, and the frontier to feed
+     * them to.
+     */
+    @Setup
+    public void setUp() {
+        urls = new URI[URL_COUNT];
+        hosts = new String[URL_COUNT];
+        for (int i = 0; i < URL_COUNT; i++) {
+            urls[i] = URI.create(String.format("https://www.host-%d.co.uk/item-%d",
+                    i % hostCount, i));
+            hosts[i] = urls[i].getHost();
+        }
+
+        CrawlerConfiguration config = new CrawlerConfigurationBuilder()
+                .setOffsiteRequestFilterEnabled(true)
+                .addAllowedCrawlDomain("example.com")
+                .build();
+        crawlFrontier = new CrawlFrontier(config, new StatsCounter());
+    }
+
+    /**
+     * Parses the hosts without the cache.
+     *
+     * @param blackhole the blackhole to consume the domain names
+     */
+    @Benchmark
+    public void parseDomainNames(final Blackhole blackhole) {
+        for (String host : hosts) {
+            blackhole.consume(InternetDomainName.from(host));
+        }
+    }
+
+    /**
+     * Looks up the hosts in the cache.
+     *
+     * @param blackhole the blackhole to consume the domain names
+     */
+    @Benchmark
+    public void getCachedDomainNames(final Blackhole blackhole) {
+        for (String host : hosts) {
+            blackhole.consume(DomainNameCache.getDomainName(host));
+        }
+    }
+
+    /**
+     * Creates requests from the URLs and feeds them to the frontier.
+     */
+    @Benchmark
+    public void feedRequests() {
+        for (URI url : urls) {
+            crawlFrontier.feedRequest(CrawlRequest.createDefault(url), true);
+        }
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the command line arguments
+     *
+     * @throws RunnerException if the benchmark fails to run
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DomainNameCacheBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.benchmark;
+
+import com.github.peterbencze.serritor.internal.util.UrlCanonicalizer;
+import java.net.URI;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URIBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the URL fingerprinting of {@link UrlCanonicalizer} with the previous
+ * {@link URIBuilder} and SHA-256 based implementation. Run with <code>-prof gc</code> to compare
+ * the allocation rates as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UrlFingerprintBenchmark {
+
+    private static final int URL_COUNT = 1_000;
+
+    private URI[] urls;
+
+    /**
+     * Creates the URLs to fingerprint, which resemble the links found on a typical listing page.
+     */
+    @Setup
+    public void setUp() {
+        urls = new URI[URL_COUNT];
+        for (int i = 0; i < URL_COUNT; i++) {
+            urls[i] = URI.create(String.format(
+                    "https://WWW.Example.com/category/item-%d?sort=price&page=%d&ref=listing#top",
+                    i, i % 10));
+        }
+    }
+
+    /**
+     * Fingerprints the URLs using the canonicalizer.
+     *
+     * @param blackhole the blackhole to consume the fingerprints
+     */
+    @Benchmark
+    public void urlCanonicalizer(final Blackhole blackhole) {
+        for (URI url : urls) {
+            blackhole.consume(UrlCanonicalizer.createFingerprint(url));
+        }
+    }
+
+    /**
+     * Fingerprints the URLs using the previous implementation.
+     *
+     * @param blackhole the blackhole to consume the fingerprints
+     */
+    @Benchmark
+    public void uriBuilder(final Blackhole blackhole) {
+        for (URI url : urls) {
+            blackhole.consume(createFingerprintWithUriBuilder(url));
+        }
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the command line arguments
+     *
+     * @throws RunnerException if the benchmark fails to run
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UrlFingerprintBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    /**
+     * The previous URL fingerprinting implementation of the crawl frontier.
+     *
+     * @param url the URL for which the fingerprint is created
+     *
+     * @return the fingerprint of the URL
+     */
+    private static byte[] createFingerprintWithUriBuilder(final URI url) {
+        URIBuilder builder = new URIBuilder(url);
+
+        builder.setScheme(builder.getScheme().toLowerCase())
+                .setHost(builder.getHost().toLowerCase());
+
+        List<NameValuePair> queryParams = builder.getQueryParams();
+        queryParams.sort(Comparator.comparing(NameValuePair::getName)
+                .thenComparing(NameValuePair::getValue));
+
+        builder.setParameters(queryParams);
+
+        builder.setFragment(null);
+
+        return DigestUtils.sha256(builder.toString());
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal;
+
+import com.github.peterbencze.serritor.api.CallbackOrdering;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link AsyncCallbackExecutor}.
+ */
+public final class AsyncCallbackExecutorTest {
+
+    private static final int TASK_COUNT = 300;
+    private static final List<String> HOSTS = Arrays.asList("a.com", "b.com", "c.com");
+
+    @Test
+    public void testExecuteWhenOrderingIsPerHost() {
+        List<List<Integer>> executedTasks = HOSTS.stream()
+                .map(host -> Collections.synchronizedList(new ArrayList<Integer>()))
+                .collect(Collectors.toList());
+        AsyncCallbackExecutor executor =
+                new AsyncCallbackExecutor(4, 10, CallbackOrdering.PER_HOST, failure -> {
+                });
+
+        for (int i = 0; i < TASK_COUNT; i++) {
+            int taskIndex = i;
+            int hostIndex = i % HOSTS.size();
+            executor.execute(HOSTS.get(hostIndex),
+                    () -> executedTasks.get(hostIndex).add(taskIndex));
+        }
+        executor.shutdown();
+
+        for (int i = 0; i < HOSTS.size(); i++) {
+            int hostIndex = i;
+            List<Integer> expectedTasks = IntStream.range(0, TASK_COUNT)
+                    .filter(taskIndex -> taskIndex % HOSTS.size() == hostIndex)
+                    .boxed()
+                    .collect(Collectors.toList());
+
+            Assert.assertThat(executedTasks.get(hostIndex), Matchers.is(expectedTasks));
+        }
+    }
+
+    @Test
+    public void testExecuteWhenOrderingIsGlobal() {
+        List<Integer> executedTasks = Collections.synchronizedList(new ArrayList<>());
+        Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+        AsyncCallbackExecutor executor =
+                new AsyncCallbackExecutor(4, 10, CallbackOrdering.GLOBAL, failure -> {
+                });
+
+        for (int i = 0; i < TASK_COUNT; i++) {
+            int taskIndex = i;
+            executor.execute(HOSTS.get(i % HOSTS.size()), () -> {
+                threads.add(Thread.currentThread());
+                executedTasks.add(taskIndex);
+            });
+        }
+        executor.shutdown();
+
+        Assert.assertThat(threads, Matchers.hasSize(1));
+        Assert.assertThat(executedTasks, Matchers.is(IntStream.range(0, TASK_COUNT)
+                .boxed()
+                .collect(Collectors.toList())));
+    }
+
+    @Test
+    public void testShutdownWhenOrderingIsNone() {
+        AtomicInteger executedTaskCount = new AtomicInteger();
+        AsyncCallbackExecutor executor =
+                new AsyncCallbackExecutor(4, 10, CallbackOrdering.NONE, failure -> {
+                });
+
+        for (int i = 0; i < TASK_COUNT; i++) {
+            executor.execute(null, executedTaskCount::incrementAndGet);
+        }
+        executor.shutdown();
+
+        Assert.assertThat(executedTaskCount.get(), Matchers.is(TASK_COUNT));
+        Assert.assertThat(executor.getFailure().isPresent(), Matchers.is(false));
+    }
+
+    @Test
+    public void testExecuteWhenQueueIsFull() throws Exception {
+        CountDownLatch taskRelease = new CountDownLatch(1);
+        AsyncCallbackExecutor executor =
+                new AsyncCallbackExecutor(1, 1, CallbackOrdering.NONE, failure -> {
+                });
+
+        CountDownLatch taskStart = new CountDownLatch(1);
+        executor.execute(null, () -> {
+            taskStart.countDown();
+            Uninterruptibles.awaitUninterruptibly(taskRelease);
+        });
+        Assert.assertThat(taskStart.await(5, TimeUnit.SECONDS), Matchers.is(true));
+
+        // The first task is running and the second one fills the queue
+        executor.execute(null, () -> {
+        });
+        CompletableFuture<Void> blockedSubmission =
+                CompletableFuture.runAsync(() -> executor.execute(null, () -> {
+                }));
+
+        Thread.sleep(100);
+        Assert.assertThat(blockedSubmission.isDone(), Matchers.is(false));
+
+        taskRelease.countDown();
+        blockedSubmission.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+
+    @Test
+    public void testExecuteWhenTaskFails() {
+        AtomicReference<Throwable> handledFailure = new AtomicReference<>();
+        AtomicInteger handledFailureCount = new AtomicInteger();
+        AtomicInteger executedTaskCount = new AtomicInteger();
+        AsyncCallbackExecutor executor =
+                new AsyncCallbackExecutor(1, 10, CallbackOrdering.NONE, failure -> {
+                    handledFailure.set(failure);
+                    handledFailureCount.incrementAndGet();
+                });
+
+        IllegalStateException firstFailure = new IllegalStateException("first");
+        IllegalStateException secondFailure = new IllegalStateException("second");
+        executor.execute(null, () -> {
+            throw firstFailure;
+        });
+        executor.execute(null, () -> {
+            throw secondFailure;
+        });
+        executor.execute(null, executedTaskCount::incrementAndGet);
+        executor.shutdown();
+
+        Assert.assertThat(handledFailureCount.get(), Matchers.is(1));
+        Assert.assertThat(handledFailure.get(), Matchers.sameInstance(firstFailure));
+        Assert.assertThat(executor.getFailure().get(), Matchers.sameInstance(firstFailure));
+        Assert.assertThat(firstFailure.getSuppressed(), Matchers.arrayContaining(secondFailure));
+        Assert.assertThat(executedTaskCount.get(), Matchers.is(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testExecuteWhenExecutorIsShutDown() {
+        AsyncCallbackExecutor executor =
+                new AsyncCallbackExecutor(1, 10, CallbackOrdering.NONE, failure -> {
+                });
+        executor.shutdown();
+
+        executor.execute(null, () -> {
+        });
+    }
+}
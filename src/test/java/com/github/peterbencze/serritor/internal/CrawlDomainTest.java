@@ -52,4 +52,14 @@ public final class CrawlDomainTest {
         Assert.assertTrue(CRAWL_DOMAIN_0.contains(SUBDOMAIN));
         Assert.assertFalse(CRAWL_DOMAIN_2.contains(DOMAIN));
     }
+
+    @Test
+    public void testContainsWhenCrawlDomainIsWildcard() {
+        CrawlDomain wildcardCrawlDomain = new CrawlDomain(DOMAIN, true);
+
+        Assert.assertFalse(wildcardCrawlDomain.contains(DOMAIN));
+        Assert.assertTrue(wildcardCrawlDomain.contains(SUBDOMAIN));
+        Assert.assertNotEquals(CRAWL_DOMAIN_0, wildcardCrawlDomain);
+        Assert.assertEquals("*.test.com", wildcardCrawlDomain.toString());
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal;
+
+import com.google.common.net.InternetDomainName;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link CrawlDomainTrie}.
+ */
+public final class CrawlDomainTrieTest {
+
+    @Test
+    public void testIsAllowedWhenDomainIsAllowed() {
+        CrawlDomainTrie trie = new CrawlDomainTrie(
+                Collections.singletonList(createCrawlDomain("test.com", false)),
+                Collections.emptyList());
+
+        Assert.assertTrue(trie.isAllowed("test.com"));
+        Assert.assertTrue(trie.isAllowed("sub.test.com"));
+        Assert.assertTrue(trie.isAllowed("Deep.Sub.TEST.com."));
+        Assert.assertFalse(trie.isAllowed("othertest.com"));
+        Assert.assertFalse(trie.isAllowed("test.com.au"));
+        Assert.assertFalse(trie.isAllowed("com"));
+        Assert.assertFalse(trie.isAllowed(""));
+    }
+
+    @Test
+    public void testIsAllowedWhenWildcardDomainIsAllowed() {
+        CrawlDomainTrie trie = new CrawlDomainTrie(
+                Collections.singletonList(createCrawlDomain("test.com", true)),
+                Collections.emptyList());
+
+        Assert.assertFalse(trie.isAllowed("test.com"));
+        Assert.assertTrue(trie.isAllowed("sub.test.com"));
+        Assert.assertTrue(trie.isAllowed("deep.sub.test.com"));
+    }
+
+    @Test
+    public void testIsAllowedWhenSubdomainIsExcluded() {
+        CrawlDomainTrie trie = new CrawlDomainTrie(
+                Arrays.asList(createCrawlDomain("test.com", false),
+                        createCrawlDomain("public.private.test.com", false)),
+                Arrays.asList(createCrawlDomain("private.test.com", false),
+                        createCrawlDomain("users.test.com", true)));
+
+        Assert.assertTrue(trie.isAllowed("test.com"));
+        Assert.assertFalse(trie.isAllowed("private.test.com"));
+        Assert.assertFalse(trie.isAllowed("sub.private.test.com"));
+        Assert.assertTrue(trie.isAllowed("public.private.test.com"));
+        Assert.assertTrue(trie.isAllowed("sub.public.private.test.com"));
+        Assert.assertTrue(trie.isAllowed("users.test.com"));
+        Assert.assertFalse(trie.isAllowed("someone.users.test.com"));
+    }
+
+    @Test
+    public void testIsAllowedWhenDomainIsBothAllowedAndExcluded() {
+        CrawlDomainTrie trie = new CrawlDomainTrie(
+                Collections.singletonList(createCrawlDomain("test.com", false)),
+                Collections.singletonList(createCrawlDomain("test.com", false)));
+
+        Assert.assertFalse(trie.isAllowed("test.com"));
+        Assert.assertFalse(trie.isAllowed("sub.test.com"));
+    }
+
+    @Test
+    public void testIsAllowedAgreesWithCrawlDomainWhenThereAreManyDomains() {
+        List<CrawlDomain> crawlDomains = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            crawlDomains.add(createCrawlDomain(String.format("domain-%d.com", i), i % 3 == 0));
+        }
+
+        CrawlDomainTrie trie = new CrawlDomainTrie(crawlDomains, Collections.emptyList());
+
+        for (int i = 0; i < 1_100; i++) {
+            for (String host : Arrays.asList(String.format("domain-%d.com", i),
+                    String.format("sub.domain-%d.com", i))) {
+                InternetDomainName domain = InternetDomainName.from(host);
+                boolean expected = crawlDomains.stream()
+                        .anyMatch(crawlDomain -> crawlDomain.contains(domain));
+
+                Assert.assertEquals(host, expected, trie.isAllowed(host));
+            }
+        }
+    }
+
+    private static CrawlDomain createCrawlDomain(final String domain, final boolean isWildcard) {
+        return new CrawlDomain(InternetDomainName.from(domain), isWildcard);
+    }
+}
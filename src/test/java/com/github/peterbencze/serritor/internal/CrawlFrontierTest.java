@@ -27,6 +27,10 @@ import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
@@ -142,6 +146,21 @@ public final class CrawlFrontierTest {
         Mockito.verify(statsCounterMock).recordOffsiteRequest();
     }
 
+    @Test
+    public void testFeedRequestWhenOffsiteRequestFilterIsEnabledAndRequestDomainIsExcluded() {
+        CrawlerConfiguration config = new CrawlerConfigurationBuilder()
+                .setOffsiteRequestFilterEnabled(true)
+                .addAllowedCrawlDomains(ALLOWED_CRAWL_DOMAINS)
+                .addExcludedCrawlDomain(ROOT_URL_1_DOMAIN)
+                .build();
+        crawlFrontier = new CrawlFrontier(config, statsCounterMock);
+
+        crawlFrontier.feedRequest(ROOT_URL_1_CRAWL_REQUEST, true);
+
+        Assert.assertThat(crawlFrontier.hasNextCandidate(), Matchers.is(false));
+        Mockito.verify(statsCounterMock).recordOffsiteRequest();
+    }
+
     @Test
     public void testFeedRequestWhenDuplicateRequestFilterIsDisabledAndRequestIsADuplicate() {
         Mockito.when(configMock.isDuplicateRequestFilterEnabled()).thenReturn(false);
@@ -197,6 +216,96 @@ public final class CrawlFrontierTest {
         Mockito.verify(statsCounterMock).recordRemainingCrawlCandidate();
     }
 
+    @Test
+    public void testFeedLinkWhenLinkIsRelative() {
+        crawlFrontier.feedRequest(ROOT_URL_0_CRAWL_REQUEST, true);
+        crawlFrontier.getNextCandidate();
+
+        Assert.assertThat(crawlFrontier.feedLink(CHILD_URL_PATH + "-0"), Matchers.is(true));
+
+        CrawlCandidate candidate = crawlFrontier.getNextCandidate();
+        Assert.assertThat(candidate.getRequestUrl(), Matchers.is(CHILD_URL_0));
+        Assert.assertThat(candidate.getCrawlDepth(), Matchers.is(CHILD_URL_CRAWL_DEPTH));
+        Assert.assertThat(candidate.getRefererUrl(), Matchers.is(ROOT_URL_0));
+        Mockito.verify(statsCounterMock, Mockito.times(2)).recordRemainingCrawlCandidate();
+    }
+
+    @Test
+    public void testFeedLinkWhenLinkIsOffsite() {
+        crawlFrontier.feedRequest(ROOT_URL_0_CRAWL_REQUEST, true);
+        crawlFrontier.getNextCandidate();
+
+        Assert.assertThat(crawlFrontier.feedLink(OFFSITE_URL.toString()), Matchers.is(false));
+
+        Assert.assertThat(crawlFrontier.hasNextCandidate(), Matchers.is(false));
+        Mockito.verify(statsCounterMock).recordOffsiteRequest();
+    }
+
+    @Test
+    public void testFeedLinkWhenLinkIsADuplicate() {
+        crawlFrontier.feedRequest(ROOT_URL_0_CRAWL_REQUEST, true);
+        crawlFrontier.getNextCandidate();
+
+        Assert.assertThat(crawlFrontier.feedLink(DUPLICATE_ROOT_URL_0.toString()),
+                Matchers.is(false));
+
+        Assert.assertThat(crawlFrontier.hasNextCandidate(), Matchers.is(false));
+        Mockito.verify(statsCounterMock).recordDuplicateRequest();
+    }
+
+    @Test
+    public void testFeedLinkWhenLinkIsADuplicateOfRequestWithEmptyPath() {
+        crawlFrontier.feedRequest(ROOT_URL_1_CRAWL_REQUEST, true);
+        crawlFrontier.getNextCandidate();
+
+        Assert.assertThat(crawlFrontier.feedLink("http://root-url-1.com"), Matchers.is(false));
+
+        Mockito.verify(statsCounterMock).recordDuplicateRequest();
+    }
+
+    @Test
+    public void testFeedLinkWhenCrawlDepthLimitIsSetAndLinkExceedsLimit() {
+        Mockito.when(configMock.getMaximumCrawlDepth()).thenReturn(1);
+        crawlFrontier.feedRequest(ROOT_URL_0_CRAWL_REQUEST, true);
+        crawlFrontier.getNextCandidate();
+
+        Assert.assertThat(crawlFrontier.feedLink(CHILD_URL_0.toString()), Matchers.is(false));
+
+        Assert.assertThat(crawlFrontier.hasNextCandidate(), Matchers.is(false));
+        Mockito.verify(statsCounterMock).recordCrawlDepthLimitExceedingRequest();
+    }
+
+    @Test
+    public void testFeedLinkWhenLinkHasNoHost() {
+        crawlFrontier.feedRequest(ROOT_URL_0_CRAWL_REQUEST, true);
+        crawlFrontier.getNextCandidate();
+
+        Assert.assertThat(crawlFrontier.feedLink("mailto:info@root-url-0.com"),
+                Matchers.is(false));
+        Assert.assertThat(crawlFrontier.feedLink("http://root url"), Matchers.is(false));
+
+        Assert.assertThat(crawlFrontier.hasNextCandidate(), Matchers.is(false));
+    }
+
+    @Test
+    public void testFeedLinkWhenLinkHasInvalidDomain() {
+        Mockito.when(configMock.isOffsiteRequestFilterEnabled()).thenReturn(false);
+        crawlFrontier.feedRequest(ROOT_URL_0_CRAWL_REQUEST, true);
+        crawlFrontier.getNextCandidate();
+
+        // The invalid link is not marked as seen, so it is not filtered as a duplicate either
+        Assert.assertThat(crawlFrontier.feedLink("http://127.0.0.1/"), Matchers.is(false));
+        Assert.assertThat(crawlFrontier.feedLink("http://127.0.0.1/"), Matchers.is(false));
+
+        Assert.assertThat(crawlFrontier.hasNextCandidate(), Matchers.is(false));
+        Mockito.verify(statsCounterMock, Mockito.never()).recordDuplicateRequest();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFeedLinkWhenCallingThreadHasNoCurrentCandidate() {
+        crawlFrontier.feedLink(CHILD_URL_0.toString());
+    }
+
     @Test
     public void testHasNextCandidateWhenCandidateQueueIsEmpty() {
         Assert.assertThat(crawlFrontier.hasNextCandidate(), Matchers.is(false));
@@ -299,6 +408,266 @@ public final class CrawlFrontierTest {
         Assert.assertThat(crawlFrontier.getNextCandidate(), Matchers.nullValue());
     }
 
+    @Test
+    public void testAwaitNextCandidateWhenCandidateQueueIsEmptyAndNoCandidateIsInProgress()
+            throws InterruptedException {
+        Assert.assertThat(crawlFrontier.awaitNextCandidate(() -> false), Matchers.nullValue());
+    }
+
+    @Test
+    public void testAwaitNextCandidateWhenStopConditionIsMet() throws InterruptedException {
+        crawlFrontier.feedRequest(ROOT_URL_0_CRAWL_REQUEST, true);
+
+        Assert.assertThat(crawlFrontier.awaitNextCandidate(() -> true), Matchers.nullValue());
+        Assert.assertThat(crawlFrontier.hasNextCandidate(), Matchers.is(true));
+    }
+
+    @Test
+    public void testAwaitNextCandidateWhenAnotherThreadFeedsRequestFromInProgressCandidate()
+            throws Exception {
+        crawlFrontier.feedRequest(ROOT_URL_0_CRAWL_REQUEST, true);
+        Assert.assertThat(crawlFrontier.awaitNextCandidate(() -> false).getRequestUrl(),
+                Matchers.is(ROOT_URL_0));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // The queue is empty, but the candidate of this thread is still in progress
+            Future<CrawlCandidate> future =
+                    executor.submit(() -> crawlFrontier.awaitNextCandidate(() -> false));
+
+            crawlFrontier.feedRequest(CHILD_URL_0_CRAWL_REQUEST, false);
+
+            CrawlCandidate nextCandidate = future.get(5, TimeUnit.SECONDS);
+            Assert.assertThat(nextCandidate.getRequestUrl(), Matchers.is(CHILD_URL_0));
+            Assert.assertThat(nextCandidate.getRefererUrl(), Matchers.is(ROOT_URL_0));
+            Assert.assertThat(nextCandidate.getCrawlDepth(), Matchers.is(CHILD_URL_CRAWL_DEPTH));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAwaitNextCandidateWhenInProgressCandidateIsCompleted() throws Exception {
+        crawlFrontier.feedRequest(ROOT_URL_0_CRAWL_REQUEST, true);
+        crawlFrontier.awaitNextCandidate(() -> false);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<CrawlCandidate> future =
+                    executor.submit(() -> crawlFrontier.awaitNextCandidate(() -> false));
+
+            crawlFrontier.completeCurrentCandidate();
+
+            Assert.assertThat(future.get(5, TimeUnit.SECONDS), Matchers.nullValue());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAwaitNextCandidateWhenRetainedCandidateFeedsRequest() throws Exception {
+        crawlFrontier.feedRequest(ROOT_URL_0_CRAWL_REQUEST, true);
+        crawlFrontier.awaitNextCandidate(() -> false);
+
+        CrawlCandidate retainedCandidate = crawlFrontier.retainCurrentCandidate();
+        crawlFrontier.completeCurrentCandidate();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // The queue is empty, but the retained candidate is still in progress
+            Future<CrawlCandidate> future =
+                    executor.submit(() -> crawlFrontier.awaitNextCandidate(() -> false));
+
+            crawlFrontier.runWithRetainedCandidate(retainedCandidate,
+                    () -> crawlFrontier.feedRequest(CHILD_URL_0_CRAWL_REQUEST, false));
+
+            CrawlCandidate nextCandidate = future.get(5, TimeUnit.SECONDS);
+            Assert.assertThat(nextCandidate.getRequestUrl(), Matchers.is(CHILD_URL_0));
+            Assert.assertThat(nextCandidate.getRefererUrl(), Matchers.is(ROOT_URL_0));
+            Assert.assertThat(nextCandidate.getCrawlDepth(), Matchers.is(CHILD_URL_CRAWL_DEPTH));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAwaitNextCandidateWhenRetainedCandidateIsReleased() throws Exception {
+        crawlFrontier.feedRequest(ROOT_URL_0_CRAWL_REQUEST, true);
+        crawlFrontier.awaitNextCandidate(() -> false);
+
+        CrawlCandidate retainedCandidate = crawlFrontier.retainCurrentCandidate();
+        crawlFrontier.completeCurrentCandidate();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<CrawlCandidate> future =
+                    executor.submit(() -> crawlFrontier.awaitNextCandidate(() -> false));
+
+            crawlFrontier.runWithRetainedCandidate(retainedCandidate, () -> {
+            });
+
+            Assert.assertThat(future.get(5, TimeUnit.SECONDS), Matchers.nullValue());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGetNextCandidateWhenCrawlDelayOfHostHasNotPassed() {
+        Mockito.when(configMock.getFixedCrawlDelayDurationInMillis())
+                .thenReturn(TimeUnit.MINUTES.toMillis(1));
+
+        CrawlRequest firstRequest = new CrawlRequestBuilder(CHILD_URL_0).setPriority(2).build();
+        CrawlRequest secondRequest = new CrawlRequestBuilder(CHILD_URL_1).setPriority(1).build();
+        CrawlRequest otherHostRequest
+                = new CrawlRequestBuilder(CHILD_URL_2).setPriority(0).build();
+        crawlFrontier.feedRequest(firstRequest, true);
+        crawlFrontier.feedRequest(secondRequest, true);
+        crawlFrontier.feedRequest(otherHostRequest, true);
+
+        Assert.assertThat(crawlFrontier.getNextCandidate().getRequestUrl(),
+                Matchers.is(CHILD_URL_0));
+        crawlFrontier.completeCurrentCandidate(TimeUnit.MINUTES.toMillis(1));
+
+        // The second request is deferred, since its host has to wait for the crawl delay
+        Assert.assertThat(crawlFrontier.getNextCandidate().getRequestUrl(),
+                Matchers.is(CHILD_URL_2));
+        Assert.assertThat(crawlFrontier.getNextCandidate(), Matchers.nullValue());
+        Assert.assertThat(crawlFrontier.hasNextCandidate(), Matchers.is(true));
+    }
+
+    @Test
+    public void testGetNextCandidateWhenHostWithManyCandidatesIsNotReady() {
+        Mockito.when(configMock.getFixedCrawlDelayDurationInMillis())
+                .thenReturn(TimeUnit.MINUTES.toMillis(1));
+
+        // The candidates of the first host precede the other host's candidate in the front queue
+        int firstHostCandidateCount = 20_000;
+        for (int i = 0; i < firstHostCandidateCount; i++) {
+            crawlFrontier.feedRequest(CrawlRequest.createDefault(
+                    String.format("http://root-url-0.com/page-%d", i)), true);
+        }
+
+        crawlFrontier.feedRequest(CrawlRequest.createDefault(CHILD_URL_2), true);
+
+        Assert.assertThat(crawlFrontier.getNextCandidate().getRequestUrl().getHost(),
+                Matchers.is(ROOT_URL_0_DOMAIN));
+        crawlFrontier.completeCurrentCandidate(TimeUnit.MINUTES.toMillis(1));
+
+        Assert.assertThat(crawlFrontier.getNextCandidate().getRequestUrl(),
+                Matchers.is(CHILD_URL_2));
+        Assert.assertThat(crawlFrontier.getCandidateCount(),
+                Matchers.is((long) firstHostCandidateCount - 1));
+    }
+
+    @Test
+    public void testAwaitNextCandidateWhenUsingDepthFirstCrawlStrategyWithCrawlDelay()
+            throws InterruptedException {
+        Mockito.when(configMock.getCrawlStrategy()).thenReturn(CrawlStrategy.DEPTH_FIRST);
+        Mockito.when(configMock.getFixedCrawlDelayDurationInMillis()).thenReturn(1L);
+        CrawlFrontier crawlFrontier = new CrawlFrontier(configMock, statsCounterMock);
+
+        URI secondLevelUrl0 = URI.create("http://root-url-0.com/d2-0");
+        URI secondLevelUrl1 = URI.create("http://root-url-0.com/d2-1");
+        URI secondLevelUrl2 = URI.create("http://root-url-0.com/d2-2");
+        URI thirdLevelUrl = URI.create("http://root-url-0.com/d3-0");
+
+        crawlFrontier.feedRequest(CrawlRequest.createDefault(ROOT_URL_0), true);
+        crawlFrontier.awaitNextCandidate(() -> false);
+        crawlFrontier.feedRequest(CrawlRequest.createDefault(secondLevelUrl0), false);
+        crawlFrontier.feedRequest(CrawlRequest.createDefault(secondLevelUrl1), false);
+        crawlFrontier.feedRequest(CrawlRequest.createDefault(secondLevelUrl2), false);
+        crawlFrontier.completeCurrentCandidate(1);
+
+        // The second level candidates are deferred until the crawl delay passes
+        Assert.assertThat(crawlFrontier.awaitNextCandidate(() -> false).getRequestUrl(),
+                Matchers.is(secondLevelUrl0));
+        crawlFrontier.feedRequest(CrawlRequest.createDefault(thirdLevelUrl), false);
+        crawlFrontier.completeCurrentCandidate(0);
+
+        Assert.assertThat(crawlFrontier.awaitNextCandidate(() -> false).getRequestUrl(),
+                Matchers.is(thirdLevelUrl));
+        Assert.assertThat(crawlFrontier.awaitNextCandidate(() -> false).getRequestUrl(),
+                Matchers.is(secondLevelUrl1));
+        Assert.assertThat(crawlFrontier.awaitNextCandidate(() -> false).getRequestUrl(),
+                Matchers.is(secondLevelUrl2));
+    }
+
+    @Test
+    public void testCreateSnapshotWhenCandidatesAreInProgressAndDeferred() {
+        Mockito.when(configMock.isDuplicateRequestFilterEnabled()).thenReturn(true);
+        Mockito.when(configMock.getFixedCrawlDelayDurationInMillis())
+                .thenReturn(TimeUnit.MINUTES.toMillis(1));
+        crawlFrontier = new CrawlFrontier(configMock, new StatsCounter());
+
+        crawlFrontier.feedRequest(CHILD_URL_0_CRAWL_REQUEST, true);
+        crawlFrontier.feedRequest(CHILD_URL_1_CRAWL_REQUEST, true);
+        crawlFrontier.feedRequest(CHILD_URL_2_CRAWL_REQUEST, true);
+
+        // One candidate of each host stays in progress, the remaining one is deferred
+        CrawlCandidate firstCandidate = crawlFrontier.getNextCandidate();
+        crawlFrontier.retainCurrentCandidate();
+        crawlFrontier.completeCurrentCandidate(TimeUnit.MINUTES.toMillis(1));
+        CrawlCandidate secondCandidate = crawlFrontier.getNextCandidate();
+        crawlFrontier.retainCurrentCandidate();
+        crawlFrontier.completeCurrentCandidate(TimeUnit.MINUTES.toMillis(1));
+        Assert.assertThat(crawlFrontier.getNextCandidate(), Matchers.nullValue());
+
+        CrawlFrontier snapshot = crawlFrontier.createSnapshot();
+        crawlFrontier.reset();
+
+        Assert.assertThat(snapshot.getCandidateCount(), Matchers.is(3L));
+        Assert.assertThat(snapshot.getStatsCounter().getRemainingCrawlCandidateCount(),
+                Matchers.is(3L));
+
+        List<URI> snapshotUrls = Arrays.asList(snapshot.getNextCandidate().getRequestUrl(),
+                snapshot.getNextCandidate().getRequestUrl(),
+                snapshot.getNextCandidate().getRequestUrl());
+        Assert.assertThat(snapshotUrls,
+                Matchers.containsInAnyOrder(CHILD_URL_0, CHILD_URL_1, CHILD_URL_2));
+        Assert.assertThat(snapshotUrls, Matchers.hasItems(firstCandidate.getRequestUrl(),
+                secondCandidate.getRequestUrl()));
+
+        // The URL fingerprints are copied along with the candidates
+        snapshot.feedRequest(CHILD_URL_0_CRAWL_REQUEST, true);
+        Assert.assertThat(snapshot.hasNextCandidate(), Matchers.is(false));
+    }
+
+    @Test
+    public void testReleaseSnapshot() {
+        crawlFrontier = new CrawlFrontier(configMock, new StatsCounter());
+        crawlFrontier.feedRequest(CHILD_URL_0_CRAWL_REQUEST, true);
+        crawlFrontier.feedRequest(CHILD_URL_1_CRAWL_REQUEST, true);
+
+        CrawlFrontier snapshot = crawlFrontier.createSnapshot();
+        snapshot.releaseSnapshot();
+
+        Assert.assertThat(snapshot.getCandidateCount(), Matchers.is(0L));
+        Assert.assertThat(crawlFrontier.getCandidateCount(), Matchers.is(2L));
+    }
+
+    @Test
+    public void testForEachDeferredHostWhenConsumerFeedsRequest() {
+        Mockito.when(configMock.getFixedCrawlDelayDurationInMillis())
+                .thenReturn(TimeUnit.MINUTES.toMillis(1));
+
+        crawlFrontier.feedRequest(CHILD_URL_0_CRAWL_REQUEST, true);
+        crawlFrontier.feedRequest(CHILD_URL_1_CRAWL_REQUEST, true);
+        crawlFrontier.getNextCandidate();
+        crawlFrontier.completeCurrentCandidate(TimeUnit.MINUTES.toMillis(1));
+        Assert.assertThat(crawlFrontier.getNextCandidate(), Matchers.nullValue());
+
+        // The consumer is called without holding the lock, so it cannot block the frontier
+        crawlFrontier.forEachDeferredHost((host, count) -> {
+            Assert.assertThat(host, Matchers.is(ROOT_URL_0_DOMAIN));
+            Assert.assertThat(count, Matchers.is(1));
+
+            crawlFrontier.feedRequest(CHILD_URL_2_CRAWL_REQUEST, true);
+        });
+
+        Assert.assertThat(crawlFrontier.getCandidateCount(), Matchers.is(2L));
+    }
+
     @Test
     public void testResetWhenCandidateQueueIsNotEmpty() {
         crawlFrontier.feedRequest(ROOT_URL_0_CRAWL_REQUEST, true);
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.api.CrawlCandidate.CrawlCandidateBuilder;
+import com.github.peterbencze.serritor.api.CrawlRequest;
+import com.github.peterbencze.serritor.api.CrawlStrategy;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.SerializationUtils;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link HostPolitenessScheduler}.
+ */
+public final class HostPolitenessSchedulerTest {
+
+    private static final CrawlCandidate HOST_0_CANDIDATE_0
+            = createCandidate("http://host-0.com/page-0");
+    private static final CrawlCandidate HOST_0_CANDIDATE_1
+            = createCandidate("http://HOST-0.com/page-1");
+    private static final CrawlCandidate HOST_1_CANDIDATE
+            = createCandidate("http://host-1.com/page-0");
+
+    private static final long DELAY = TimeUnit.MINUTES.toNanos(1);
+
+    private HostPolitenessScheduler scheduler;
+
+    @Before
+    public void before() {
+        scheduler = new HostPolitenessScheduler(CrawlStrategy.DEPTH_FIRST);
+    }
+
+    @Test
+    public void testCanDispatchWhenHostIsUnknown() {
+        Assert.assertThat(scheduler.canDispatch(HOST_0_CANDIDATE_0, 0), Matchers.is(true));
+    }
+
+    @Test
+    public void testCanDispatchWhenRequestToHostIsInFlight() {
+        scheduler.markDispatched(HOST_0_CANDIDATE_0);
+
+        Assert.assertThat(scheduler.canDispatch(HOST_0_CANDIDATE_1, 0), Matchers.is(false));
+        Assert.assertThat(scheduler.canDispatch(HOST_1_CANDIDATE, 0), Matchers.is(true));
+    }
+
+    @Test
+    public void testCanDispatchWhenCrawlDelayOfHostHasNotPassed() {
+        scheduler.markDispatched(HOST_0_CANDIDATE_0);
+        scheduler.markCompleted(HOST_0_CANDIDATE_0, System.nanoTime() + DELAY);
+
+        long now = System.nanoTime();
+        Assert.assertThat(scheduler.canDispatch(HOST_0_CANDIDATE_1, now), Matchers.is(false));
+        Assert.assertThat(scheduler.canDispatch(HOST_0_CANDIDATE_1, now + DELAY),
+                Matchers.is(true));
+    }
+
+    @Test
+    public void testCanDispatchWhenHostHasDeferredCandidates() {
+        scheduler.markDispatched(HOST_0_CANDIDATE_0);
+        scheduler.defer(HOST_0_CANDIDATE_1);
+        scheduler.markCompleted(HOST_0_CANDIDATE_0, System.nanoTime());
+
+        Assert.assertThat(scheduler.canDispatch(HOST_0_CANDIDATE_0, System.nanoTime()),
+                Matchers.is(false));
+    }
+
+    @Test
+    public void testPollReadyCandidateWhenHostOfDeferredCandidateIsNotReady() {
+        scheduler.markDispatched(HOST_0_CANDIDATE_0);
+        scheduler.defer(HOST_0_CANDIDATE_1);
+
+        Assert.assertThat(scheduler.pollReadyCandidate(System.nanoTime()),
+                Matchers.nullValue());
+        Assert.assertThat(scheduler.getTimeUntilNextReadyHost(System.nanoTime()),
+                Matchers.is(Long.MAX_VALUE));
+        Assert.assertThat(scheduler.getDeferredCandidateCount(), Matchers.is(1));
+    }
+
+    @Test
+    public void testPollReadyCandidateWhenHostOfDeferredCandidateBecomesReady() {
+        scheduler.markDispatched(HOST_0_CANDIDATE_0);
+        scheduler.defer(HOST_0_CANDIDATE_1);
+
+        long readyTime = System.nanoTime() + DELAY;
+        scheduler.markCompleted(HOST_0_CANDIDATE_0, readyTime);
+
+        Assert.assertThat(scheduler.pollReadyCandidate(readyTime - 1), Matchers.nullValue());
+        Assert.assertThat(scheduler.getTimeUntilNextReadyHost(readyTime - 1), Matchers.is(1L));
+        Assert.assertThat(scheduler.pollReadyCandidate(readyTime),
+                Matchers.is(HOST_0_CANDIDATE_1));
+        Assert.assertThat(scheduler.getDeferredCandidateCount(), Matchers.is(0));
+    }
+
+    @Test
+    public void testPollReadyCandidateWhenDeferredCandidatesHaveDifferentCrawlDepths() {
+        CrawlCandidate shallowCandidate = createCandidate("http://host-0.com/shallow", 2);
+        CrawlCandidate deepCandidate = createCandidate("http://host-0.com/deep", 3);
+
+        scheduler.markDispatched(HOST_0_CANDIDATE_0);
+        scheduler.defer(shallowCandidate);
+        scheduler.defer(deepCandidate);
+        scheduler.markCompleted(HOST_0_CANDIDATE_0, System.nanoTime());
+
+        // The back queue of the host follows the depth-first strategy
+        Assert.assertThat(scheduler.pollReadyCandidate(System.nanoTime()),
+                Matchers.is(deepCandidate));
+        scheduler.markDispatched(deepCandidate);
+        scheduler.markCompleted(deepCandidate, System.nanoTime());
+        Assert.assertThat(scheduler.pollReadyCandidate(System.nanoTime()),
+                Matchers.is(shallowCandidate));
+    }
+
+    @Test
+    public void testMarkCompletedWhenManyHostsAreVisited() {
+        int hostCount = 10_000;
+        for (int i = 0; i < hostCount; i++) {
+            CrawlCandidate candidate = createCandidate(String.format("http://host-%d.com/", i));
+            scheduler.markDispatched(candidate);
+            scheduler.markCompleted(candidate, System.nanoTime());
+        }
+
+        // The idle hosts whose ready time has passed are pruned
+        Assert.assertThat(scheduler.getHostCount(), Matchers.lessThan(hostCount / 4));
+    }
+
+    @Test
+    public void testPollReadyCandidateWhenSchedulerIsDeserialized() {
+        scheduler.markDispatched(HOST_0_CANDIDATE_0);
+        scheduler.defer(HOST_0_CANDIDATE_1);
+
+        HostPolitenessScheduler deserializedScheduler
+                = SerializationUtils.deserialize(SerializationUtils.serialize(scheduler));
+
+        CrawlCandidate readyCandidate = deserializedScheduler.pollReadyCandidate(System.nanoTime());
+        Assert.assertThat(readyCandidate, Matchers.notNullValue());
+        Assert.assertThat(readyCandidate.getRequestUrl(),
+                Matchers.is(HOST_0_CANDIDATE_1.getRequestUrl()));
+    }
+
+    @Test
+    public void testClearWhenCandidatesAreDeferred() {
+        scheduler.markDispatched(HOST_0_CANDIDATE_0);
+        scheduler.defer(HOST_0_CANDIDATE_1);
+
+        scheduler.clear();
+
+        Assert.assertThat(scheduler.getDeferredCandidateCount(), Matchers.is(0));
+        Assert.assertThat(scheduler.canDispatch(HOST_0_CANDIDATE_1, System.nanoTime()),
+                Matchers.is(true));
+    }
+
+    private static CrawlCandidate createCandidate(final String url) {
+        return createCandidate(url, 1);
+    }
+
+    private static CrawlCandidate createCandidate(final String url, final int crawlDepth) {
+        return new CrawlCandidateBuilder(CrawlRequest.createDefault(url))
+                .setCrawlDepth(crawlDepth)
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal;
+
+import java.net.URI;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link MimeTypeCache}.
+ */
+public final class MimeTypeCacheTest {
+
+    private static final int MIN_HTML_OBSERVATION_COUNT = 2;
+
+    private static final URI ARTICLE_URL_0 = URI.create("http://example.com/articles/0");
+    private static final URI ARTICLE_URL_1 = URI.create("http://EXAMPLE.com/articles/1");
+    private static final URI ARTICLE_URL_2 = URI.create("http://example.com/articles/2");
+    private static final URI PDF_URL = URI.create("http://example.com/articles/0.pdf");
+    private static final URI OTHER_HOST_URL = URI.create("http://other.com/articles/0");
+
+    private MimeTypeCache mimeTypeCache;
+
+    @Before
+    public void before() {
+        mimeTypeCache = new MimeTypeCache(MIN_HTML_OBSERVATION_COUNT);
+    }
+
+    @Test
+    public void testIsKnownHtmlWhenNothingIsRecorded() {
+        Assert.assertThat(mimeTypeCache.isKnownHtml(ARTICLE_URL_0), Matchers.is(false));
+    }
+
+    @Test
+    public void testIsKnownHtmlWhenNotEnoughHtmlObservationsAreRecorded() {
+        mimeTypeCache.recordHtml(ARTICLE_URL_0);
+
+        Assert.assertThat(mimeTypeCache.isKnownHtml(ARTICLE_URL_1), Matchers.is(false));
+    }
+
+    @Test
+    public void testIsKnownHtmlWhenEnoughHtmlObservationsAreRecordedForSameShape() {
+        mimeTypeCache.recordHtml(ARTICLE_URL_0);
+        mimeTypeCache.recordHtml(ARTICLE_URL_1);
+
+        Assert.assertThat(mimeTypeCache.isKnownHtml(ARTICLE_URL_2), Matchers.is(true));
+        Assert.assertThat(mimeTypeCache.isKnownHtml(PDF_URL), Matchers.is(false));
+        Assert.assertThat(mimeTypeCache.isKnownHtml(OTHER_HOST_URL), Matchers.is(false));
+    }
+
+    @Test
+    public void testIsKnownHtmlWhenNonHtmlObservationIsRecorded() {
+        mimeTypeCache.recordHtml(ARTICLE_URL_0);
+        mimeTypeCache.recordHtml(ARTICLE_URL_1);
+        mimeTypeCache.recordNonHtml(ARTICLE_URL_2);
+
+        Assert.assertThat(mimeTypeCache.isKnownHtml(ARTICLE_URL_0), Matchers.is(false));
+    }
+
+    @Test
+    public void testIsKnownHtmlWhenHtmlStreakIsReset() {
+        mimeTypeCache.recordHtml(ARTICLE_URL_0);
+        mimeTypeCache.recordHtml(ARTICLE_URL_1);
+        mimeTypeCache.resetHtmlStreak(ARTICLE_URL_2);
+
+        Assert.assertThat(mimeTypeCache.isKnownHtml(ARTICLE_URL_0), Matchers.is(false));
+
+        mimeTypeCache.recordHtml(ARTICLE_URL_0);
+        mimeTypeCache.recordHtml(ARTICLE_URL_1);
+
+        Assert.assertThat(mimeTypeCache.isKnownHtml(ARTICLE_URL_2), Matchers.is(true));
+    }
+}
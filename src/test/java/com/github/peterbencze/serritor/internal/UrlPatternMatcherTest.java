@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link UrlPatternMatcher}.
+ */
+public final class UrlPatternMatcherTest {
+
+    @Test
+    public void testExtractRequiredLiteral() {
+        Assert.assertEquals("://example.com/products/", UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("^https?://example\\.com/products/\\d+")));
+        Assert.assertEquals("/search", UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("/search(\\?q=.*)?$")));
+        Assert.assertEquals("/item-", UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("[a-z]+/item-[0-9]{2,4}")));
+        Assert.assertEquals("/pages/", UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("/pages?/pages/")));
+        Assert.assertEquals("a+b", UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("a+b", Pattern.LITERAL)));
+    }
+
+    @Test
+    public void testExtractRequiredLiteralWhenThereIsNone() {
+        Assert.assertNull(UrlPatternMatcher.extractRequiredLiteral(Pattern.compile(".*")));
+        Assert.assertNull(UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("/foo/|/bar/")));
+        Assert.assertNull(UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("(?i)/foo/")));
+        Assert.assertNull(UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("/foo/", Pattern.CASE_INSENSITIVE)));
+        Assert.assertNull(UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("[[a-z]&&[^c]]")));
+    }
+
+    @Test
+    public void testExtractRequiredLiteralWhenEscapeHasArguments() {
+        Assert.assertNull(UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("\\x2Fpath")));
+        Assert.assertNull(UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("\\x{2F}path")));
+        Assert.assertNull(UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("\\u002Fpath")));
+        Assert.assertNull(UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("\\0057path")));
+        Assert.assertNull(UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("\\cJpath")));
+        Assert.assertNull(UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("(?<id>\\d)\\k<id>path")));
+        Assert.assertNull(UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("\\p{Alpha}path")));
+        Assert.assertNull(UrlPatternMatcher.extractRequiredLiteral(
+                Pattern.compile("\\PLpath")));
+    }
+
+    @Test
+    public void testFindMatchingPatternsWhenEscapeHasArguments() {
+        List<Pattern> patterns = Arrays.asList(
+                Pattern.compile("\\x2Fpath"),
+                Pattern.compile("\\u002Fpath"),
+                Pattern.compile("\\0057path"));
+        UrlPatternMatcher matcher = new UrlPatternMatcher(patterns, 0);
+
+        Assert.assertEquals(bitSetOf(0, 1, 2),
+                matcher.findMatchingPatterns("https://example.com/path"));
+    }
+
+    @Test
+    public void testFindMatchingPatterns() {
+        List<Pattern> patterns = Arrays.asList(
+                Pattern.compile("^https://example\\.com/products/\\d+$"),
+                Pattern.compile("/products/"),
+                Pattern.compile("(?i)/PRODUCTS/"),
+                Pattern.compile("/blog/|/news/"),
+                Pattern.compile("example\\.org"));
+        UrlPatternMatcher matcher = new UrlPatternMatcher(patterns, 10);
+
+        Assert.assertEquals(bitSetOf(0, 1, 2),
+                matcher.findMatchingPatterns("https://example.com/products/42"));
+        Assert.assertEquals(bitSetOf(3),
+                matcher.findMatchingPatterns("https://example.com/news/today"));
+        Assert.assertEquals(bitSetOf(),
+                matcher.findMatchingPatterns("https://example.com/about"));
+    }
+
+    @Test
+    public void testFindMatchingPatternsAgreesWithRegexEvaluation() {
+        List<Pattern> patterns = Arrays.asList(
+                Pattern.compile("/item-[0-9]{2,4}"),
+                Pattern.compile("\\.pdf$"),
+                Pattern.compile("/(?:en|de)/shop"),
+                Pattern.compile("^https://www\\.example\\.com/?$"),
+                Pattern.compile("page=\\d"));
+        UrlPatternMatcher matcher = new UrlPatternMatcher(patterns, 0);
+
+        List<String> urls = Arrays.asList(
+                "https://www.example.com/",
+                "https://www.example.com",
+                "https://www.example.com/en/shop/item-123?page=2",
+                "https://www.example.com/de/shop/item-1",
+                "https://www.example.com/files/report.pdf",
+                "https://www.example.com/files/report.pdf?download=1");
+
+        for (String url : urls) {
+            BitSet expected = new BitSet();
+            for (int i = 0; i < patterns.size(); i++) {
+                if (patterns.get(i).matcher(url).find()) {
+                    expected.set(i);
+                }
+            }
+
+            Assert.assertEquals(url, expected, matcher.findMatchingPatterns(url));
+        }
+    }
+
+    private static BitSet bitSetOf(final int... indices) {
+        BitSet bitSet = new BitSet();
+        Arrays.stream(indices).forEach(bitSet::set);
+        return bitSet;
+    }
+}
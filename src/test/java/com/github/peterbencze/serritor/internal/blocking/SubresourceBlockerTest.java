@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.blocking;
+
+import com.github.peterbencze.serritor.api.SubresourceBlockingRules;
+import com.github.peterbencze.serritor.api.SubresourceBlockingRules.SubresourceBlockingRulesBuilder;
+import com.github.peterbencze.serritor.internal.stats.StatsCounter;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import java.util.regex.Pattern;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.littleshoot.proxy.HttpFilters;
+
+/**
+ * Test cases for {@link SubresourceBlocker}.
+ */
+public final class SubresourceBlockerTest {
+
+    private static final String PAGE_URL = "http://example.com/page";
+
+    private ChannelHandlerContext ctx;
+    private StatsCounter statsCounter;
+    private SubresourceBlocker subresourceBlocker;
+
+    @Before
+    public void before() {
+        // The filters read the connection attributes, so a real channel context is needed
+        ctx = new EmbeddedChannel(new ChannelInboundHandlerAdapter()).pipeline().firstContext();
+        statsCounter = new StatsCounter();
+
+        SubresourceBlockingRules blockingRules = new SubresourceBlockingRulesBuilder()
+                .blockMimeType("image/*")
+                .blockMimeType("text/html")
+                .blockExtension(".woff2")
+                .blockHostPattern(Pattern.compile("tracker\\.test$"))
+                .allowHostPattern(Pattern.compile("^cdn\\.example\\.com$"))
+                .build();
+        subresourceBlocker = new SubresourceBlocker(blockingRules, PAGE_URL::equals, statsCounter);
+    }
+
+    @Test
+    public void testRequestIsBlockedByExtension() {
+        String url = "http://example.com/fonts/font.WOFF2?v=1";
+
+        HttpResponse response = createFilters(url).clientToProxyRequest(createRequest(url));
+
+        Assert.assertThat(response, Matchers.notNullValue());
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpResponseStatus.NO_CONTENT));
+        Assert.assertThat(statsCounter.getBlockedSubresourceCount(), Matchers.is(1L));
+    }
+
+    @Test
+    public void testRequestIsBlockedByHost() {
+        String url = "http://www.tracker.test/pixel";
+
+        Assert.assertThat(createFilters(url).clientToProxyRequest(createRequest(url)),
+                Matchers.notNullValue());
+    }
+
+    @Test
+    public void testRequestIsNotBlockedWhenNoRuleMatches() {
+        String url = "http://example.com/script.js";
+
+        Assert.assertThat(createFilters(url).clientToProxyRequest(createRequest(url)),
+                Matchers.nullValue());
+        Assert.assertThat(statsCounter.getBlockedSubresourceCount(), Matchers.is(0L));
+    }
+
+    @Test
+    public void testResponseIsBlockedByMimeType() {
+        HttpResponse response = createResponse("image/png");
+        HttpHeaders.setContentLength(response, 2048);
+
+        HttpFilters filters = createFilters("http://example.com/image");
+
+        HttpObject blockedResponse = filters.serverToProxyResponse(response);
+        Assert.assertThat(blockedResponse, Matchers.instanceOf(HttpResponse.class));
+        Assert.assertThat(((HttpResponse) blockedResponse).getStatus(),
+                Matchers.is(HttpResponseStatus.NO_CONTENT));
+
+        // The rest of the body is dropped by closing the connection
+        Assert.assertThat(filters.serverToProxyResponse(new DefaultHttpContent(
+                Unpooled.wrappedBuffer(new byte[16]))), Matchers.nullValue());
+        Assert.assertThat(statsCounter.getBlockedSubresourceCount(), Matchers.is(1L));
+        Assert.assertThat(statsCounter.getBlockedSubresourceByteCount(), Matchers.is(2048L));
+    }
+
+    @Test
+    public void testMainDocumentIsNeverBlocked() {
+        HttpResponse response = createResponse("text/html; charset=UTF-8");
+
+        Assert.assertThat(createFilters(PAGE_URL).serverToProxyResponse(response),
+                Matchers.is(response));
+        Assert.assertThat(statsCounter.getBlockedSubresourceCount(), Matchers.is(0L));
+    }
+
+    @Test
+    public void testAllowedHostIsNeverBlocked() {
+        String url = "http://cdn.example.com/font.woff2";
+        HttpResponse response = createResponse("image/png");
+
+        HttpFilters filters = createFilters(url);
+        Assert.assertThat(filters.clientToProxyRequest(createRequest(url)), Matchers.nullValue());
+        Assert.assertThat(filters.serverToProxyResponse(response), Matchers.is(response));
+    }
+
+    private HttpFilters createFilters(final String url) {
+        return subresourceBlocker.filterRequest(createRequest(url), ctx);
+    }
+
+    private static HttpRequest createRequest(final String url) {
+        return new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, url);
+    }
+
+    private static HttpResponse createResponse(final String contentType) {
+        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.OK);
+        response.headers().set(HttpHeaders.Names.CONTENT_TYPE, contentType);
+        return response;
+    }
+}
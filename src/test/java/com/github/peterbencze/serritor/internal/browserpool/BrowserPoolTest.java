@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.browserpool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Test cases for {@link BrowserPool}.
+ */
+public final class BrowserPoolTest {
+
+    private final List<WebDriver> startedBrowsers = new ArrayList<>();
+
+    @Test
+    public void testAcquireWhenNoSpareBrowserIsKept() {
+        BrowserPool browserPool = new BrowserPool(createWebDriverFactory(), 0);
+
+        WebDriver webDriver = browserPool.acquire();
+        browserPool.shutdown();
+
+        Assert.assertThat(startedBrowsers, Matchers.contains(webDriver));
+        Mockito.verify(webDriver, Mockito.never()).quit();
+    }
+
+    @Test
+    public void testAcquireWhenSpareBrowserIsKept() {
+        BrowserPool browserPool = new BrowserPool(createWebDriverFactory(), 1);
+
+        WebDriver firstWebDriver = browserPool.acquire();
+        WebDriver secondWebDriver = browserPool.acquire();
+        browserPool.shutdown();
+
+        // The second browser was warmed up while the first one was in use, and a third one was
+        // warmed up after the second was acquired
+        Assert.assertThat(startedBrowsers, Matchers.hasSize(3));
+        Assert.assertThat(startedBrowsers.subList(0, 2),
+                Matchers.contains(firstWebDriver, secondWebDriver));
+        Mockito.verify(startedBrowsers.get(2)).quit();
+    }
+
+    @Test
+    public void testRetireWhenBrowserIsInUse() {
+        BrowserPool browserPool = new BrowserPool(createWebDriverFactory(), 0);
+
+        WebDriver webDriver = browserPool.acquire();
+        browserPool.retire(webDriver);
+        browserPool.shutdown();
+
+        Mockito.verify(webDriver).quit();
+    }
+
+    private Supplier<WebDriver> createWebDriverFactory() {
+        return () -> {
+            WebDriver webDriver = Mockito.mock(WebDriver.class);
+
+            synchronized (startedBrowsers) {
+                startedBrowsers.add(webDriver);
+            }
+
+            return webDriver;
+        };
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.candidatequeue;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.api.CrawlCandidate.CrawlCandidateBuilder;
+import com.github.peterbencze.serritor.api.CrawlRequest.CrawlRequestBuilder;
+import com.github.peterbencze.serritor.api.CrawlStrategy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.lang3.SerializationUtils;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link BucketedCandidateQueue}.
+ */
+public final class BucketedCandidateQueueTest {
+
+    private static final int CANDIDATE_COUNT = 1_000;
+
+    private static final Comparator<CrawlCandidate> BREADTH_FIRST_COMPARATOR =
+            Comparator.comparingInt(CrawlCandidate::getCrawlDepth)
+                    .thenComparing(Comparator.comparingInt(CrawlCandidate::getPriority).reversed());
+    private static final Comparator<CrawlCandidate> DEPTH_FIRST_COMPARATOR =
+            Comparator.comparingInt(CrawlCandidate::getCrawlDepth).reversed()
+                    .thenComparing(Comparator.comparingInt(CrawlCandidate::getPriority).reversed());
+
+    @Test
+    public void testPollWhenQueueIsEmpty() {
+        BucketedCandidateQueue candidateQueue =
+                new BucketedCandidateQueue(CrawlStrategy.BREADTH_FIRST);
+
+        Assert.assertThat(candidateQueue.poll(), Matchers.nullValue());
+        Assert.assertThat(candidateQueue.isEmpty(), Matchers.is(true));
+    }
+
+    @Test
+    public void testPollWhenUsingBreadthFirstCrawlStrategy() {
+        BucketedCandidateQueue candidateQueue =
+                new BucketedCandidateQueue(CrawlStrategy.BREADTH_FIRST);
+        List<CrawlCandidate> candidates = createRandomCandidates(new Random(0));
+        candidates.forEach(candidateQueue::add);
+
+        Assert.assertThat(candidateQueue.size(), Matchers.is(CANDIDATE_COUNT));
+
+        // The sort is stable, so candidates in the same bucket keep their insertion order
+        candidates.sort(BREADTH_FIRST_COMPARATOR);
+        assertPolledInOrder(candidateQueue, candidates);
+    }
+
+    @Test
+    public void testPollWhenUsingDepthFirstCrawlStrategy() {
+        BucketedCandidateQueue candidateQueue =
+                new BucketedCandidateQueue(CrawlStrategy.DEPTH_FIRST);
+        List<CrawlCandidate> candidates = createRandomCandidates(new Random(0));
+        candidates.forEach(candidateQueue::add);
+
+        candidates.sort(DEPTH_FIRST_COMPARATOR);
+        assertPolledInOrder(candidateQueue, candidates);
+    }
+
+    @Test
+    public void testPollWhenAddingAndPollingAreInterleaved() {
+        BucketedCandidateQueue candidateQueue =
+                new BucketedCandidateQueue(CrawlStrategy.BREADTH_FIRST);
+        Random random = new Random(0);
+        List<CrawlCandidate> candidates = createRandomCandidates(random);
+
+        // The reference keeps the remaining candidates in insertion order
+        List<CrawlCandidate> remainingCandidates = new ArrayList<>();
+        for (CrawlCandidate candidate : candidates) {
+            candidateQueue.add(candidate);
+            remainingCandidates.add(candidate);
+
+            if (random.nextBoolean()) {
+                CrawlCandidate expectedCandidate = remainingCandidates.stream()
+                        .min(BREADTH_FIRST_COMPARATOR)
+                        .get();
+                remainingCandidates.remove(expectedCandidate);
+
+                Assert.assertThat(candidateQueue.poll(), Matchers.sameInstance(expectedCandidate));
+            }
+        }
+
+        Assert.assertThat(candidateQueue.size(), Matchers.is(remainingCandidates.size()));
+        remainingCandidates.sort(BREADTH_FIRST_COMPARATOR);
+        assertPolledInOrder(candidateQueue, remainingCandidates);
+    }
+
+    @Test
+    public void testPollWhenQueueIsDeserialized() {
+        BucketedCandidateQueue candidateQueue =
+                new BucketedCandidateQueue(CrawlStrategy.BREADTH_FIRST);
+        createRandomCandidates(new Random(0)).forEach(candidateQueue::add);
+
+        BucketedCandidateQueue deserializedQueue =
+                SerializationUtils.deserialize(SerializationUtils.serialize(candidateQueue));
+
+        Assert.assertThat(deserializedQueue.size(), Matchers.is(CANDIDATE_COUNT));
+        while (!candidateQueue.isEmpty()) {
+            Assert.assertThat(deserializedQueue.poll().getRequestUrl(),
+                    Matchers.is(candidateQueue.poll().getRequestUrl()));
+        }
+
+        Assert.assertThat(deserializedQueue.poll(), Matchers.nullValue());
+    }
+
+    @Test
+    public void testPollWhenQueueIsCopied() {
+        BucketedCandidateQueue candidateQueue =
+                new BucketedCandidateQueue(CrawlStrategy.DEPTH_FIRST);
+        List<CrawlCandidate> candidates = createRandomCandidates(new Random(0));
+        candidates.forEach(candidateQueue::add);
+
+        CandidateQueue copiedQueue = candidateQueue.copy();
+        candidateQueue.clear();
+
+        Assert.assertThat(copiedQueue.size(), Matchers.is(CANDIDATE_COUNT));
+        candidates.sort(DEPTH_FIRST_COMPARATOR);
+        assertPolledInOrder(copiedQueue, candidates);
+    }
+
+    @Test
+    public void testClearWhenQueueIsNotEmpty() {
+        BucketedCandidateQueue candidateQueue =
+                new BucketedCandidateQueue(CrawlStrategy.DEPTH_FIRST);
+        createRandomCandidates(new Random(0)).forEach(candidateQueue::add);
+
+        candidateQueue.clear();
+
+        Assert.assertThat(candidateQueue.isEmpty(), Matchers.is(true));
+        Assert.assertThat(candidateQueue.poll(), Matchers.nullValue());
+    }
+
+    private static List<CrawlCandidate> createRandomCandidates(final Random random) {
+        List<CrawlCandidate> candidates = new ArrayList<>();
+
+        for (int i = 0; i < CANDIDATE_COUNT; i++) {
+            CrawlRequestBuilder requestBuilder =
+                    new CrawlRequestBuilder(String.format("http://example.com/%d", i))
+                            .setPriority(random.nextInt(7) - 3);
+            candidates.add(new CrawlCandidateBuilder(requestBuilder.build())
+                    .setCrawlDepth(random.nextInt(20) + 1)
+                    .build());
+        }
+
+        return candidates;
+    }
+
+    private static void assertPolledInOrder(
+            final CandidateQueue candidateQueue,
+            final List<CrawlCandidate> expectedCandidates) {
+        for (CrawlCandidate expectedCandidate : expectedCandidates) {
+            Assert.assertThat(candidateQueue.poll(), Matchers.sameInstance(expectedCandidate));
+        }
+
+        Assert.assertThat(candidateQueue.poll(), Matchers.nullValue());
+    }
+}
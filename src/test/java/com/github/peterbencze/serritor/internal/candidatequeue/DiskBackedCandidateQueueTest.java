@@ -0,0 +1,263 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.candidatequeue;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.api.CrawlCandidate.CrawlCandidateBuilder;
+import com.github.peterbencze.serritor.api.CrawlRequest.CrawlRequestBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test cases for {@link DiskBackedCandidateQueue}.
+ */
+public final class DiskBackedCandidateQueueTest {
+
+    private static final int HOT_WINDOW_SIZE = 10;
+    private static final int CANDIDATE_COUNT = 100;
+    private static final Comparator<CrawlCandidate> COMPARATOR =
+            (Comparator<CrawlCandidate> & Serializable) (candidate1, candidate2) -> {
+                int result = Integer.compare(candidate1.getCrawlDepth(),
+                        candidate2.getCrawlDepth());
+                return result != 0
+                        ? result
+                        : Integer.compare(candidate2.getPriority(), candidate1.getPriority());
+            };
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File segmentDirectory;
+    private DiskBackedCandidateQueue candidateQueue;
+
+    @Before
+    public void before() throws IOException {
+        segmentDirectory = temporaryFolder.newFolder();
+        candidateQueue = new DiskBackedCandidateQueue(COMPARATOR, segmentDirectory,
+                HOT_WINDOW_SIZE);
+    }
+
+    @Test
+    public void testPollWhenQueueIsEmpty() {
+        Assert.assertThat(candidateQueue.poll(), Matchers.nullValue());
+        Assert.assertThat(candidateQueue.isEmpty(), Matchers.is(true));
+    }
+
+    @Test
+    public void testPollWhenCandidatesAreSpilledToDisk() {
+        List<CrawlCandidate> candidates = createRandomCandidates();
+        candidates.forEach(candidateQueue::add);
+
+        Assert.assertThat(candidateQueue.size(), Matchers.is(CANDIDATE_COUNT));
+        Assert.assertThat(candidateQueue.getSegmentCount(), Matchers.greaterThan(0));
+
+        assertPolledInOrder(candidateQueue, candidates);
+
+        Assert.assertThat(candidateQueue.isEmpty(), Matchers.is(true));
+        Assert.assertThat(segmentDirectory.listFiles(), Matchers.emptyArray());
+    }
+
+    @Test
+    public void testPollWhenSpilledCandidatesHaveSameOrder() {
+        List<CrawlCandidate> candidates = new ArrayList<>();
+        for (int i = 0; i < CANDIDATE_COUNT; i++) {
+            candidates.add(new CrawlCandidateBuilder(
+                    new CrawlRequestBuilder(String.format("http://example.com/%d", i)).build())
+                    .build());
+        }
+        candidates.forEach(candidateQueue::add);
+
+        Assert.assertThat(candidateQueue.getSegmentCount(), Matchers.greaterThan(0));
+
+        // Candidates of the same order are polled in insertion order, like from a memory queue
+        for (CrawlCandidate expectedCandidate : candidates) {
+            assertPolled(candidateQueue, expectedCandidate);
+        }
+    }
+
+    @Test
+    public void testPollWhenSpilledCandidatesAreLargerThanReadBuffer() {
+        // Every candidate takes more than the 8 KiB read buffer of a segment
+        String path = StringUtils.repeat('a', 10_000);
+        List<CrawlCandidate> candidates = new ArrayList<>();
+        for (int i = 0; i < CANDIDATE_COUNT; i++) {
+            candidates.add(new CrawlCandidateBuilder(
+                    new CrawlRequestBuilder(String.format("http://example.com/%s/%d", path, i))
+                            .build())
+                    .build());
+        }
+        candidates.forEach(candidateQueue::add);
+
+        Assert.assertThat(candidateQueue.getSegmentCount(), Matchers.greaterThan(0));
+        assertPolledInOrder(candidateQueue, candidates);
+    }
+
+    @Test
+    public void testPollWhenAddingAndPollingAreInterleaved() {
+        List<CrawlCandidate> candidates = createRandomCandidates();
+        List<CrawlCandidate> firstHalf =
+                new ArrayList<>(candidates.subList(0, CANDIDATE_COUNT / 2));
+        List<CrawlCandidate> secondHalf =
+                new ArrayList<>(candidates.subList(CANDIDATE_COUNT / 2, CANDIDATE_COUNT));
+        firstHalf.forEach(candidateQueue::add);
+
+        firstHalf.sort(COMPARATOR);
+        assertPolled(candidateQueue, firstHalf.remove(0));
+
+        secondHalf.forEach(candidateQueue::add);
+
+        firstHalf.addAll(secondHalf);
+        assertPolledInOrder(candidateQueue, firstHalf);
+    }
+
+    @Test
+    public void testPollWhenQueueIsDeserialized() {
+        List<CrawlCandidate> candidates = createRandomCandidates();
+        candidates.forEach(candidateQueue::add);
+
+        // Consume a part of the segments before serialization
+        candidates.sort(COMPARATOR);
+        for (int i = 0; i < HOT_WINDOW_SIZE; i++) {
+            assertPolled(candidateQueue, candidates.remove(0));
+        }
+
+        DiskBackedCandidateQueue deserializedQueue =
+                SerializationUtils.deserialize(SerializationUtils.serialize(candidateQueue));
+
+        Assert.assertThat(deserializedQueue.size(), Matchers.is(candidates.size()));
+        assertPolledInOrder(deserializedQueue, candidates);
+    }
+
+    @Test
+    public void testPollWhenQueueIsCopied() {
+        List<CrawlCandidate> candidates = createRandomCandidates();
+        candidates.forEach(candidateQueue::add);
+
+        // Consume a part of the segments before copying
+        candidates.sort(COMPARATOR);
+        for (int i = 0; i < HOT_WINDOW_SIZE; i++) {
+            assertPolled(candidateQueue, candidates.remove(0));
+        }
+
+        CandidateQueue copiedQueue = candidateQueue.copy();
+        candidateQueue.clear();
+
+        Assert.assertThat(copiedQueue.size(), Matchers.is(candidates.size()));
+        assertPolledInOrder(copiedQueue, candidates);
+        Assert.assertThat(segmentDirectory.listFiles(), Matchers.emptyArray());
+    }
+
+    @Test
+    public void testPollWhenCopiedQueueIsDeserialized() {
+        List<CrawlCandidate> candidates = createRandomCandidates();
+        candidates.forEach(candidateQueue::add);
+
+        CandidateQueue copiedQueue = candidateQueue.copy();
+        byte[] serializedQueue = SerializationUtils.serialize(copiedQueue);
+        copiedQueue.clear();
+        candidateQueue.clear();
+
+        Assert.assertThat(segmentDirectory.listFiles(), Matchers.emptyArray());
+
+        DiskBackedCandidateQueue deserializedQueue =
+                SerializationUtils.deserialize(serializedQueue);
+
+        assertPolledInOrder(deserializedQueue, candidates);
+        Assert.assertThat(segmentDirectory.listFiles(), Matchers.emptyArray());
+    }
+
+    @Test
+    public void testClearWhenQueueIsCopied() {
+        createRandomCandidates().forEach(candidateQueue::add);
+        int segmentCount = candidateQueue.getSegmentCount();
+
+        // The copy shares the segment files with the queue
+        CandidateQueue copiedQueue = candidateQueue.copy();
+        Assert.assertThat(segmentDirectory.listFiles(), Matchers.arrayWithSize(segmentCount));
+
+        // Consume the segments of the queue while the copy still refers to them
+        for (int i = 0; i < CANDIDATE_COUNT; i++) {
+            candidateQueue.poll();
+        }
+        Assert.assertThat(segmentDirectory.listFiles(), Matchers.arrayWithSize(segmentCount));
+
+        copiedQueue.clear();
+
+        Assert.assertThat(segmentDirectory.listFiles(), Matchers.emptyArray());
+    }
+
+    @Test
+    public void testClearWhenCandidatesAreSpilledToDisk() {
+        createRandomCandidates().forEach(candidateQueue::add);
+
+        candidateQueue.clear();
+
+        Assert.assertThat(candidateQueue.isEmpty(), Matchers.is(true));
+        Assert.assertThat(candidateQueue.poll(), Matchers.nullValue());
+        Assert.assertThat(segmentDirectory.listFiles(), Matchers.emptyArray());
+    }
+
+    private static List<CrawlCandidate> createRandomCandidates() {
+        Random random = new Random(0);
+        List<CrawlCandidate> candidates = new ArrayList<>();
+
+        for (int i = 0; i < CANDIDATE_COUNT; i++) {
+            CrawlRequestBuilder requestBuilder =
+                    new CrawlRequestBuilder(String.format("http://example.com/%d", i))
+                            .setPriority(random.nextInt(5));
+            candidates.add(new CrawlCandidateBuilder(requestBuilder.build())
+                    .setCrawlDepth(random.nextInt(5) + 1)
+                    .build());
+        }
+
+        return candidates;
+    }
+
+    private static void assertPolledInOrder(
+            final CandidateQueue candidateQueue,
+            final List<CrawlCandidate> expectedCandidates) {
+        List<CrawlCandidate> sortedCandidates = new ArrayList<>(expectedCandidates);
+        sortedCandidates.sort(COMPARATOR);
+
+        for (CrawlCandidate expectedCandidate : sortedCandidates) {
+            assertPolled(candidateQueue, expectedCandidate);
+        }
+
+        Assert.assertThat(candidateQueue.poll(), Matchers.nullValue());
+    }
+
+    private static void assertPolled(
+            final CandidateQueue candidateQueue,
+            final CrawlCandidate expectedCandidate) {
+        // The polled candidate may be a deserialized copy, so compare the URLs
+        Assert.assertThat(candidateQueue.poll().getRequestUrl(),
+                Matchers.is(expectedCandidate.getRequestUrl()));
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.candidatequeue;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.api.CrawlCandidate.CrawlCandidateBuilder;
+import com.github.peterbencze.serritor.api.CrawlRequest.CrawlRequestBuilder;
+import com.github.peterbencze.serritor.api.CrawlStrategy;
+import com.github.peterbencze.serritor.internal.duplicatefilter.FingerprintSet;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.h2.mvstore.MVStore;
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test cases for {@link PersistentCandidateQueue}.
+ */
+public final class PersistentCandidateQueueTest {
+
+    private static final int CANDIDATE_COUNT = 100;
+    private static final byte[] FINGERPRINT = {1, 2, 3, 4, 5, 6, 7, 8};
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File storeDirectory;
+    private PersistentCandidateQueue candidateQueue;
+
+    @Before
+    public void before() throws IOException {
+        storeDirectory = temporaryFolder.newFolder();
+        candidateQueue = new PersistentCandidateQueue(CrawlStrategy.BREADTH_FIRST, storeDirectory);
+    }
+
+    @After
+    public void after() {
+        candidateQueue.close();
+    }
+
+    @Test
+    public void testPollWhenQueueIsEmpty() {
+        Assert.assertThat(candidateQueue.poll(), Matchers.nullValue());
+        Assert.assertThat(candidateQueue.isEmpty(), Matchers.is(true));
+    }
+
+    @Test
+    public void testPollWhenStrategyIsBreadthFirst() {
+        List<CrawlCandidate> candidates = createRandomCandidates();
+        candidates.forEach(candidateQueue::add);
+
+        Assert.assertThat(candidateQueue.size(), Matchers.is(CANDIDATE_COUNT));
+
+        candidates.sort(Comparator.comparingInt(CrawlCandidate::getCrawlDepth)
+                .thenComparing(Comparator.comparingInt(CrawlCandidate::getPriority).reversed()));
+        assertPolledInOrder(candidateQueue, candidates);
+    }
+
+    @Test
+    public void testPollWhenStrategyIsDepthFirst() {
+        candidateQueue.close();
+        candidateQueue = new PersistentCandidateQueue(CrawlStrategy.DEPTH_FIRST, storeDirectory);
+
+        List<CrawlCandidate> candidates = createRandomCandidates();
+        candidates.forEach(candidateQueue::add);
+
+        candidates.sort(Comparator.comparingInt(CrawlCandidate::getCrawlDepth).reversed()
+                .thenComparing(Comparator.comparingInt(CrawlCandidate::getPriority).reversed()));
+        assertPolledInOrder(candidateQueue, candidates);
+    }
+
+    @Test
+    public void testPollWhenStoreIsReopened() {
+        List<CrawlCandidate> candidates = createRandomCandidates();
+        candidates.forEach(candidateQueue::add);
+        candidateQueue.getUrlFingerprints().add(FINGERPRINT);
+
+        candidates.sort(Comparator.comparingInt(CrawlCandidate::getCrawlDepth)
+                .thenComparing(Comparator.comparingInt(CrawlCandidate::getPriority).reversed()));
+        CrawlCandidate completedCandidate = candidateQueue.poll();
+        candidateQueue.markCompleted(completedCandidate);
+        candidateQueue.poll();
+        candidateQueue.close();
+
+        PersistentCandidateQueue reopenedQueue =
+                new PersistentCandidateQueue(CrawlStrategy.BREADTH_FIRST, storeDirectory);
+        try {
+            // The candidate which was polled but not completed is recovered
+            Assert.assertThat(reopenedQueue.size(), Matchers.is(CANDIDATE_COUNT - 1));
+            Assert.assertThat(reopenedQueue.getUrlFingerprints().add(FINGERPRINT),
+                    Matchers.is(false));
+
+            assertPolledInOrder(reopenedQueue, candidates.subList(1, CANDIDATE_COUNT));
+        } finally {
+            reopenedQueue.close();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSizeWhenStoreHasUnsupportedFormatVersion() {
+        candidateQueue.add(createRandomCandidates().get(0));
+        candidateQueue.close();
+
+        MVStore store = MVStore.open(new File(storeDirectory, "frontier.mv.db").getPath());
+        try {
+            store.<String, Long>openMap("meta").put("formatVersion", Long.MAX_VALUE);
+        } finally {
+            store.close();
+        }
+
+        candidateQueue.size();
+    }
+
+    @Test
+    public void testClear() {
+        createRandomCandidates().forEach(candidateQueue::add);
+        candidateQueue.poll();
+
+        candidateQueue.clear();
+        candidateQueue.close();
+
+        Assert.assertThat(candidateQueue.isEmpty(), Matchers.is(true));
+        Assert.assertThat(candidateQueue.poll(), Matchers.nullValue());
+    }
+
+    @Test
+    public void testUrlFingerprints() {
+        FingerprintSet urlFingerprints = candidateQueue.getUrlFingerprints();
+
+        Assert.assertThat(urlFingerprints.add(FINGERPRINT), Matchers.is(true));
+        Assert.assertThat(urlFingerprints.add(FINGERPRINT), Matchers.is(false));
+
+        urlFingerprints.clear();
+
+        Assert.assertThat(urlFingerprints.add(FINGERPRINT), Matchers.is(true));
+    }
+
+    @Test
+    public void testCopyUrlFingerprints() {
+        FingerprintSet urlFingerprints = candidateQueue.getUrlFingerprints();
+        urlFingerprints.add(FINGERPRINT);
+
+        FingerprintSet copiedFingerprints = urlFingerprints.copy();
+        urlFingerprints.clear();
+
+        Assert.assertThat(copiedFingerprints.add(FINGERPRINT), Matchers.is(false));
+        Assert.assertThat(urlFingerprints.add(FINGERPRINT), Matchers.is(true));
+    }
+
+    private static List<CrawlCandidate> createRandomCandidates() {
+        Random random = new Random(0);
+        List<CrawlCandidate> candidates = new ArrayList<>();
+
+        for (int i = 0; i < CANDIDATE_COUNT; i++) {
+            CrawlRequestBuilder requestBuilder =
+                    new CrawlRequestBuilder(String.format("http://example.com/%d", i))
+                            .setPriority(random.nextInt(5) - 2);
+            candidates.add(new CrawlCandidateBuilder(requestBuilder.build())
+                    .setCrawlDepth(random.nextInt(5) + 1)
+                    .build());
+        }
+
+        return candidates;
+    }
+
+    private static void assertPolledInOrder(
+            final CandidateQueue candidateQueue,
+            final List<CrawlCandidate> expectedCandidates) {
+        List<URI> polledUrls = new ArrayList<>();
+        CrawlCandidate candidate;
+        while ((candidate = candidateQueue.poll()) != null) {
+            polledUrls.add(candidate.getRequestUrl());
+        }
+
+        // Candidates with the same depth and priority are polled in insertion order
+        Assert.assertThat(polledUrls, Matchers.is(expectedCandidates.stream()
+                .map(CrawlCandidate::getRequestUrl)
+                .collect(Collectors.toList())));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.capture;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import java.util.Optional;
+import org.apache.http.HttpHeaders;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.littleshoot.proxy.HttpFilters;
+import org.mockito.Mockito;
+
+/**
+ * Test cases for {@link ResponseCapture}.
+ */
+public final class ResponseCaptureTest {
+
+    private static final String PAGE_URL = "http://example.com/page";
+    private static final String SCRIPT_URL = "http://example.com/script.js";
+    private static final String REDIRECT_URL = "http://example.com/redirected";
+
+    private ChannelHandlerContext ctxMock;
+
+    @Before
+    public void before() {
+        ctxMock = Mockito.mock(ChannelHandlerContext.class, Mockito.RETURNS_DEEP_STUBS);
+    }
+
+    @Test
+    public void testGetMainDocumentResponseWhenResponseIsReceived() {
+        ResponseCapture responseCapture = new ResponseCapture(false);
+        responseCapture.startPage(PAGE_URL);
+
+        HttpResponse httpResponse =
+                new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.FOUND);
+        httpResponse.headers().add(HttpHeaders.LOCATION, REDIRECT_URL);
+        createFilters(responseCapture, PAGE_URL).serverToProxyResponse(httpResponse);
+
+        Optional<CapturedResponse> responseOpt = responseCapture.getMainDocumentResponse();
+        Assert.assertThat(responseOpt.isPresent(), Matchers.is(true));
+        Assert.assertThat(responseOpt.get().getStatusCode(), Matchers.is(302));
+        Assert.assertThat(responseOpt.get().getRedirectLocation(),
+                Matchers.is(Optional.of(REDIRECT_URL)));
+        Assert.assertThat(responseOpt.get().getError().isPresent(), Matchers.is(false));
+    }
+
+    @Test
+    public void testGetMainDocumentResponseWhenConnectionFailed() {
+        ResponseCapture responseCapture = new ResponseCapture(false);
+        responseCapture.startPage(PAGE_URL);
+
+        createFilters(responseCapture, PAGE_URL).proxyToServerConnectionFailed();
+
+        Optional<CapturedResponse> responseOpt = responseCapture.getMainDocumentResponse();
+        Assert.assertThat(responseOpt.isPresent(), Matchers.is(true));
+        Assert.assertThat(responseOpt.get().getError().isPresent(), Matchers.is(true));
+    }
+
+    @Test
+    public void testSubresourceResponsesAreNotCapturedByDefault() {
+        ResponseCapture responseCapture = new ResponseCapture(false);
+        responseCapture.startPage(PAGE_URL);
+
+        createFilters(responseCapture, SCRIPT_URL).serverToProxyResponse(
+                new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+
+        Assert.assertThat(responseCapture.getMainDocumentResponse().isPresent(),
+                Matchers.is(false));
+        Assert.assertThat(responseCapture.getSubresourceResponses(), Matchers.anEmptyMap());
+    }
+
+    @Test
+    public void testSubresourceResponsesAreCapturedWhenEnabled() {
+        ResponseCapture responseCapture = new ResponseCapture(true);
+        responseCapture.startPage(PAGE_URL);
+
+        createFilters(responseCapture, PAGE_URL).serverToProxyResponse(
+                new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+        createFilters(responseCapture, SCRIPT_URL).serverToProxyResponse(
+                new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+
+        Assert.assertThat(responseCapture.getMainDocumentResponse().isPresent(),
+                Matchers.is(true));
+        Assert.assertThat(responseCapture.getSubresourceResponses().keySet(),
+                Matchers.contains(SCRIPT_URL));
+    }
+
+    @Test
+    public void testStartPageDiscardsPreviousResponses() {
+        ResponseCapture responseCapture = new ResponseCapture(true);
+        responseCapture.startPage(PAGE_URL);
+
+        createFilters(responseCapture, PAGE_URL).serverToProxyResponse(
+                new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+        responseCapture.startPage(PAGE_URL);
+
+        Assert.assertThat(responseCapture.getMainDocumentResponse().isPresent(),
+                Matchers.is(false));
+    }
+
+    private HttpFilters createFilters(final ResponseCapture responseCapture, final String url) {
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, url);
+        return responseCapture.filterRequest(request, ctxMock);
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.checkpoint;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.api.CrawlCandidate.CrawlCandidateBuilder;
+import com.github.peterbencze.serritor.api.CrawlRequest;
+import com.github.peterbencze.serritor.internal.duplicatefilter.ExactFingerprintSet;
+import com.github.peterbencze.serritor.internal.stats.StatsCounter;
+import com.github.peterbencze.serritor.internal.util.UrlCanonicalizer;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test cases for {@link CheckpointJournal}.
+ */
+public final class CheckpointJournalTest {
+
+    private static final URI URL_0 = URI.create("http://example.com/0");
+    private static final URI URL_1 = URI.create("http://example.com/1");
+    private static final URI URL_2 = URI.create("http://example.com/2");
+    private static final Duration ELAPSED_DURATION = Duration.ofSeconds(42);
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File directory;
+    private StatsCounter statsCounter;
+
+    @Before
+    public void before() throws IOException {
+        directory = temporaryFolder.newFolder();
+        statsCounter = new StatsCounter();
+    }
+
+    @Test
+    public void testRecoverWhenDirectoryIsEmpty() {
+        Assert.assertThat(createJournal().recover().isPresent(), Matchers.is(false));
+    }
+
+    @Test
+    public void testRecoverWhenJournalIsClosed() {
+        CheckpointJournal journal = createJournal();
+        journal.open();
+        CrawlCandidate candidate = recordAddition(journal, URL_0);
+        recordAddition(journal, URL_1);
+        recordCompletion(journal, candidate);
+        statsCounter.recordRemainingCrawlCandidate();
+        statsCounter.recordResponseSuccess();
+        journal.close(statsCounter, ELAPSED_DURATION);
+
+        CheckpointSnapshot snapshot = createJournal().recover().get();
+
+        Assert.assertThat(getPendingUrls(snapshot), Matchers.contains(URL_1));
+        Assert.assertThat(snapshot.getPendingCandidateCount(), Matchers.is(1));
+        Assert.assertThat(snapshot.getUrlFingerprints()
+                .add(UrlCanonicalizer.createFingerprint(URL_0)), Matchers.is(false));
+        Assert.assertThat(snapshot.getStatsCounter().get().getProcessedCrawlCandidateCount(),
+                Matchers.is(1L));
+        Assert.assertThat(snapshot.getElapsedDuration(), Matchers.is(ELAPSED_DURATION));
+    }
+
+    @Test
+    public void testRecoverWhenJournalIsNotClosed() {
+        CheckpointJournal journal = createJournal();
+        journal.open();
+        recordAddition(journal, URL_0);
+        journal.checkpoint(statsCounter, ELAPSED_DURATION);
+
+        // Changes after the last checkpoint are not guaranteed to be persisted
+        recordAddition(journal, URL_1);
+
+        CheckpointSnapshot snapshot = createJournal().recover().get();
+
+        Assert.assertThat(getPendingUrls(snapshot), Matchers.contains(URL_0));
+    }
+
+    @Test
+    public void testRecoverWhenRecoveredJournalIsContinued() {
+        CheckpointJournal journal = createJournal();
+        journal.open();
+        recordAddition(journal, URL_0);
+        recordAddition(journal, URL_1);
+        journal.close(statsCounter, ELAPSED_DURATION);
+
+        CheckpointJournal resumedJournal = createJournal();
+        CrawlCandidate restoredCandidate = resumedJournal.recover().get()
+                .getPendingCandidates()
+                .get(1);
+        resumedJournal.open();
+        recordCompletion(resumedJournal, restoredCandidate);
+        recordAddition(resumedJournal, URL_2);
+        resumedJournal.close(statsCounter, ELAPSED_DURATION);
+
+        CheckpointSnapshot snapshot = createJournal().recover().get();
+
+        Assert.assertThat(getPendingUrls(snapshot), Matchers.contains(URL_0, URL_2));
+    }
+
+    @Test
+    public void testRecoverWhenCandidatesWithSameUrlHaveDifferentReferers() {
+        CheckpointJournal journal = createJournal();
+        journal.open();
+        recordAddition(journal, URL_2, URL_0);
+        CrawlCandidate secondCandidate = recordAddition(journal, URL_2, URL_1);
+        recordCompletion(journal, secondCandidate);
+        journal.close(statsCounter, ELAPSED_DURATION);
+
+        CheckpointSnapshot snapshot = createJournal().recover().get();
+
+        // Only the candidate which was actually completed is removed
+        Assert.assertThat(snapshot.getPendingCandidates().get(0).getRefererUrl(),
+                Matchers.is(URL_0));
+        Assert.assertThat(snapshot.getPendingCandidateCount(), Matchers.is(1));
+    }
+
+    @Test
+    public void testRecoverWhenLastRecordIsTruncated() throws IOException {
+        CheckpointJournal journal = createJournal();
+        journal.open();
+        recordAddition(journal, URL_0);
+        journal.checkpoint(statsCounter, ELAPSED_DURATION);
+        journal.close(statsCounter, ELAPSED_DURATION);
+
+        // Simulate a crash in the middle of writing the 16-byte fingerprint of an addition record
+        try (FileOutputStream out = new FileOutputStream(findSegmentFiles()[0], true)) {
+            out.write(new byte[]{1, 16, 0});
+        }
+
+        CheckpointSnapshot snapshot = createJournal().recover().get();
+
+        Assert.assertThat(getPendingUrls(snapshot), Matchers.contains(URL_0));
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testRecoverWhenSegmentHasUnsupportedFormatVersion() throws IOException {
+        CheckpointJournal journal = createJournal();
+        journal.open();
+        recordAddition(journal, URL_0);
+        journal.close(statsCounter, ELAPSED_DURATION);
+
+        // Overwrite the format version which follows the magic number
+        try (RandomAccessFile segmentFile = new RandomAccessFile(findSegmentFiles()[0], "rw")) {
+            segmentFile.seek(Integer.BYTES);
+            segmentFile.writeInt(Integer.MAX_VALUE);
+        }
+
+        createJournal().recover();
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testRecoverWhenSnapshotHasNoHeader() throws IOException {
+        try (ObjectOutputStream out =
+                new ObjectOutputStream(new FileOutputStream(new File(directory, "snapshot.ser")))) {
+            out.writeObject(new CheckpointSnapshot(new ExactFingerprintSet()));
+        }
+
+        createJournal().recover();
+    }
+
+    @Test
+    public void testCheckpointWhenCompactionThresholdIsReached() {
+        CheckpointJournal journal = createJournal();
+        journal.open();
+
+        for (int i = 0; i < 20; i++) {
+            recordAddition(journal, URI.create(String.format("http://example.com/page-%d", i)));
+            journal.checkpoint(statsCounter, ELAPSED_DURATION);
+        }
+
+        Assert.assertThat(new File(directory, "snapshot.ser").exists(), Matchers.is(true));
+        Assert.assertThat(findSegmentFiles().length, Matchers.lessThan(10));
+
+        journal.close(statsCounter, ELAPSED_DURATION);
+        Assert.assertThat(createJournal().recover().get().getPendingCandidateCount(),
+                Matchers.is(20));
+    }
+
+    @Test
+    public void testClearWhenCheckpointExists() {
+        CheckpointJournal journal = createJournal();
+        journal.open();
+        recordAddition(journal, URL_0);
+        journal.close(statsCounter, ELAPSED_DURATION);
+
+        CheckpointJournal newJournal = createJournal();
+        newJournal.clear();
+
+        Assert.assertThat(newJournal.recover(), Matchers.is(Optional.empty()));
+    }
+
+    private CheckpointJournal createJournal() {
+        return new CheckpointJournal(directory, ExactFingerprintSet::new);
+    }
+
+    private File[] findSegmentFiles() {
+        return directory.listFiles((dir, name) -> name.startsWith("journal-"));
+    }
+
+    private static CrawlCandidate recordAddition(final CheckpointJournal journal, final URI url) {
+        return recordAddition(journal, url, null);
+    }
+
+    private static CrawlCandidate recordAddition(
+            final CheckpointJournal journal,
+            final URI url,
+            final URI refererUrl) {
+        CrawlCandidate candidate = new CrawlCandidateBuilder(CrawlRequest.createDefault(url))
+                .setRefererUrl(refererUrl)
+                .build();
+        journal.recordAddition(candidate, UrlCanonicalizer.createFingerprint(url));
+        return candidate;
+    }
+
+    private static void recordCompletion(
+            final CheckpointJournal journal,
+            final CrawlCandidate candidate) {
+        journal.recordCompletion(candidate,
+                UrlCanonicalizer.createFingerprint(candidate.getRequestUrl()));
+    }
+
+    private static List<URI> getPendingUrls(final CheckpointSnapshot snapshot) {
+        return snapshot.getPendingCandidates()
+                .stream()
+                .map(CrawlCandidate::getRequestUrl)
+                .collect(Collectors.toList());
+    }
+}
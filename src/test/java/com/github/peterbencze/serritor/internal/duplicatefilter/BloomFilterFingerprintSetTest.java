@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.duplicatefilter;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.SerializationUtils;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link BloomFilterFingerprintSet}.
+ */
+public final class BloomFilterFingerprintSetTest {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int FINGERPRINT_COUNT = 300_000;
+
+    private BloomFilterFingerprintSet fingerprintSet;
+
+    @Before
+    public void before() {
+        fingerprintSet = new BloomFilterFingerprintSet(FALSE_POSITIVE_RATE);
+    }
+
+    @Test
+    public void testAddWhenFingerprintsExceedInitialCapacity() {
+        int falsePositiveCount = 0;
+        for (int i = 0; i < FINGERPRINT_COUNT; i++) {
+            if (!fingerprintSet.add(createFingerprint(i))) {
+                falsePositiveCount++;
+            }
+        }
+
+        Assert.assertThat(fingerprintSet.getFilterCount(), Matchers.greaterThan(1));
+        Assert.assertThat((double) falsePositiveCount / FINGERPRINT_COUNT,
+                Matchers.lessThan(FALSE_POSITIVE_RATE));
+
+        // There are no false negatives
+        for (int i = 0; i < FINGERPRINT_COUNT; i++) {
+            Assert.assertThat(fingerprintSet.add(createFingerprint(i)), Matchers.is(false));
+        }
+    }
+
+    @Test
+    public void testAddWhenSetIsDeserialized() {
+        fingerprintSet.add(createFingerprint(0));
+
+        BloomFilterFingerprintSet deserializedSet =
+                SerializationUtils.deserialize(SerializationUtils.serialize(fingerprintSet));
+
+        Assert.assertThat(deserializedSet.add(createFingerprint(0)), Matchers.is(false));
+    }
+
+    @Test
+    public void testClearWhenSetIsNotEmpty() {
+        fingerprintSet.add(createFingerprint(0));
+
+        fingerprintSet.clear();
+
+        Assert.assertThat(fingerprintSet.getFilterCount(), Matchers.is(1));
+        Assert.assertThat(fingerprintSet.add(createFingerprint(0)), Matchers.is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateWhenFalsePositiveRateIsInvalid() {
+        new BloomFilterFingerprintSet(1);
+    }
+
+    private static byte[] createFingerprint(final int index) {
+        return DigestUtils.sha256(String.format("http://example.com/%d", index));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.duplicatefilter;
+
+import com.google.common.primitives.Longs;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.SerializationUtils;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link CompactFingerprintSet}.
+ */
+public final class CompactFingerprintSetTest {
+
+    private static final int FINGERPRINT_COUNT = 10_000;
+
+    private CompactFingerprintSet fingerprintSet;
+
+    @Before
+    public void before() {
+        fingerprintSet = new CompactFingerprintSet();
+    }
+
+    @Test
+    public void testAddWhenFingerprintsAreNew() {
+        for (int i = 0; i < FINGERPRINT_COUNT; i++) {
+            Assert.assertThat(fingerprintSet.add(createFingerprint(i)), Matchers.is(true));
+        }
+
+        Assert.assertThat(fingerprintSet.size(), Matchers.is(FINGERPRINT_COUNT));
+    }
+
+    @Test
+    public void testAddWhenFingerprintsAreDuplicates() {
+        for (int i = 0; i < FINGERPRINT_COUNT; i++) {
+            fingerprintSet.add(createFingerprint(i));
+        }
+
+        for (int i = 0; i < FINGERPRINT_COUNT; i++) {
+            Assert.assertThat(fingerprintSet.add(createFingerprint(i)), Matchers.is(false));
+        }
+
+        Assert.assertThat(fingerprintSet.size(), Matchers.is(FINGERPRINT_COUNT));
+    }
+
+    @Test
+    public void testAddWhenFingerprintIsZero() {
+        byte[] zeroFingerprint = Longs.toByteArray(0);
+
+        Assert.assertThat(fingerprintSet.add(zeroFingerprint), Matchers.is(true));
+        Assert.assertThat(fingerprintSet.add(zeroFingerprint), Matchers.is(false));
+    }
+
+    @Test
+    public void testAddWhenSetIsDeserialized() {
+        fingerprintSet.add(createFingerprint(0));
+
+        CompactFingerprintSet deserializedSet =
+                SerializationUtils.deserialize(SerializationUtils.serialize(fingerprintSet));
+
+        Assert.assertThat(deserializedSet.add(createFingerprint(0)), Matchers.is(false));
+        Assert.assertThat(deserializedSet.add(createFingerprint(1)), Matchers.is(true));
+    }
+
+    @Test
+    public void testAddWhenSetIsCopied() {
+        fingerprintSet.add(createFingerprint(0));
+
+        FingerprintSet copiedSet = fingerprintSet.copy();
+        fingerprintSet.add(createFingerprint(1));
+
+        Assert.assertThat(copiedSet.add(createFingerprint(0)), Matchers.is(false));
+        Assert.assertThat(copiedSet.add(createFingerprint(1)), Matchers.is(true));
+    }
+
+    @Test
+    public void testClearWhenSetIsNotEmpty() {
+        fingerprintSet.add(createFingerprint(0));
+
+        fingerprintSet.clear();
+
+        Assert.assertThat(fingerprintSet.size(), Matchers.is(0));
+        Assert.assertThat(fingerprintSet.add(createFingerprint(0)), Matchers.is(true));
+    }
+
+    private static byte[] createFingerprint(final int index) {
+        return DigestUtils.sha256(String.format("http://example.com/%d", index));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.stats;
+
+import com.github.peterbencze.serritor.api.LatencyStats;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link LatencyHistogram}.
+ */
+public final class LatencyHistogramTest {
+
+    private static final double DELTA = 0.0001;
+    private static final double RELATIVE_ERROR = 0.04;
+
+    private LatencyHistogram histogram;
+
+    @Before
+    public void before() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    public void testBucketBoundsContainValue() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            int index = LatencyHistogram.getBucketIndex(value);
+
+            Assert.assertTrue(value <= LatencyHistogram.getBucketUpperBound(index));
+            Assert.assertTrue(index == 0
+                    || value > LatencyHistogram.getBucketUpperBound(index - 1));
+        }
+    }
+
+    @Test
+    public void testGetSnapshotWhenEmpty() {
+        LatencyStats stats = histogram.getSnapshot();
+
+        Assert.assertEquals(0, stats.getCount());
+        Assert.assertEquals(0, stats.getMaxInMillis(), DELTA);
+    }
+
+    @Test
+    public void testGetSnapshot() {
+        for (int i = 1; i <= 1000; i++) {
+            histogram.recordLatency(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        LatencyStats stats = histogram.getSnapshot();
+
+        Assert.assertEquals(1000, stats.getCount());
+        Assert.assertEquals(500.5, stats.getMeanInMillis(), DELTA);
+        Assert.assertEquals(500, stats.getP50InMillis(), 500 * RELATIVE_ERROR);
+        Assert.assertEquals(950, stats.getP95InMillis(), 950 * RELATIVE_ERROR);
+        Assert.assertEquals(990, stats.getP99InMillis(), 990 * RELATIVE_ERROR);
+        Assert.assertEquals(1000, stats.getMaxInMillis(), DELTA);
+    }
+
+    @Test
+    public void testReset() {
+        histogram.recordLatency(TimeUnit.MILLISECONDS.toNanos(10));
+
+        histogram.reset();
+
+        Assert.assertEquals(0, histogram.getSnapshot().getCount());
+    }
+}
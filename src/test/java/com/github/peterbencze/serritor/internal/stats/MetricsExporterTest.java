@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.stats;
+
+import com.github.peterbencze.serritor.internal.CrawlFrontier;
+import com.github.peterbencze.serritor.internal.util.stopwatch.Stopwatch;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test cases for {@link MetricsExporter}.
+ */
+public final class MetricsExporterTest {
+
+    private StatsCounter statsCounter;
+    private PerformanceMonitor performanceMonitor;
+    private CrawlFrontier crawlFrontierMock;
+    private PrometheusTextFormat format;
+    private MetricsExporter metricsExporter;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() {
+        statsCounter = new StatsCounter();
+        performanceMonitor = new PerformanceMonitor();
+
+        crawlFrontierMock = Mockito.mock(CrawlFrontier.class);
+        Mockito.when(crawlFrontierMock.getCandidateCount()).thenReturn(3L);
+        Mockito.doAnswer(invocation -> {
+            ObjIntConsumer<String> consumer = invocation.getArgument(0);
+            consumer.accept("te.st", 2);
+            return null;
+        }).when(crawlFrontierMock).forEachDeferredHost(Mockito.any(ObjIntConsumer.class));
+
+        Stopwatch stopwatchMock = Mockito.mock(Stopwatch.class);
+        Mockito.when(stopwatchMock.getElapsedDuration()).thenReturn(Duration.ofSeconds(90));
+
+        format = new PrometheusTextFormat();
+        metricsExporter = new MetricsExporter(statsCounter, performanceMonitor,
+                crawlFrontierMock, stopwatchMock);
+    }
+
+    @Test
+    public void testExportCrawlMetrics() {
+        statsCounter.recordRemainingCrawlCandidate();
+        statsCounter.recordRemainingCrawlCandidate();
+        statsCounter.recordResponseSuccess();
+        statsCounter.recordOffsiteRequest();
+
+        metricsExporter.export(format);
+
+        String text = format.getText().toString();
+        Assert.assertThat(text, Matchers.containsString("serritor_run_duration_seconds 90.0\n"));
+        Assert.assertThat(text, Matchers.containsString(
+                "serritor_crawl_candidates_processed_total{outcome=\"response_success\"} 1\n"));
+        Assert.assertThat(text, Matchers.containsString(
+                "serritor_crawl_candidates_remaining 1\n"));
+        Assert.assertThat(text, Matchers.containsString(
+                "serritor_filtered_requests_total{reason=\"offsite\"} 1\n"));
+    }
+
+    @Test
+    public void testExportPerformanceMetrics() {
+        performanceMonitor.recordPageLoadLatency(TimeUnit.MILLISECONDS.toNanos(500));
+
+        metricsExporter.export(format);
+
+        String text = format.getText().toString();
+        Assert.assertThat(text,
+                Matchers.containsString("# TYPE serritor_latency_seconds summary\n"));
+        Assert.assertThat(text, Matchers.containsString(
+                "serritor_latency_seconds{operation=\"page_load\",quantile=\"0.5\"} 0.5\n"));
+        Assert.assertThat(text, Matchers.containsString(
+                "serritor_latency_seconds_count{operation=\"page_load\"} 1\n"));
+        Assert.assertThat(text, Matchers.containsString(
+                "serritor_latency_seconds_count{operation=\"callback\"} 0\n"));
+    }
+
+    @Test
+    public void testExportFrontierMetrics() {
+        metricsExporter.export(format);
+
+        String text = format.getText().toString();
+        Assert.assertThat(text, Matchers.containsString("serritor_frontier_candidates 3\n"));
+        Assert.assertThat(text, Matchers.containsString(
+                "serritor_frontier_host_deferred_candidates{host=\"te.st\"} 2\n"));
+        Assert.assertThat(text, Matchers.containsString(
+                "serritor_domain_name_cache_requests_total{result=\"hit\"}"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExportFrontierMetricsWhenThereAreManyDeferredHosts() {
+        Mockito.doAnswer(invocation -> {
+            ObjIntConsumer<String> consumer = invocation.getArgument(0);
+            for (int i = 1; i <= 25; i++) {
+                consumer.accept(String.format("host-%d.test", i), i);
+            }
+            return null;
+        }).when(crawlFrontierMock).forEachDeferredHost(Mockito.any(ObjIntConsumer.class));
+
+        metricsExporter.export(format);
+
+        String text = format.getText().toString();
+        Assert.assertThat(text.split("serritor_frontier_host_deferred_candidates\\{").length - 1,
+                Matchers.is(21));
+        Assert.assertThat(text, Matchers.containsString(
+                "serritor_frontier_host_deferred_candidates{host=\"host-25.test\"} 25\n"));
+        Assert.assertThat(text, Matchers.containsString(
+                "serritor_frontier_host_deferred_candidates{host=\"host-6.test\"} 6\n"));
+        Assert.assertThat(text, Matchers.not(Matchers.containsString("host-5.test")));
+        Assert.assertThat(text, Matchers.containsString(
+                "serritor_frontier_host_deferred_candidates{host=\"_other\"} 15\n"));
+    }
+
+    @Test
+    public void testExportWhenFormatIsReused() {
+        metricsExporter.export(format);
+
+        format.reset();
+        metricsExporter.export(format);
+
+        String text = format.getText().toString();
+        Assert.assertEquals(text.indexOf("serritor_frontier_candidates 3\n"),
+                text.lastIndexOf("serritor_frontier_candidates 3\n"));
+    }
+}
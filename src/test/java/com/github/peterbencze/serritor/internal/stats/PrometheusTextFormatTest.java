@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.stats;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link PrometheusTextFormat}.
+ */
+public final class PrometheusTextFormatTest {
+
+    private PrometheusTextFormat format;
+
+    @Before
+    public void before() {
+        format = new PrometheusTextFormat();
+    }
+
+    @Test
+    public void testMetadata() {
+        format.metadata("test_total", "counter", "Test counter.");
+
+        Assert.assertEquals("# HELP test_total Test counter.\n# TYPE test_total counter\n",
+                format.getText().toString());
+    }
+
+    @Test
+    public void testSampleWithoutLabels() {
+        format.sample("test_total").value(42);
+
+        Assert.assertEquals("test_total 42\n", format.getText().toString());
+    }
+
+    @Test
+    public void testSampleWithLabels() {
+        format.sample("test_seconds").label("foo", "a").label("bar", "b").value(0.25);
+
+        Assert.assertEquals("test_seconds{foo=\"a\",bar=\"b\"} 0.25\n",
+                format.getText().toString());
+    }
+
+    @Test
+    public void testSampleWhenLabelValueNeedsEscaping() {
+        format.sample("test").label("foo", "a\"b\\c\nd").value(1);
+
+        Assert.assertEquals("test{foo=\"a\\\"b\\\\c\\nd\"} 1\n", format.getText().toString());
+    }
+
+    @Test
+    public void testSampleWhenValueIsInfinite() {
+        format.sample("test").value(Double.POSITIVE_INFINITY);
+
+        Assert.assertEquals("test +Inf\n", format.getText().toString());
+    }
+
+    @Test
+    public void testReset() {
+        format.sample("test").label("foo", "a").value(1);
+
+        format.reset();
+        format.sample("test").value(2);
+
+        Assert.assertEquals("test 2\n", format.getText().toString());
+    }
+}
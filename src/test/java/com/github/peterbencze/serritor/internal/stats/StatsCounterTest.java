@@ -37,9 +37,9 @@ public final class StatsCounterTest {
     public void testRecordResponseSuccess() {
         statsCounter.recordRemainingCrawlCandidate();
 
-        int remainingCrawlCandidateCountBefore = statsCounter.getRemainingCrawlCandidateCount();
-        int responseSuccessCountBefore = statsCounter.getResponseSuccessCount();
-        int processedCrawlCandidateCountBefore = statsCounter.getProcessedCrawlCandidateCount();
+        long remainingCrawlCandidateCountBefore = statsCounter.getRemainingCrawlCandidateCount();
+        long responseSuccessCountBefore = statsCounter.getResponseSuccessCount();
+        long processedCrawlCandidateCountBefore = statsCounter.getProcessedCrawlCandidateCount();
 
         statsCounter.recordResponseSuccess();
 
@@ -54,9 +54,9 @@ public final class StatsCounterTest {
     public void testRecordPageLoadTimeout() {
         statsCounter.recordRemainingCrawlCandidate();
 
-        int remainingCrawlCandidateCountBefore = statsCounter.getRemainingCrawlCandidateCount();
-        int pageLoadTimeoutCountBefore = statsCounter.getPageLoadTimeoutCount();
-        int processedCrawlCandidateCountBefore = statsCounter.getProcessedCrawlCandidateCount();
+        long remainingCrawlCandidateCountBefore = statsCounter.getRemainingCrawlCandidateCount();
+        long pageLoadTimeoutCountBefore = statsCounter.getPageLoadTimeoutCount();
+        long processedCrawlCandidateCountBefore = statsCounter.getProcessedCrawlCandidateCount();
 
         statsCounter.recordResponseSuccess();
 
@@ -71,9 +71,9 @@ public final class StatsCounterTest {
     public void testRecordRequestRedirect() {
         statsCounter.recordRemainingCrawlCandidate();
 
-        int remainingCrawlCandidateCountBefore = statsCounter.getRemainingCrawlCandidateCount();
-        int requestRedirectCountBefore = statsCounter.getRequestRedirectCount();
-        int processedCrawlCandidateCountBefore = statsCounter.getProcessedCrawlCandidateCount();
+        long remainingCrawlCandidateCountBefore = statsCounter.getRemainingCrawlCandidateCount();
+        long requestRedirectCountBefore = statsCounter.getRequestRedirectCount();
+        long processedCrawlCandidateCountBefore = statsCounter.getProcessedCrawlCandidateCount();
 
         statsCounter.recordResponseSuccess();
 
@@ -88,9 +88,9 @@ public final class StatsCounterTest {
     public void testRecordNonHtmlResponse() {
         statsCounter.recordRemainingCrawlCandidate();
 
-        int remainingCrawlCandidateCountBefore = statsCounter.getRemainingCrawlCandidateCount();
-        int nonHtmlResponseCount = statsCounter.getNonHtmlResponseCount();
-        int processedCrawlCandidateCountBefore = statsCounter.getProcessedCrawlCandidateCount();
+        long remainingCrawlCandidateCountBefore = statsCounter.getRemainingCrawlCandidateCount();
+        long nonHtmlResponseCount = statsCounter.getNonHtmlResponseCount();
+        long processedCrawlCandidateCountBefore = statsCounter.getProcessedCrawlCandidateCount();
 
         statsCounter.recordResponseSuccess();
 
@@ -105,9 +105,9 @@ public final class StatsCounterTest {
     public void testRecordResponseError() {
         statsCounter.recordRemainingCrawlCandidate();
 
-        int remainingCrawlCandidateCountBefore = statsCounter.getRemainingCrawlCandidateCount();
-        int responseErrorCount = statsCounter.getResponseErrorCount();
-        int processedCrawlCandidateCountBefore = statsCounter.getProcessedCrawlCandidateCount();
+        long remainingCrawlCandidateCountBefore = statsCounter.getRemainingCrawlCandidateCount();
+        long responseErrorCount = statsCounter.getResponseErrorCount();
+        long processedCrawlCandidateCountBefore = statsCounter.getProcessedCrawlCandidateCount();
 
         statsCounter.recordResponseSuccess();
 
@@ -122,9 +122,9 @@ public final class StatsCounterTest {
     public void testRecordNetworkError() {
         statsCounter.recordRemainingCrawlCandidate();
 
-        int remainingCrawlCandidateCountBefore = statsCounter.getRemainingCrawlCandidateCount();
-        int networkErrorCount = statsCounter.getNetworkErrorCount();
-        int processedCrawlCandidateCountBefore = statsCounter.getProcessedCrawlCandidateCount();
+        long remainingCrawlCandidateCountBefore = statsCounter.getRemainingCrawlCandidateCount();
+        long networkErrorCount = statsCounter.getNetworkErrorCount();
+        long processedCrawlCandidateCountBefore = statsCounter.getProcessedCrawlCandidateCount();
 
         statsCounter.recordResponseSuccess();
 
@@ -156,17 +156,80 @@ public final class StatsCounterTest {
 
         statsCounter.reset();
 
-        Assert.assertThat(statsCounter.getRemainingCrawlCandidateCount(), Matchers.is(0));
-        Assert.assertThat(statsCounter.getProcessedCrawlCandidateCount(), Matchers.is(0));
-        Assert.assertThat(statsCounter.getResponseSuccessCount(), Matchers.is(0));
-        Assert.assertThat(statsCounter.getPageLoadTimeoutCount(), Matchers.is(0));
-        Assert.assertThat(statsCounter.getRequestRedirectCount(), Matchers.is(0));
-        Assert.assertThat(statsCounter.getNonHtmlResponseCount(), Matchers.is(0));
-        Assert.assertThat(statsCounter.getResponseErrorCount(), Matchers.is(0));
-        Assert.assertThat(statsCounter.getNetworkErrorCount(), Matchers.is(0));
-        Assert.assertThat(statsCounter.getFilteredDuplicateRequestCount(), Matchers.is(0));
-        Assert.assertThat(statsCounter.getFilteredOffsiteRequestCount(), Matchers.is(0));
+        Assert.assertThat(statsCounter.getRemainingCrawlCandidateCount(), Matchers.is(0L));
+        Assert.assertThat(statsCounter.getProcessedCrawlCandidateCount(), Matchers.is(0L));
+        Assert.assertThat(statsCounter.getResponseSuccessCount(), Matchers.is(0L));
+        Assert.assertThat(statsCounter.getPageLoadTimeoutCount(), Matchers.is(0L));
+        Assert.assertThat(statsCounter.getRequestRedirectCount(), Matchers.is(0L));
+        Assert.assertThat(statsCounter.getNonHtmlResponseCount(), Matchers.is(0L));
+        Assert.assertThat(statsCounter.getResponseErrorCount(), Matchers.is(0L));
+        Assert.assertThat(statsCounter.getNetworkErrorCount(), Matchers.is(0L));
+        Assert.assertThat(statsCounter.getFilteredDuplicateRequestCount(), Matchers.is(0L));
+        Assert.assertThat(statsCounter.getFilteredOffsiteRequestCount(), Matchers.is(0L));
         Assert.assertThat(statsCounter.getFilteredCrawlDepthLimitExceedingRequestCount(),
-                Matchers.is(0));
+                Matchers.is(0L));
+    }
+
+    @Test
+    public void testRecordBlockedSubresource() {
+        statsCounter.recordBlockedSubresource(0);
+        statsCounter.recordBlockedSubresource(1024);
+
+        Assert.assertEquals(2, statsCounter.getBlockedSubresourceCount());
+        Assert.assertEquals(1024, statsCounter.getBlockedSubresourceByteCount());
+    }
+
+    @Test
+    public void testRestore() {
+        statsCounter.recordRemainingCrawlCandidate();
+        statsCounter.recordRemainingCrawlCandidate();
+        statsCounter.recordResponseSuccess();
+        statsCounter.recordDuplicateRequest();
+        StatsCounterSnapshot snapshot = statsCounter.getSnapshot();
+
+        StatsCounter restoredStatsCounter = new StatsCounter();
+        restoredStatsCounter.restore(snapshot, 3);
+
+        Assert.assertThat(restoredStatsCounter.getRemainingCrawlCandidateCount(),
+                Matchers.is(3L));
+        Assert.assertThat(restoredStatsCounter.getProcessedCrawlCandidateCount(),
+                Matchers.is(1L));
+        Assert.assertThat(restoredStatsCounter.getResponseSuccessCount(), Matchers.is(1L));
+        Assert.assertThat(restoredStatsCounter.getFilteredDuplicateRequestCount(),
+                Matchers.is(1L));
+    }
+
+    @Test
+    public void testSnapshotIsConsistentWhileRecording() throws InterruptedException {
+        int recordCount = 100_000;
+        Thread worker = new Thread(() -> {
+            for (int i = 0; i < recordCount; i++) {
+                statsCounter.recordRemainingCrawlCandidate();
+                statsCounter.recordResponseSuccess();
+            }
+        });
+        worker.start();
+
+        while (worker.isAlive()) {
+            StatsCounterSnapshot snapshot = statsCounter.getSnapshot();
+
+            Assert.assertThat(snapshot.getRemainingCrawlCandidateCount(),
+                    Matchers.greaterThanOrEqualTo(0L));
+            Assert.assertThat(snapshot.getProcessedCrawlCandidateCount(),
+                    Matchers.is(snapshot.getResponseSuccessCount()));
+        }
+        worker.join();
+
+        Assert.assertThat(statsCounter.getProcessedCrawlCandidateCount(),
+                Matchers.is((long) recordCount));
+        Assert.assertThat(statsCounter.getRemainingCrawlCandidateCount(), Matchers.is(0L));
+    }
+
+    @Test
+    public void testGetRemainingCrawlCandidateCountWhenAddedCandidatesAreNotCounted() {
+        statsCounter.recordResponseSuccess();
+
+        Assert.assertEquals(0, statsCounter.getRemainingCrawlCandidateCount());
+        Assert.assertEquals(0, statsCounter.getSnapshot().getRemainingCrawlCandidateCount());
     }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.stats;
+
+import com.github.peterbencze.serritor.internal.util.stopwatch.TimeSource;
+import java.time.Instant;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test cases for {@link ThroughputMeter}.
+ */
+public final class ThroughputMeterTest {
+
+    private static final double DELTA = 0.0001;
+    private static final Instant START_TIME = Instant.ofEpochSecond(1_000_000);
+
+    private TimeSource timeSourceMock;
+    private ThroughputMeter throughputMeter;
+
+    @Before
+    public void before() {
+        timeSourceMock = Mockito.mock(TimeSource.class);
+        Mockito.when(timeSourceMock.getTime()).thenReturn(START_TIME);
+
+        throughputMeter = new ThroughputMeter(timeSourceMock);
+    }
+
+    @Test
+    public void testGetRateWhenWindowIsLongerThanElapsedTime() {
+        recordEvents(10, START_TIME);
+
+        setCurrentTime(START_TIME.plusSeconds(9));
+
+        Assert.assertEquals(1, throughputMeter.getRate(60), DELTA);
+    }
+
+    @Test
+    public void testGetRateExcludesEventsOutsideWindow() {
+        recordEvents(60, START_TIME);
+        recordEvents(30, START_TIME.plusSeconds(100));
+
+        setCurrentTime(START_TIME.plusSeconds(119));
+
+        Assert.assertEquals(0.5, throughputMeter.getRate(60), DELTA);
+        Assert.assertEquals(0.75, throughputMeter.getRate(120), DELTA);
+    }
+
+    @Test
+    public void testGetRateWhenSlotIsReused() {
+        recordEvents(5, START_TIME);
+        recordEvents(1, START_TIME.plusSeconds(ThroughputMeter.MAX_WINDOW_IN_SECONDS));
+
+        Assert.assertEquals(1.0 / ThroughputMeter.MAX_WINDOW_IN_SECONDS,
+                throughputMeter.getRate(ThroughputMeter.MAX_WINDOW_IN_SECONDS), DELTA);
+    }
+
+    @Test
+    public void testReset() {
+        recordEvents(10, START_TIME);
+
+        throughputMeter.reset();
+
+        Assert.assertEquals(0, throughputMeter.getRate(60), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetRateWhenWindowIsTooLong() {
+        throughputMeter.getRate(ThroughputMeter.MAX_WINDOW_IN_SECONDS + 1);
+    }
+
+    private void recordEvents(final int count, final Instant time) {
+        setCurrentTime(time);
+
+        for (int i = 0; i < count; i++) {
+            throughputMeter.recordEvent();
+        }
+    }
+
+    private void setCurrentTime(final Instant time) {
+        Mockito.when(timeSourceMock.getTime()).thenReturn(time);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link AhoCorasickAutomaton}.
+ */
+public final class AhoCorasickAutomatonTest {
+
+    @Test
+    public void testFindKeywords() {
+        AhoCorasickAutomaton automaton =
+                new AhoCorasickAutomaton(Arrays.asList("he", "she", "his", "hers"));
+
+        BitSet result = new BitSet();
+        automaton.findKeywords("ushers", result);
+
+        Assert.assertEquals(bitSetOf(0, 1, 3), result);
+    }
+
+    @Test
+    public void testFindKeywordsWhenKeywordIsSuffixOfAnother() {
+        AhoCorasickAutomaton automaton =
+                new AhoCorasickAutomaton(Arrays.asList("example.com/shop", "/shop", "shop/"));
+
+        BitSet result = new BitSet();
+        automaton.findKeywords("https://example.com/shop?page=1", result);
+
+        Assert.assertEquals(bitSetOf(0, 1), result);
+    }
+
+    @Test
+    public void testFindKeywordsWhenNoKeywordOccurs() {
+        AhoCorasickAutomaton automaton =
+                new AhoCorasickAutomaton(Collections.singletonList("/products/"));
+
+        BitSet result = new BitSet();
+        automaton.findKeywords("https://example.com/product/1", result);
+
+        Assert.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void testFindKeywordsWhenThereAreNoKeywords() {
+        AhoCorasickAutomaton automaton = new AhoCorasickAutomaton(Collections.emptyList());
+
+        BitSet result = new BitSet();
+        automaton.findKeywords("https://example.com", result);
+
+        Assert.assertTrue(result.isEmpty());
+    }
+
+    private static BitSet bitSetOf(final int... indices) {
+        BitSet bitSet = new BitSet();
+        Arrays.stream(indices).forEach(bitSet::set);
+        return bitSet;
+    }
+}
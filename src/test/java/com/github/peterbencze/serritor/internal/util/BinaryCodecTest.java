@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.util;
+
+import com.github.peterbencze.serritor.api.CrawlCandidate;
+import com.github.peterbencze.serritor.api.CrawlCandidate.CrawlCandidateBuilder;
+import com.github.peterbencze.serritor.api.CrawlRequest;
+import com.github.peterbencze.serritor.api.CrawlRequest.CrawlRequestBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import org.apache.commons.lang3.SerializationUtils;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link BinaryCodec}.
+ */
+public final class BinaryCodecTest {
+
+    private static final URI REFERER_URL = URI.create("http://example.com/");
+    private static final URI REQUEST_URL = URI.create("http://example.com/été?q=1");
+    private static final int PRIORITY = -3;
+    private static final int CRAWL_DEPTH = 300;
+    private static final String METADATA = "metadata";
+    private static final int MAGIC = 0x54455354;
+    private static final int FORMAT_VERSION = 1;
+
+    @Test
+    public void testDecodeWhenCandidateHasAllFields() {
+        CrawlRequest request = new CrawlRequestBuilder(REQUEST_URL)
+                .setPriority(PRIORITY)
+                .setMetadata(METADATA)
+                .build();
+        CrawlCandidate candidate = new CrawlCandidateBuilder(request)
+                .setRefererUrl(REFERER_URL)
+                .setCrawlDepth(CRAWL_DEPTH)
+                .build();
+
+        CrawlCandidate decodedCandidate = BinaryCodec.decode(BinaryCodec.encode(candidate));
+
+        Assert.assertThat(decodedCandidate.getRefererUrl(), Matchers.is(REFERER_URL));
+        Assert.assertThat(decodedCandidate.getRequestUrl(), Matchers.is(REQUEST_URL));
+        Assert.assertThat(decodedCandidate.getDomain(), Matchers.is(candidate.getDomain()));
+        Assert.assertThat(decodedCandidate.getPriority(), Matchers.is(PRIORITY));
+        Assert.assertThat(decodedCandidate.getCrawlDepth(), Matchers.is(CRAWL_DEPTH));
+        Assert.assertThat(decodedCandidate.getMetadata().get(), Matchers.is(METADATA));
+    }
+
+    @Test
+    public void testDecodeWhenCandidateHasNoOptionalFields() {
+        CrawlCandidate candidate =
+                new CrawlCandidateBuilder(CrawlRequest.createDefault(REQUEST_URL))
+                        .setCrawlDepth(1)
+                        .build();
+
+        byte[] encodedCandidate = BinaryCodec.encode(candidate);
+        CrawlCandidate decodedCandidate = BinaryCodec.decode(encodedCandidate);
+
+        Assert.assertThat(decodedCandidate.getRefererUrl(), Matchers.nullValue());
+        Assert.assertThat(decodedCandidate.getRequestUrl(), Matchers.is(REQUEST_URL));
+        Assert.assertThat(decodedCandidate.getMetadata().isPresent(), Matchers.is(false));
+        Assert.assertThat(encodedCandidate.length,
+                Matchers.lessThan(SerializationUtils.serialize(REQUEST_URL).length));
+    }
+
+    @Test
+    public void testReadCandidateWhenMetadataIsWrittenThroughObjectStream() throws Exception {
+        int candidateCount = 100;
+        int encodedLength = 0;
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(outputStream)) {
+            for (int i = 0; i < candidateCount; i++) {
+                // Each candidate has its own metadata instance, so there are no back-references
+                CrawlRequest request = new CrawlRequestBuilder(REQUEST_URL)
+                        .setMetadata(new ArrayList<>(Collections.singletonList(METADATA)))
+                        .build();
+                CrawlCandidate candidate = new CrawlCandidateBuilder(request).build();
+
+                BinaryCodec.writeCandidate(out, candidate);
+                encodedLength += BinaryCodec.encode(candidate).length;
+            }
+        }
+
+        try (ObjectInputStream in =
+                new ObjectInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            for (int i = 0; i < candidateCount; i++) {
+                Assert.assertThat(BinaryCodec.readCandidate(in).getMetadata().get(),
+                        Matchers.is(Collections.singletonList(METADATA)));
+            }
+        }
+
+        // The class descriptors of the metadata are written to the object stream only once
+        Assert.assertThat(outputStream.size(), Matchers.lessThan(encodedLength * 2 / 3));
+    }
+
+    @Test
+    public void testReadRequest() throws IOException {
+        CrawlRequest request = new CrawlRequestBuilder(REQUEST_URL)
+                .setPriority(PRIORITY)
+                .build();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BinaryCodec.writeRequest(new DataOutputStream(outputStream), request);
+
+        CrawlRequest decodedRequest = BinaryCodec.readRequest(
+                new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+
+        Assert.assertThat(decodedRequest.getRequestUrl(), Matchers.is(REQUEST_URL));
+        Assert.assertThat(decodedRequest.getPriority(), Matchers.is(PRIORITY));
+    }
+
+    @Test
+    public void testReadVarInt() throws IOException {
+        int[] values = {0, 1, 127, 128, 16_384, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(outputStream);
+        for (int value : values) {
+            BinaryCodec.writeVarInt(out, value);
+            BinaryCodec.writeSignedVarInt(out, value);
+        }
+
+        DataInputStream in =
+                new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray()));
+        for (int value : values) {
+            Assert.assertThat(BinaryCodec.readVarInt(in), Matchers.is(value));
+            Assert.assertThat(BinaryCodec.readSignedVarInt(in), Matchers.is(value));
+        }
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testReadVarIntWhenIntegerIsTooLong() throws IOException {
+        byte[] data = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0};
+
+        BinaryCodec.readVarInt(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+
+    @Test
+    public void testReadHeader() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BinaryCodec.writeHeader(new DataOutputStream(outputStream), MAGIC, FORMAT_VERSION);
+
+        Assert.assertThat(outputStream.size(), Matchers.is(BinaryCodec.HEADER_LENGTH));
+        BinaryCodec.readHeader(createInput(outputStream), MAGIC, FORMAT_VERSION, "test file");
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testReadHeaderWhenMagicNumberDoesNotMatch() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BinaryCodec.writeHeader(new DataOutputStream(outputStream), MAGIC + 1, FORMAT_VERSION);
+
+        BinaryCodec.readHeader(createInput(outputStream), MAGIC, FORMAT_VERSION, "test file");
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testReadHeaderWhenFormatVersionDoesNotMatch() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BinaryCodec.writeHeader(new DataOutputStream(outputStream), MAGIC, FORMAT_VERSION + 1);
+
+        BinaryCodec.readHeader(createInput(outputStream), MAGIC, FORMAT_VERSION, "test file");
+    }
+
+    private static DataInputStream createInput(final ByteArrayOutputStream outputStream) {
+        return new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray()));
+    }
+}
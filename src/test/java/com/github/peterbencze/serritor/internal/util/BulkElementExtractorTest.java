@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * Test cases for {@link BulkElementExtractor}.
+ */
+public final class BulkElementExtractorTest {
+
+    private static final String ATTRIBUTE_NAME = "href";
+
+    private WebDriver webDriverMock;
+    private Set<By> locatingMechanisms;
+
+    @Before
+    public void before() {
+        webDriverMock = Mockito.mock(WebDriver.class,
+                Mockito.withSettings().extraInterfaces(JavascriptExecutor.class));
+
+        locatingMechanisms = new LinkedHashSet<>(Arrays.asList(By.tagName("a"), By.id("foo")));
+    }
+
+    @Test
+    public void testExtractAttributeValues() {
+        Mockito.when(((JavascriptExecutor) webDriverMock).executeScript(Mockito.anyString(),
+                Mockito.eq(Arrays.asList("a", "[id=\"foo\"]")), Mockito.eq(ATTRIBUTE_NAME)))
+                .thenReturn(Arrays.asList("http://example.com", null));
+
+        Assert.assertEquals(Optional.of(Arrays.asList("http://example.com", null)),
+                BulkElementExtractor.extractAttributeValues(webDriverMock, locatingMechanisms,
+                        ATTRIBUTE_NAME));
+    }
+
+    @Test
+    public void testExtractTexts() {
+        Mockito.when(((JavascriptExecutor) webDriverMock).executeScript(Mockito.anyString(),
+                Mockito.eq(Arrays.asList("a", "[id=\"foo\"]")), Mockito.eq("")))
+                .thenReturn(Arrays.asList(" foo\n", null));
+
+        Optional<List<String>> textsOpt =
+                BulkElementExtractor.extractTexts(webDriverMock, locatingMechanisms);
+
+        Assert.assertEquals(Optional.of(Arrays.asList("foo", "")), textsOpt);
+    }
+
+    @Test
+    public void testExtractTextsWhenBrowserCannotExecuteScripts() {
+        WebDriver nonScriptingWebDriverMock = Mockito.mock(WebDriver.class);
+
+        Assert.assertFalse(BulkElementExtractor.extractTexts(nonScriptingWebDriverMock,
+                locatingMechanisms).isPresent());
+    }
+
+    @Test
+    public void testExtractTextsWhenLocatingMechanismIsNotSupported() {
+        Set<By> xpathLocatingMechanism = Collections.singleton(By.xpath("//a"));
+
+        Assert.assertFalse(BulkElementExtractor.extractTexts(webDriverMock,
+                xpathLocatingMechanism).isPresent());
+        Mockito.verify((JavascriptExecutor) webDriverMock, Mockito.never())
+                .executeScript(Mockito.anyString(), Mockito.any());
+    }
+
+    @Test
+    public void testExtractTextsWhenScriptFails() {
+        Mockito.when(((JavascriptExecutor) webDriverMock).executeScript(Mockito.anyString(),
+                Mockito.any()))
+                .thenThrow(new WebDriverException());
+
+        Assert.assertFalse(BulkElementExtractor.extractTexts(webDriverMock, locatingMechanisms)
+                .isPresent());
+    }
+}
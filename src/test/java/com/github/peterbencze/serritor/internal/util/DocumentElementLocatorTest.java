@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.util;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.hamcrest.Matchers;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openqa.selenium.By;
+
+/**
+ * Test cases for {@link DocumentElementLocator}.
+ */
+public final class DocumentElementLocatorTest {
+
+    private static final String HTML = "<div id=\"main\"><a href=\"/first\"> First link </a>"
+            + "<p>Paragraph</p></div><a href=\"/second\">Second link</a>";
+
+    @Test
+    public void testLocateWhenLocatingMechanismHasCssEquivalent() {
+        Assert.assertThat(locateTexts(HTML, By.cssSelector("#main a")),
+                Matchers.contains("First link"));
+    }
+
+    @Test
+    public void testLocateWhenLocatingMechanismIsXPath() {
+        Assert.assertThat(locateTexts(HTML, By.xpath("//a[@href='/second'] | //p")),
+                Matchers.contains("Paragraph", "Second link"));
+    }
+
+    @Test
+    public void testLocateWhenXPathMatchesNodesWhichAreNotElements() {
+        Assert.assertThat(locateTexts(HTML, By.xpath("//a/@href")), Matchers.empty());
+    }
+
+    @Test
+    public void testLocateWhenXPathIsUsedOnXhtmlDocument() {
+        String html = "<html xmlns=\"http://www.w3.org/1999/xhtml\"><body><a>Link</a></body></html>";
+
+        Assert.assertThat(locateTexts(html, By.xpath("//body/a")), Matchers.contains("Link"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLocateWhenXPathIsInvalid() {
+        locateTexts(HTML, By.xpath("//a["));
+    }
+
+    @Test
+    public void testLocateWhenLocatingMechanismIsLinkText() {
+        Assert.assertThat(locateTexts(HTML, By.linkText("First link")),
+                Matchers.contains("First link"));
+        Assert.assertThat(locateTexts(HTML, By.linkText("link")), Matchers.empty());
+    }
+
+    @Test
+    public void testLocateWhenLocatingMechanismIsPartialLinkText() {
+        Assert.assertThat(locateTexts(HTML, By.partialLinkText("link")),
+                Matchers.contains("First link", "Second link"));
+    }
+
+    private static List<String> locateTexts(final String html, final By locatingMechanism) {
+        Document document = Jsoup.parse(html);
+
+        return new DocumentElementLocator(document).locate(locatingMechanism).stream()
+                .map(Element::text)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.util;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.net.InternetDomainName;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link DomainNameCache}.
+ */
+public final class DomainNameCacheTest {
+
+    @Test
+    public void testGetDomainNameWhenHostIsRequestedRepeatedly() {
+        CacheStats statsBefore = DomainNameCache.getStats();
+
+        InternetDomainName domainName = DomainNameCache.getDomainName("domain-name-cache.com");
+
+        Assert.assertThat(domainName,
+                Matchers.is(InternetDomainName.from("domain-name-cache.com")));
+        Assert.assertThat(DomainNameCache.getDomainName("domain-name-cache.com"),
+                Matchers.sameInstance(domainName));
+
+        CacheStats stats = DomainNameCache.getStats().minus(statsBefore);
+        Assert.assertThat(stats.missCount(), Matchers.is(1L));
+        Assert.assertThat(stats.hitCount(), Matchers.is(1L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetDomainNameWhenHostIsInvalid() {
+        DomainNameCache.getDomainName("invalid..host");
+    }
+}
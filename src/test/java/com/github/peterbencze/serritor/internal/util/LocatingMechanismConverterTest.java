@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openqa.selenium.By;
+
+/**
+ * Test cases for {@link LocatingMechanismConverter}.
+ */
+public final class LocatingMechanismConverterTest {
+
+    @Test
+    public void testConvertToCssSelectorWhenLocatingMechanismIsSupported() {
+        Assert.assertEquals("a[href]",
+                LocatingMechanismConverter.convertToCssSelector(By.cssSelector("a[href]")));
+        Assert.assertEquals("a", LocatingMechanismConverter.convertToCssSelector(By.tagName("a")));
+        Assert.assertEquals("[id=\"main\"]",
+                LocatingMechanismConverter.convertToCssSelector(By.id("main")));
+        Assert.assertEquals("[name=\"query\"]",
+                LocatingMechanismConverter.convertToCssSelector(By.name("query")));
+        Assert.assertEquals(".title",
+                LocatingMechanismConverter.convertToCssSelector(By.className("title")));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testConvertToCssSelectorWhenLocatingMechanismIsXPath() {
+        LocatingMechanismConverter.convertToCssSelector(By.xpath("//a"));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 Peter Bencze.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.peterbencze.serritor.internal.util;
+
+import java.net.URI;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link UrlCanonicalizer}.
+ */
+public final class UrlCanonicalizerTest {
+
+    @Test
+    public void testCreateFingerprintWhenSchemeAndHostDifferInCase() {
+        assertSameFingerprint("http://example.com/path", "HTTP://EXAMPLE.COM/path");
+    }
+
+    @Test
+    public void testCreateFingerprintWhenPathDiffersInCase() {
+        assertDifferentFingerprint("http://example.com/path", "http://example.com/PATH");
+    }
+
+    @Test
+    public void testCreateFingerprintWhenPathIsEmpty() {
+        assertDifferentFingerprint("http://example.com", "http://example.com/");
+        assertDifferentFingerprint("http://example.com?a=1", "http://example.com/?a=1");
+    }
+
+    @Test
+    public void testCreateFingerprintWhenPathDiffersInPercentEncoding() {
+        assertDifferentFingerprint("http://example.com/%7e", "http://example.com/~");
+    }
+
+    @Test
+    public void testCreateFingerprintWhenQueryParamsAreInDifferentOrder() {
+        assertSameFingerprint("http://example.com/?b=2&a=1&c=3", "http://example.com/?c=3&a=1&b=2");
+    }
+
+    @Test
+    public void testCreateFingerprintWhenQueryParamValuesAreInDifferentOrder() {
+        assertSameFingerprint("http://example.com/?a=2&a=1", "http://example.com/?a=1&a=2");
+    }
+
+    @Test
+    public void testCreateFingerprintWhenQueryParamsDiffer() {
+        assertDifferentFingerprint("http://example.com/?a=1&b=2", "http://example.com/?a=1&b=3");
+        assertDifferentFingerprint("http://example.com/?a=1&b=2", "http://example.com/?a=1b=2");
+    }
+
+    @Test
+    public void testCreateFingerprintWhenQueryHasEmptyParams() {
+        assertSameFingerprint("http://example.com/?a=1&&b=2;", "http://example.com/?b=2&a=1");
+        assertSameFingerprint("http://example.com/?", "http://example.com/");
+    }
+
+    @Test
+    public void testCreateFingerprintWhenQueryHasParamWithEmptyName() {
+        assertSameFingerprint("http://example.com/?=1&a=2", "http://example.com/?a=2");
+    }
+
+    @Test
+    public void testCreateFingerprintWhenQueryParamsDifferInPercentEncoding() {
+        assertSameFingerprint("http://example.com/?q=a+b", "http://example.com/?q=a%20b");
+        assertSameFingerprint("http://example.com/?q=%7e", "http://example.com/?q=~");
+        assertSameFingerprint("http://example.com/?q=%7e", "http://example.com/?q=%7E");
+        assertSameFingerprint("http://example.com/?q=%2F", "http://example.com/?q=/");
+        assertSameFingerprint("http://example.com/?q=\u00e9", "http://example.com/?q=%C3%A9");
+        assertSameFingerprint("http://example.com/?q=\ud83d\ude00",
+                "http://example.com/?q=%F0%9F%98%80");
+    }
+
+    @Test
+    public void testCreateFingerprintWhenDecodedQueryParamsAreInDifferentOrder() {
+        assertSameFingerprint("http://example.com/?b=%31&a=1", "http://example.com/?a=%31&b=1");
+    }
+
+    @Test
+    public void testCreateFingerprintWhenQueryParamsDifferInNameValueSeparator() {
+        assertDifferentFingerprint("http://example.com/?a%3Db=1", "http://example.com/?a=b%3D1");
+        assertSameFingerprint("http://example.com/?a=b=1", "http://example.com/?a=b%3D1");
+        assertDifferentFingerprint("http://example.com/?a", "http://example.com/?a=");
+        assertDifferentFingerprint("http://example.com/?q=a+b", "http://example.com/?q=a%2Bb");
+    }
+
+    @Test
+    public void testCreateFingerprintWhenFragmentsDiffer() {
+        assertSameFingerprint("http://example.com/?a=1#foo", "http://example.com/?a=1#bar");
+    }
+
+    @Test
+    public void testCreateFingerprintWhenPortsDiffer() {
+        assertDifferentFingerprint("http://example.com:8080/", "http://example.com:8081/");
+    }
+
+    @Test
+    public void testCreateFingerprintWhenUrlIsOpaque() {
+        assertSameFingerprint("mailto:info@example.com", "MAILTO:info@example.com#foo");
+    }
+
+    private static void assertSameFingerprint(final String firstUrl, final String secondUrl) {
+        Assert.assertThat(UrlCanonicalizer.createFingerprint(URI.create(firstUrl)),
+                Matchers.is(UrlCanonicalizer.createFingerprint(URI.create(secondUrl))));
+    }
+
+    private static void assertDifferentFingerprint(final String firstUrl, final String secondUrl) {
+        Assert.assertThat(UrlCanonicalizer.createFingerprint(URI.create(firstUrl)),
+                Matchers.not(UrlCanonicalizer.createFingerprint(URI.create(secondUrl))));
+    }
+}
@@ -17,21 +17,43 @@
 package com.github.peterbencze.serritor.it;
 
 import com.github.peterbencze.serritor.api.Browser;
+import com.github.peterbencze.serritor.api.CompleteCrawlResponse;
+import com.github.peterbencze.serritor.api.CrawlFrontierStorage;
 import com.github.peterbencze.serritor.api.CrawlRequest;
 import com.github.peterbencze.serritor.api.CrawlRequest.CrawlRequestBuilder;
 import com.github.peterbencze.serritor.api.CrawlStats;
 import com.github.peterbencze.serritor.api.Crawler;
 import com.github.peterbencze.serritor.api.CrawlerConfiguration;
+import com.github.peterbencze.serritor.api.CrawlerState;
+import com.github.peterbencze.serritor.api.SubresourceBlockingRules;
+import com.github.peterbencze.serritor.api.SubresourceBlockingRules.SubresourceBlockingRulesBuilder;
 import com.github.peterbencze.serritor.api.event.NonHtmlResponseEvent;
 import com.github.peterbencze.serritor.api.event.ResponseSuccessEvent;
+import com.github.peterbencze.serritor.api.event.StaticResponseSuccessEvent;
+import com.github.peterbencze.serritor.api.helper.TextFinder;
+import com.github.peterbencze.serritor.api.helper.UrlFinder;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.google.common.net.HttpHeaders;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import net.lightbody.bmp.BrowserMobProxyServer;
 import net.lightbody.bmp.client.ClientUtil;
 import org.apache.commons.io.IOUtils;
@@ -42,6 +64,8 @@ import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
 import org.openqa.selenium.remote.CapabilityType;
 import org.openqa.selenium.remote.DesiredCapabilities;
 
@@ -105,7 +129,7 @@ public final class CrawlingIT {
     }
 
     @Test
-    public void testResumeState() {
+    public void testResumeState() throws IOException {
         WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/foo"))
                 .willReturn(WireMock.ok()
                         .withHeader("Content-Type", ContentType.TEXT_HTML.toString())));
@@ -130,7 +154,13 @@ public final class CrawlingIT {
         };
         crawler.start(Browser.HTML_UNIT, capabilities);
 
-        crawler = new Crawler(crawler.getState()) {
+        // Save and restore the state, like it would be done between two runs
+        ByteArrayOutputStream stateStream = new ByteArrayOutputStream();
+        crawler.getState().writeTo(stateStream, true);
+        CrawlerState state =
+                CrawlerState.readFrom(new ByteArrayInputStream(stateStream.toByteArray()));
+
+        crawler = new Crawler(state) {
         };
         crawler.resume(Browser.HTML_UNIT, capabilities);
 
@@ -143,6 +173,54 @@ public final class CrawlingIT {
         Assert.assertEquals(0, WireMock.findUnmatchedRequests().size());
     }
 
+    @Test
+    public void testResumeStateSnapshot() throws Exception {
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/foo"))
+                .willReturn(WireMock.ok()
+                        .withHeader("Content-Type", ContentType.TEXT_HTML.toString())));
+
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/bar"))
+                .willReturn(WireMock.ok()
+                        .withHeader("Content-Type", ContentType.TEXT_HTML.toString())));
+
+        CrawlerConfiguration config = new CrawlerConfiguration.CrawlerConfigurationBuilder()
+                .addCrawlSeed(new CrawlRequestBuilder("http://te.st/foo").setPriority(1).build())
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/bar"))
+                .build();
+
+        ByteArrayOutputStream stateStream = new ByteArrayOutputStream();
+        AtomicReference<CompletableFuture<Void>> snapshotFuture = new AtomicReference<>();
+        Crawler crawler = new Crawler(config) {
+            @Override
+            protected void onResponseSuccess(final ResponseSuccessEvent event) {
+                super.onResponseSuccess(event);
+
+                // Save the state while the crawler is running
+                if (snapshotFuture.get() == null) {
+                    snapshotFuture.set(writeStateSnapshot(stateStream, true));
+                }
+            }
+
+        };
+        crawler.start(Browser.HTML_UNIT, capabilities);
+        snapshotFuture.get().get();
+
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/foo")));
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/bar")));
+
+        // The candidate in progress at the time of the snapshot is crawled again
+        CrawlerState state =
+                CrawlerState.readFrom(new ByteArrayInputStream(stateStream.toByteArray()));
+        crawler = new Crawler(state) {
+        };
+        crawler.resume(Browser.HTML_UNIT, capabilities);
+
+        WireMock.verify(2, WireMock.getRequestedFor(WireMock.urlEqualTo("/foo")));
+        WireMock.verify(2, WireMock.getRequestedFor(WireMock.urlEqualTo("/bar")));
+
+        Assert.assertEquals(0, WireMock.findUnmatchedRequests().size());
+    }
+
     @Test
     public void testCrawlerRestartWhenStateWasRestored() {
         WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/foo"))
@@ -168,17 +246,22 @@ public final class CrawlingIT {
         crawler.start(Browser.HTML_UNIT, capabilities);
 
         CrawlStats stats = crawler.getCrawlStats();
-        Assert.assertThat(stats.getRemainingCrawlCandidateCount(), Matchers.is(1));
-        Assert.assertThat(stats.getProcessedCrawlCandidateCount(), Matchers.is(1));
-        Assert.assertThat(stats.getResponseSuccessCount(), Matchers.is(1));
-        Assert.assertThat(stats.getPageLoadTimeoutCount(), Matchers.is(0));
-        Assert.assertThat(stats.getRequestRedirectCount(), Matchers.is(0));
-        Assert.assertThat(stats.getNonHtmlResponseCount(), Matchers.is(0));
-        Assert.assertThat(stats.getResponseErrorCount(), Matchers.is(0));
-        Assert.assertThat(stats.getNetworkErrorCount(), Matchers.is(0));
-        Assert.assertThat(stats.getFilteredDuplicateRequestCount(), Matchers.is(0));
-        Assert.assertThat(stats.getFilteredOffsiteRequestCount(), Matchers.is(0));
-        Assert.assertThat(stats.getFilteredCrawlDepthLimitExceedingRequestCount(), Matchers.is(0));
+        Assert.assertThat(stats.getRemainingCrawlCandidateCount(), Matchers.is(1L));
+        Assert.assertThat(stats.getProcessedCrawlCandidateCount(), Matchers.is(1L));
+        Assert.assertThat(stats.getResponseSuccessCount(), Matchers.is(1L));
+        Assert.assertThat(stats.getPageLoadTimeoutCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getRequestRedirectCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getNonHtmlResponseCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getResponseErrorCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getNetworkErrorCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getFilteredDuplicateRequestCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getFilteredOffsiteRequestCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getFilteredCrawlDepthLimitExceedingRequestCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getHeadRequestLatency().getCount(), Matchers.is(1L));
+        Assert.assertThat(stats.getPageLoadLatency().getCount(), Matchers.is(1L));
+        Assert.assertThat(stats.getResponseCaptureLookupLatency().getCount(), Matchers.is(1L));
+        Assert.assertThat(stats.getCallbackLatency().getCount(), Matchers.is(1L));
+        Assert.assertThat(stats.getThroughputLastMinute(), Matchers.greaterThan(0.0));
 
         WireMock.verify(1, WireMock.headRequestedFor(WireMock.urlEqualTo("/foo")));
         WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/foo")));
@@ -190,17 +273,17 @@ public final class CrawlingIT {
         crawler.start(Browser.HTML_UNIT, capabilities);
 
         stats = crawler.getCrawlStats();
-        Assert.assertThat(stats.getRemainingCrawlCandidateCount(), Matchers.is(0));
-        Assert.assertThat(stats.getProcessedCrawlCandidateCount(), Matchers.is(2));
-        Assert.assertThat(stats.getResponseSuccessCount(), Matchers.is(2));
-        Assert.assertThat(stats.getPageLoadTimeoutCount(), Matchers.is(0));
-        Assert.assertThat(stats.getRequestRedirectCount(), Matchers.is(0));
-        Assert.assertThat(stats.getNonHtmlResponseCount(), Matchers.is(0));
-        Assert.assertThat(stats.getResponseErrorCount(), Matchers.is(0));
-        Assert.assertThat(stats.getNetworkErrorCount(), Matchers.is(0));
-        Assert.assertThat(stats.getFilteredDuplicateRequestCount(), Matchers.is(0));
-        Assert.assertThat(stats.getFilteredOffsiteRequestCount(), Matchers.is(0));
-        Assert.assertThat(stats.getFilteredCrawlDepthLimitExceedingRequestCount(), Matchers.is(0));
+        Assert.assertThat(stats.getRemainingCrawlCandidateCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getProcessedCrawlCandidateCount(), Matchers.is(2L));
+        Assert.assertThat(stats.getResponseSuccessCount(), Matchers.is(2L));
+        Assert.assertThat(stats.getPageLoadTimeoutCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getRequestRedirectCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getNonHtmlResponseCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getResponseErrorCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getNetworkErrorCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getFilteredDuplicateRequestCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getFilteredOffsiteRequestCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getFilteredCrawlDepthLimitExceedingRequestCount(), Matchers.is(0L));
 
         WireMock.verify(2, WireMock.headRequestedFor(WireMock.urlEqualTo("/foo")));
         WireMock.verify(2, WireMock.getRequestedFor(WireMock.urlEqualTo("/foo")));
@@ -272,6 +355,405 @@ public final class CrawlingIT {
         Assert.assertEquals(0, WireMock.findUnmatchedRequests().size());
     }
 
+    @Test
+    public void testStaticPageHandling() {
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/static/foo"))
+                .willReturn(WireMock.ok()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_HTML.toString())
+                        .withBody("<a href=\"/static/bar\">Bar</a>")));
+
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/static/bar"))
+                .willReturn(WireMock.ok()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_HTML.toString())));
+
+        CrawlerConfiguration config = new CrawlerConfiguration.CrawlerConfigurationBuilder()
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/static/foo"))
+                .addStaticPageUrlPattern(Pattern.compile("/static/"))
+                .build();
+
+        Crawler crawler = new Crawler(config) {
+            @Override
+            protected void onStaticResponseSuccess(final StaticResponseSuccessEvent event) {
+                super.onStaticResponseSuccess(event);
+
+                UrlFinder.createDefault()
+                        .findAllInResponse(event.getStaticCrawlResponse())
+                        .forEach(url -> crawl(CrawlRequest.createDefault(url)));
+            }
+        };
+        crawler.start(Browser.HTML_UNIT, capabilities);
+
+        Assert.assertThat(crawler.getCrawlStats().getResponseSuccessCount(), Matchers.is(2L));
+
+        // Static pages are fetched with a single GET request
+        WireMock.verify(0, WireMock.headRequestedFor(WireMock.urlEqualTo("/static/foo")));
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/static/foo")));
+        WireMock.verify(0, WireMock.headRequestedFor(WireMock.urlEqualTo("/static/bar")));
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/static/bar")));
+
+        Assert.assertEquals(0, WireMock.findUnmatchedRequests().size());
+    }
+
+    @Test
+    public void testHeadRequestSkipping() {
+        WireMock.givenThat(WireMock.any(WireMock.urlMatching("/articles/\\d"))
+                .willReturn(WireMock.ok()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_HTML.toString())));
+
+        CrawlerConfiguration config = new CrawlerConfiguration.CrawlerConfigurationBuilder()
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/articles/1"))
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/articles/2"))
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/articles/3"))
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/articles/4"))
+                .setHeadRequestSkippingEnabled(true)
+                .build();
+
+        Crawler crawler = new Crawler(config) {
+        };
+        crawler.start(Browser.HTML_UNIT, capabilities);
+
+        Assert.assertThat(crawler.getCrawlStats().getResponseSuccessCount(), Matchers.is(4L));
+
+        // The URL shape is learned to be HTML after 3 HEAD requests
+        WireMock.verify(3, WireMock.headRequestedFor(WireMock.urlMatching("/articles/\\d")));
+        WireMock.verify(4, WireMock.getRequestedFor(WireMock.urlMatching("/articles/\\d")));
+
+        Assert.assertEquals(0, WireMock.findUnmatchedRequests().size());
+    }
+
+    @Test
+    public void testResumeFromCheckpoint() throws IOException {
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/foo"))
+                .willReturn(WireMock.ok()
+                        .withHeader("Content-Type", ContentType.TEXT_HTML.toString())));
+
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/bar"))
+                .willReturn(WireMock.ok()
+                        .withHeader("Content-Type", ContentType.TEXT_HTML.toString())));
+
+        CrawlerConfiguration config = new CrawlerConfiguration.CrawlerConfigurationBuilder()
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/foo"))
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/bar"))
+                .setCheckpointDirectory(createTempDirectory())
+                .build();
+
+        Crawler crawler = new Crawler(config) {
+            @Override
+            protected void onResponseSuccess(final ResponseSuccessEvent event) {
+                super.onResponseSuccess(event);
+
+                stop();
+            }
+        };
+        crawler.start(Browser.HTML_UNIT, capabilities);
+
+        // A new crawler with the same configuration restores the state from the checkpoint
+        crawler = new Crawler(config) {
+        };
+        crawler.resume(Browser.HTML_UNIT, capabilities);
+
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/foo")));
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/bar")));
+
+        CrawlStats stats = crawler.getCrawlStats();
+        Assert.assertThat(stats.getResponseSuccessCount(), Matchers.is(2L));
+        Assert.assertThat(stats.getRemainingCrawlCandidateCount(), Matchers.is(0L));
+    }
+
+    @Test
+    public void testResumeFromPersistentFrontier() throws IOException {
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/foo"))
+                .willReturn(WireMock.ok()
+                        .withHeader("Content-Type", ContentType.TEXT_HTML.toString())));
+
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/bar"))
+                .willReturn(WireMock.ok()
+                        .withHeader("Content-Type", ContentType.TEXT_HTML.toString())));
+
+        CrawlerConfiguration config = new CrawlerConfiguration.CrawlerConfigurationBuilder()
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/foo"))
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/bar"))
+                .setCrawlFrontierStorage(CrawlFrontierStorage.PERSISTENT)
+                .setCrawlFrontierDirectory(createTempDirectory())
+                .build();
+
+        Crawler crawler = new Crawler(config) {
+            @Override
+            protected void onResponseSuccess(final ResponseSuccessEvent event) {
+                super.onResponseSuccess(event);
+
+                stop();
+            }
+        };
+        crawler.start(Browser.HTML_UNIT, capabilities);
+
+        // A new crawler with the same configuration recovers the frontier from the store
+        crawler = new Crawler(config) {
+        };
+        crawler.resume(Browser.HTML_UNIT, capabilities);
+
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/foo")));
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/bar")));
+
+        // The stats are not kept in the store, the recovered candidate is counted on resume
+        CrawlStats stats = crawler.getCrawlStats();
+        Assert.assertThat(stats.getResponseSuccessCount(), Matchers.is(1L));
+        Assert.assertThat(stats.getRemainingCrawlCandidateCount(), Matchers.is(0L));
+        Assert.assertThat(stats.getRemainingDurationEstimate().get().isNegative(),
+                Matchers.is(false));
+        Assert.assertThat(stats.toString(), Matchers.notNullValue());
+
+        Assert.assertEquals(0, WireMock.findUnmatchedRequests().size());
+    }
+
+    @Test
+    public void testBrowserRecycling() {
+        WireMock.givenThat(WireMock.any(WireMock.urlMatching("/pages/\\d"))
+                .willReturn(WireMock.ok()
+                        .withHeader("Content-Type", ContentType.TEXT_HTML.toString())));
+
+        CrawlerConfiguration config = new CrawlerConfiguration.CrawlerConfigurationBuilder()
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/pages/0"))
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/pages/1"))
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/pages/2"))
+                .setBrowserRecyclingPageLimit(1)
+                .build();
+
+        Crawler crawler = new Crawler(config) {
+        };
+        crawler.start(Browser.HTML_UNIT, capabilities);
+
+        WireMock.verify(3, WireMock.getRequestedFor(WireMock.urlMatching("/pages/\\d")));
+        Assert.assertThat(crawler.getCrawlStats().getResponseSuccessCount(), Matchers.is(3L));
+    }
+
+    @Test
+    public void testAsyncCallbackExecution() {
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/async/0"))
+                .willReturn(WireMock.ok()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_HTML.toString())
+                        .withBody("<a href=\"/async/1\">1</a><a href=\"/async/2\">2</a>")));
+
+        WireMock.givenThat(WireMock.any(WireMock.urlMatching("/async/[12]"))
+                .willReturn(WireMock.ok()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_HTML.toString())));
+
+        CrawlerConfiguration config = new CrawlerConfiguration.CrawlerConfigurationBuilder()
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/async/0"))
+                .setAsyncCallbackExecutionEnabled(true)
+                .setCallbackThreadCount(2)
+                .build();
+
+        UrlFinder urlFinder = UrlFinder.createDefault();
+        Set<String> callbackThreadNames = ConcurrentHashMap.newKeySet();
+        Set<Integer> childCrawlDepths = ConcurrentHashMap.newKeySet();
+        AtomicBoolean isBrowserAccessible = new AtomicBoolean(true);
+        Crawler crawler = new Crawler(config) {
+            @Override
+            protected void onResponseSuccess(final ResponseSuccessEvent event) {
+                super.onResponseSuccess(event);
+
+                callbackThreadNames.add(Thread.currentThread().getName());
+
+                CompleteCrawlResponse response = event.getCompleteCrawlResponse();
+                try {
+                    response.getWebDriver();
+                } catch (IllegalStateException exception) {
+                    isBrowserAccessible.set(false);
+                }
+
+                if (event.getCrawlCandidate().getCrawlDepth() > 1) {
+                    childCrawlDepths.add(event.getCrawlCandidate().getCrawlDepth());
+                }
+
+                urlFinder.findAllInResponse(response)
+                        .stream()
+                        .map(CrawlRequest::createDefault)
+                        .forEach(this::crawl);
+            }
+        };
+        crawler.start(Browser.HTML_UNIT, capabilities);
+
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/async/1")));
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/async/2")));
+        Assert.assertThat(crawler.getCrawlStats().getResponseSuccessCount(), Matchers.is(3L));
+        Assert.assertThat(isBrowserAccessible.get(), Matchers.is(false));
+        Assert.assertThat(childCrawlDepths, Matchers.contains(2));
+        Assert.assertThat(callbackThreadNames,
+                Matchers.everyItem(Matchers.startsWith("crawl-callback-")));
+    }
+
+    @Test
+    public void testLinkCrawling() {
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/link-crawling/0"))
+                .willReturn(WireMock.ok()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_HTML.toString())
+                        .withBody("<a href=\"/link-crawling/1\">1</a>"
+                                + "<a href=\"/link-crawling/1#fragment\">1</a>"
+                                + "<a href=\"/link-crawling/0\">0</a>"
+                                + "<a href=\"http://offsite.com/\">Offsite</a>")));
+
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/link-crawling/1"))
+                .willReturn(WireMock.ok()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_HTML.toString())
+                        .withBody("<a href=\"/link-crawling/2\">2</a>")));
+
+        CrawlerConfiguration config = new CrawlerConfiguration.CrawlerConfigurationBuilder()
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/link-crawling/0"))
+                .setOffsiteRequestFilterEnabled(true)
+                .addAllowedCrawlDomain("te.st")
+                .setMaximumCrawlDepth(2)
+                .build();
+
+        UrlFinder urlFinder = UrlFinder.createDefault();
+        Crawler crawler = new Crawler(config) {
+            @Override
+            protected void onResponseSuccess(final ResponseSuccessEvent event) {
+                super.onResponseSuccess(event);
+
+                crawlLinks(event.getCompleteCrawlResponse(), urlFinder);
+            }
+        };
+        crawler.start(Browser.HTML_UNIT, capabilities);
+
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/link-crawling/0")));
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/link-crawling/1")));
+        WireMock.verify(0, WireMock.getRequestedFor(WireMock.urlEqualTo("/link-crawling/2")));
+
+        CrawlStats crawlStats = crawler.getCrawlStats();
+        Assert.assertThat(crawlStats.getResponseSuccessCount(), Matchers.is(2L));
+        Assert.assertThat(crawlStats.getFilteredDuplicateRequestCount(), Matchers.is(2L));
+        Assert.assertThat(crawlStats.getFilteredOffsiteRequestCount(), Matchers.is(1L));
+        Assert.assertThat(crawlStats.getFilteredCrawlDepthLimitExceedingRequestCount(),
+                Matchers.is(1L));
+    }
+
+    @Test
+    public void testBulkElementExtraction() {
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/links"))
+                .willReturn(WireMock.ok()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_HTML.toString())
+                        .withBody("<a href=\"/foo\">Foo</a><a>No link</a>"
+                                + "<a href=\"http://example.com/bar\"> Bar </a>")));
+
+        CrawlerConfiguration config = new CrawlerConfiguration.CrawlerConfigurationBuilder()
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/links"))
+                .build();
+
+        AtomicReference<List<String>> foundUrls = new AtomicReference<>();
+        AtomicReference<List<String>> expectedUrls = new AtomicReference<>();
+        AtomicReference<List<String>> foundTexts = new AtomicReference<>();
+        AtomicReference<List<String>> expectedTexts = new AtomicReference<>();
+        Crawler crawler = new Crawler(config) {
+            @Override
+            protected void onResponseSuccess(final ResponseSuccessEvent event) {
+                super.onResponseSuccess(event);
+
+                CompleteCrawlResponse response = event.getCompleteCrawlResponse();
+                foundUrls.set(UrlFinder.createDefault().findAllInResponse(response));
+                foundTexts.set(new TextFinder(Pattern.compile("\\w+"), By.tagName("a"))
+                        .findAllInResponse(response)
+                        .stream()
+                        .map(MatchResult::group)
+                        .collect(Collectors.toList()));
+
+                // The same values queried element by element
+                List<WebElement> elements = response.getWebDriver().findElements(By.tagName("a"));
+                expectedUrls.set(elements.stream()
+                        .map(element -> element.getAttribute("href"))
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList()));
+                expectedTexts.set(elements.stream()
+                        .flatMap(element -> Arrays.stream(element.getText().split(" ")))
+                        .collect(Collectors.toList()));
+            }
+        };
+        crawler.start(Browser.HTML_UNIT, capabilities);
+
+        Assert.assertThat(foundUrls.get(),
+                Matchers.contains("http://te.st/foo", "http://example.com/bar"));
+        Assert.assertThat(foundUrls.get(), Matchers.is(expectedUrls.get()));
+        Assert.assertThat(foundTexts.get(), Matchers.is(expectedTexts.get()));
+    }
+
+    @Test
+    public void testSubresourceCapture() {
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/with-script"))
+                .willReturn(WireMock.ok()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_HTML.toString())
+                        .withBody("<script src=\"/script.js\"></script>")));
+
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/script.js"))
+                .willReturn(WireMock.ok()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, "application/javascript")));
+
+        CrawlerConfiguration config = new CrawlerConfiguration.CrawlerConfigurationBuilder()
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/with-script"))
+                .setSubresourceCaptureEnabled(true)
+                .build();
+
+        AtomicReference<CompleteCrawlResponse> responseReference = new AtomicReference<>();
+        Crawler crawler = new Crawler(config) {
+            @Override
+            protected void onResponseSuccess(final ResponseSuccessEvent event) {
+                super.onResponseSuccess(event);
+
+                responseReference.set(event.getCompleteCrawlResponse());
+            }
+        };
+        crawler.start(Browser.HTML_UNIT, capabilities);
+
+        CompleteCrawlResponse response = responseReference.get();
+        Assert.assertThat(response.getFirstHeader(HttpHeaders.CONTENT_TYPE).isPresent(),
+                Matchers.is(true));
+        Assert.assertThat(response.getSubresourceResponses(),
+                Matchers.hasKey("http://te.st/script.js"));
+        Assert.assertThat(response.getSubresourceResponses(),
+                Matchers.not(Matchers.hasKey("http://te.st/with-script")));
+    }
+
+    @Test
+    public void testSubresourceBlocking() {
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/with-assets"))
+                .willReturn(WireMock.ok()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_HTML.toString())
+                        .withBody("<script src=\"/blocked.js\"></script>"
+                                + "<script src=\"/inline-script\"></script>")));
+
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/blocked.js"))
+                .willReturn(WireMock.ok()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, "application/javascript")));
+
+        WireMock.givenThat(WireMock.any(WireMock.urlEqualTo("/inline-script"))
+                .willReturn(WireMock.ok()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, "text/javascript")
+                        .withHeader(HttpHeaders.CONTENT_LENGTH, "10")
+                        .withBody("var x = 1;")));
+
+        // The text/* rule must not block the main document
+        SubresourceBlockingRules blockingRules = new SubresourceBlockingRulesBuilder()
+                .blockExtension("js")
+                .blockMimeType("text/*")
+                .build();
+
+        CrawlerConfiguration config = new CrawlerConfiguration.CrawlerConfigurationBuilder()
+                .addCrawlSeed(CrawlRequest.createDefault("http://te.st/with-assets"))
+                .setSubresourceBlockingRules(blockingRules)
+                .build();
+
+        Crawler crawler = new Crawler(config) {
+        };
+        crawler.start(Browser.HTML_UNIT, capabilities);
+
+        CrawlStats stats = crawler.getCrawlStats();
+        Assert.assertThat(stats.getResponseSuccessCount(), Matchers.is(1L));
+        Assert.assertThat(stats.getBlockedSubresourceCount(), Matchers.is(2L));
+        Assert.assertThat(stats.getBlockedSubresourceByteCount(), Matchers.is(10L));
+
+        WireMock.verify(0, WireMock.getRequestedFor(WireMock.urlEqualTo("/blocked.js")));
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/inline-script")));
+    }
+
     @After
     public void after() {
         WireMock.reset();
@@ -301,6 +783,13 @@ public final class CrawlingIT {
         return server;
     }
 
+    private static File createTempDirectory() throws IOException {
+        File tempDirectory = Files.createTempDirectory("tmp").toFile();
+        tempDirectory.deleteOnExit();
+
+        return tempDirectory;
+    }
+
     private static File createTempFile() throws IOException {
         File tempFile = File.createTempFile("tmp", null);
         tempFile.deleteOnExit();
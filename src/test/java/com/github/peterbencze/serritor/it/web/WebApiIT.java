@@ -197,6 +197,61 @@ public final class WebApiIT {
         }
     }
 
+    @Test
+    public void testMetricsEndpoint() throws IOException {
+        ServerConfiguration serverConfig = new ServerConfigurationBuilder()
+                .setMetricsEndpointPath("/metrics")
+                .build();
+        TestCrawlerWithWebApi crawler = new TestCrawlerWithWebApi(serverConfig);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.execute(crawler::start);
+            Awaitility.await().atMost(30, TimeUnit.SECONDS).untilTrue(crawler.isServerStarted());
+
+            HttpGet request = new HttpGet("http://localhost:8080/metrics");
+            try (CloseableHttpResponse response = HTTP_CLIENT.execute(request)) {
+                String content = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+
+                Assert.assertEquals(HttpStatus.OK_200, response.getStatusLine().getStatusCode());
+                Assert.assertTrue(response.getFirstHeader(HttpHeader.CONTENT_TYPE.asString())
+                        .getValue().startsWith("text/plain; version=0.0.4"));
+                Assert.assertTrue(content.contains(
+                        "# TYPE serritor_crawl_candidates_processed_total counter"));
+                Assert.assertTrue(content.contains("jvm_memory_heap_bytes{area=\"used\"}"));
+            }
+        } finally {
+            crawler.allowStop();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testMetricsEndpointWhenNoJwtPresentInRequest() throws IOException {
+        ServerConfiguration serverConfig = new ServerConfigurationBuilder()
+                .setMetricsEndpointPath("/metrics")
+                .build();
+        AccessControlConfiguration accessControlConfig =
+                new AccessControlConfigurationBuilder(ROOT_USER).build();
+        TestCrawlerWithSecuredWebApi crawler =
+                new TestCrawlerWithSecuredWebApi(serverConfig, accessControlConfig);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.execute(crawler::start);
+            Awaitility.await().atMost(30, TimeUnit.SECONDS).untilTrue(crawler.isServerStarted());
+
+            HttpGet request = new HttpGet("http://localhost:8080/metrics");
+            try (CloseableHttpResponse response = HTTP_CLIENT.execute(request)) {
+                Assert.assertEquals(HttpStatus.UNAUTHORIZED_401,
+                        response.getStatusLine().getStatusCode());
+            }
+        } finally {
+            crawler.allowStop();
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testHttpEndpointWhenNoJwtPresentInRequest() throws IOException {
         ServerConfiguration serverConfig = ServerConfiguration.createDefault();